@@ -32,6 +32,7 @@ public class AndroidMini2DxGraphics extends AndroidGraphics {
 	private final AndroidMini2DxGame game;
 	private final float maximumDelta;
 	private final float targetTimestep;
+	private final long frameBudget;
 	private float accumulator = 0f;
 
 	public AndroidMini2DxGraphics(AndroidMini2DxGame application, AndroidMini2DxConfig config,
@@ -44,6 +45,7 @@ public class AndroidMini2DxGraphics extends AndroidGraphics {
 		super(application, config, resolutionStrategy, focusableView);
 		maximumDelta = 1f / config.targetFPS;
 		targetTimestep = config.targetTimestep;
+		frameBudget = 1000000000L / config.targetFPS;
 		game = application;
 	}
 
@@ -121,17 +123,23 @@ public class AndroidMini2DxGraphics extends AndroidGraphics {
 
 			accumulator += delta;
 
+			boolean updated = false;
 			while (accumulator >= targetTimestep) {
 				Mdx.performanceTracker.markUpdateBegin();
 				app.getInput().processEvents();
 				game.getApplicationListener().update(targetTimestep);
 				Mdx.performanceTracker.markUpdateEnd();
 				accumulator -= targetTimestep;
+				updated = true;
+			}
+			if (updated) {
+				game.getApplicationListener().publishRenderState();
 			}
 			game.getApplicationListener().interpolate(accumulator / targetTimestep);
 			
 			frameId++;
 			app.getApplicationListener().render();
+			game.getApplicationListener().runFrameTasks(frameBudget - (System.nanoTime() - time));
 		}
 
 		if (lpause) {
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.artemis.annotations.ReadsComponents;
+import com.artemis.annotations.SkipWire;
+import com.artemis.annotations.WritesComponents;
+import com.artemis.systems.IteratingSystem;
+
+/**
+ * Performance tests for {@link MdxInvocationStrategy} and
+ * {@link ParallelMdxInvocationStrategy} updating a world of several thousand
+ * entities
+ */
+@Threads(value = 1)
+public class ParallelMdxInvocationStrategyPerformanceTest {
+	private static final int TOTAL_ENTITIES = 5000;
+	/**
+	 * The number of iterations of work each system performs per entity
+	 */
+	private static final int WORK_PER_ENTITY = 16;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public MdxWorld sequentialWorld, parallelWorld;
+
+		@Setup(Level.Trial)
+		public void createWorlds() {
+			sequentialWorld = createWorld(new MdxInvocationStrategy());
+			parallelWorld = createWorld(new ParallelMdxInvocationStrategy());
+		}
+
+		@TearDown(Level.Trial)
+		public void disposeWorlds() {
+			sequentialWorld.dispose();
+			parallelWorld.dispose();
+		}
+
+		private MdxWorld createWorld(MdxInvocationStrategy strategy) {
+			WorldConfiguration configuration = new WorldConfiguration();
+			configuration.setSystem(new WriteASystem());
+			configuration.setSystem(new WriteBSystem());
+			configuration.setSystem(new WriteCSystem());
+			configuration.setSystem(new WriteDSystem());
+			configuration.setSystem(new ReadABWriteESystem());
+			configuration.setSystem(new ReadCDWriteFSystem());
+			configuration.setSystem(new CombineSystem());
+			MdxWorld world = new MdxWorld(configuration, strategy);
+			for (int i = 0; i < TOTAL_ENTITIES; i++) {
+				EntityEdit edit = world.createEntity().edit();
+				edit.create(ComponentA.class).value = i;
+				edit.create(ComponentB.class).value = i;
+				edit.create(ComponentC.class).value = i;
+				edit.create(ComponentD.class).value = i;
+				edit.create(ComponentE.class).value = i;
+				edit.create(ComponentF.class).value = i;
+			}
+			world.setDelta(1f / 60f);
+			world.process();
+			return world;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("MdxInvocationStrategy")
+	public MdxWorld testSequentialProcess(TestState state) {
+		state.sequentialWorld.process();
+		return state.sequentialWorld;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("ParallelMdxInvocationStrategy")
+	public MdxWorld testParallelProcess(TestState state) {
+		state.parallelWorld.process();
+		return state.parallelWorld;
+	}
+
+	private static float work(float value, float input) {
+		for (int i = 0; i < WORK_PER_ENTITY; i++) {
+			value = (value * 0.99f) + (float) Math.sin(value + input + i);
+		}
+		return value;
+	}
+
+	public static class ValueComponent extends Component {
+		public float value;
+	}
+
+	public static class ComponentA extends ValueComponent {
+	}
+
+	public static class ComponentB extends ValueComponent {
+	}
+
+	public static class ComponentC extends ValueComponent {
+	}
+
+	public static class ComponentD extends ValueComponent {
+	}
+
+	public static class ComponentE extends ValueComponent {
+	}
+
+	public static class ComponentF extends ValueComponent {
+	}
+
+	/**
+	 * Writes one component based on the value of up to two others
+	 */
+	public static abstract class WorkSystem extends IteratingSystem {
+		private final Class<? extends ValueComponent> target, source1, source2;
+		@SkipWire
+		private ComponentMapper<? extends ValueComponent> targetMapper, source1Mapper, source2Mapper;
+
+		public WorkSystem(Class<? extends ValueComponent> target, Class<? extends ValueComponent> source1,
+				Class<? extends ValueComponent> source2) {
+			super(Aspect.all(target, source1, source2));
+			this.target = target;
+			this.source1 = source1;
+			this.source2 = source2;
+		}
+
+		@Override
+		protected void initialize() {
+			super.initialize();
+			targetMapper = world.getMapper(target);
+			source1Mapper = world.getMapper(source1);
+			source2Mapper = world.getMapper(source2);
+		}
+
+		@Override
+		protected void process(int entityId) {
+			ValueComponent component = targetMapper.get(entityId);
+			component.value = work(component.value,
+					source1Mapper.get(entityId).value + source2Mapper.get(entityId).value);
+		}
+	}
+
+	@WritesComponents(ComponentA.class)
+	public static class WriteASystem extends WorkSystem {
+		public WriteASystem() {
+			super(ComponentA.class, ComponentA.class, ComponentA.class);
+		}
+	}
+
+	@WritesComponents(ComponentB.class)
+	public static class WriteBSystem extends WorkSystem {
+		public WriteBSystem() {
+			super(ComponentB.class, ComponentB.class, ComponentB.class);
+		}
+	}
+
+	@WritesComponents(ComponentC.class)
+	public static class WriteCSystem extends WorkSystem {
+		public WriteCSystem() {
+			super(ComponentC.class, ComponentC.class, ComponentC.class);
+		}
+	}
+
+	@WritesComponents(ComponentD.class)
+	public static class WriteDSystem extends WorkSystem {
+		public WriteDSystem() {
+			super(ComponentD.class, ComponentD.class, ComponentD.class);
+		}
+	}
+
+	@ReadsComponents({ ComponentA.class, ComponentB.class })
+	@WritesComponents(ComponentE.class)
+	public static class ReadABWriteESystem extends WorkSystem {
+		public ReadABWriteESystem() {
+			super(ComponentE.class, ComponentA.class, ComponentB.class);
+		}
+	}
+
+	@ReadsComponents({ ComponentC.class, ComponentD.class })
+	@WritesComponents(ComponentF.class)
+	public static class ReadCDWriteFSystem extends WorkSystem {
+		public ReadCDWriteFSystem() {
+			super(ComponentF.class, ComponentC.class, ComponentD.class);
+		}
+	}
+
+	/**
+	 * Unannotated so scheduled by its {@link Aspect}
+	 */
+	public static class CombineSystem extends WorkSystem {
+		public CombineSystem() {
+			super(ComponentA.class, ComponentE.class, ComponentF.class);
+		}
+	}
+}
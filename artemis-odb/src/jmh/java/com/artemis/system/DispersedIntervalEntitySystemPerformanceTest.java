@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis.system;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.artemis.Aspect;
+import com.artemis.Component;
+import com.artemis.ComponentMapper;
+import com.artemis.MdxWorld;
+import com.artemis.WorldConfiguration;
+
+/**
+ * Performance tests for {@link DispersedIntervalEntitySystem} processing
+ * frames of a world in steady state. Run with the gc profiler (-prof gc) to
+ * measure allocation per frame.
+ */
+@Threads(value = 1)
+public class DispersedIntervalEntitySystemPerformanceTest {
+	private static final int TOTAL_ENTITIES = 10000;
+	private static final float INTERVAL = 1f;
+	private static final float DELTA = 1f / 60f;
+	/**
+	 * The update budget in nanoseconds for the budgeted system
+	 */
+	private static final long UPDATE_BUDGET = 100000L;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public MdxWorld countWorld, budgetWorld;
+
+		@Setup(Level.Trial)
+		public void createWorlds() {
+			countWorld = createWorld(new CountingSystem());
+			CountingSystem budgetSystem = new CountingSystem();
+			budgetSystem.setUpdateBudget(UPDATE_BUDGET);
+			budgetWorld = createWorld(budgetSystem);
+		}
+
+		private MdxWorld createWorld(DispersedIntervalEntitySystem system) {
+			WorldConfiguration configuration = new WorldConfiguration();
+			configuration.setSystem(system);
+			MdxWorld world = new MdxWorld(configuration);
+			for (int i = 0; i < TOTAL_ENTITIES; i++) {
+				world.createEntity().edit().create(CounterComponent.class);
+			}
+			world.setDelta(DELTA);
+			// Warm up queue capacity so the benchmark measures steady state
+			for (float timer = 0f; timer < INTERVAL * 3f; timer += DELTA) {
+				world.process();
+			}
+			return world;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("DispersedIntervalEntitySystem_EntityCount")
+	public MdxWorld testEntityCount(TestState state) {
+		state.countWorld.process();
+		return state.countWorld;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("DispersedIntervalEntitySystem_UpdateBudget")
+	public MdxWorld testUpdateBudget(TestState state) {
+		state.budgetWorld.process();
+		return state.budgetWorld;
+	}
+
+	public static class CounterComponent extends Component {
+		public int updates;
+	}
+
+	public static class CountingSystem extends DispersedIntervalEntitySystem {
+		private ComponentMapper<CounterComponent> counterMapper;
+
+		public CountingSystem() {
+			super(Aspect.all(CounterComponent.class), INTERVAL);
+		}
+
+		@Override
+		protected void update(int entityId, float delta) {
+			counterMapper.get(entityId).updates++;
+		}
+	}
+}
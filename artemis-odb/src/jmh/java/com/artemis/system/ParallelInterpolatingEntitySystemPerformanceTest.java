@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis.system;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.artemis.Aspect;
+import com.artemis.Component;
+import com.artemis.ComponentMapper;
+import com.artemis.EntityEdit;
+import com.artemis.MdxWorld;
+import com.artemis.WorldConfiguration;
+
+/**
+ * Performance tests for {@link InterpolatingEntitySystem} and
+ * {@link ParallelInterpolatingEntitySystem} updating and interpolating
+ * increasing numbers of entities
+ */
+@Threads(value = 1)
+public class ParallelInterpolatingEntitySystemPerformanceTest {
+
+	@State(Scope.Thread)
+	public static class TestState {
+		@Param({ "1000", "10000", "100000" })
+		public int totalEntities;
+
+		public MdxWorld sequentialWorld, parallelWorld;
+
+		@Setup(Level.Trial)
+		public void createWorlds() {
+			sequentialWorld = createWorld(new SequentialMovementSystem());
+			parallelWorld = createWorld(new ParallelMovementSystem());
+		}
+
+		private MdxWorld createWorld(InterpolatingEntitySystem system) {
+			WorldConfiguration configuration = new WorldConfiguration();
+			configuration.setSystem(system);
+			MdxWorld world = new MdxWorld(configuration);
+			for (int i = 0; i < totalEntities; i++) {
+				EntityEdit edit = world.createEntity().edit();
+				MovementComponent movement = edit.create(MovementComponent.class);
+				movement.x = i;
+				movement.y = i;
+				movement.velocityX = 1f;
+				movement.velocityY = -1f;
+			}
+			world.setDelta(1f / 60f);
+			world.setAlpha(0.5f);
+			world.process();
+			return world;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("InterpolatingEntitySystem")
+	public MdxWorld testSequential(TestState state) {
+		state.sequentialWorld.process();
+		state.sequentialWorld.interpolate();
+		return state.sequentialWorld;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("ParallelInterpolatingEntitySystem")
+	public MdxWorld testParallel(TestState state) {
+		state.parallelWorld.process();
+		state.parallelWorld.interpolate();
+		return state.parallelWorld;
+	}
+
+	public static class MovementComponent extends Component {
+		public float x, y, previousX, previousY, renderX, renderY;
+		public float velocityX, velocityY;
+	}
+
+	private static void update(MovementComponent movement, float delta) {
+		movement.previousX = movement.x;
+		movement.previousY = movement.y;
+		float angle = (float) Math.atan2(movement.velocityY, movement.velocityX) + delta;
+		movement.velocityX = (float) Math.cos(angle);
+		movement.velocityY = (float) Math.sin(angle);
+		movement.x += movement.velocityX * delta;
+		movement.y += movement.velocityY * delta;
+	}
+
+	private static void interpolate(MovementComponent movement, float alpha) {
+		movement.renderX = movement.previousX + ((movement.x - movement.previousX) * alpha);
+		movement.renderY = movement.previousY + ((movement.y - movement.previousY) * alpha);
+	}
+
+	public static class SequentialMovementSystem extends InterpolatingEntitySystem {
+		private ComponentMapper<MovementComponent> movementMapper;
+
+		public SequentialMovementSystem() {
+			super(Aspect.all(MovementComponent.class));
+		}
+
+		@Override
+		protected void update(int entityId, float delta) {
+			ParallelInterpolatingEntitySystemPerformanceTest.update(movementMapper.get(entityId), delta);
+		}
+
+		@Override
+		protected void interpolate(int entityId, float alpha) {
+			ParallelInterpolatingEntitySystemPerformanceTest.interpolate(movementMapper.get(entityId), alpha);
+		}
+	}
+
+	public static class ParallelMovementSystem extends ParallelInterpolatingEntitySystem {
+		private ComponentMapper<MovementComponent> movementMapper;
+
+		public ParallelMovementSystem() {
+			super(Aspect.all(MovementComponent.class));
+		}
+
+		@Override
+		protected void update(int entityId, float delta) {
+			ParallelInterpolatingEntitySystemPerformanceTest.update(movementMapper.get(entityId), delta);
+		}
+
+		@Override
+		protected void interpolate(int entityId, float alpha) {
+			ParallelInterpolatingEntitySystemPerformanceTest.interpolate(movementMapper.get(entityId), alpha);
+		}
+	}
+}
@@ -37,4 +37,9 @@ public class MdxInvocationStrategy extends InvocationStrategy {
 			system.renderSystem(g);
 		}
 	}
+	
+	/**
+	 * Releases any resources held by this strategy when its world is disposed
+	 */
+	protected void dispose() {}
 }
@@ -41,10 +41,20 @@ public class MdxWorld extends World {
 	 * @param configuration The configuration to be applied
 	 */
 	public MdxWorld(WorldConfiguration configuration) {
+		this(configuration, new MdxInvocationStrategy());
+	}
+	
+	/**
+	 * Creates a new world
+	 * 
+	 * @param configuration The configuration to be applied
+	 * @param invocationStrategy The {@link MdxInvocationStrategy} to invoke systems with, e.g. {@link ParallelMdxInvocationStrategy}
+	 */
+	public MdxWorld(WorldConfiguration configuration, MdxInvocationStrategy invocationStrategy) {
 		super(configuration);
 		interpolatingSystemsBag = new Bag<InterpolatingSystem>();
 		renderingSystemsBag = new Bag<RenderingSystem>();
-		mdxInvocationStrategy = new MdxInvocationStrategy();
+		mdxInvocationStrategy = invocationStrategy;
 		
 		for(BaseSystem system : configuration.systems) {
 			if(system instanceof InterpolatingSystem) {
@@ -73,6 +83,12 @@ public class MdxWorld extends World {
 		mdxInvocationStrategy.render(renderingSystemsBag, g);
 	}
 	
+	@Override
+	public void dispose() {
+		super.dispose();
+		mdxInvocationStrategy.dispose();
+	}
+	
 	@Override
 	public int create() {
 		int result = super.create();
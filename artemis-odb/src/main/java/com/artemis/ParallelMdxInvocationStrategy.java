@@ -0,0 +1,342 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.mini2Dx.core.exception.MdxException;
+
+import com.artemis.annotations.ExclusiveSystem;
+import com.artemis.annotations.ReadsComponents;
+import com.artemis.annotations.WritesComponents;
+import com.artemis.system.InterpolatingSystem;
+import com.artemis.utils.Bag;
+import com.artemis.utils.BitVector;
+
+/**
+ * Extends {@link MdxInvocationStrategy} to update and interpolate independent
+ * systems concurrently on a {@link ForkJoinPool}.
+ * 
+ * The components a system accesses are declared with the
+ * {@link ReadsComponents} and {@link WritesComponents} annotations.
+ * Unannotated {@link BaseEntitySystem}s are assumed to write every component
+ * type in their {@link Aspect}. Any other unannotated system and any system
+ * marked with {@link ExclusiveSystem} never runs alongside other systems.
+ * 
+ * Systems are grouped into stages in which no two systems conflict. A system
+ * always runs in a later stage than any system registered before it that it
+ * conflicts with, so conflicting systems are always invoked in registration
+ * order. Entity changes are applied between stages.
+ * 
+ * Note: Systems running concurrently must not create or delete entities or
+ * add or remove components. Rendering is always sequential.
+ */
+public class ParallelMdxInvocationStrategy extends MdxInvocationStrategy {
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+
+	private Schedule updateSchedule;
+	private Schedule interpolateSchedule;
+	private Bag<InterpolatingSystem> interpolatingSystems;
+
+	/**
+	 * Constructs a strategy using a new {@link ForkJoinPool} with one thread
+	 * per available processor
+	 */
+	public ParallelMdxInvocationStrategy() {
+		this(new ForkJoinPool(), true);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param pool
+	 *            The {@link ForkJoinPool} to invoke systems on
+	 */
+	public ParallelMdxInvocationStrategy(ForkJoinPool pool) {
+		this(pool, false);
+	}
+
+	private ParallelMdxInvocationStrategy(ForkJoinPool pool, boolean ownsPool) {
+		super();
+		if (pool == null) {
+			throw new MdxException("pool cannot be null");
+		}
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+	}
+
+	@Override
+	protected void initialize() {
+		super.initialize();
+		updateSchedule = new Schedule(systems.getData(), systems.size(), false);
+	}
+
+	@Override
+	protected void process() {
+		Schedule schedule = updateSchedule;
+		for (int stage = 0; stage < schedule.totalStages; stage++) {
+			updateEntityStates();
+			schedule.execute(stage);
+		}
+		updateEntityStates();
+	}
+
+	@Override
+	protected void interpolate(Bag<InterpolatingSystem> systemsBag) {
+		if (interpolateSchedule == null || interpolatingSystems != systemsBag
+				|| interpolateSchedule.totalSystems != systemsBag.size()) {
+			interpolatingSystems = systemsBag;
+			interpolateSchedule = new Schedule(systemsBag.getData(), systemsBag.size(), true);
+		}
+		for (int stage = 0; stage < interpolateSchedule.totalStages; stage++) {
+			interpolateSchedule.execute(stage);
+		}
+	}
+
+	@Override
+	protected void dispose() {
+		super.dispose();
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the stage a system is updated in. Systems in the same stage
+	 * may be updated concurrently.
+	 * 
+	 * @param system
+	 *            The system
+	 * @return -1 if the system is not part of the {@link World}
+	 */
+	public int getStage(BaseSystem system) {
+		return updateSchedule == null ? -1 : updateSchedule.getStage(system);
+	}
+
+	/**
+	 * Returns the total stages systems are updated in each frame
+	 * 
+	 * @return 0 if the strategy has not been initialised
+	 */
+	public int getTotalStages() {
+		return updateSchedule == null ? 0 : updateSchedule.totalStages;
+	}
+
+	/**
+	 * Returns if two systems can be invoked concurrently
+	 * 
+	 * @param system1
+	 *            The first system
+	 * @param system2
+	 *            The second system
+	 * @return False if either system writes components the other accesses or
+	 *         either system must be run exclusively
+	 */
+	public boolean isConcurrent(BaseSystem system1, BaseSystem system2) {
+		return !new SystemAccess(system1).conflicts(new SystemAccess(system2));
+	}
+
+	/**
+	 * The components accessed by a system
+	 */
+	private class SystemAccess {
+		final BitVector reads = new BitVector();
+		final BitVector writes = new BitVector();
+		boolean exclusive;
+
+		SystemAccess(Object system) {
+			Class<?> systemClass = system.getClass();
+			ReadsComponents readsAnnotation = systemClass.getAnnotation(ReadsComponents.class);
+			WritesComponents writesAnnotation = systemClass.getAnnotation(WritesComponents.class);
+
+			if (systemClass.isAnnotationPresent(ExclusiveSystem.class)) {
+				exclusive = true;
+			} else if (readsAnnotation != null || writesAnnotation != null) {
+				if (readsAnnotation != null) {
+					set(reads, readsAnnotation.value());
+				}
+				if (writesAnnotation != null) {
+					set(writes, writesAnnotation.value());
+				}
+			} else if (system instanceof BaseEntitySystem) {
+				Aspect aspect = ((BaseEntitySystem) system).getSubscription().getAspect();
+				writes.or(aspect.getAllSet());
+				writes.or(aspect.getOneSet());
+			} else {
+				exclusive = true;
+			}
+		}
+
+		private void set(BitVector bits, Class<? extends Component>[] types) {
+			ComponentTypeFactory typeFactory = world.getComponentManager().getTypeFactory();
+			for (int i = 0; i < types.length; i++) {
+				bits.set(typeFactory.getIndexFor(types[i]));
+			}
+		}
+
+		boolean conflicts(SystemAccess access) {
+			if (exclusive || access.exclusive) {
+				return true;
+			}
+			return writes.intersects(access.writes) || writes.intersects(access.reads)
+					|| access.writes.intersects(reads);
+		}
+	}
+
+	/**
+	 * Systems grouped into stages with pre-allocated tasks for each stage
+	 */
+	private class Schedule {
+		final int totalSystems;
+		final int[] stages;
+		final Object[] systems;
+		final int totalStages;
+		final SystemTask[] tasks;
+		final int[] stageOffsets;
+		final StageTask[] stageTasks;
+
+		Schedule(Object[] systems, int totalSystems, boolean interpolate) {
+			this.totalSystems = totalSystems;
+			this.systems = new Object[totalSystems];
+			System.arraycopy(systems, 0, this.systems, 0, totalSystems);
+
+			SystemAccess[] access = new SystemAccess[totalSystems];
+			stages = new int[totalSystems];
+			int totalStages = 0;
+			for (int i = 0; i < totalSystems; i++) {
+				access[i] = new SystemAccess(systems[i]);
+				int stage = 0;
+				for (int j = 0; j < i; j++) {
+					if (stages[j] >= stage && access[i].conflicts(access[j])) {
+						stage = stages[j] + 1;
+					}
+				}
+				stages[i] = stage;
+				totalStages = Math.max(totalStages, stage + 1);
+			}
+			this.totalStages = totalStages;
+
+			stageOffsets = new int[totalStages + 1];
+			for (int i = 0; i < totalSystems; i++) {
+				stageOffsets[stages[i] + 1]++;
+			}
+			for (int i = 0; i < totalStages; i++) {
+				stageOffsets[i + 1] += stageOffsets[i];
+			}
+			int[] next = new int[totalStages];
+			System.arraycopy(stageOffsets, 0, next, 0, totalStages);
+			tasks = new SystemTask[totalSystems];
+			for (int i = 0; i < totalSystems; i++) {
+				tasks[next[stages[i]]++] = new SystemTask(systems[i], i, interpolate);
+			}
+
+			stageTasks = new StageTask[totalStages];
+			for (int i = 0; i < totalStages; i++) {
+				SystemTask[] stageSystems = new SystemTask[stageOffsets[i + 1] - stageOffsets[i]];
+				System.arraycopy(tasks, stageOffsets[i], stageSystems, 0, stageSystems.length);
+				stageTasks[i] = new StageTask(stageSystems);
+			}
+		}
+
+		void execute(int stage) {
+			StageTask stageTask = stageTasks[stage];
+			if (stageTask.tasks.length == 1) {
+				stageTask.tasks[0].invokeSystem();
+				return;
+			}
+			stageTask.reinitialize();
+			for (int i = 0; i < stageTask.tasks.length; i++) {
+				stageTask.tasks[i].prepare();
+				stageTask.tasks[i].reinitialize();
+			}
+			pool.invoke(stageTask);
+		}
+
+		int getStage(Object system) {
+			for (int i = 0; i < totalSystems; i++) {
+				if (systems[i] == system) {
+					return stages[i];
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * Invokes all systems of a stage and waits for them to complete
+	 */
+	private static class StageTask extends RecursiveAction {
+		private static final long serialVersionUID = -1530404432428151254L;
+
+		final SystemTask[] tasks;
+
+		StageTask(SystemTask[] tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected void compute() {
+			ForkJoinTask.invokeAll(tasks);
+		}
+	}
+
+	/**
+	 * Updates or interpolates a single system
+	 */
+	private class SystemTask extends RecursiveAction {
+		private static final long serialVersionUID = 4432720385012338165L;
+
+		final Object system;
+		final int index;
+		final boolean interpolate;
+		final EntitySubscription subscription;
+
+		SystemTask(Object system, int index, boolean interpolate) {
+			this.system = system;
+			this.index = index;
+			this.interpolate = interpolate;
+			if (!interpolate && system instanceof BaseEntitySystem) {
+				subscription = ((BaseEntitySystem) system).getSubscription();
+			} else {
+				subscription = null;
+			}
+		}
+
+		/**
+		 * Rebuilds the system's active entities on the calling thread.
+		 * Systems with the same {@link Aspect} share a subscription which is
+		 * rebuilt lazily, so concurrent systems would otherwise race to
+		 * rebuild it.
+		 */
+		void prepare() {
+			if (subscription != null && !disabled.get(index)) {
+				subscription.getEntities();
+			}
+		}
+
+		void invokeSystem() {
+			if (interpolate) {
+				((InterpolatingSystem) system).interpolateSystem();
+			} else if (!disabled.get(index)) {
+				((BaseSystem) system).process();
+			}
+		}
+
+		@Override
+		protected void compute() {
+			invokeSystem();
+		}
+	}
+}
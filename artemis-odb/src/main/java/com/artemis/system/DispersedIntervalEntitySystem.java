@@ -11,24 +11,41 @@
  */
 package com.artemis.system;
 
+import org.mini2Dx.core.util.IntQueue;
+
 import com.artemis.Aspect.Builder;
 import com.artemis.Aspect;
 import com.artemis.EntitySystem;
+import com.artemis.utils.BitVector;
+import com.artemis.utils.IntBag;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.utils.Queue;
 
 /**
  * An {@link EntitySystem} that will wait for an interval then queue all
  * entities to be updated over the duration of the next interval.
+ * 
+ * By default the number of entities updated each frame is based on the total
+ * number of entities. Alternatively, an update budget can be set to update
+ * entities until a number of nanoseconds have elapsed each frame, leaving any
+ * remaining entities for the next frame.
  */
 public abstract class DispersedIntervalEntitySystem extends EntitySystem {
-	protected final Queue<Integer> processingQueue = new Queue<Integer>();
+	/**
+	 * The weight of the most recent frame when averaging the update cost
+	 */
+	private static final double UPDATE_COST_SMOOTHING = 0.25;
+
+	private final IntQueue processingQueue = new IntQueue();
+	private final BitVector queuedEntities = new BitVector();
 
 	private float interval;
 	private float timer;
 	private float updateDelta;
 	protected int entitiesPerUpdate;
 
+	private long updateBudget;
+	private double averageUpdateCost;
+
 	/**
 	 * Constructor
 	 * @param aspect The {@link Aspect} to match entities
@@ -53,9 +70,12 @@ public abstract class DispersedIntervalEntitySystem extends EntitySystem {
 	@Override
 	protected void processSystem() {
 		updateDelta += getWorld().getDelta();
-		for (int i = 0; i < entitiesPerUpdate && processingQueue.size > 0; i++) {
-			int nextEntityId = processingQueue.removeFirst();
-			update(nextEntityId, updateDelta);
+		if (updateBudget > 0L) {
+			processWithinBudget();
+		} else {
+			for (int i = 0; i < entitiesPerUpdate && processingQueue.size > 0; i++) {
+				updateNextEntity();
+			}
 		}
 		
 		timer += getWorld().getDelta();
@@ -63,15 +83,60 @@ public abstract class DispersedIntervalEntitySystem extends EntitySystem {
 			updateDelta = timer;
 			timer = timer % interval;
 
-			int totalEntities = getEntityIds().size();
-			
-			entitiesPerUpdate = MathUtils.round((totalEntities + processingQueue.size) / interval);
-			entitiesPerUpdate = Math.max(1, entitiesPerUpdate);
+			IntBag entityIds = getEntityIds();
+			int totalEntities = entityIds.size();
+			int[] ids = entityIds.getData();
 			
+			processingQueue.ensureCapacity(totalEntities);
 			for (int i = 0; i < totalEntities; i++) {
-				processingQueue.addLast(getEntityIds().get(i));
+				int entityId = ids[i];
+				if (queuedEntities.get(entityId)) {
+					continue;
+				}
+				queuedEntities.set(entityId);
+				processingQueue.addLast(entityId);
+			}
+			
+			// Entities still queued from the last interval are not queued again
+			entitiesPerUpdate = MathUtils.round(processingQueue.size / interval);
+			entitiesPerUpdate = Math.max(1, entitiesPerUpdate);
+		}
+	}
+
+	private void processWithinBudget() {
+		long startTime = System.nanoTime();
+		long elapsed = 0L;
+		while (processingQueue.size > 0 && elapsed < updateBudget) {
+			int batchSize = 1;
+			if (averageUpdateCost > 0.0) {
+				// Only spend half the remaining budget before checking the time again
+				batchSize = (int) Math.max(1.0,
+						Math.min(processingQueue.size, (updateBudget - elapsed) / (averageUpdateCost * 2.0)));
 			}
+			int updated = 0;
+			for (int i = 0; i < batchSize && processingQueue.size > 0; i++) {
+				if (updateNextEntity()) {
+					updated++;
+				}
+			}
+			long batchElapsed = (System.nanoTime() - startTime) - elapsed;
+			elapsed += batchElapsed;
+			if (updated > 0) {
+				double batchCost = (double) batchElapsed / updated;
+				averageUpdateCost = averageUpdateCost > 0.0
+						? averageUpdateCost + ((batchCost - averageUpdateCost) * UPDATE_COST_SMOOTHING) : batchCost;
+			}
+		}
+	}
+
+	private boolean updateNextEntity() {
+		int entityId = processingQueue.removeFirst();
+		queuedEntities.clear(entityId);
+		if (!subscription.getActiveEntityIds().get(entityId)) {
+			return false;
 		}
+		update(entityId, updateDelta);
+		return true;
 	}
 
 	/**
@@ -89,4 +154,41 @@ public abstract class DispersedIntervalEntitySystem extends EntitySystem {
 	public void setInterval(float interval) {
 		this.interval = interval;
 	}
+
+	/**
+	 * Returns the maximum time spent updating entities each frame
+	 * @return 0 if the number of entities updated each frame is based on the total number of entities
+	 */
+	public long getUpdateBudget() {
+		return updateBudget;
+	}
+
+	/**
+	 * Sets the maximum time spent updating entities each frame. At least one
+	 * entity is always updated per frame when entities are queued.
+	 * @param updateBudget The budget in nanoseconds, or 0 to base the number of entities updated each frame on the total number of entities
+	 */
+	public void setUpdateBudget(long updateBudget) {
+		if (updateBudget < 0L) {
+			throw new IllegalArgumentException("updateBudget cannot be negative");
+		}
+		this.updateBudget = updateBudget;
+	}
+
+	/**
+	 * Returns the average time taken to update a single entity, measured while
+	 * an update budget is set
+	 * @return The average time in nanoseconds, 0 if not yet measured
+	 */
+	public double getAverageUpdateCost() {
+		return averageUpdateCost;
+	}
+
+	/**
+	 * Returns the number of entities waiting to be updated
+	 * @return 0 if all entities have been updated for the current interval
+	 */
+	public int getTotalQueuedEntities() {
+		return processingQueue.size;
+	}
 }
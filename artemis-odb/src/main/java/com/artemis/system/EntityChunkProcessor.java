@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis.system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import com.artemis.utils.IntBag;
+
+/**
+ * Splits an {@link IntBag} of entity ids into chunks processed concurrently
+ * on a {@link ForkJoinPool}. Bags too small to split into two chunks are
+ * processed on the calling thread.
+ */
+abstract class EntityChunkProcessor {
+	/**
+	 * The default minimum number of entities per chunk
+	 */
+	static final int DEFAULT_MINIMUM_CHUNK_SIZE = 256;
+	/**
+	 * The maximum number of chunks per pool thread. More chunks than threads
+	 * allows idle threads to steal work from busy ones.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private static ForkJoinPool defaultPool;
+
+	private final List<ChunkTask> tasks = new ArrayList<ChunkTask>();
+	private final List<ChunkTask> activeTasks = new ArrayList<ChunkTask>();
+	private final RootTask rootTask = new RootTask();
+
+	private ForkJoinPool pool;
+	private int minimumChunkSize = DEFAULT_MINIMUM_CHUNK_SIZE;
+
+	private int[] entityIds;
+
+	EntityChunkProcessor(ForkJoinPool pool) {
+		setPool(pool);
+	}
+
+	/**
+	 * Processes a range of entities
+	 * 
+	 * @param entityIds
+	 *            The entity ids
+	 * @param from
+	 *            The index of the first entity to process
+	 * @param to
+	 *            The index after the last entity to process
+	 */
+	protected abstract void processChunk(int[] entityIds, int from, int to);
+
+	/**
+	 * Processes all entities in a bag, returning once all entities are
+	 * processed
+	 * 
+	 * @param entities
+	 *            The {@link IntBag} of entity ids
+	 */
+	void process(IntBag entities) {
+		int size = entities.size();
+		int totalChunks = Math.min(size / minimumChunkSize, pool.getParallelism() * CHUNKS_PER_THREAD);
+		if (totalChunks < 2) {
+			processChunk(entities.getData(), 0, size);
+			return;
+		}
+		entityIds = entities.getData();
+
+		while (tasks.size() < totalChunks) {
+			tasks.add(new ChunkTask());
+		}
+		activeTasks.clear();
+		int chunkSize = size / totalChunks;
+		int remainder = size % totalChunks;
+		int from = 0;
+		for (int i = 0; i < totalChunks; i++) {
+			int to = from + chunkSize + (i < remainder ? 1 : 0);
+			ChunkTask task = tasks.get(i);
+			task.reinitialize();
+			task.from = from;
+			task.to = to;
+			activeTasks.add(task);
+			from = to;
+		}
+
+		try {
+			rootTask.reinitialize();
+			if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) {
+				rootTask.invoke();
+			} else {
+				pool.invoke(rootTask);
+			}
+		} finally {
+			entityIds = null;
+		}
+	}
+
+	ForkJoinPool getPool() {
+		return pool;
+	}
+
+	void setPool(ForkJoinPool pool) {
+		if (pool == null) {
+			throw new IllegalArgumentException("pool cannot be null");
+		}
+		this.pool = pool;
+	}
+
+	int getMinimumChunkSize() {
+		return minimumChunkSize;
+	}
+
+	void setMinimumChunkSize(int minimumChunkSize) {
+		if (minimumChunkSize < 1) {
+			throw new IllegalArgumentException("minimumChunkSize must be greater than 0");
+		}
+		this.minimumChunkSize = minimumChunkSize;
+	}
+
+	/**
+	 * Returns the {@link ForkJoinPool} shared by parallel systems that are
+	 * not given a pool
+	 * 
+	 * @return A pool with one thread per available processor
+	 */
+	static synchronized ForkJoinPool getDefaultPool() {
+		if (defaultPool == null) {
+			defaultPool = new ForkJoinPool();
+		}
+		return defaultPool;
+	}
+
+	/**
+	 * Invokes all active chunks and waits for them to complete
+	 */
+	private class RootTask extends RecursiveAction {
+		private static final long serialVersionUID = 2884359104556208627L;
+
+		@Override
+		protected void compute() {
+			ForkJoinTask.invokeAll(activeTasks);
+		}
+	}
+
+	/**
+	 * Processes a single chunk of entities
+	 */
+	private class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = -6209404478405626153L;
+
+		int from, to;
+
+		@Override
+		protected void compute() {
+			processChunk(entityIds, from, to);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis.system;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.artemis.Aspect;
+import com.artemis.Aspect.Builder;
+import com.artemis.MdxWorld;
+import com.artemis.World;
+import com.artemis.utils.IntBag;
+
+/**
+ * Extends {@link InterpolatingEntitySystem} to update and interpolate chunks
+ * of entities concurrently on a {@link ForkJoinPool}. Entity counts too small
+ * to split into two chunks of {@link #getMinimumChunkSize()} are processed on
+ * the calling thread.
+ * 
+ * Note: {@link #update(int, float)} and {@link #interpolate(int, float)} may
+ * be called from multiple threads at once and must only modify state of the
+ * entity they are given. {@link #preUpdate()}, {@link #postUpdate()},
+ * {@link #preInterpolate()} and {@link #postInterpolate()} are always called
+ * on the calling thread.
+ */
+public abstract class ParallelInterpolatingEntitySystem extends InterpolatingEntitySystem {
+	private final EntityChunkProcessor updateProcessor, interpolateProcessor;
+
+	private MdxWorld mdxWorld;
+	private IntBag activeEntityBag;
+
+	/**
+	 * Creates a new ParallelInterpolatingEntitySystem that uses a
+	 * {@link ForkJoinPool} shared between parallel systems
+	 * 
+	 * @param aspect
+	 *            The {@link Aspect} to match entities
+	 */
+	public ParallelInterpolatingEntitySystem(Builder aspect) {
+		this(aspect, EntityChunkProcessor.getDefaultPool());
+	}
+
+	/**
+	 * Creates a new ParallelInterpolatingEntitySystem
+	 * 
+	 * @param aspect
+	 *            The {@link Aspect} to match entities
+	 * @param pool
+	 *            The {@link ForkJoinPool} to process entities on
+	 */
+	public ParallelInterpolatingEntitySystem(Builder aspect, ForkJoinPool pool) {
+		super(aspect);
+		updateProcessor = new EntityChunkProcessor(pool) {
+			@Override
+			protected void processChunk(int[] entityIds, int from, int to) {
+				float delta = world.delta;
+				for (int i = from; i < to; i++) {
+					update(entityIds[i], delta);
+				}
+			}
+		};
+		interpolateProcessor = new EntityChunkProcessor(pool) {
+			@Override
+			protected void processChunk(int[] entityIds, int from, int to) {
+				float alpha = mdxWorld.alpha;
+				for (int i = from; i < to; i++) {
+					interpolate(entityIds[i], alpha);
+				}
+			}
+		};
+	}
+
+	@Override
+	protected void processSystem() {
+		preUpdate();
+		activeEntityBag = subscription.getEntities();
+		updateProcessor.process(activeEntityBag);
+		postUpdate();
+	}
+
+	@Override
+	public void interpolateSystem() {
+		if (mdxWorld == null) {
+			return;
+		}
+		if (activeEntityBag == null) {
+			return;
+		}
+		preInterpolate();
+		interpolateProcessor.process(activeEntityBag);
+		postInterpolate();
+	}
+
+	@Override
+	public void setWorld(World world) {
+		super.setWorld(world);
+
+		if (world instanceof MdxWorld) {
+			this.mdxWorld = (MdxWorld) world;
+		}
+	}
+
+	/**
+	 * Returns the minimum number of entities processed by each chunk
+	 * 
+	 * @return Defaults to 256
+	 */
+	public int getMinimumChunkSize() {
+		return updateProcessor.getMinimumChunkSize();
+	}
+
+	/**
+	 * Sets the minimum number of entities processed by each chunk
+	 * 
+	 * @param minimumChunkSize
+	 *            A value greater than 0
+	 */
+	public void setMinimumChunkSize(int minimumChunkSize) {
+		updateProcessor.setMinimumChunkSize(minimumChunkSize);
+		interpolateProcessor.setMinimumChunkSize(minimumChunkSize);
+	}
+
+	/**
+	 * Returns the {@link ForkJoinPool} entities are processed on
+	 * 
+	 * @return The {@link ForkJoinPool} instance
+	 */
+	public ForkJoinPool getPool() {
+		return updateProcessor.getPool();
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis.system;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.mini2Dx.core.graphics.Graphics;
+
+import com.artemis.Aspect;
+import com.artemis.Aspect.Builder;
+
+/**
+ * Extends {@link RenderingEntitySystem} to prepare chunks of entities for
+ * rendering concurrently on a {@link ForkJoinPool}, e.g. computing transforms
+ * or culling. Entities are then rendered sequentially. Entity counts too
+ * small to split into two chunks of {@link #getMinimumChunkSize()} are
+ * prepared on the calling thread.
+ * 
+ * Note: {@link #prepare(int)} may be called from multiple threads at once and
+ * must not use the {@link Graphics} context.
+ */
+public abstract class ParallelRenderingEntitySystem extends RenderingEntitySystem {
+	private final EntityChunkProcessor prepareProcessor;
+
+	private boolean processed;
+
+	/**
+	 * Creates a new ParallelRenderingEntitySystem that uses a
+	 * {@link ForkJoinPool} shared between parallel systems
+	 * 
+	 * @param aspect
+	 *            The {@link Aspect} to match entities
+	 */
+	public ParallelRenderingEntitySystem(Builder aspect) {
+		this(aspect, EntityChunkProcessor.getDefaultPool());
+	}
+
+	/**
+	 * Creates a new ParallelRenderingEntitySystem
+	 * 
+	 * @param aspect
+	 *            The {@link Aspect} to match entities
+	 * @param pool
+	 *            The {@link ForkJoinPool} to prepare entities on
+	 */
+	public ParallelRenderingEntitySystem(Builder aspect, ForkJoinPool pool) {
+		super(aspect);
+		prepareProcessor = new EntityChunkProcessor(pool) {
+			@Override
+			protected void processChunk(int[] entityIds, int from, int to) {
+				for (int i = from; i < to; i++) {
+					prepare(entityIds[i]);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Prepares an entity for rendering. Called for every entity before
+	 * {@link #preRender(Graphics)}.
+	 * 
+	 * @param entityId
+	 *            The entity id
+	 */
+	protected abstract void prepare(int entityId);
+
+	@Override
+	protected void processSystem() {
+		super.processSystem();
+		processed = true;
+	}
+
+	@Override
+	public void renderSystem(Graphics g) {
+		if (processed) {
+			prepareProcessor.process(subscription.getEntities());
+		}
+		super.renderSystem(g);
+	}
+
+	/**
+	 * Returns the minimum number of entities prepared by each chunk
+	 * 
+	 * @return Defaults to 256
+	 */
+	public int getMinimumChunkSize() {
+		return prepareProcessor.getMinimumChunkSize();
+	}
+
+	/**
+	 * Sets the minimum number of entities prepared by each chunk
+	 * 
+	 * @param minimumChunkSize
+	 *            A value greater than 0
+	 */
+	public void setMinimumChunkSize(int minimumChunkSize) {
+		prepareProcessor.setMinimumChunkSize(minimumChunkSize);
+	}
+
+	/**
+	 * Returns the {@link ForkJoinPool} entities are prepared on
+	 * 
+	 * @return The {@link ForkJoinPool} instance
+	 */
+	public ForkJoinPool getPool() {
+		return prepareProcessor.getPool();
+	}
+}
@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.artemis.annotations.ExclusiveSystem;
+import com.artemis.annotations.ReadsComponents;
+import com.artemis.annotations.WritesComponents;
+import com.artemis.system.InterpolatingEntitySystem;
+import com.artemis.system.test.DummyComponent;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link ParallelMdxInvocationStrategy}
+ */
+public class ParallelMdxInvocationStrategyTest {
+	private static final List<String> invocations = Collections.synchronizedList(new ArrayList<String>());
+
+	private ForkJoinPool pool;
+	private ParallelMdxInvocationStrategy strategy;
+
+	private WriteASystem writeA;
+	private WriteBSystem writeB;
+	private ReadAWriteCSystem readAWriteC;
+	private ReadASystem readA;
+	private SpawnSystem spawn;
+	private AspectSystem aspect;
+
+	@Before
+	public void setUp() {
+		invocations.clear();
+		pool = new ForkJoinPool(4);
+		strategy = new ParallelMdxInvocationStrategy(pool);
+
+		writeA = new WriteASystem();
+		writeB = new WriteBSystem();
+		readAWriteC = new ReadAWriteCSystem();
+		readA = new ReadASystem();
+		spawn = new SpawnSystem();
+		aspect = new AspectSystem();
+	}
+
+	@After
+	public void teardown() {
+		pool.shutdown();
+	}
+
+	private MdxWorld createWorld(BaseSystem... systems) {
+		WorldConfiguration configuration = new WorldConfiguration();
+		for (BaseSystem system : systems) {
+			configuration.setSystem(system);
+		}
+		return new MdxWorld(configuration, strategy);
+	}
+
+	@Test
+	public void testStages() {
+		createWorld(writeA, writeB, readAWriteC, readA, spawn, aspect);
+
+		Assert.assertEquals(strategy.getStage(writeA), strategy.getStage(writeB));
+		Assert.assertEquals(strategy.getStage(writeA) + 1, strategy.getStage(readAWriteC));
+		Assert.assertEquals(strategy.getStage(readAWriteC), strategy.getStage(readA));
+		Assert.assertEquals(strategy.getStage(readA) + 1, strategy.getStage(spawn));
+		Assert.assertEquals(strategy.getStage(spawn) + 1, strategy.getStage(aspect));
+		Assert.assertEquals(strategy.getStage(aspect) + 1, strategy.getTotalStages());
+	}
+
+	@Test
+	public void testIsConcurrent() {
+		createWorld(writeA, writeB, readAWriteC, readA, spawn, aspect);
+
+		Assert.assertEquals(true, strategy.isConcurrent(writeA, writeB));
+		Assert.assertEquals(false, strategy.isConcurrent(writeA, readA));
+		Assert.assertEquals(true, strategy.isConcurrent(readA, readAWriteC));
+		Assert.assertEquals(false, strategy.isConcurrent(spawn, readA));
+		Assert.assertEquals(true, strategy.isConcurrent(aspect, writeA));
+		Assert.assertEquals(false, strategy.isConcurrent(aspect, writeB));
+	}
+
+	@Test
+	public void testConflictingSystemsRunInRegistrationOrder() {
+		MdxWorld world = createWorld(readA, writeA, writeB, readAWriteC);
+		for (int frame = 0; frame < 100; frame++) {
+			invocations.clear();
+			world.process();
+
+			Assert.assertEquals(4, invocations.size());
+			Assert.assertEquals(true, invocations.indexOf("readA") < invocations.indexOf("writeA"));
+			Assert.assertEquals(true, invocations.indexOf("writeA") < invocations.indexOf("readAWriteC"));
+		}
+	}
+
+	@Test
+	public void testDisabledSystemsAreSkipped() {
+		MdxWorld world = createWorld(writeA, writeB);
+		writeB.setEnabled(false);
+		world.process();
+
+		Assert.assertEquals(1, invocations.size());
+		Assert.assertEquals("writeA", invocations.get(0));
+	}
+
+	@Test
+	public void testEntityChangesAppliedBetweenStages() {
+		MdxWorld world = createWorld(spawn, aspect);
+		world.process();
+
+		Assert.assertEquals(1, aspect.getEntityIds().size());
+		Assert.assertEquals(1, aspect.updatedEntities);
+	}
+
+	@Test
+	public void testInterpolate() {
+		MdxWorld world = createWorld(spawn, aspect);
+		world.process();
+		world.interpolate();
+
+		Assert.assertEquals(1, aspect.interpolatedEntities);
+	}
+
+	@Test
+	public void testSameAspectSystemsInOneStage() {
+		SpawnEachFrameSystem spawnEachFrame = new SpawnEachFrameSystem();
+		ReaderOneSystem readerOne = new ReaderOneSystem();
+		ReaderTwoSystem readerTwo = new ReaderTwoSystem();
+		MdxWorld world = createWorld(spawnEachFrame, readerOne, readerTwo);
+
+		Assert.assertEquals(true, strategy.isConcurrent(readerOne, readerTwo));
+		Assert.assertSame(readerOne.getSubscription(), readerTwo.getSubscription());
+
+		int expectedEntities = 0;
+		for (int frame = 1; frame <= 50; frame++) {
+			world.process();
+			expectedEntities += frame;
+			Assert.assertEquals(expectedEntities, readerOne.updatedEntities);
+			Assert.assertEquals(expectedEntities, readerTwo.updatedEntities);
+		}
+	}
+
+	@Test
+	public void testDisposeDoesNotShutdownProvidedPool() {
+		MdxWorld world = createWorld(writeA);
+		world.dispose();
+
+		Assert.assertEquals(false, pool.isShutdown());
+	}
+
+	public static class ComponentA extends Component {
+	}
+
+	public static class ComponentB extends Component {
+	}
+
+	public static class ComponentC extends Component {
+	}
+
+	@WritesComponents(ComponentA.class)
+	public static class WriteASystem extends BaseSystem {
+		@Override
+		protected void processSystem() {
+			invocations.add("writeA");
+		}
+	}
+
+	@WritesComponents(ComponentB.class)
+	public static class WriteBSystem extends BaseSystem {
+		@Override
+		protected void processSystem() {
+			invocations.add("writeB");
+		}
+	}
+
+	@ReadsComponents(ComponentA.class)
+	@WritesComponents(ComponentC.class)
+	public static class ReadAWriteCSystem extends BaseSystem {
+		@Override
+		protected void processSystem() {
+			invocations.add("readAWriteC");
+		}
+	}
+
+	@ReadsComponents(ComponentA.class)
+	public static class ReadASystem extends BaseSystem {
+		@Override
+		protected void processSystem() {
+			invocations.add("readA");
+		}
+	}
+
+	@ExclusiveSystem
+	public static class SpawnSystem extends BaseSystem {
+		private boolean spawned;
+
+		@Override
+		protected void processSystem() {
+			invocations.add("spawn");
+			if (spawned) {
+				return;
+			}
+			world.createEntity().edit().add(new DummyComponent()).add(new ComponentB());
+			spawned = true;
+		}
+	}
+
+	@ExclusiveSystem
+	public static class SpawnEachFrameSystem extends BaseSystem {
+		@Override
+		protected void processSystem() {
+			world.createEntity().edit().add(new DummyComponent()).add(new ComponentB());
+		}
+	}
+
+	@ReadsComponents({ DummyComponent.class, ComponentB.class })
+	public static class ReaderOneSystem extends InterpolatingEntitySystem {
+		int updatedEntities;
+
+		public ReaderOneSystem() {
+			super(Aspect.all(DummyComponent.class, ComponentB.class));
+		}
+
+		@Override
+		protected void update(int entityId, float delta) {
+			updatedEntities++;
+		}
+
+		@Override
+		protected void interpolate(int entityId, float alpha) {
+		}
+	}
+
+	@ReadsComponents({ DummyComponent.class, ComponentB.class })
+	public static class ReaderTwoSystem extends ReaderOneSystem {
+	}
+
+	public static class AspectSystem extends InterpolatingEntitySystem {
+		private int updatedEntities, interpolatedEntities;
+
+		public AspectSystem() {
+			super(Aspect.all(DummyComponent.class, ComponentB.class));
+		}
+
+		@Override
+		protected void update(int entityId, float delta) {
+			updatedEntities++;
+		}
+
+		@Override
+		protected void interpolate(int entityId, float alpha) {
+			interpolatedEntities++;
+		}
+	}
+}
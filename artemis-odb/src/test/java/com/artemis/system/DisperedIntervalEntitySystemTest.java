@@ -62,6 +62,64 @@ public class DisperedIntervalEntitySystemTest extends DispersedIntervalEntitySys
 		Assert.assertEquals(ITERATIONS * entities, totalEntitiesUpdated);
 	}
 	
+	@Test
+	public void testUpdateBudgetWithManyEntities() {
+		final int entities = 570;
+		setUpdateBudget(60000000000L);
+		createEntities(entities);
+		runSystem();
+		Assert.assertEquals(ITERATIONS * entities, totalEntitiesUpdated);
+		Assert.assertEquals(true, getAverageUpdateCost() > 0.0);
+	}
+	
+	@Test
+	public void testUpdateBudgetCarriesLeftoverEntities() {
+		final int entities = 570;
+		setUpdateBudget(1L);
+		createEntities(entities);
+		
+		int frames = 0;
+		for(float timer = 0f; timer < INTERVAL * ITERATIONS; timer += DELTA) {
+			world.setDelta(DELTA);
+			world.process();
+			frames++;
+			Assert.assertEquals(true, getTotalQueuedEntities() <= entities);
+		}
+		Assert.assertEquals(true, totalEntitiesUpdated >= frames - 1);
+		Assert.assertEquals(true, totalEntitiesUpdated < ITERATIONS * entities);
+	}
+	
+	@Test
+	public void testLeftoverEntitiesAreNotCountedTwice() {
+		final int entities = 570;
+		setUpdateBudget(1L);
+		createEntities(entities);
+		
+		for(float timer = 0f; timer < INTERVAL * ITERATIONS; timer += DELTA) {
+			world.setDelta(DELTA);
+			world.process();
+			Assert.assertEquals(true, entitiesPerUpdate <= Math.round(entities / INTERVAL));
+		}
+	}
+	
+	@Test
+	public void testDeletedEntitiesAreNotUpdated() {
+		createEntities(7);
+		world.setDelta(DELTA);
+		world.process();
+		for(int i = 0; i < 7; i++) {
+			world.delete(getEntityIds().get(0));
+			world.process();
+		}
+		runSystem();
+		Assert.assertEquals(0, totalEntitiesUpdated);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeUpdateBudget() {
+		setUpdateBudget(-1L);
+	}
+	
 	private void createEntities(final int totalEntities) {
 		for(int i = 0; i < totalEntities; i++) {
 			Entity entityWithComponent = world.createEntity();
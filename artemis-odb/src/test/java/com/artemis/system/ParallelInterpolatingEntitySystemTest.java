@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis.system;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.artemis.Aspect;
+import com.artemis.MdxWorld;
+import com.artemis.WorldConfiguration;
+import com.artemis.system.test.DummyComponent;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link ParallelInterpolatingEntitySystem}
+ */
+public class ParallelInterpolatingEntitySystemTest {
+	private static final int TOTAL_ENTITIES = 10000;
+
+	private ForkJoinPool pool;
+	private MdxWorld world;
+	private CountingSystem system;
+
+	@Before
+	public void setUp() {
+		pool = new ForkJoinPool(4);
+		system = new CountingSystem(pool);
+		system.setMinimumChunkSize(64);
+
+		WorldConfiguration configuration = new WorldConfiguration();
+		configuration.setSystem(system);
+		world = new MdxWorld(configuration);
+	}
+
+	@After
+	public void teardown() {
+		pool.shutdown();
+	}
+
+	@Test
+	public void testUpdateAndInterpolateEachEntityOnce() {
+		int[] entityIds = createEntities(TOTAL_ENTITIES);
+		world.setDelta(0.5f);
+		world.setAlpha(0.25f);
+		world.process();
+		world.interpolate();
+
+		for (int i = 0; i < entityIds.length; i++) {
+			Assert.assertEquals(1, system.updates.get(entityIds[i]));
+			Assert.assertEquals(1, system.interpolations.get(entityIds[i]));
+		}
+		Assert.assertEquals(0.5f, system.lastDelta);
+		Assert.assertEquals(0.25f, system.lastAlpha);
+		Assert.assertEquals(1, system.preUpdates);
+		Assert.assertEquals(1, system.postUpdates);
+	}
+
+	@Test
+	public void testSmallBagProcessedOnCallingThread() {
+		createEntities(100);
+		system.setMinimumChunkSize(64);
+		world.process();
+		world.interpolate();
+
+		Assert.assertEquals(false, system.updatedOnPool);
+		Assert.assertEquals(false, system.interpolatedOnPool);
+	}
+
+	@Test
+	public void testLargeBagProcessedOnPool() {
+		createEntities(TOTAL_ENTITIES);
+		world.process();
+		world.interpolate();
+
+		Assert.assertEquals(true, system.updatedOnPool);
+		Assert.assertEquals(true, system.interpolatedOnPool);
+	}
+
+	@Test
+	public void testInterpolateDoesNothingIfCalledBeforeFirstProcess() {
+		int[] entityIds = createEntities(TOTAL_ENTITIES);
+		world.interpolate();
+
+		Assert.assertEquals(0, system.interpolations.get(entityIds[0]));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidMinimumChunkSize() {
+		system.setMinimumChunkSize(0);
+	}
+
+	private int[] createEntities(int total) {
+		int[] result = new int[total];
+		for (int i = 0; i < total; i++) {
+			result[i] = world.create();
+			world.edit(result[i]).add(new DummyComponent());
+		}
+		return result;
+	}
+
+	private static class CountingSystem extends ParallelInterpolatingEntitySystem {
+		private final AtomicIntegerArray updates = new AtomicIntegerArray(TOTAL_ENTITIES);
+		private final AtomicIntegerArray interpolations = new AtomicIntegerArray(TOTAL_ENTITIES);
+		private volatile boolean updatedOnPool, interpolatedOnPool;
+		private volatile float lastDelta, lastAlpha;
+		private int preUpdates, postUpdates;
+
+		public CountingSystem(ForkJoinPool pool) {
+			super(Aspect.all(DummyComponent.class), pool);
+		}
+
+		@Override
+		protected void preUpdate() {
+			preUpdates++;
+		}
+
+		@Override
+		protected void update(int entityId, float delta) {
+			updates.incrementAndGet(entityId);
+			lastDelta = delta;
+			if (ForkJoinTask.getPool() == getPool()) {
+				updatedOnPool = true;
+			}
+		}
+
+		@Override
+		protected void postUpdate() {
+			postUpdates++;
+		}
+
+		@Override
+		protected void interpolate(int entityId, float alpha) {
+			interpolations.incrementAndGet(entityId);
+			lastAlpha = alpha;
+			if (ForkJoinTask.getPool() == getPool()) {
+				interpolatedOnPool = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis.system;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.jmock.Mockery;
+import org.jmock.lib.legacy.ClassImposteriser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.graphics.Graphics;
+
+import com.artemis.Aspect;
+import com.artemis.MdxWorld;
+import com.artemis.WorldConfiguration;
+import com.artemis.system.test.DummyComponent;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link ParallelRenderingEntitySystem}
+ */
+public class ParallelRenderingEntitySystemTest {
+	private static final int TOTAL_ENTITIES = 5000;
+
+	private ForkJoinPool pool;
+	private MdxWorld world;
+	private PreparingSystem system;
+	private Graphics graphics;
+
+	@Before
+	public void setUp() {
+		Mockery mockery = new Mockery();
+		mockery.setImposteriser(ClassImposteriser.INSTANCE);
+		graphics = mockery.mock(Graphics.class);
+
+		pool = new ForkJoinPool(4);
+		system = new PreparingSystem(pool);
+		system.setMinimumChunkSize(32);
+
+		WorldConfiguration configuration = new WorldConfiguration();
+		configuration.setSystem(system);
+		world = new MdxWorld(configuration);
+	}
+
+	@After
+	public void teardown() {
+		pool.shutdown();
+	}
+
+	@Test
+	public void testPrepareBeforeRender() {
+		for (int i = 0; i < TOTAL_ENTITIES; i++) {
+			world.edit(world.create()).add(new DummyComponent());
+		}
+		world.process();
+		world.render(graphics);
+
+		Assert.assertEquals(TOTAL_ENTITIES, system.renderedEntities);
+		for (int i = 0; i < TOTAL_ENTITIES; i++) {
+			Assert.assertEquals(1, system.prepared.get(i));
+		}
+	}
+
+	@Test
+	public void testRenderDoesNothingIfCalledBeforeFirstProcess() {
+		world.edit(world.create()).add(new DummyComponent());
+		world.render(graphics);
+
+		Assert.assertEquals(0, system.prepared.get(0));
+		Assert.assertEquals(0, system.renderedEntities);
+	}
+
+	private static class PreparingSystem extends ParallelRenderingEntitySystem {
+		private final AtomicIntegerArray prepared = new AtomicIntegerArray(TOTAL_ENTITIES);
+		private int renderedEntities;
+
+		public PreparingSystem(ForkJoinPool pool) {
+			super(Aspect.all(DummyComponent.class), pool);
+		}
+
+		@Override
+		protected void prepare(int entityId) {
+			prepared.incrementAndGet(entityId);
+		}
+
+		@Override
+		protected void render(int entityId, Graphics g) {
+			Assert.assertEquals(1, prepared.get(entityId));
+			renderedEntities++;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Performance tests comparing {@link BroadPhase} implementations with
+ * querying a {@link RegionQuadTree} once per element
+ */
+@Threads(value=1)
+public class BroadPhasePerformanceTest {
+	private static final int TOTAL_ELEMENTS = 1000;
+	private static final float WORLD_SIZE = 1024f;
+	private static final float ELEMENT_SIZE = 16f;
+	private static final float MAX_MOVEMENT = 2f;
+
+	public static abstract class ElementsState {
+		public final List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+		public final CollisionPairBuffer pairs = new CollisionPairBuffer(TOTAL_ELEMENTS);
+		private final Random random = new Random(TOTAL_ELEMENTS);
+
+		{
+			for(int i = 0; i < TOTAL_ELEMENTS; i++) {
+				collisions.add(new CollisionBox(random.nextFloat() * (WORLD_SIZE - ELEMENT_SIZE),
+						random.nextFloat() * (WORLD_SIZE - ELEMENT_SIZE), ELEMENT_SIZE, ELEMENT_SIZE));
+			}
+		}
+
+		/**
+		 * Moves every element a small amount to simulate a single frame
+		 */
+		public void moveElements() {
+			for(int i = 0; i < collisions.size(); i++) {
+				CollisionBox collision = collisions.get(i);
+				collision.preUpdate();
+				float x = collision.getX() + (random.nextFloat() * MAX_MOVEMENT * 2f) - MAX_MOVEMENT;
+				float y = collision.getY() + (random.nextFloat() * MAX_MOVEMENT * 2f) - MAX_MOVEMENT;
+				collision.set(Math.max(0f, Math.min(WORLD_SIZE - ELEMENT_SIZE, x)),
+						Math.max(0f, Math.min(WORLD_SIZE - ELEMENT_SIZE, y)));
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class NaiveState extends ElementsState {
+		public final RegionQuadTree<CollisionBox> quadTree = new RegionQuadTree<CollisionBox>(8, 0f, 0f, WORLD_SIZE, WORLD_SIZE);
+
+		{
+			quadTree.addAll(collisions);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class SweepAndPruneState extends ElementsState {
+		public final SweepAndPruneBroadPhase<CollisionBox> broadPhase = new SweepAndPruneBroadPhase<CollisionBox>(TOTAL_ELEMENTS);
+
+		{
+			for(int i = 0; i < collisions.size(); i++) {
+				broadPhase.add(collisions.get(i));
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class QuadTreeState extends ElementsState {
+		public final QuadTreeBroadPhase<CollisionBox> broadPhase = new QuadTreeBroadPhase<CollisionBox>(
+				new RegionQuadTree<CollisionBox>(8, 0f, 0f, WORLD_SIZE, WORLD_SIZE));
+
+		{
+			for(int i = 0; i < collisions.size(); i++) {
+				broadPhase.add(collisions.get(i));
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("BroadPhase_NaiveQueries")
+	public int testNaivePerElementQueries(NaiveState state) {
+		state.moveElements();
+		state.pairs.clear();
+		for(int i = 0; i < state.collisions.size(); i++) {
+			CollisionBox collision = state.collisions.get(i);
+			List<CollisionBox> results = state.quadTree.getElementsWithinArea(collision);
+			for(int j = 0; j < results.size(); j++) {
+				CollisionBox result = results.get(j);
+				if(result.getId() > collision.getId()) {
+					state.pairs.add(collision.getId(), result.getId());
+				}
+			}
+		}
+		return state.pairs.size();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("BroadPhase_SweepAndPrune")
+	public int testSweepAndPrune(SweepAndPruneState state) {
+		state.moveElements();
+		state.broadPhase.findOverlappingPairs(state.pairs);
+		return state.pairs.size();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("BroadPhase_QuadTree")
+	public int testQuadTree(QuadTreeState state) {
+		state.moveElements();
+		state.broadPhase.findOverlappingPairs(state.pairs);
+		return state.pairs.size();
+	}
+}
@@ -0,0 +1,309 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Contention tests comparing {@link CopyOnWriteRegionQuadTree} against
+ * {@link ConcurrentRegionQuadTree} and {@link ConcurrentPointQuadTree}. Each
+ * group runs a single writer thread moving {@link CollisionBox}es while 1, 2, 4
+ * or 8 reader threads query the tree. Merging is disabled so that all
+ * implementations do the same amount of restructuring.
+ */
+public class QuadTreeContentionPerformanceTest {
+	private static final int ELEMENTS_PER_QUAD = 8;
+	private static final int TOTAL_ELEMENTS = 500;
+	private static final float TREE_SIZE = 1024f;
+	private static final float ELEMENT_SIZE = 16f;
+	private static final float QUERY_SIZE = 128f;
+
+	public static abstract class ContentionState {
+		public QuadTree<CollisionBox> quadTree;
+		public final List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+
+		protected abstract QuadTree<CollisionBox> createQuadTree();
+
+		@Setup(Level.Iteration)
+		public void setUp() {
+			quadTree = createQuadTree();
+			collisions.clear();
+			for (int i = 0; i < TOTAL_ELEMENTS; i++) {
+				collisions.add(new CollisionBox(MathUtils.random(TREE_SIZE - ELEMENT_SIZE),
+						MathUtils.random(TREE_SIZE - ELEMENT_SIZE), ELEMENT_SIZE, ELEMENT_SIZE));
+			}
+			quadTree.addAll(collisions);
+		}
+
+		@TearDown(Level.Iteration)
+		public void cleanup() {
+			quadTree.removeAll(collisions);
+		}
+
+		public void move() {
+			CollisionBox collisionBox = collisions.get(MathUtils.random(TOTAL_ELEMENTS - 1));
+			collisionBox.set(MathUtils.random(TREE_SIZE - ELEMENT_SIZE), MathUtils.random(TREE_SIZE - ELEMENT_SIZE));
+		}
+	}
+
+	@State(Scope.Group)
+	public static class CopyOnWriteState extends ContentionState {
+		@Override
+		protected QuadTree<CollisionBox> createQuadTree() {
+			return new CopyOnWriteRegionQuadTree<CollisionBox>(ELEMENTS_PER_QUAD, 0f, 0f, TREE_SIZE, TREE_SIZE);
+		}
+	}
+
+	@State(Scope.Group)
+	public static class ConcurrentRegionState extends ContentionState {
+		@Override
+		protected QuadTree<CollisionBox> createQuadTree() {
+			return new ConcurrentRegionQuadTree<CollisionBox>(ELEMENTS_PER_QUAD, 0f, 0f, TREE_SIZE, TREE_SIZE);
+		}
+	}
+
+	@State(Scope.Group)
+	public static class ConcurrentPointState extends ContentionState {
+		@Override
+		protected QuadTree<CollisionBox> createQuadTree() {
+			return new ConcurrentPointQuadTree<CollisionBox>(ELEMENTS_PER_QUAD, 0f, 0f, TREE_SIZE, TREE_SIZE);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ReaderState {
+		public final List<CollisionBox> result = new ArrayList<CollisionBox>();
+		public final Rectangle area = new Rectangle(0f, 0f, QUERY_SIZE, QUERY_SIZE);
+
+		public void query(QuadTree<CollisionBox> quadTree, Blackhole blackhole) {
+			result.clear();
+			area.set(MathUtils.random(TREE_SIZE - QUERY_SIZE), MathUtils.random(TREE_SIZE - QUERY_SIZE));
+			quadTree.getElementsWithinArea(result, area);
+			blackhole.consume(result.size());
+		}
+	}
+
+	/* CopyOnWriteRegionQuadTree */
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("CopyOnWriteRegionQuadTree_1_Reader")
+	@GroupThreads(1)
+	public void copyOnWrite1Read(CopyOnWriteState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("CopyOnWriteRegionQuadTree_1_Reader")
+	@GroupThreads(1)
+	public void copyOnWrite1Write(CopyOnWriteState state) {
+		state.move();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("CopyOnWriteRegionQuadTree_2_Readers")
+	@GroupThreads(2)
+	public void copyOnWrite2Read(CopyOnWriteState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("CopyOnWriteRegionQuadTree_2_Readers")
+	@GroupThreads(1)
+	public void copyOnWrite2Write(CopyOnWriteState state) {
+		state.move();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("CopyOnWriteRegionQuadTree_4_Readers")
+	@GroupThreads(4)
+	public void copyOnWrite4Read(CopyOnWriteState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("CopyOnWriteRegionQuadTree_4_Readers")
+	@GroupThreads(1)
+	public void copyOnWrite4Write(CopyOnWriteState state) {
+		state.move();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("CopyOnWriteRegionQuadTree_8_Readers")
+	@GroupThreads(8)
+	public void copyOnWrite8Read(CopyOnWriteState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("CopyOnWriteRegionQuadTree_8_Readers")
+	@GroupThreads(1)
+	public void copyOnWrite8Write(CopyOnWriteState state) {
+		state.move();
+	}
+
+	/* ConcurrentRegionQuadTree */
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_1_Reader")
+	@GroupThreads(1)
+	public void concurrentRegion1Read(ConcurrentRegionState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_1_Reader")
+	@GroupThreads(1)
+	public void concurrentRegion1Write(ConcurrentRegionState state) {
+		state.move();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_2_Readers")
+	@GroupThreads(2)
+	public void concurrentRegion2Read(ConcurrentRegionState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_2_Readers")
+	@GroupThreads(1)
+	public void concurrentRegion2Write(ConcurrentRegionState state) {
+		state.move();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_4_Readers")
+	@GroupThreads(4)
+	public void concurrentRegion4Read(ConcurrentRegionState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_4_Readers")
+	@GroupThreads(1)
+	public void concurrentRegion4Write(ConcurrentRegionState state) {
+		state.move();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_8_Readers")
+	@GroupThreads(8)
+	public void concurrentRegion8Read(ConcurrentRegionState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_8_Readers")
+	@GroupThreads(1)
+	public void concurrentRegion8Write(ConcurrentRegionState state) {
+		state.move();
+	}
+
+	/* ConcurrentPointQuadTree */
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_1_Reader")
+	@GroupThreads(1)
+	public void concurrentPoint1Read(ConcurrentPointState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_1_Reader")
+	@GroupThreads(1)
+	public void concurrentPoint1Write(ConcurrentPointState state) {
+		state.move();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_2_Readers")
+	@GroupThreads(2)
+	public void concurrentPoint2Read(ConcurrentPointState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_2_Readers")
+	@GroupThreads(1)
+	public void concurrentPoint2Write(ConcurrentPointState state) {
+		state.move();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_4_Readers")
+	@GroupThreads(4)
+	public void concurrentPoint4Read(ConcurrentPointState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_4_Readers")
+	@GroupThreads(1)
+	public void concurrentPoint4Write(ConcurrentPointState state) {
+		state.move();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_8_Readers")
+	@GroupThreads(8)
+	public void concurrentPoint8Read(ConcurrentPointState state, ReaderState reader, Blackhole blackhole) {
+		reader.query(state.quadTree, blackhole);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_8_Readers")
+	@GroupThreads(1)
+	public void concurrentPoint8Write(ConcurrentPointState state) {
+		state.move();
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.LineSegment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Performance tests comparing {@link QuadTree} raycasts with finding the
+ * closest element from a line segment query
+ */
+@Threads(value=1)
+public class RaycastPerformanceTest {
+	private static final int TOTAL_ELEMENTS = 2000;
+	private static final int TOTAL_RAYS = 64;
+	private static final float WORLD_SIZE = 1024f;
+	private static final float ELEMENT_SIZE = 16f;
+	private static final float RAY_LENGTH = 512f;
+
+	public static abstract class RaysState {
+		public final List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+		public final float[] rays = new float[TOTAL_RAYS * 4];
+
+		{
+			Random random = new Random(TOTAL_ELEMENTS);
+			for(int i = 0; i < TOTAL_ELEMENTS; i++) {
+				collisions.add(new CollisionBox(random.nextFloat() * (WORLD_SIZE - ELEMENT_SIZE),
+						random.nextFloat() * (WORLD_SIZE - ELEMENT_SIZE), ELEMENT_SIZE, ELEMENT_SIZE));
+			}
+			for(int i = 0; i < rays.length; i += 4) {
+				float angle = random.nextFloat() * (float) Math.PI * 2f;
+				rays[i] = random.nextFloat() * WORLD_SIZE;
+				rays[i + 1] = random.nextFloat() * WORLD_SIZE;
+				rays[i + 2] = (float) Math.cos(angle);
+				rays[i + 3] = (float) Math.sin(angle);
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class LineSegmentState extends RaysState {
+		public final RegionQuadTree<CollisionBox> quadTree = new RegionQuadTree<CollisionBox>(8, 0f, 0f, WORLD_SIZE, WORLD_SIZE);
+		public final LineSegment lineSegment = new LineSegment(0f, 0f, 1f, 1f);
+		public final List<CollisionBox> results = new ArrayList<CollisionBox>();
+
+		{
+			quadTree.addAll(collisions);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class RegionQuadTreeState extends RaysState {
+		public final RegionQuadTree<CollisionBox> quadTree = new RegionQuadTree<CollisionBox>(8, 0f, 0f, WORLD_SIZE, WORLD_SIZE);
+		public final RaycastResult<CollisionBox> result = new RaycastResult<CollisionBox>();
+
+		{
+			quadTree.addAll(collisions);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class SpatialHashGridState extends RaysState {
+		public final SpatialHashGrid<CollisionBox> grid = new SpatialHashGrid<CollisionBox>(32f, 32f, 0f, 0f, WORLD_SIZE, WORLD_SIZE);
+		public final RaycastResult<CollisionBox> result = new RaycastResult<CollisionBox>();
+
+		{
+			grid.addAll(collisions);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("Raycast_LineSegmentQuery")
+	public int testLineSegmentQuery(LineSegmentState state) {
+		int hits = 0;
+		for(int i = 0; i < state.rays.length; i += 4) {
+			float originX = state.rays[i];
+			float originY = state.rays[i + 1];
+			state.lineSegment.set(originX, originY, originX + (state.rays[i + 2] * RAY_LENGTH),
+					originY + (state.rays[i + 3] * RAY_LENGTH));
+			state.results.clear();
+			state.quadTree.getElementsIntersectingLineSegment(state.results, state.lineSegment);
+
+			CollisionBox closest = null;
+			float closestDistance = Float.MAX_VALUE;
+			for(int j = 0; j < state.results.size(); j++) {
+				CollisionBox result = state.results.get(j);
+				float distanceX = result.getCenterX() - originX;
+				float distanceY = result.getCenterY() - originY;
+				float distance = (distanceX * distanceX) + (distanceY * distanceY);
+				if(distance < closestDistance) {
+					closest = result;
+					closestDistance = distance;
+				}
+			}
+			if(closest != null) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("Raycast_RegionQuadTree")
+	public int testRegionQuadTreeRaycast(RegionQuadTreeState state) {
+		int hits = 0;
+		for(int i = 0; i < state.rays.length; i += 4) {
+			state.result.reset();
+			state.quadTree.raycast(state.rays[i], state.rays[i + 1], state.rays[i + 2], state.rays[i + 3],
+					RAY_LENGTH, state.result);
+			if(state.result.isHit()) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("Raycast_SpatialHashGrid")
+	public int testSpatialHashGridRaycast(SpatialHashGridState state) {
+		int hits = 0;
+		for(int i = 0; i < state.rays.length; i += 4) {
+			state.result.reset();
+			state.grid.raycast(state.rays[i], state.rays[i + 1], state.rays[i + 2], state.rays[i + 3],
+					RAY_LENGTH, state.result);
+			if(state.result.isHit()) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+}
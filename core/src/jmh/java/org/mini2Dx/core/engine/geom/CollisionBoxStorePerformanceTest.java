@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Performance tests comparing a frame of updates on individual
+ * {@link CollisionBox} instances with a {@link CollisionBoxStore}
+ */
+@Threads(value=1)
+public class CollisionBoxStorePerformanceTest {
+	private static final int TOTAL_ELEMENTS = 10000;
+	private static final float WORLD_SIZE = 1024f;
+
+	@State(Scope.Thread)
+	public static class CollisionBoxState {
+		public final List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+
+		{
+			for(int i = 0; i < TOTAL_ELEMENTS; i++) {
+				collisions.add(new CollisionBox((i * 7) % WORLD_SIZE, (i * 13) % WORLD_SIZE, 16f, 16f));
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class CollisionBoxStoreState {
+		public final CollisionBoxStore store = new CollisionBoxStore(TOTAL_ELEMENTS);
+
+		{
+			for(int i = 0; i < TOTAL_ELEMENTS; i++) {
+				store.add((i * 7) % WORLD_SIZE, (i * 13) % WORLD_SIZE, 16f, 16f);
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("CollisionBox_Frame")
+	public float testCollisionBoxFrame(CollisionBoxState state) {
+		for(int i = 0; i < state.collisions.size(); i++) {
+			state.collisions.get(i).preUpdate();
+		}
+		for(int i = 0; i < state.collisions.size(); i++) {
+			CollisionBox collision = state.collisions.get(i);
+			collision.set((collision.getX() + 1f) % WORLD_SIZE, collision.getY());
+		}
+		for(int i = 0; i < state.collisions.size(); i++) {
+			state.collisions.get(i).interpolate(null, 0.5f);
+		}
+		return state.collisions.get(0).getRenderX();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("CollisionBoxStore_Frame")
+	public float testCollisionBoxStoreFrame(CollisionBoxStoreState state) {
+		state.store.preUpdate();
+		for(int i = 0; i < state.store.size(); i++) {
+			CollisionBoxHandle collision = state.store.getHandle(i);
+			collision.set((collision.getX() + 1f) % WORLD_SIZE, collision.getY());
+		}
+		state.store.interpolate(0.5f);
+		return state.store.getHandle(0).getRenderX();
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+
+/**
+ * Common interface for broad-phase collision detection. Finds each pair of
+ * {@link CollisionShape}s whose bounds overlap so that only those pairs need
+ * to be passed to narrow-phase checks.
+ */
+public interface BroadPhase<T extends CollisionShape> {
+
+	/**
+	 * Adds a {@link CollisionShape} to this {@link BroadPhase}
+	 * 
+	 * @param element
+	 *            The {@link CollisionShape} to add
+	 */
+	public void add(T element);
+
+	/**
+	 * Removes a {@link CollisionShape} from this {@link BroadPhase}
+	 * 
+	 * @param element
+	 *            The {@link CollisionShape} to remove
+	 * @return True if the element was removed
+	 */
+	public boolean remove(T element);
+
+	/**
+	 * Removes all {@link CollisionShape}s from this {@link BroadPhase}
+	 */
+	public void clear();
+
+	/**
+	 * Returns the total amount of {@link CollisionShape}s in this
+	 * {@link BroadPhase}
+	 * 
+	 * @return 0 if empty
+	 */
+	public int getTotalElements();
+
+	/**
+	 * Clears the {@link CollisionPairBuffer} and stores the id of each pair of
+	 * {@link CollisionShape}s whose bounds overlap. Each pair is stored exactly
+	 * once. Bounds that touch are considered overlapping.
+	 * 
+	 * @param result
+	 *            The {@link CollisionPairBuffer} to store the pairs in
+	 */
+	public void findOverlappingPairs(CollisionPairBuffer result);
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+/**
+ * A reusable buffer of collision id pairs stored in a primitive array so that
+ * broad-phase results can be gathered each frame without allocation
+ */
+public class CollisionPairBuffer {
+	private int[] ids;
+	private int size;
+
+	/**
+	 * Constructor with a default capacity of 16 pairs
+	 */
+	public CollisionPairBuffer() {
+		this(16);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param initialCapacity
+	 *            The initial amount of pairs that can be stored before the
+	 *            buffer needs to grow
+	 */
+	public CollisionPairBuffer(int initialCapacity) {
+		ids = new int[Math.max(1, initialCapacity) * 2];
+	}
+
+	/**
+	 * Adds a pair of ids. The lower id is always stored first.
+	 * 
+	 * @param idA
+	 *            The id of the first element
+	 * @param idB
+	 *            The id of the second element
+	 */
+	public void add(int idA, int idB) {
+		int index = size * 2;
+		if (index + 1 >= ids.length) {
+			int[] newIds = new int[ids.length * 2];
+			System.arraycopy(ids, 0, newIds, 0, index);
+			ids = newIds;
+		}
+		if (idA <= idB) {
+			ids[index] = idA;
+			ids[index + 1] = idB;
+		} else {
+			ids[index] = idB;
+			ids[index + 1] = idA;
+		}
+		size++;
+	}
+
+	/**
+	 * Returns the lower id of a pair
+	 * 
+	 * @param index
+	 *            The index of the pair
+	 * @return The lower of the two ids
+	 */
+	public int getIdA(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+		}
+		return ids[index * 2];
+	}
+
+	/**
+	 * Returns the higher id of a pair
+	 * 
+	 * @param index
+	 *            The index of the pair
+	 * @return The higher of the two ids
+	 */
+	public int getIdB(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+		}
+		return ids[(index * 2) + 1];
+	}
+
+	/**
+	 * Returns if a pair of ids is stored in this buffer. Note that this is a
+	 * linear search.
+	 * 
+	 * @param idA
+	 *            The id of the first element
+	 * @param idB
+	 *            The id of the second element
+	 * @return True if the pair is stored in either order
+	 */
+	public boolean contains(int idA, int idB) {
+		int lowId = Math.min(idA, idB);
+		int highId = Math.max(idA, idB);
+		for (int i = 0; i < size * 2; i += 2) {
+			if (ids[i] == lowId && ids[i + 1] == highId) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Removes all pairs from this buffer without releasing its storage
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the amount of pairs stored
+	 * 
+	 * @return 0 if empty
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns if this buffer contains no pairs
+	 * 
+	 * @return True if empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+}
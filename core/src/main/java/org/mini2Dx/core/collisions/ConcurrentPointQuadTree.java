@@ -14,7 +14,9 @@ package org.mini2Dx.core.collisions;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.mini2Dx.core.engine.Positionable;
@@ -25,6 +27,7 @@ import org.mini2Dx.core.geom.Shape;
 import org.mini2Dx.core.graphics.Graphics;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.IntArray;
 
 /**
  * Implements a thread-safe point quadtree
@@ -39,6 +42,7 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 	public static Color ELEMENT_COLOR = new Color(0f, 0f, 1f, 0.5f);
 
 	protected ConcurrentPointQuadTree<T> parent;
+	protected ConcurrentPointQuadTree<T> rootQuad;
 	protected ConcurrentPointQuadTree<T> topLeft, topRight, bottomLeft, bottomRight;
 	protected List<T> elements;
 
@@ -50,6 +54,12 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 	protected int totalElementsCache = -1;
 	protected int totalMerges = 0;
 
+	protected volatile boolean deferPositionUpdates = false;
+	protected volatile boolean mergePending = false;
+	protected Lock dirtyElementsLock, flushLock;
+	protected List<T> dirtyElements, flushElements;
+	protected List<ConcurrentPointQuadTree<T>> dirtyQuads, flushQuads;
+
 	/**
 	 * Constructs a {@link ConcurrentPointQuadTree} with a specified element
 	 * limit and no merging watermark. As elements are removed, small sized
@@ -90,6 +100,7 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		this(parent.getMinimumQuadWidth(), parent.getMinimumQuadHeight(), parent.getElementLimitPerQuad(),
 				parent.getMergeWatermark(), x, y, width, height);
 		this.parent = parent;
+		this.rootQuad = parent.rootQuad;
 	}
 
 	/**
@@ -157,6 +168,7 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		this.minimumQuadWidth = minimumQuadWidth;
 		this.minimumQuadHeight = minimumQuadHeight;
 		this.lock = new ReentrantReadWriteLock(false);
+		this.rootQuad = this;
 
 		elements = new ArrayList<T>();
 	}
@@ -313,14 +325,28 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		bottomRight = new ConcurrentPointQuadTree<T>(this, getX() + halfWidth, getY() + halfHeight, halfWidth,
 				halfHeight);
 
+		List<T> displacedElements = null;
 		for (int i = elements.size() - 1; i >= 0; i--) {
 			T element = elements.remove(i);
 			element.removePositionChangeListener(this);
 			lock.readLock().lock();
-			addElementToChild(element);
+			if (!addElementToChild(element)) {
+				// Element has moved outside this quad while position updates were deferred
+				if (displacedElements == null) {
+					displacedElements = new ArrayList<T>(1);
+				}
+				displacedElements.add(element);
+			}
 		}
 
 		lock.writeLock().unlock();
+
+		if (displacedElements == null) {
+			return;
+		}
+		for (T element : displacedElements) {
+			addToParent(element);
+		}
 	}
 
 	protected boolean isMergable() {
@@ -452,15 +478,32 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		if (parent == null) {
 			return;
 		}
-		if (parent.isMergable()) {
-			parent.merge();
-		}
+		mergeParent();
 	}
 
 	public boolean remove(T element) {
 		if (element == null)
 			return false;
+		if (rootQuad == this && deferPositionUpdates) {
+			// Prevent elements being relocated while they are looked up
+			flushLock.lock();
+			try {
+				return removeDirtyElement(element) || removeByBounds(element);
+			} finally {
+				flushLock.unlock();
+			}
+		}
+		return removeByBounds(element);
+	}
 
+	/**
+	 * Removes an element by searching the quads its current bounds are within
+	 * 
+	 * @param element
+	 *            The element to remove
+	 * @return True if the element was removed
+	 */
+	protected boolean removeByBounds(T element) {
 		if (!this.contains(element.getX(), element.getY())) {
 			return false;
 		}
@@ -512,12 +555,26 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		if (parent == null) {
 			return result;
 		}
-		if (result && parent.isMergable()) {
-			parent.merge();
+		if (result) {
+			mergeParent();
 		}
 		return result;
 	}
 
+	/**
+	 * Merges the parent quad if it is mergable. While position updates are
+	 * deferred, merging is postponed until {@link #flush()}.
+	 */
+	protected void mergeParent() {
+		if (rootQuad.deferPositionUpdates) {
+			rootQuad.mergePending = true;
+			return;
+		}
+		if (parent.isMergable()) {
+			parent.merge();
+		}
+	}
+
 	@Override
 	public List<T> getElementsWithinArea(Shape area) {
 		List<T> result = new ArrayList<T>();
@@ -621,6 +678,222 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		lock.readLock().unlock();
 	}
 
+	@Override
+	public void getElementsWithinArea(float x, float y, float width, float height, QuadTreeQueryCallback<T> callback) {
+		getElementsWithinArea(x, y, width, height, callback, null);
+	}
+
+	@Override
+	public void getElementIdsWithinArea(float x, float y, float width, float height, IntArray result) {
+		getElementsWithinArea(x, y, width, height, null, result);
+	}
+
+	@Override
+	public void getElementsWithinRadius(float centerX, float centerY, float radius, QuadTreeQueryCallback<T> callback) {
+		getElementsWithinRadius(centerX, centerY, radius, callback, null);
+	}
+
+	@Override
+	public void getElementIdsWithinRadius(float centerX, float centerY, float radius, IntArray result) {
+		getElementsWithinRadius(centerX, centerY, radius, null, result);
+	}
+
+	@Override
+	public void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback) {
+		getElementsContainingPoint(x, y, callback, null);
+	}
+
+	@Override
+	public void getElementIdsContainingPoint(float x, float y, IntArray result) {
+		getElementsContainingPoint(x, y, null, result);
+	}
+
+	@Override
+	public void raycast(float originX, float originY, float directionX, float directionY, float maxDistance,
+			RaycastCallback<T> callback) {
+		float length = (float) Math.sqrt((directionX * directionX) + (directionY * directionY));
+		if (length == 0f || maxDistance <= 0f) {
+			return;
+		}
+		raycastQuad(originX, originY, directionX / length, directionY / length, maxDistance, callback);
+	}
+
+	protected void getElementsWithinArea(float x, float y, float width, float height,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		lock.readLock().lock();
+		if (topLeft != null) {
+			if (topLeft.overlapsArea(x, y, width, height))
+				topLeft.getElementsWithinArea(x, y, width, height, callback, result);
+			if (topRight.overlapsArea(x, y, width, height))
+				topRight.getElementsWithinArea(x, y, width, height, callback, result);
+			if (bottomLeft.overlapsArea(x, y, width, height))
+				bottomLeft.getElementsWithinArea(x, y, width, height, callback, result);
+			if (bottomRight.overlapsArea(x, y, width, height))
+				bottomRight.getElementsWithinArea(x, y, width, height, callback, result);
+		} else {
+			for (int i = elements.size() - 1; i >= 0; i--) {
+				T element = elements.get(i);
+				if (element == null)
+					continue;
+				if (QueryBounds.containsPoint(x, y, x + width, y + height, element.getX(), element.getY())) {
+					QueryBounds.elementFound(element, callback, result);
+				}
+			}
+		}
+		lock.readLock().unlock();
+	}
+
+	protected void getElementsWithinRadius(float centerX, float centerY, float radius,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		lock.readLock().lock();
+		if (topLeft != null) {
+			if (topLeft.overlapsCircle(centerX, centerY, radius))
+				topLeft.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (topRight.overlapsCircle(centerX, centerY, radius))
+				topRight.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (bottomLeft.overlapsCircle(centerX, centerY, radius))
+				bottomLeft.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (bottomRight.overlapsCircle(centerX, centerY, radius))
+				bottomRight.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+		} else {
+			float radiusSquared = radius * radius;
+			for (int i = elements.size() - 1; i >= 0; i--) {
+				T element = elements.get(i);
+				if (element == null)
+					continue;
+				float distanceX = element.getX() - centerX;
+				float distanceY = element.getY() - centerY;
+				if ((distanceX * distanceX) + (distanceY * distanceY) <= radiusSquared) {
+					QueryBounds.elementFound(element, callback, result);
+				}
+			}
+		}
+		lock.readLock().unlock();
+	}
+
+	protected void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback, IntArray result) {
+		lock.readLock().lock();
+		if (topLeft != null) {
+			if (topLeft.containsPoint(x, y))
+				topLeft.getElementsContainingPoint(x, y, callback, result);
+			if (topRight.containsPoint(x, y))
+				topRight.getElementsContainingPoint(x, y, callback, result);
+			if (bottomLeft.containsPoint(x, y))
+				bottomLeft.getElementsContainingPoint(x, y, callback, result);
+			if (bottomRight.containsPoint(x, y))
+				bottomRight.getElementsContainingPoint(x, y, callback, result);
+		} else {
+			for (int i = elements.size() - 1; i >= 0; i--) {
+				T element = elements.get(i);
+				if (element == null)
+					continue;
+				if (element.getX() == x && element.getY() == y) {
+					QueryBounds.elementFound(element, callback, result);
+				}
+			}
+		}
+		lock.readLock().unlock();
+	}
+
+	/**
+	 * Casts a normalised ray through this quad
+	 * 
+	 * @return The maximum distance of the ray after notifying the callback
+	 */
+	protected float raycastQuad(float originX, float originY, float directionX, float directionY, float maxDistance,
+			RaycastCallback<T> callback) {
+		lock.readLock().lock();
+		if (topLeft == null) {
+			maxDistance = raycastElements(originX, originY, directionX, directionY, maxDistance, callback);
+		} else {
+			maxDistance = raycastChildren(originX, originY, directionX, directionY, maxDistance, callback);
+		}
+		lock.readLock().unlock();
+		return maxDistance;
+	}
+
+	/**
+	 * Visits the child quads in the order the ray enters them, skipping any
+	 * beyond the maximum distance
+	 */
+	protected float raycastChildren(float originX, float originY, float directionX, float directionY,
+			float maxDistance, RaycastCallback<T> callback) {
+		float topLeftDistance = topLeft.intersectRay(originX, originY, directionX, directionY, maxDistance);
+		float topRightDistance = topRight.intersectRay(originX, originY, directionX, directionY, maxDistance);
+		float bottomLeftDistance = bottomLeft.intersectRay(originX, originY, directionX, directionY, maxDistance);
+		float bottomRightDistance = bottomRight.intersectRay(originX, originY, directionX, directionY, maxDistance);
+
+		while (maxDistance > 0f) {
+			ConcurrentPointQuadTree<T> next = null;
+			float nextDistance = maxDistance;
+			if (topLeftDistance >= 0f && topLeftDistance <= nextDistance) {
+				next = topLeft;
+				nextDistance = topLeftDistance;
+			}
+			if (topRightDistance >= 0f && topRightDistance <= nextDistance) {
+				next = topRight;
+				nextDistance = topRightDistance;
+			}
+			if (bottomLeftDistance >= 0f && bottomLeftDistance <= nextDistance) {
+				next = bottomLeft;
+				nextDistance = bottomLeftDistance;
+			}
+			if (bottomRightDistance >= 0f && bottomRightDistance <= nextDistance) {
+				next = bottomRight;
+				nextDistance = bottomRightDistance;
+			}
+			if (next == null) {
+				break;
+			}
+			if (next == topLeft) {
+				topLeftDistance = -1f;
+			} else if (next == topRight) {
+				topRightDistance = -1f;
+			} else if (next == bottomLeft) {
+				bottomLeftDistance = -1f;
+			} else {
+				bottomRightDistance = -1f;
+			}
+			maxDistance = next.raycastQuad(originX, originY, directionX, directionY, maxDistance, callback);
+		}
+		return maxDistance;
+	}
+
+	protected float raycastElements(float originX, float originY, float directionX, float directionY,
+			float maxDistance, RaycastCallback<T> callback) {
+		for (int i = elements.size() - 1; i >= 0 && maxDistance > 0f; i--) {
+			T element = elements.get(i);
+			if (element == null)
+				continue;
+			float distance = QueryBounds.intersectRay(element.getX(), element.getY(), originX, originY, directionX,
+					directionY, maxDistance);
+			if (distance >= 0f) {
+				maxDistance = Math.min(maxDistance, callback.onHit(element, distance, -directionX, -directionY));
+			}
+		}
+		return maxDistance;
+	}
+
+	protected boolean overlapsArea(float x, float y, float width, float height) {
+		return QueryBounds.overlapsArea(getX(), getY(), getX() + getWidth(), getY() + getHeight(), x, y, width,
+				height);
+	}
+
+	protected boolean overlapsCircle(float centerX, float centerY, float radius) {
+		return QueryBounds.overlapsCircle(getX(), getY(), getX() + getWidth(), getY() + getHeight(), centerX, centerY,
+				radius);
+	}
+
+	protected boolean containsPoint(float x, float y) {
+		return QueryBounds.containsPoint(getX(), getY(), getX() + getWidth(), getY() + getHeight(), x, y);
+	}
+
+	protected float intersectRay(float originX, float originY, float directionX, float directionY,
+			float maxDistance) {
+		return QueryBounds.intersectRay(getX(), getY(), getX() + getWidth(), getY() + getHeight(), originX, originY,
+				directionX, directionY, maxDistance);
+	}
+
 	public List<T> getElements() {
 		List<T> result = new ArrayList<T>();
 		getElements(result);
@@ -676,22 +949,243 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		totalElementsCache = -1;
 	}
 
+	/**
+	 * Clears the cached element totals of this quad and all of its parents
+	 */
+	protected void clearTotalElementsCacheToRoot() {
+		ConcurrentPointQuadTree<T> quad = this;
+		while (quad != null) {
+			quad.clearTotalElementsCache();
+			quad = quad.parent;
+		}
+	}
+
 	@Override
 	public void positionChanged(T moved) {
+		if (rootQuad.deferPositionUpdates) {
+			rootQuad.queueDirtyElement(this, moved);
+			return;
+		}
 		if (this.contains(moved.getX(), moved.getY()))
 			return;
 
 		removeElement(moved);
+		clearTotalElementsCacheToRoot();
+		addToParent(moved);
+	}
+
+	/**
+	 * Returns if the current position of an element is within the bounds of
+	 * this quad
+	 * 
+	 * @param element
+	 *            The element to check
+	 * @return True if the element does not need to move to another quad
+	 */
+	protected boolean isWithinQuad(T element) {
+		return this.contains(element.getX(), element.getY());
+	}
+
+	/**
+	 * Sets if position changes should be queued until {@link #flush()} is
+	 * called instead of restructuring the tree immediately. When enabled,
+	 * {@link #flush()} should be called once at the end of each update. This
+	 * applies to the whole tree and can be called on any quad.
+	 * 
+	 * @param deferPositionUpdates
+	 *            True if position changes should be deferred
+	 */
+	public void setDeferPositionUpdates(boolean deferPositionUpdates) {
+		if (rootQuad != this) {
+			rootQuad.setDeferPositionUpdates(deferPositionUpdates);
+			return;
+		}
+		lock.writeLock().lock();
+		if (deferPositionUpdates && dirtyElements == null) {
+			dirtyElementsLock = new ReentrantLock();
+			flushLock = new ReentrantLock();
+			dirtyElements = new ArrayList<T>();
+			dirtyQuads = new ArrayList<ConcurrentPointQuadTree<T>>();
+			flushElements = new ArrayList<T>();
+			flushQuads = new ArrayList<ConcurrentPointQuadTree<T>>();
+		}
+		boolean flushRequired = this.deferPositionUpdates && !deferPositionUpdates;
+		this.deferPositionUpdates = deferPositionUpdates;
+		lock.writeLock().unlock();
+
+		if (flushRequired) {
+			flush();
+		}
+	}
+
+	/**
+	 * Returns if position changes are queued until {@link #flush()} is called
+	 * 
+	 * @return False by default
+	 */
+	public boolean isDeferPositionUpdates() {
+		return rootQuad.deferPositionUpdates;
+	}
+
+	/**
+	 * Moves all elements that changed position since the previous flush to
+	 * their correct quads. Each element is re-inserted from its current quad
+	 * upwards and quads are merged once after all elements have moved.
+	 * Position changes that occur during a flush are queued for the next
+	 * flush.
+	 */
+	public void flush() {
+		if (rootQuad != this) {
+			rootQuad.flush();
+			return;
+		}
+		if (dirtyElementsLock == null) {
+			return;
+		}
+		flushLock.lock();
+
+		dirtyElementsLock.lock();
+		List<T> elementsToRelocate = dirtyElements;
+		List<ConcurrentPointQuadTree<T>> quadsToRelocateFrom = dirtyQuads;
+		dirtyElements = flushElements;
+		dirtyQuads = flushQuads;
+		flushElements = elementsToRelocate;
+		flushQuads = quadsToRelocateFrom;
+		dirtyElementsLock.unlock();
+
+		if (elementsToRelocate.isEmpty() && !mergePending) {
+			flushLock.unlock();
+			return;
+		}
+		for (int i = 0; i < elementsToRelocate.size(); i++) {
+			quadsToRelocateFrom.get(i).relocateElement(elementsToRelocate.get(i));
+		}
+		elementsToRelocate.clear();
+		quadsToRelocateFrom.clear();
+		mergePending = false;
+		mergeQuads();
+
+		flushLock.unlock();
+	}
+
+	protected void queueDirtyElement(ConcurrentPointQuadTree<T> quad, T element) {
+		dirtyElementsLock.lock();
+		dirtyElements.add(element);
+		dirtyQuads.add(quad);
+		dirtyElementsLock.unlock();
+	}
+
+	/**
+	 * Removes an element that has moved since the previous {@link #flush()}
+	 * from the quad it is stored in
+	 * 
+	 * @param element
+	 *            The element to remove
+	 * @return False if the element has not moved or is no longer stored in
+	 *         the quad it moved from
+	 */
+	protected boolean removeDirtyElement(T element) {
+		ConcurrentPointQuadTree<T> quad = null;
+		dirtyElementsLock.lock();
+		for (int i = dirtyElements.size() - 1; i >= 0; i--) {
+			if (dirtyElements.get(i) != element) {
+				continue;
+			}
+			if (quad == null) {
+				quad = dirtyQuads.get(i);
+			}
+			dirtyElements.remove(i);
+			dirtyQuads.remove(i);
+		}
+		dirtyElementsLock.unlock();
+
+		if (quad == null) {
+			return false;
+		}
+		return quad.removeStoredElement(element);
+	}
+
+	/**
+	 * Removes an element if it is stored in this quad, regardless of its
+	 * current bounds
+	 * 
+	 * @param element
+	 *            The element to remove
+	 * @return True if the element was removed
+	 */
+	protected boolean removeStoredElement(T element) {
+		lock.writeLock().lock();
+		boolean result = elements != null && elements.remove(element);
+		lock.writeLock().unlock();
+		if (!result) {
+			return false;
+		}
+		element.removePositionChangeListener(this);
+		clearTotalElementsCacheToRoot();
+
+		if (parent != null) {
+			mergeParent();
+		}
+		return true;
+	}
 
-		QuadTree<T> parentQuad = parent;
+	/**
+	 * Moves an element from this quad to the nearest parent that can hold it
+	 * without merging any quads
+	 * 
+	 * @param element
+	 *            The element to relocate
+	 */
+	protected void relocateElement(T element) {
+		if (isWithinQuad(element)) {
+			return;
+		}
+		lock.writeLock().lock();
+		boolean removed = elements.remove(element);
+		lock.writeLock().unlock();
+
+		if (!removed) {
+			// Element was removed or already relocated
+			return;
+		}
+		element.removePositionChangeListener(this);
+
+		clearTotalElementsCacheToRoot();
+		addToParent(element);
+	}
+
+	protected void addToParent(T element) {
+		ConcurrentPointQuadTree<T> parentQuad = parent;
 		while (parentQuad != null) {
-			if (parentQuad.add(moved)) {
+			// Skip quads that only partially overlap the element, otherwise it
+			// could be stored outside of its quad's bounds and missed by queries
+			if ((parentQuad.parent == null || parentQuad.isWithinQuad(element)) && parentQuad.add(element)) {
 				return;
 			}
-			parentQuad = parentQuad.getParent();
+			parentQuad = parentQuad.parent;
 		}
 	}
 
+	/**
+	 * Merges all mergable quads, starting with the deepest
+	 */
+	protected void mergeQuads() {
+		lock.readLock().lock();
+		if (topLeft == null) {
+			lock.readLock().unlock();
+			return;
+		}
+		topLeft.mergeQuads();
+		topRight.mergeQuads();
+		bottomLeft.mergeQuads();
+		bottomRight.mergeQuads();
+
+		if (isMergable()) {
+			merge();
+		}
+		lock.readLock().unlock();
+	}
+
 	public QuadTree<T> getParent() {
 		return parent;
 	}
@@ -22,6 +22,7 @@ import org.mini2Dx.core.geom.Shape;
 import org.mini2Dx.core.graphics.Graphics;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.IntArray;
 
 /**
  * Implements a thread-safe region quadtree
@@ -364,16 +365,11 @@ public class ConcurrentRegionQuadTree<T extends CollisionShape> extends Concurre
 		if (parent == null) {
 			return;
 		}
-		if (parent.isMergable()) {
-			parent.merge();
-		}
+		mergeParent();
 	}
 
 	@Override
-	public boolean remove(T element) {
-		if (element == null)
-			return false;
-
+	protected boolean removeByBounds(T element) {
 		if (!this.intersects(element.getShape()) && !this.contains(element.getShape())) {
 			return false;
 		}
@@ -403,8 +399,8 @@ public class ConcurrentRegionQuadTree<T extends CollisionShape> extends Concurre
 		if (parent == null) {
 			return result;
 		}
-		if (result && parent.isMergable()) {
-			parent.merge();
+		if (result) {
+			mergeParent();
 		}
 		return result;
 	}
@@ -514,6 +510,111 @@ public class ConcurrentRegionQuadTree<T extends CollisionShape> extends Concurre
 		lock.readLock().unlock();
 	}
 
+	@Override
+	protected void getElementsWithinArea(float x, float y, float width, float height,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		lock.readLock().lock();
+		if (topLeft != null) {
+			if (topLeft.overlapsArea(x, y, width, height))
+				topLeft.getElementsWithinArea(x, y, width, height, callback, result);
+			if (topRight.overlapsArea(x, y, width, height))
+				topRight.getElementsWithinArea(x, y, width, height, callback, result);
+			if (bottomLeft.overlapsArea(x, y, width, height))
+				bottomLeft.getElementsWithinArea(x, y, width, height, callback, result);
+			if (bottomRight.overlapsArea(x, y, width, height))
+				bottomRight.getElementsWithinArea(x, y, width, height, callback, result);
+		}
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element == null)
+				continue;
+			Shape shape = element.getShape();
+			if (QueryBounds.overlapsArea(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY(), x, y,
+					width, height)) {
+				QueryBounds.elementFound(element, callback, result);
+			}
+		}
+		lock.readLock().unlock();
+	}
+
+	@Override
+	protected void getElementsWithinRadius(float centerX, float centerY, float radius,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		lock.readLock().lock();
+		if (topLeft != null) {
+			if (topLeft.overlapsCircle(centerX, centerY, radius))
+				topLeft.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (topRight.overlapsCircle(centerX, centerY, radius))
+				topRight.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (bottomLeft.overlapsCircle(centerX, centerY, radius))
+				bottomLeft.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (bottomRight.overlapsCircle(centerX, centerY, radius))
+				bottomRight.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+		}
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element == null)
+				continue;
+			Shape shape = element.getShape();
+			if (QueryBounds.overlapsCircle(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY(),
+					centerX, centerY, radius)) {
+				QueryBounds.elementFound(element, callback, result);
+			}
+		}
+		lock.readLock().unlock();
+	}
+
+	@Override
+	protected void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback, IntArray result) {
+		lock.readLock().lock();
+		if (topLeft != null) {
+			if (topLeft.containsPoint(x, y))
+				topLeft.getElementsContainingPoint(x, y, callback, result);
+			if (topRight.containsPoint(x, y))
+				topRight.getElementsContainingPoint(x, y, callback, result);
+			if (bottomLeft.containsPoint(x, y))
+				bottomLeft.getElementsContainingPoint(x, y, callback, result);
+			if (bottomRight.containsPoint(x, y))
+				bottomRight.getElementsContainingPoint(x, y, callback, result);
+		}
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element != null && element.getShape().contains(x, y)) {
+				QueryBounds.elementFound(element, callback, result);
+			}
+		}
+		lock.readLock().unlock();
+	}
+
+	@Override
+	protected float raycastQuad(float originX, float originY, float directionX, float directionY, float maxDistance,
+			RaycastCallback<T> callback) {
+		lock.readLock().lock();
+		maxDistance = raycastElements(originX, originY, directionX, directionY, maxDistance, callback);
+		if (topLeft != null && maxDistance > 0f) {
+			maxDistance = raycastChildren(originX, originY, directionX, directionY, maxDistance, callback);
+		}
+		lock.readLock().unlock();
+		return maxDistance;
+	}
+
+	@Override
+	protected float raycastElements(float originX, float originY, float directionX, float directionY,
+			float maxDistance, RaycastCallback<T> callback) {
+		for (int i = elements.size() - 1; i >= 0 && maxDistance > 0f; i--) {
+			T element = elements.get(i);
+			if (element == null)
+				continue;
+			Shape shape = element.getShape();
+			float distance = QueryBounds.intersectRay(shape, originX, originY, directionX, directionY, maxDistance);
+			if (distance >= 0f) {
+				maxDistance = QueryBounds.rayHit(element, shape, distance, originX, originY, directionX, directionY,
+						maxDistance, callback);
+			}
+		}
+		return maxDistance;
+	}
+
 	@Override
 	public List<T> getElements() {
 		List<T> result = new ArrayList<T>();
@@ -554,19 +655,22 @@ public class ConcurrentRegionQuadTree<T extends CollisionShape> extends Concurre
 		return totalElementsCache;
 	}
 
+	@Override
+	protected boolean isWithinQuad(T element) {
+		return this.contains(element.getShape());
+	}
+
 	@Override
 	public void positionChanged(T moved) {
+		if (rootQuad.deferPositionUpdates) {
+			rootQuad.queueDirtyElement(this, moved);
+			return;
+		}
 		if (this.contains(moved.getShape()))
 			return;
 
 		removeElement(moved);
-
-		QuadTree<T> parentQuad = parent;
-		while (parentQuad != null) {
-			if (parentQuad.add(moved)) {
-				return;
-			}
-			parentQuad = parentQuad.getParent();
-		}
+		clearTotalElementsCacheToRoot();
+		addToParent(moved);
 	}
 }
\ No newline at end of file
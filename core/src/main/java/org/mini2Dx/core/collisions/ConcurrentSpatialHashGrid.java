@@ -0,0 +1,497 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Shape;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Implements a thread-safe {@link SpatialHashGrid}. Cells are guarded by a
+ * fixed number of striped locks so that threads working in different areas
+ * of the grid rarely contend with each other.
+ * 
+ * Queries lock one cell at a time. An element that moves between cells while
+ * a query is running may be missed or returned twice by that query, in the
+ * same way as with {@link ConcurrentRegionQuadTree}.
+ * 
+ * Callbacks and raycast callbacks are invoked after the cell lock has been
+ * released so that they may safely add, move or remove elements.
+ */
+public class ConcurrentSpatialHashGrid<T extends CollisionShape> extends SpatialHashGrid<T> {
+	private static final long serialVersionUID = -5529960539367862386L;
+
+	public static final int DEFAULT_TOTAL_LOCKS = 16;
+
+	protected final ReadWriteLock[] cellLocks;
+	protected final ReadWriteLock entriesLock = new ReentrantReadWriteLock(false);
+
+	private static final ThreadLocal<QueryBuffers> QUERY_BUFFERS = new ThreadLocal<QueryBuffers>() {
+		@Override
+		protected QueryBuffers initialValue() {
+			return new QueryBuffers();
+		}
+	};
+
+	/**
+	 * Constructs a {@link ConcurrentSpatialHashGrid} with
+	 * {@link #DEFAULT_TOTAL_LOCKS} cell locks
+	 * 
+	 * @param cellWidth
+	 *            The width of each cell
+	 * @param cellHeight
+	 *            The height of each cell
+	 * @param x
+	 *            The x coordinate of the {@link ConcurrentSpatialHashGrid}
+	 * @param y
+	 *            The y coordinate of the {@link ConcurrentSpatialHashGrid}
+	 * @param width
+	 *            The width of the {@link ConcurrentSpatialHashGrid}
+	 * @param height
+	 *            The height of the {@link ConcurrentSpatialHashGrid}
+	 */
+	public ConcurrentSpatialHashGrid(float cellWidth, float cellHeight, float x, float y, float width, float height) {
+		this(DEFAULT_TOTAL_LOCKS, cellWidth, cellHeight, x, y, width, height);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param totalLocks
+	 *            The number of locks to stripe the cells across
+	 * @param cellWidth
+	 *            The width of each cell
+	 * @param cellHeight
+	 *            The height of each cell
+	 * @param x
+	 *            The x coordinate of the {@link ConcurrentSpatialHashGrid}
+	 * @param y
+	 *            The y coordinate of the {@link ConcurrentSpatialHashGrid}
+	 * @param width
+	 *            The width of the {@link ConcurrentSpatialHashGrid}
+	 * @param height
+	 *            The height of the {@link ConcurrentSpatialHashGrid}
+	 */
+	public ConcurrentSpatialHashGrid(int totalLocks, float cellWidth, float cellHeight, float x, float y, float width,
+			float height) {
+		super(cellWidth, cellHeight, x, y, width, height);
+		if (totalLocks <= 0) {
+			throw new IllegalArgumentException("Total locks must be greater than 0");
+		}
+		cellLocks = new ReadWriteLock[Math.min(totalLocks, cells.length)];
+		for (int i = 0; i < cellLocks.length; i++) {
+			cellLocks[i] = new ReentrantReadWriteLock(false);
+		}
+	}
+
+	@Override
+	public boolean add(T element) {
+		if (element == null)
+			return false;
+
+		Shape shape = element.getShape();
+		if (isOutsideGrid(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY())) {
+			return false;
+		}
+		CellEntry<T> entry = new CellEntry<T>(element);
+
+		entriesLock.writeLock().lock();
+		if (entries.containsKey(element)) {
+			entriesLock.writeLock().unlock();
+			return false;
+		}
+		entries.put(element, entry);
+		entriesLock.writeLock().unlock();
+
+		synchronized (entry) {
+			if (entry.removed) {
+				return true;
+			}
+			setCellRange(entry, element.getShape());
+			addToCells(entry);
+			element.addPostionChangeListener(this);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean remove(T element) {
+		if (element == null)
+			return false;
+
+		entriesLock.writeLock().lock();
+		CellEntry<T> entry = entries.remove(element);
+		entriesLock.writeLock().unlock();
+
+		if (entry == null) {
+			return false;
+		}
+		synchronized (entry) {
+			entry.removed = true;
+			removeFromCells(entry);
+			element.removePositionChangeListener(this);
+		}
+		return true;
+	}
+
+	@Override
+	public void positionChanged(T moved) {
+		entriesLock.readLock().lock();
+		CellEntry<T> entry = entries.get(moved);
+		entriesLock.readLock().unlock();
+
+		if (entry == null) {
+			return;
+		}
+		synchronized (entry) {
+			if (entry.removed) {
+				return;
+			}
+			Shape shape = moved.getShape();
+			float minX = shape.getMinX();
+			float minY = shape.getMinY();
+			float maxX = shape.getMaxX();
+			float maxY = shape.getMaxY();
+			if (!isOutsideGrid(minX, minY, maxX, maxY)) {
+				if (entry.isCellRange(getColumn(minX), getRow(minY), getColumn(maxX), getRow(maxY))) {
+					return;
+				}
+				removeFromCells(entry);
+				entry.setCellRange(getColumn(minX), getRow(minY), getColumn(maxX), getRow(maxY));
+				addToCells(entry);
+				return;
+			}
+		}
+		remove(moved);
+	}
+
+	@Override
+	public void getElementsWithinArea(Collection<T> result, Shape area) {
+		float minX = area.getMinX();
+		float minY = area.getMinY();
+		float maxX = area.getMaxX();
+		float maxY = area.getMaxY();
+		if (isOutsideGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int minColumn = getColumn(minX);
+		int minRow = getRow(minY);
+		int maxColumn = getColumn(maxX);
+		int maxRow = getRow(maxY);
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				int cellKey = getCellKey(column, row);
+				ReadWriteLock lock = getCellLock(cellKey);
+				lock.readLock().lock();
+				List<CellEntry<T>> cell = cells[cellKey];
+				if (cell != null) {
+					for (int i = cell.size() - 1; i >= 0; i--) {
+						CellEntry<T> entry = cell.get(i);
+						if (!entry.isFirstOverlappingCell(column, row, minColumn, minRow)) {
+							continue;
+						}
+						Shape shape = entry.element.getShape();
+						if (area.contains(shape) || area.intersects(shape)) {
+							result.add(entry.element);
+						}
+					}
+				}
+				lock.readLock().unlock();
+			}
+		}
+	}
+
+	@Override
+	public void getElementsIntersectingLineSegment(Collection<T> result, LineSegment lineSegment) {
+		float minX = lineSegment.getMinX();
+		float minY = lineSegment.getMinY();
+		float maxX = lineSegment.getMaxX();
+		float maxY = lineSegment.getMaxY();
+		if (isOutsideGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int minColumn = getColumn(minX);
+		int minRow = getRow(minY);
+		int maxColumn = getColumn(maxX);
+		int maxRow = getRow(maxY);
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				int cellKey = getCellKey(column, row);
+				ReadWriteLock lock = getCellLock(cellKey);
+				lock.readLock().lock();
+				List<CellEntry<T>> cell = cells[cellKey];
+				if (cell != null) {
+					for (int i = cell.size() - 1; i >= 0; i--) {
+						CellEntry<T> entry = cell.get(i);
+						if (!entry.isFirstOverlappingCell(column, row, minColumn, minRow)) {
+							continue;
+						}
+						if (entry.element.intersects(lineSegment)) {
+							result.add(entry.element);
+						}
+					}
+				}
+				lock.readLock().unlock();
+			}
+		}
+	}
+
+	@Override
+	public void getElementsContainingPoint(Collection<T> result, Point point) {
+		if (isOutsideGrid(point.getX(), point.getY(), point.getX(), point.getY())) {
+			return;
+		}
+		int cellKey = getCellKey(getColumn(point.getX()), getRow(point.getY()));
+		ReadWriteLock lock = getCellLock(cellKey);
+		lock.readLock().lock();
+		List<CellEntry<T>> cell = cells[cellKey];
+		if (cell != null) {
+			for (int i = cell.size() - 1; i >= 0; i--) {
+				T element = cell.get(i).element;
+				if (element.contains(point)) {
+					result.add(element);
+				}
+			}
+		}
+		lock.readLock().unlock();
+	}
+
+	@Override
+	protected void getElementsWithinArea(float minX, float minY, float maxX, float maxY,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		if (isOutsideGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int minColumn = getColumn(minX);
+		int minRow = getRow(minY);
+		int maxColumn = getColumn(maxX);
+		int maxRow = getRow(maxY);
+
+		QueryBuffers buffers = QUERY_BUFFERS.get();
+		List<T> found = buffers.obtain();
+		try {
+			for (int row = minRow; row <= maxRow; row++) {
+				for (int column = minColumn; column <= maxColumn; column++) {
+					int cellKey = getCellKey(column, row);
+					ReadWriteLock lock = getCellLock(cellKey);
+					lock.readLock().lock();
+					List<CellEntry<T>> cell = cells[cellKey];
+					if (cell != null) {
+						for (int i = cell.size() - 1; i >= 0; i--) {
+							CellEntry<T> entry = cell.get(i);
+							if (!entry.isFirstOverlappingCell(column, row, minColumn, minRow)) {
+								continue;
+							}
+							Shape shape = entry.element.getShape();
+							if (QueryBounds.overlapsArea(shape.getMinX(), shape.getMinY(), shape.getMaxX(),
+									shape.getMaxY(), minX, minY, maxX - minX, maxY - minY)) {
+								found.add(entry.element);
+							}
+						}
+					}
+					lock.readLock().unlock();
+					elementsFound(found, callback, result);
+				}
+			}
+		} finally {
+			buffers.free();
+		}
+	}
+
+	@Override
+	protected void getElementsWithinRadius(float centerX, float centerY, float radius,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		float minX = centerX - radius;
+		float minY = centerY - radius;
+		float maxX = centerX + radius;
+		float maxY = centerY + radius;
+		if (isOutsideGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int minColumn = getColumn(minX);
+		int minRow = getRow(minY);
+		int maxColumn = getColumn(maxX);
+		int maxRow = getRow(maxY);
+
+		QueryBuffers buffers = QUERY_BUFFERS.get();
+		List<T> found = buffers.obtain();
+		try {
+			for (int row = minRow; row <= maxRow; row++) {
+				for (int column = minColumn; column <= maxColumn; column++) {
+					int cellKey = getCellKey(column, row);
+					ReadWriteLock lock = getCellLock(cellKey);
+					lock.readLock().lock();
+					List<CellEntry<T>> cell = cells[cellKey];
+					if (cell != null) {
+						for (int i = cell.size() - 1; i >= 0; i--) {
+							CellEntry<T> entry = cell.get(i);
+							if (!entry.isFirstOverlappingCell(column, row, minColumn, minRow)) {
+								continue;
+							}
+							Shape shape = entry.element.getShape();
+							if (QueryBounds.overlapsCircle(shape.getMinX(), shape.getMinY(), shape.getMaxX(),
+									shape.getMaxY(), centerX, centerY, radius)) {
+								found.add(entry.element);
+							}
+						}
+					}
+					lock.readLock().unlock();
+					elementsFound(found, callback, result);
+				}
+			}
+		} finally {
+			buffers.free();
+		}
+	}
+
+	@Override
+	protected void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback, IntArray result) {
+		if (isOutsideGrid(x, y, x, y)) {
+			return;
+		}
+		int cellKey = getCellKey(getColumn(x), getRow(y));
+		ReadWriteLock lock = getCellLock(cellKey);
+		QueryBuffers buffers = QUERY_BUFFERS.get();
+		List<T> found = buffers.obtain();
+		try {
+			lock.readLock().lock();
+			List<CellEntry<T>> cell = cells[cellKey];
+			if (cell != null) {
+				for (int i = cell.size() - 1; i >= 0; i--) {
+					T element = cell.get(i).element;
+					if (element.getShape().contains(x, y)) {
+						found.add(element);
+					}
+				}
+			}
+			lock.readLock().unlock();
+			elementsFound(found, callback, result);
+		} finally {
+			buffers.free();
+		}
+	}
+
+	@Override
+	protected float raycastCell(int column, int row, int previousColumn, int previousRow, float cellEntryDistance,
+			float cellExitDistance, float rayOriginX, float rayOriginY, float directionX, float directionY,
+			float maxDistance, RaycastCallback<T> callback) {
+		int cellKey = getCellKey(column, row);
+		ReadWriteLock lock = getCellLock(cellKey);
+		QueryBuffers buffers = QUERY_BUFFERS.get();
+		List<CellEntry<T>> entries = buffers.obtain();
+		lock.readLock().lock();
+		List<CellEntry<T>> cell = cells[cellKey];
+		if (cell != null) {
+			entries.addAll(cell);
+		}
+		lock.readLock().unlock();
+		try {
+			return raycastEntries(entries, previousColumn, previousRow, cellEntryDistance, cellExitDistance,
+					rayOriginX, rayOriginY, directionX, directionY, maxDistance, callback);
+		} finally {
+			buffers.free();
+		}
+	}
+
+	private void elementsFound(List<T> found, QuadTreeQueryCallback<T> callback, IntArray result) {
+		for (int i = 0; i < found.size(); i++) {
+			QueryBounds.elementFound(found.get(i), callback, result);
+		}
+		found.clear();
+	}
+
+	@Override
+	public void getElements(List<T> result) {
+		entriesLock.readLock().lock();
+		result.addAll(entries.keySet());
+		entriesLock.readLock().unlock();
+	}
+
+	@Override
+	public int getTotalElements() {
+		entriesLock.readLock().lock();
+		int result = entries.size();
+		entriesLock.readLock().unlock();
+		return result;
+	}
+
+	@Override
+	protected void addToCells(CellEntry<T> entry) {
+		for (int row = entry.minRow; row <= entry.maxRow; row++) {
+			for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+				int cellKey = getCellKey(column, row);
+				ReadWriteLock lock = getCellLock(cellKey);
+				lock.writeLock().lock();
+				List<CellEntry<T>> cell = cells[cellKey];
+				if (cell == null) {
+					cell = new ArrayList<CellEntry<T>>(4);
+					cells[cellKey] = cell;
+				}
+				cell.add(entry);
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	@Override
+	protected void removeFromCells(CellEntry<T> entry) {
+		for (int row = entry.minRow; row <= entry.maxRow; row++) {
+			for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+				int cellKey = getCellKey(column, row);
+				ReadWriteLock lock = getCellLock(cellKey);
+				lock.writeLock().lock();
+				List<CellEntry<T>> cell = cells[cellKey];
+				if (cell != null) {
+					cell.remove(entry);
+				}
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	protected ReadWriteLock getCellLock(int cellKey) {
+		return cellLocks[cellKey % cellLocks.length];
+	}
+
+	/**
+	 * Per-thread buffers that query results are copied into before the cell
+	 * lock is released. Callbacks may run further queries so a buffer is kept
+	 * for each level of nesting.
+	 */
+	private static class QueryBuffers {
+		private final List<List<Object>> buffers = new ArrayList<List<Object>>();
+		private int depth;
+
+		@SuppressWarnings("unchecked")
+		public <E> List<E> obtain() {
+			if (depth == buffers.size()) {
+				buffers.add(new ArrayList<Object>());
+			}
+			return (List<E>) (List<?>) buffers.get(depth++);
+		}
+
+		public void free() {
+			buffers.get(--depth).clear();
+		}
+	}
+}
@@ -0,0 +1,991 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+import org.mini2Dx.core.graphics.Graphics;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Implements a thread-safe region quadtree where reads never take a lock.
+ * 
+ * The quad structure is immutable. Each write copies the path from the root
+ * to the modified quad and then publishes the new root. Queries read the root
+ * once and then run against that {@link Snapshot}, so they always see a
+ * consistent tree even while another thread keeps writing. Writes are
+ * serialised against each other.
+ * 
+ * Old snapshots are reclaimed by the garbage collector once no reader holds
+ * them, so no explicit epoch tracking is required.
+ * 
+ * @see <a href="http://en.wikipedia.org/wiki/Quadtree#The_region_quadtree">
+ *      Wikipedia: Region Quad Tree</a>
+ */
+public class CopyOnWriteRegionQuadTree<T extends CollisionShape> extends Rectangle implements QuadTree<T> {
+	private static final long serialVersionUID = -6081452208431669404L;
+
+	public static Color QUAD_COLOR = new Color(1f, 0f, 0f, 0.5f);
+	public static Color ELEMENT_COLOR = new Color(0f, 0f, 1f, 0.5f);
+
+	protected final int elementLimitPerQuad;
+	protected final int mergeWatermark;
+	protected final float minimumQuadWidth, minimumQuadHeight;
+
+	private final ReentrantLock writeLock = new ReentrantLock();
+	private final Map<T, float[]> elementBounds = new IdentityHashMap<T, float[]>();
+	private volatile Snapshot<T> snapshot;
+
+	/**
+	 * Constructs a {@link CopyOnWriteRegionQuadTree} with a specified element
+	 * limit and no merging watermark. As elements are removed, small sized
+	 * child quads will not be merged back together.
+	 * 
+	 * @param elementLimitPerQuad
+	 *            The maximum number of elements in a quad before it is split
+	 *            into 4 child quads
+	 * @param x
+	 *            The x coordinate of the {@link CopyOnWriteRegionQuadTree}
+	 * @param y
+	 *            The y coordiante of the {@link CopyOnWriteRegionQuadTree}
+	 * @param width
+	 *            The width of the {@link CopyOnWriteRegionQuadTree}
+	 * @param height
+	 *            The height of the {@link CopyOnWriteRegionQuadTree}
+	 */
+	public CopyOnWriteRegionQuadTree(int elementLimitPerQuad, float x, float y, float width, float height) {
+		this(elementLimitPerQuad, 0, x, y, width, height);
+	}
+
+	/**
+	 * Constructs a {@link CopyOnWriteRegionQuadTree} with a specified element
+	 * limit and watermark
+	 * 
+	 * @param elementLimitPerQuad
+	 *            The maximum number of elements in a quad before it is split
+	 *            into 4 child quads
+	 * @param mergeWatermark
+	 *            When a quad's total elements go lower than this mark, its
+	 *            child quads will be merged back together
+	 * @param x
+	 *            The x coordinate of the {@link CopyOnWriteRegionQuadTree}
+	 * @param y
+	 *            The y coordiante of the {@link CopyOnWriteRegionQuadTree}
+	 * @param width
+	 *            The width of the {@link CopyOnWriteRegionQuadTree}
+	 * @param height
+	 *            The height of the {@link CopyOnWriteRegionQuadTree}
+	 */
+	public CopyOnWriteRegionQuadTree(int elementLimitPerQuad, int mergeWatermark, float x, float y, float width,
+			float height) {
+		this(PointQuadTree.DEFAULT_MINIMUM_QUAD_SIZE, PointQuadTree.DEFAULT_MINIMUM_QUAD_SIZE, elementLimitPerQuad,
+				mergeWatermark, x, y, width, height);
+	}
+
+	/**
+	 * Constructs a {@link CopyOnWriteRegionQuadTree} with a specified minimum
+	 * quad size, element limit and watermark
+	 * 
+	 * @param minimumQuadWidth
+	 *            The minimum width of quads. Quads will not subdivide smaller
+	 *            than this width.
+	 * @param minimumQuadHeight
+	 *            The minimum height of quads. Quads will not subdivide smaller
+	 *            than this height.
+	 * @param elementLimitPerQuad
+	 *            The maximum number of elements in a quad before it is split
+	 *            into 4 child quads
+	 * @param mergeWatermark
+	 *            When a quad's total elements go lower than this mark, its
+	 *            child quads will be merged back together
+	 * @param x
+	 *            The x coordinate of the {@link CopyOnWriteRegionQuadTree}
+	 * @param y
+	 *            The y coordiante of the {@link CopyOnWriteRegionQuadTree}
+	 * @param width
+	 *            The width of the {@link CopyOnWriteRegionQuadTree}
+	 * @param height
+	 *            The height of the {@link CopyOnWriteRegionQuadTree}
+	 */
+	public CopyOnWriteRegionQuadTree(float minimumQuadWidth, float minimumQuadHeight, int elementLimitPerQuad,
+			int mergeWatermark, float x, float y, float width, float height) {
+		super(x, y, width, height);
+
+		if (mergeWatermark >= elementLimitPerQuad) {
+			throw new QuadWatermarkException(elementLimitPerQuad, mergeWatermark);
+		}
+
+		this.elementLimitPerQuad = elementLimitPerQuad;
+		this.mergeWatermark = mergeWatermark;
+		this.minimumQuadWidth = minimumQuadWidth;
+		this.minimumQuadHeight = minimumQuadHeight;
+		this.snapshot = new Snapshot<T>(Quad.leaf(x, y, width, height));
+	}
+
+	@Override
+	public void debugRender(Graphics g) {
+		Color tmp = g.getColor();
+		debugRender(g, snapshot.root);
+		g.setColor(tmp);
+	}
+
+	private void debugRender(Graphics g, Quad quad) {
+		if (quad.children != null) {
+			for (int i = 0; i < quad.children.length; i++) {
+				debugRender(g, quad.children[i]);
+			}
+		} else {
+			g.setColor(QUAD_COLOR);
+			g.drawRect(quad.x, quad.y, quad.width, quad.height);
+		}
+
+		g.setColor(ELEMENT_COLOR);
+		for (int i = 0; i < quad.elements.length; i++) {
+			int boundsIndex = i * 4;
+			g.drawRect(quad.bounds[boundsIndex], quad.bounds[boundsIndex + 1],
+					quad.bounds[boundsIndex + 2] - quad.bounds[boundsIndex],
+					quad.bounds[boundsIndex + 3] - quad.bounds[boundsIndex + 1]);
+		}
+	}
+
+	@Override
+	public boolean add(T element) {
+		if (element == null) {
+			return false;
+		}
+		writeLock.lock();
+		try {
+			Quad root = snapshot.root;
+			Quad result = insert(root, element);
+			if (result == root) {
+				return false;
+			}
+			publish(result);
+			return true;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void addAll(List<T> elements) {
+		if (elements == null || elements.isEmpty()) {
+			return;
+		}
+		writeLock.lock();
+		try {
+			Quad root = snapshot.root;
+			Quad result = root;
+			for (int i = 0; i < elements.size(); i++) {
+				T element = elements.get(i);
+				if (element == null) {
+					continue;
+				}
+				result = insert(result, element);
+			}
+			if (result != root) {
+				publish(result);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean remove(T element) {
+		if (element == null) {
+			return false;
+		}
+		writeLock.lock();
+		try {
+			Quad root = snapshot.root;
+			Quad result = delete(root, element);
+			if (result == root) {
+				return false;
+			}
+			publish(result);
+			return true;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void removeAll(List<T> elements) {
+		if (elements == null || elements.isEmpty()) {
+			return;
+		}
+		writeLock.lock();
+		try {
+			Quad root = snapshot.root;
+			Quad result = root;
+			for (int i = 0; i < elements.size(); i++) {
+				T element = elements.get(i);
+				if (element == null) {
+					continue;
+				}
+				result = delete(result, element);
+			}
+			if (result != root) {
+				publish(result);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Removes all elements from this {@link CopyOnWriteRegionQuadTree}
+	 */
+	public void clear() {
+		writeLock.lock();
+		try {
+			for (T element : elementBounds.keySet()) {
+				element.removePositionChangeListener(this);
+			}
+			elementBounds.clear();
+			publish(Quad.leaf(getX(), getY(), getWidth(), getHeight()));
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void positionChanged(T moved) {
+		writeLock.lock();
+		try {
+			float[] bounds = elementBounds.get(moved);
+			if (bounds == null) {
+				return;
+			}
+			Shape shape = moved.getShape();
+			float minX = shape.getMinX();
+			float minY = shape.getMinY();
+			float maxX = shape.getMaxX();
+			float maxY = shape.getMaxY();
+			if (minX == bounds[0] && minY == bounds[1] && maxX == bounds[2] && maxY == bounds[3]) {
+				return;
+			}
+
+			Quad root = snapshot.root;
+			Quad result = delete(root, moved, bounds[0], bounds[1], bounds[2], bounds[3]);
+			if (result.overlaps(minX, minY, maxX, maxY)) {
+				// Re-insert before publishing so readers never observe the element missing
+				result = insert(result, moved, minX, minY, maxX, maxY);
+				bounds[0] = minX;
+				bounds[1] = minY;
+				bounds[2] = maxX;
+				bounds[3] = maxY;
+			} else {
+				elementBounds.remove(moved);
+				moved.removePositionChangeListener(this);
+			}
+			publish(result);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the current immutable view of this quad tree. The returned
+	 * {@link Snapshot} can be queried repeatedly (e.g. for the duration of a
+	 * frame) without being affected by concurrent writes.
+	 * 
+	 * @return The most recently published {@link Snapshot}
+	 */
+	public Snapshot<T> getSnapshot() {
+		return snapshot;
+	}
+
+	private void publish(Quad root) {
+		snapshot = new Snapshot<T>(root);
+	}
+
+	private Quad insert(Quad root, T element) {
+		Shape shape = element.getShape();
+		float minX = shape.getMinX();
+		float minY = shape.getMinY();
+		float maxX = shape.getMaxX();
+		float maxY = shape.getMaxY();
+		if (!root.overlaps(minX, minY, maxX, maxY)) {
+			return root;
+		}
+		if (elementBounds.containsKey(element)) {
+			return root;
+		}
+		elementBounds.put(element, new float[] { minX, minY, maxX, maxY });
+		element.addPostionChangeListener(this);
+		return insert(root, element, minX, minY, maxX, maxY);
+	}
+
+	private Quad insert(Quad quad, Object element, float minX, float minY, float maxX, float maxY) {
+		if (quad.children != null) {
+			int childIndex = quad.getChildIndex(minX, minY, maxX, maxY);
+			if (childIndex >= 0) {
+				Quad child = insert(quad.children[childIndex], element, minX, minY, maxX, maxY);
+				return quad.withChild(childIndex, child, quad.totalElements + 1);
+			}
+			return quad.withElement(element, minX, minY, maxX, maxY);
+		}
+		Quad result = quad.withElement(element, minX, minY, maxX, maxY);
+		if (result.elements.length > elementLimitPerQuad) {
+			return subdivide(result);
+		}
+		return result;
+	}
+
+	private Quad subdivide(Quad quad) {
+		float halfWidth = quad.width * 0.5f;
+		float halfHeight = quad.height * 0.5f;
+		if (halfWidth < minimumQuadWidth || halfHeight < minimumQuadHeight) {
+			return quad;
+		}
+
+		Quad[] children = new Quad[] { Quad.leaf(quad.x, quad.y, halfWidth, halfHeight),
+				Quad.leaf(quad.x + halfWidth, quad.y, halfWidth, halfHeight),
+				Quad.leaf(quad.x, quad.y + halfHeight, halfWidth, halfHeight),
+				Quad.leaf(quad.x + halfWidth, quad.y + halfHeight, halfWidth, halfHeight) };
+		List<Object> remainingElements = new ArrayList<Object>();
+		List<float[]> remainingBounds = new ArrayList<float[]>();
+
+		for (int i = 0; i < quad.elements.length; i++) {
+			int boundsIndex = i * 4;
+			float minX = quad.bounds[boundsIndex];
+			float minY = quad.bounds[boundsIndex + 1];
+			float maxX = quad.bounds[boundsIndex + 2];
+			float maxY = quad.bounds[boundsIndex + 3];
+			int childIndex = quad.getChildIndex(minX, minY, maxX, maxY, halfWidth, halfHeight);
+			if (childIndex >= 0) {
+				children[childIndex] = children[childIndex].withElement(quad.elements[i], minX, minY, maxX, maxY);
+			} else {
+				remainingElements.add(quad.elements[i]);
+				remainingBounds.add(new float[] { minX, minY, maxX, maxY });
+			}
+		}
+		for (int i = 0; i < children.length; i++) {
+			if (children[i].elements.length > elementLimitPerQuad) {
+				children[i] = subdivide(children[i]);
+			}
+		}
+
+		Object[] elements = remainingElements.toArray();
+		float[] bounds = new float[elements.length * 4];
+		for (int i = 0; i < elements.length; i++) {
+			System.arraycopy(remainingBounds.get(i), 0, bounds, i * 4, 4);
+		}
+		return new Quad(quad.x, quad.y, quad.width, quad.height, children, elements, bounds, quad.totalElements);
+	}
+
+	private Quad delete(Quad root, T element) {
+		float[] bounds = elementBounds.remove(element);
+		if (bounds == null) {
+			return root;
+		}
+		element.removePositionChangeListener(this);
+		return delete(root, element, bounds[0], bounds[1], bounds[2], bounds[3]);
+	}
+
+	private Quad delete(Quad quad, Object element, float minX, float minY, float maxX, float maxY) {
+		if (quad.children != null) {
+			int childIndex = quad.getChildIndex(minX, minY, maxX, maxY);
+			if (childIndex >= 0) {
+				Quad child = delete(quad.children[childIndex], element, minX, minY, maxX, maxY);
+				if (child == quad.children[childIndex]) {
+					return quad;
+				}
+				if (mergeWatermark > 0 && quad.totalElements - 1 < mergeWatermark) {
+					return merge(quad.withChild(childIndex, child, quad.totalElements - 1));
+				}
+				return quad.withChild(childIndex, child, quad.totalElements - 1);
+			}
+		}
+		int index = quad.indexOf(element);
+		if (index < 0) {
+			return quad;
+		}
+		Quad result = quad.withoutElement(index);
+		if (result.children != null && mergeWatermark > 0 && result.totalElements < mergeWatermark) {
+			return merge(result);
+		}
+		return result;
+	}
+
+	private Quad merge(Quad quad) {
+		Object[] elements = new Object[quad.totalElements];
+		float[] bounds = new float[quad.totalElements * 4];
+		quad.copyAll(elements, bounds, 0);
+		return new Quad(quad.x, quad.y, quad.width, quad.height, null, elements, bounds, elements.length);
+	}
+
+	@Override
+	public List<T> getElementsWithinArea(Shape area) {
+		return snapshot.getElementsWithinArea(area);
+	}
+
+	@Override
+	public void getElementsWithinArea(Collection<T> result, Shape area) {
+		snapshot.getElementsWithinArea(result, area);
+	}
+
+	@Override
+	public List<T> getElementsIntersectingLineSegment(LineSegment lineSegment) {
+		return snapshot.getElementsIntersectingLineSegment(lineSegment);
+	}
+
+	@Override
+	public void getElementsIntersectingLineSegment(Collection<T> result, LineSegment lineSegment) {
+		snapshot.getElementsIntersectingLineSegment(result, lineSegment);
+	}
+
+	@Override
+	public List<T> getElementsContainingPoint(Point point) {
+		return snapshot.getElementsContainingPoint(point);
+	}
+
+	@Override
+	public void getElementsContainingPoint(Collection<T> result, Point point) {
+		snapshot.getElementsContainingPoint(result, point);
+	}
+
+	@Override
+	public void getElementsWithinArea(float x, float y, float width, float height, QuadTreeQueryCallback<T> callback) {
+		snapshot.getElementsWithinArea(x, y, width, height, callback);
+	}
+
+	@Override
+	public void getElementIdsWithinArea(float x, float y, float width, float height, IntArray result) {
+		snapshot.getElementIdsWithinArea(x, y, width, height, result);
+	}
+
+	@Override
+	public void getElementsWithinRadius(float centerX, float centerY, float radius, QuadTreeQueryCallback<T> callback) {
+		snapshot.getElementsWithinRadius(centerX, centerY, radius, callback);
+	}
+
+	@Override
+	public void getElementIdsWithinRadius(float centerX, float centerY, float radius, IntArray result) {
+		snapshot.getElementIdsWithinRadius(centerX, centerY, radius, result);
+	}
+
+	@Override
+	public void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback) {
+		snapshot.getElementsContainingPoint(x, y, callback);
+	}
+
+	@Override
+	public void getElementIdsContainingPoint(float x, float y, IntArray result) {
+		snapshot.getElementIdsContainingPoint(x, y, result);
+	}
+
+	@Override
+	public void raycast(float originX, float originY, float directionX, float directionY, float maxDistance,
+			RaycastCallback<T> callback) {
+		snapshot.raycast(originX, originY, directionX, directionY, maxDistance, callback);
+	}
+
+	@Override
+	public List<T> getElements() {
+		return snapshot.getElements();
+	}
+
+	@Override
+	public void getElements(List<T> result) {
+		snapshot.getElements(result);
+	}
+
+	@Override
+	public int getTotalQuads() {
+		return snapshot.getTotalQuads();
+	}
+
+	@Override
+	public int getTotalElements() {
+		return snapshot.getTotalElements();
+	}
+
+	@Override
+	public QuadTree<T> getParent() {
+		return null;
+	}
+
+	public int getElementLimitPerQuad() {
+		return elementLimitPerQuad;
+	}
+
+	public int getMergeWatermark() {
+		return mergeWatermark;
+	}
+
+	@Override
+	public float getMinimumQuadWidth() {
+		return minimumQuadWidth;
+	}
+
+	@Override
+	public float getMinimumQuadHeight() {
+		return minimumQuadHeight;
+	}
+
+	/**
+	 * An immutable view of a {@link CopyOnWriteRegionQuadTree} at a point in
+	 * time. Elements are matched against the bounds they had when the snapshot
+	 * was published before their {@link Shape} is checked.
+	 */
+	public static class Snapshot<T extends CollisionShape> {
+		final Quad root;
+
+		Snapshot(Quad root) {
+			this.root = root;
+		}
+
+		public List<T> getElementsWithinArea(Shape area) {
+			List<T> result = new ArrayList<T>();
+			getElementsWithinArea(result, area);
+			return result;
+		}
+
+		public void getElementsWithinArea(Collection<T> result, Shape area) {
+			getElementsWithinArea(root, result, area, area.getMinX(), area.getMinY(), area.getMaxX(),
+					area.getMaxY());
+		}
+
+		@SuppressWarnings("unchecked")
+		private void getElementsWithinArea(Quad quad, Collection<T> result, Shape area, float minX, float minY,
+				float maxX, float maxY) {
+			if (quad.children != null) {
+				for (int i = 0; i < quad.children.length; i++) {
+					Quad child = quad.children[i];
+					if (child.totalElements > 0 && child.overlaps(minX, minY, maxX, maxY)) {
+						getElementsWithinArea(child, result, area, minX, minY, maxX, maxY);
+					}
+				}
+			}
+			for (int i = quad.elements.length - 1; i >= 0; i--) {
+				if (!quad.elementOverlaps(i, minX, minY, maxX, maxY)) {
+					continue;
+				}
+				T element = (T) quad.elements[i];
+				if (area.contains(element.getShape()) || area.intersects(element.getShape())) {
+					result.add(element);
+				}
+			}
+		}
+
+		public List<T> getElementsIntersectingLineSegment(LineSegment lineSegment) {
+			List<T> result = new ArrayList<T>();
+			getElementsIntersectingLineSegment(result, lineSegment);
+			return result;
+		}
+
+		public void getElementsIntersectingLineSegment(Collection<T> result, LineSegment lineSegment) {
+			getElementsIntersectingLineSegment(root, result, lineSegment, lineSegment.getMinX(),
+					lineSegment.getMinY(), lineSegment.getMaxX(), lineSegment.getMaxY());
+		}
+
+		@SuppressWarnings("unchecked")
+		private void getElementsIntersectingLineSegment(Quad quad, Collection<T> result, LineSegment lineSegment,
+				float minX, float minY, float maxX, float maxY) {
+			if (quad.children != null) {
+				for (int i = 0; i < quad.children.length; i++) {
+					Quad child = quad.children[i];
+					if (child.totalElements > 0 && child.overlaps(minX, minY, maxX, maxY)) {
+						getElementsIntersectingLineSegment(child, result, lineSegment, minX, minY, maxX, maxY);
+					}
+				}
+			}
+			for (int i = quad.elements.length - 1; i >= 0; i--) {
+				if (!quad.elementOverlaps(i, minX, minY, maxX, maxY)) {
+					continue;
+				}
+				T element = (T) quad.elements[i];
+				if (element.intersects(lineSegment)) {
+					result.add(element);
+				}
+			}
+		}
+
+		public List<T> getElementsContainingPoint(Point point) {
+			List<T> result = new ArrayList<T>();
+			getElementsContainingPoint(result, point);
+			return result;
+		}
+
+		public void getElementsContainingPoint(Collection<T> result, Point point) {
+			getElementsContainingPoint(root, result, point);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void getElementsContainingPoint(Quad quad, Collection<T> result, Point point) {
+			if (quad.children != null) {
+				for (int i = 0; i < quad.children.length; i++) {
+					Quad child = quad.children[i];
+					if (child.totalElements > 0 && child.overlaps(point.x, point.y, point.x, point.y)) {
+						getElementsContainingPoint(child, result, point);
+					}
+				}
+			}
+			for (int i = quad.elements.length - 1; i >= 0; i--) {
+				if (!quad.elementOverlaps(i, point.x, point.y, point.x, point.y)) {
+					continue;
+				}
+				T element = (T) quad.elements[i];
+				if (element.contains(point)) {
+					result.add(element);
+				}
+			}
+		}
+
+		public void getElementsWithinArea(float x, float y, float width, float height,
+				QuadTreeQueryCallback<T> callback) {
+			getElementsWithinArea(root, x, y, x + width, y + height, callback, null);
+		}
+
+		public void getElementIdsWithinArea(float x, float y, float width, float height, IntArray result) {
+			getElementsWithinArea(root, x, y, x + width, y + height, null, result);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void getElementsWithinArea(Quad quad, float minX, float minY, float maxX, float maxY,
+				QuadTreeQueryCallback<T> callback, IntArray result) {
+			if (quad.children != null) {
+				for (int i = 0; i < quad.children.length; i++) {
+					Quad child = quad.children[i];
+					if (child.totalElements > 0 && child.overlaps(minX, minY, maxX, maxY)) {
+						getElementsWithinArea(child, minX, minY, maxX, maxY, callback, result);
+					}
+				}
+			}
+			for (int i = quad.elements.length - 1; i >= 0; i--) {
+				if (quad.elementOverlaps(i, minX, minY, maxX, maxY)) {
+					QueryBounds.elementFound((T) quad.elements[i], callback, result);
+				}
+			}
+		}
+
+		public void getElementsWithinRadius(float centerX, float centerY, float radius,
+				QuadTreeQueryCallback<T> callback) {
+			getElementsWithinRadius(root, centerX, centerY, radius, callback, null);
+		}
+
+		public void getElementIdsWithinRadius(float centerX, float centerY, float radius, IntArray result) {
+			getElementsWithinRadius(root, centerX, centerY, radius, null, result);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void getElementsWithinRadius(Quad quad, float centerX, float centerY, float radius,
+				QuadTreeQueryCallback<T> callback, IntArray result) {
+			if (quad.children != null) {
+				for (int i = 0; i < quad.children.length; i++) {
+					Quad child = quad.children[i];
+					if (child.totalElements > 0 && QueryBounds.overlapsCircle(child.x, child.y, child.x + child.width,
+							child.y + child.height, centerX, centerY, radius)) {
+						getElementsWithinRadius(child, centerX, centerY, radius, callback, result);
+					}
+				}
+			}
+			for (int i = quad.elements.length - 1; i >= 0; i--) {
+				int boundsIndex = i * 4;
+				if (QueryBounds.overlapsCircle(quad.bounds[boundsIndex], quad.bounds[boundsIndex + 1],
+						quad.bounds[boundsIndex + 2], quad.bounds[boundsIndex + 3], centerX, centerY, radius)) {
+					QueryBounds.elementFound((T) quad.elements[i], callback, result);
+				}
+			}
+		}
+
+		public void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback) {
+			getElementsContainingPoint(root, x, y, callback, null);
+		}
+
+		public void getElementIdsContainingPoint(float x, float y, IntArray result) {
+			getElementsContainingPoint(root, x, y, null, result);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void getElementsContainingPoint(Quad quad, float x, float y, QuadTreeQueryCallback<T> callback,
+				IntArray result) {
+			if (quad.children != null) {
+				for (int i = 0; i < quad.children.length; i++) {
+					Quad child = quad.children[i];
+					if (child.totalElements > 0 && child.overlaps(x, y, x, y)) {
+						getElementsContainingPoint(child, x, y, callback, result);
+					}
+				}
+			}
+			for (int i = quad.elements.length - 1; i >= 0; i--) {
+				if (!quad.elementOverlaps(i, x, y, x, y)) {
+					continue;
+				}
+				T element = (T) quad.elements[i];
+				if (element.getShape().contains(x, y)) {
+					QueryBounds.elementFound(element, callback, result);
+				}
+			}
+		}
+
+		public void raycast(float originX, float originY, float directionX, float directionY, float maxDistance,
+				RaycastCallback<T> callback) {
+			float length = (float) Math.sqrt((directionX * directionX) + (directionY * directionY));
+			if (length == 0f || maxDistance <= 0f) {
+				return;
+			}
+			raycast(root, originX, originY, directionX / length, directionY / length, maxDistance, callback);
+		}
+
+		@SuppressWarnings("unchecked")
+		private float raycast(Quad quad, float originX, float originY, float directionX, float directionY,
+				float maxDistance, RaycastCallback<T> callback) {
+			for (int i = quad.elements.length - 1; i >= 0 && maxDistance > 0f; i--) {
+				int boundsIndex = i * 4;
+				if (QueryBounds.intersectRay(quad.bounds[boundsIndex], quad.bounds[boundsIndex + 1],
+						quad.bounds[boundsIndex + 2], quad.bounds[boundsIndex + 3], originX, originY, directionX,
+						directionY, maxDistance) < 0f) {
+					continue;
+				}
+				T element = (T) quad.elements[i];
+				Shape shape = element.getShape();
+				float distance = QueryBounds.intersectRay(shape, originX, originY, directionX, directionY,
+						maxDistance);
+				if (distance >= 0f) {
+					maxDistance = QueryBounds.rayHit(element, shape, distance, originX, originY, directionX,
+							directionY, maxDistance, callback);
+				}
+			}
+			if (quad.children == null || maxDistance <= 0f) {
+				return maxDistance;
+			}
+
+			float distance0 = intersectRay(quad.children[0], originX, originY, directionX, directionY, maxDistance);
+			float distance1 = intersectRay(quad.children[1], originX, originY, directionX, directionY, maxDistance);
+			float distance2 = intersectRay(quad.children[2], originX, originY, directionX, directionY, maxDistance);
+			float distance3 = intersectRay(quad.children[3], originX, originY, directionX, directionY, maxDistance);
+			while (maxDistance > 0f) {
+				int next = -1;
+				float nextDistance = maxDistance;
+				if (distance0 >= 0f && distance0 <= nextDistance) {
+					next = 0;
+					nextDistance = distance0;
+				}
+				if (distance1 >= 0f && distance1 <= nextDistance) {
+					next = 1;
+					nextDistance = distance1;
+				}
+				if (distance2 >= 0f && distance2 <= nextDistance) {
+					next = 2;
+					nextDistance = distance2;
+				}
+				if (distance3 >= 0f && distance3 <= nextDistance) {
+					next = 3;
+					nextDistance = distance3;
+				}
+				switch (next) {
+				case 0:
+					distance0 = -1f;
+					break;
+				case 1:
+					distance1 = -1f;
+					break;
+				case 2:
+					distance2 = -1f;
+					break;
+				case 3:
+					distance3 = -1f;
+					break;
+				default:
+					return maxDistance;
+				}
+				maxDistance = raycast(quad.children[next], originX, originY, directionX, directionY, maxDistance,
+						callback);
+			}
+			return maxDistance;
+		}
+
+		private float intersectRay(Quad child, float originX, float originY, float directionX, float directionY,
+				float maxDistance) {
+			if (child.totalElements == 0) {
+				return -1f;
+			}
+			return QueryBounds.intersectRay(child.x, child.y, child.x + child.width, child.y + child.height, originX,
+					originY, directionX, directionY, maxDistance);
+		}
+
+		public List<T> getElements() {
+			List<T> result = new ArrayList<T>();
+			getElements(result);
+			return result;
+		}
+
+		public void getElements(List<T> result) {
+			getElements(root, result);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void getElements(Quad quad, List<T> result) {
+			if (quad.children != null) {
+				for (int i = 0; i < quad.children.length; i++) {
+					getElements(quad.children[i], result);
+				}
+			}
+			for (int i = 0; i < quad.elements.length; i++) {
+				result.add((T) quad.elements[i]);
+			}
+		}
+
+		public int getTotalQuads() {
+			return root.getTotalQuads();
+		}
+
+		public int getTotalElements() {
+			return root.totalElements;
+		}
+	}
+
+	/**
+	 * An immutable quad. Element bounds are stored as minX, minY, maxX, maxY
+	 * quadruples alongside the elements.
+	 */
+	static class Quad {
+		private static final Object[] EMPTY_ELEMENTS = new Object[0];
+		private static final float[] EMPTY_BOUNDS = new float[0];
+
+		final float x, y, width, height;
+		final Quad[] children;
+		final Object[] elements;
+		final float[] bounds;
+		final int totalElements;
+
+		Quad(float x, float y, float width, float height, Quad[] children, Object[] elements, float[] bounds,
+				int totalElements) {
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+			this.children = children;
+			this.elements = elements;
+			this.bounds = bounds;
+			this.totalElements = totalElements;
+		}
+
+		static Quad leaf(float x, float y, float width, float height) {
+			return new Quad(x, y, width, height, null, EMPTY_ELEMENTS, EMPTY_BOUNDS, 0);
+		}
+
+		boolean overlaps(float minX, float minY, float maxX, float maxY) {
+			return minX <= x + width && maxX >= x && minY <= y + height && maxY >= y;
+		}
+
+		boolean elementOverlaps(int index, float minX, float minY, float maxX, float maxY) {
+			int boundsIndex = index * 4;
+			return minX <= bounds[boundsIndex + 2] && maxX >= bounds[boundsIndex] && minY <= bounds[boundsIndex + 3]
+					&& maxY >= bounds[boundsIndex + 1];
+		}
+
+		int getChildIndex(float minX, float minY, float maxX, float maxY) {
+			return getChildIndex(minX, minY, maxX, maxY, width * 0.5f, height * 0.5f);
+		}
+
+		int getChildIndex(float minX, float minY, float maxX, float maxY, float halfWidth, float halfHeight) {
+			if (minX < x || minY < y || maxX > x + width || maxY > y + height) {
+				return -1;
+			}
+			float centerX = x + halfWidth;
+			float centerY = y + halfHeight;
+			int column;
+			if (maxX <= centerX) {
+				column = 0;
+			} else if (minX >= centerX) {
+				column = 1;
+			} else {
+				return -1;
+			}
+			if (maxY <= centerY) {
+				return column;
+			} else if (minY >= centerY) {
+				return column + 2;
+			}
+			return -1;
+		}
+
+		int indexOf(Object element) {
+			for (int i = 0; i < elements.length; i++) {
+				if (elements[i] == element) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		Quad withChild(int index, Quad child, int totalElements) {
+			Quad[] children = this.children.clone();
+			children[index] = child;
+			return new Quad(x, y, width, height, children, elements, bounds, totalElements);
+		}
+
+		Quad withElement(Object element, float minX, float minY, float maxX, float maxY) {
+			Object[] elements = new Object[this.elements.length + 1];
+			System.arraycopy(this.elements, 0, elements, 0, this.elements.length);
+			elements[this.elements.length] = element;
+
+			float[] bounds = new float[this.bounds.length + 4];
+			System.arraycopy(this.bounds, 0, bounds, 0, this.bounds.length);
+			bounds[this.bounds.length] = minX;
+			bounds[this.bounds.length + 1] = minY;
+			bounds[this.bounds.length + 2] = maxX;
+			bounds[this.bounds.length + 3] = maxY;
+			return new Quad(x, y, width, height, children, elements, bounds, totalElements + 1);
+		}
+
+		Quad withoutElement(int index) {
+			Object[] elements = new Object[this.elements.length - 1];
+			System.arraycopy(this.elements, 0, elements, 0, index);
+			System.arraycopy(this.elements, index + 1, elements, index, elements.length - index);
+
+			float[] bounds = new float[this.bounds.length - 4];
+			System.arraycopy(this.bounds, 0, bounds, 0, index * 4);
+			System.arraycopy(this.bounds, (index + 1) * 4, bounds, index * 4, bounds.length - (index * 4));
+			return new Quad(x, y, width, height, children, elements, bounds, totalElements - 1);
+		}
+
+		int copyAll(Object[] resultElements, float[] resultBounds, int offset) {
+			if (children != null) {
+				for (int i = 0; i < children.length; i++) {
+					offset = children[i].copyAll(resultElements, resultBounds, offset);
+				}
+			}
+			System.arraycopy(elements, 0, resultElements, offset, elements.length);
+			System.arraycopy(bounds, 0, resultBounds, offset * 4, bounds.length);
+			return offset + elements.length;
+		}
+
+		int getTotalQuads() {
+			if (children == null) {
+				return 1;
+			}
+			int result = 0;
+			for (int i = 0; i < children.length; i++) {
+				result += children[i].getTotalQuads();
+			}
+			return result;
+		}
+	}
+}
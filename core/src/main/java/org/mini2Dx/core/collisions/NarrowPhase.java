@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.Polygon;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Computes the penetration depth and minimum translation vector between
+ * {@link Shape}s using the separating axis theorem. Polygon edge normals are
+ * cached by {@link Polygon#getEdgeNormals()} so repeated checks only need to
+ * project vertices.
+ * 
+ * The separating axis theorem only applies to convex shapes. When a
+ * {@link Polygon} is concave, {@link Shape#intersects(Shape)} decides whether
+ * the shapes overlap and the penetration is computed against the convex hull
+ * of the concave {@link Polygon}, so it may be larger than necessary.
+ * 
+ * All methods write into caller-provided result objects and do not allocate.
+ * 
+ * Note: This class is not thread safe.
+ */
+public class NarrowPhase {
+	private final Penetration tmpPenetration = new Penetration();
+
+	private float projectionMin, projectionMax;
+	private float bestDepth, bestNormalX, bestNormalY;
+
+	/**
+	 * Computes the {@link Penetration} for each pair of ids in a
+	 * {@link CollisionPairBuffer}, e.g. the result of a {@link BroadPhase}.
+	 * Only pairs that collide are stored in the result.
+	 * 
+	 * @param pairs
+	 *            The pairs of ids to check
+	 * @param shapesById
+	 *            A lookup of {@link CollisionShape}s by their id
+	 * @param result
+	 *            The {@link PenetrationBuffer} to store the results in. This
+	 *            is cleared before any results are stored.
+	 * @return The amount of colliding pairs
+	 */
+	public <T extends CollisionShape> int computePenetrations(CollisionPairBuffer pairs, IntMap<T> shapesById,
+			PenetrationBuffer result) {
+		result.clear();
+		for (int i = 0; i < pairs.size(); i++) {
+			int idA = pairs.getIdA(i);
+			int idB = pairs.getIdB(i);
+			T shapeA = shapesById.get(idA);
+			T shapeB = shapesById.get(idB);
+			if (shapeA == null || shapeB == null) {
+				continue;
+			}
+			if (computePenetration(shapeA.getShape(), shapeB.getShape(), tmpPenetration)) {
+				result.add(idA, idB, tmpPenetration);
+			}
+		}
+		return result.size();
+	}
+
+	/**
+	 * Computes the {@link Penetration} of one {@link Shape} into another
+	 * 
+	 * @param shapeA
+	 *            The first {@link Shape}
+	 * @param shapeB
+	 *            The second {@link Shape}
+	 * @param result
+	 *            The {@link Penetration} to store the result in. The normal
+	 *            points from shapeA towards shapeB. For concave
+	 *            {@link Polygon}s this is based on their convex hull.
+	 * @return True if the {@link Shape}s overlap, false if they are separate
+	 *         or only touching
+	 */
+	public boolean computePenetration(Shape shapeA, Shape shapeB, Penetration result) {
+		result.reset();
+		if (shapeA.getMaxX() < shapeB.getMinX() || shapeB.getMaxX() < shapeA.getMinX()) {
+			return false;
+		}
+		if (shapeA.getMaxY() < shapeB.getMinY() || shapeB.getMaxY() < shapeA.getMinY()) {
+			return false;
+		}
+		if ((isConcave(shapeA) || isConcave(shapeB)) && !shapeA.intersects(shapeB)) {
+			// The convex hulls may overlap while the shapes do not
+			return false;
+		}
+
+		if (shapeA.isCircle()) {
+			if (shapeB.isCircle()) {
+				return computePenetration((Circle) shapeA, (Circle) shapeB, result);
+			}
+			if (!computePenetration(shapeB.getPolygon(), (Circle) shapeA)) {
+				return false;
+			}
+			result.set(-bestNormalX, -bestNormalY, bestDepth);
+			return true;
+		}
+		if (shapeB.isCircle()) {
+			if (!computePenetration(shapeA.getPolygon(), (Circle) shapeB)) {
+				return false;
+			}
+			result.set(bestNormalX, bestNormalY, bestDepth);
+			return true;
+		}
+		if (isAxisAligned(shapeA) && isAxisAligned(shapeB)) {
+			return computeAxisAlignedPenetration(shapeA, shapeB, result);
+		}
+		if (!computePenetration(shapeA.getPolygon(), shapeB.getPolygon())) {
+			return false;
+		}
+		result.set(bestNormalX, bestNormalY, bestDepth);
+		return true;
+	}
+
+	/**
+	 * Computes the {@link Penetration} of one {@link Circle} into another
+	 * 
+	 * @param circleA
+	 *            The first {@link Circle}
+	 * @param circleB
+	 *            The second {@link Circle}
+	 * @param result
+	 *            The {@link Penetration} to store the result in. The normal
+	 *            points from circleA towards circleB.
+	 * @return True if the {@link Circle}s overlap
+	 */
+	public boolean computePenetration(Circle circleA, Circle circleB, Penetration result) {
+		result.reset();
+		float distanceX = circleB.getCenterX() - circleA.getCenterX();
+		float distanceY = circleB.getCenterY() - circleA.getCenterY();
+		float totalRadius = circleA.getRadius() + circleB.getRadius();
+		float distanceSquared = (distanceX * distanceX) + (distanceY * distanceY);
+		if (distanceSquared >= totalRadius * totalRadius) {
+			return false;
+		}
+		float distance = (float) Math.sqrt(distanceSquared);
+		if (distance == 0f) {
+			// Same center, any direction separates the circles
+			result.set(1f, 0f, totalRadius);
+			return true;
+		}
+		result.set(distanceX / distance, distanceY / distance, totalRadius - distance);
+		return true;
+	}
+
+	private boolean isConcave(Shape shape) {
+		return !shape.isCircle() && !shape.getPolygon().isConvex();
+	}
+
+	private boolean isAxisAligned(Shape shape) {
+		return shape instanceof Rectangle && shape.getRotation() == 0f;
+	}
+
+	private boolean computeAxisAlignedPenetration(Shape shapeA, Shape shapeB, Penetration result) {
+		float depthX = Math.min(shapeA.getMaxX() - shapeB.getMinX(), shapeB.getMaxX() - shapeA.getMinX());
+		float depthY = Math.min(shapeA.getMaxY() - shapeB.getMinY(), shapeB.getMaxY() - shapeA.getMinY());
+		if (depthX <= 0f || depthY <= 0f) {
+			return false;
+		}
+		if (depthX <= depthY) {
+			boolean positive = shapeA.getMaxX() - shapeB.getMinX() < shapeB.getMaxX() - shapeA.getMinX();
+			result.set(positive ? 1f : -1f, 0f, depthX);
+		} else {
+			boolean positive = shapeA.getMaxY() - shapeB.getMinY() < shapeB.getMaxY() - shapeA.getMinY();
+			result.set(0f, positive ? 1f : -1f, depthY);
+		}
+		return true;
+	}
+
+	/**
+	 * Tests the edge normals of both polygons, storing the best axis with the
+	 * normal pointing from polygonA towards polygonB
+	 */
+	private boolean computePenetration(Polygon polygonA, Polygon polygonB) {
+		bestDepth = Float.MAX_VALUE;
+		if (!testEdgeNormals(polygonA, polygonA, polygonB)) {
+			return false;
+		}
+		return testEdgeNormals(polygonB, polygonA, polygonB);
+	}
+
+	private boolean testEdgeNormals(Polygon axesPolygon, Polygon polygonA, Polygon polygonB) {
+		float[] normals = axesPolygon.getEdgeNormals();
+		for (int i = 0; i < normals.length; i += 2) {
+			float axisX = normals[i];
+			float axisY = normals[i + 1];
+			if (axisX == 0f && axisY == 0f) {
+				// Zero-length edge
+				continue;
+			}
+			projectPolygon(polygonA, axisX, axisY);
+			float minA = projectionMin;
+			float maxA = projectionMax;
+			projectPolygon(polygonB, axisX, axisY);
+			if (!testAxis(axisX, axisY, minA, maxA, projectionMin, projectionMax)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tests the edge normals of the polygon and the axis from the circle
+	 * center to the closest vertex, storing the best axis with the normal
+	 * pointing from the polygon towards the circle
+	 */
+	private boolean computePenetration(Polygon polygon, Circle circle) {
+		bestDepth = Float.MAX_VALUE;
+		float centerX = circle.getCenterX();
+		float centerY = circle.getCenterY();
+		float radius = circle.getRadius();
+
+		float[] normals = polygon.getEdgeNormals();
+		for (int i = 0; i < normals.length; i += 2) {
+			float axisX = normals[i];
+			float axisY = normals[i + 1];
+			if (axisX == 0f && axisY == 0f) {
+				// Zero-length edge
+				continue;
+			}
+			projectPolygon(polygon, axisX, axisY);
+			float circleProjection = (centerX * axisX) + (centerY * axisY);
+			if (!testAxis(axisX, axisY, projectionMin, projectionMax, circleProjection - radius,
+					circleProjection + radius)) {
+				return false;
+			}
+		}
+
+		float[] vertices = polygon.getVertices();
+		float closestDistance = Float.MAX_VALUE;
+		float axisX = 0f, axisY = 0f;
+		for (int i = 0; i < vertices.length; i += 2) {
+			float distanceX = vertices[i] - centerX;
+			float distanceY = vertices[i + 1] - centerY;
+			float distance = (distanceX * distanceX) + (distanceY * distanceY);
+			if (distance < closestDistance) {
+				closestDistance = distance;
+				axisX = distanceX;
+				axisY = distanceY;
+			}
+		}
+		if (closestDistance == 0f) {
+			// Circle center is on a vertex, edge normals are sufficient
+			return true;
+		}
+		closestDistance = (float) Math.sqrt(closestDistance);
+		axisX /= closestDistance;
+		axisY /= closestDistance;
+
+		projectPolygon(polygon, axisX, axisY);
+		float circleProjection = (centerX * axisX) + (centerY * axisY);
+		return testAxis(axisX, axisY, projectionMin, projectionMax, circleProjection - radius,
+				circleProjection + radius);
+	}
+
+	private void projectPolygon(Polygon polygon, float axisX, float axisY) {
+		float[] vertices = polygon.getVertices();
+		float min = (vertices[0] * axisX) + (vertices[1] * axisY);
+		float max = min;
+		for (int i = 2; i < vertices.length; i += 2) {
+			float projection = (vertices[i] * axisX) + (vertices[i + 1] * axisY);
+			if (projection < min) {
+				min = projection;
+			} else if (projection > max) {
+				max = projection;
+			}
+		}
+		projectionMin = min;
+		projectionMax = max;
+	}
+
+	/**
+	 * Compares the projections of two shapes onto an axis and keeps the axis
+	 * if it has the smallest overlap found so far
+	 * 
+	 * @return False if the projections do not overlap
+	 */
+	private boolean testAxis(float axisX, float axisY, float minA, float maxA, float minB, float maxB) {
+		float forwardDepth = maxA - minB;
+		float backwardDepth = maxB - minA;
+		if (forwardDepth <= 0f || backwardDepth <= 0f) {
+			return false;
+		}
+		if (forwardDepth < backwardDepth) {
+			if (forwardDepth < bestDepth) {
+				bestDepth = forwardDepth;
+				bestNormalX = axisX;
+				bestNormalY = axisY;
+			}
+		} else if (backwardDepth < bestDepth) {
+			bestDepth = backwardDepth;
+			bestNormalX = -axisX;
+			bestNormalY = -axisY;
+		}
+		return true;
+	}
+}
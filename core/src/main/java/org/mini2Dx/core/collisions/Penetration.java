@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.mini2Dx.core.geom.Shape;
+
+/**
+ * Stores the result of a {@link NarrowPhase} check between two {@link Shape}s
+ */
+public class Penetration {
+	private float normalX, normalY, depth;
+
+	/**
+	 * Sets the collision normal and penetration depth
+	 * 
+	 * @param normalX
+	 *            The x component of the unit normal pointing from the first
+	 *            {@link Shape} towards the second
+	 * @param normalY
+	 *            The y component of the unit normal pointing from the first
+	 *            {@link Shape} towards the second
+	 * @param depth
+	 *            The penetration depth
+	 */
+	public void set(float normalX, float normalY, float depth) {
+		this.normalX = normalX;
+		this.normalY = normalY;
+		this.depth = depth;
+	}
+
+	/**
+	 * Sets all values to 0
+	 */
+	public void reset() {
+		set(0f, 0f, 0f);
+	}
+
+	/**
+	 * Returns the x component of the unit normal pointing from the first
+	 * {@link Shape} towards the second
+	 * 
+	 * @return 0 if there is no collision
+	 */
+	public float getNormalX() {
+		return normalX;
+	}
+
+	/**
+	 * Returns the y component of the unit normal pointing from the first
+	 * {@link Shape} towards the second
+	 * 
+	 * @return 0 if there is no collision
+	 */
+	public float getNormalY() {
+		return normalY;
+	}
+
+	/**
+	 * Returns how far the two {@link Shape}s overlap along the normal
+	 * 
+	 * @return 0 if there is no collision
+	 */
+	public float getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the x component of the minimum translation vector, i.e. the
+	 * shortest translation to apply to the first {@link Shape} to separate it
+	 * from the second
+	 * 
+	 * @return 0 if there is no collision
+	 */
+	public float getTranslationX() {
+		return -normalX * depth;
+	}
+
+	/**
+	 * Returns the y component of the minimum translation vector, i.e. the
+	 * shortest translation to apply to the first {@link Shape} to separate it
+	 * from the second
+	 * 
+	 * @return 0 if there is no collision
+	 */
+	public float getTranslationY() {
+		return -normalY * depth;
+	}
+
+	@Override
+	public String toString() {
+		return "Penetration [normalX=" + normalX + ", normalY=" + normalY + ", depth=" + depth + "]";
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+/**
+ * A reusable buffer of {@link Penetration} results stored in primitive
+ * arrays so that narrow-phase results can be gathered each frame without
+ * allocation
+ */
+public class PenetrationBuffer {
+	private int[] ids;
+	private float[] values;
+	private int size;
+
+	/**
+	 * Constructor with a default capacity of 16 results
+	 */
+	public PenetrationBuffer() {
+		this(16);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param initialCapacity
+	 *            The initial amount of results that can be stored before the
+	 *            buffer needs to grow
+	 */
+	public PenetrationBuffer(int initialCapacity) {
+		initialCapacity = Math.max(1, initialCapacity);
+		ids = new int[initialCapacity * 2];
+		values = new float[initialCapacity * 3];
+	}
+
+	/**
+	 * Adds a result
+	 * 
+	 * @param idA
+	 *            The id of the first element
+	 * @param idB
+	 *            The id of the second element
+	 * @param penetration
+	 *            The {@link Penetration} of the first element into the second
+	 */
+	public void add(int idA, int idB, Penetration penetration) {
+		if ((size + 1) * 2 > ids.length) {
+			int[] newIds = new int[ids.length * 2];
+			System.arraycopy(ids, 0, newIds, 0, size * 2);
+			ids = newIds;
+
+			float[] newValues = new float[values.length * 2];
+			System.arraycopy(values, 0, newValues, 0, size * 3);
+			values = newValues;
+		}
+		ids[size * 2] = idA;
+		ids[(size * 2) + 1] = idB;
+		values[size * 3] = penetration.getNormalX();
+		values[(size * 3) + 1] = penetration.getNormalY();
+		values[(size * 3) + 2] = penetration.getDepth();
+		size++;
+	}
+
+	/**
+	 * Copies a result into a {@link Penetration} instance
+	 * 
+	 * @param index
+	 *            The index of the result
+	 * @param result
+	 *            The {@link Penetration} to store the values in
+	 */
+	public void get(int index, Penetration result) {
+		checkIndex(index);
+		result.set(values[index * 3], values[(index * 3) + 1], values[(index * 3) + 2]);
+	}
+
+	/**
+	 * Returns the id of the first element of a result
+	 * 
+	 * @param index
+	 *            The index of the result
+	 * @return The id of the element the normal points away from
+	 */
+	public int getIdA(int index) {
+		checkIndex(index);
+		return ids[index * 2];
+	}
+
+	/**
+	 * Returns the id of the second element of a result
+	 * 
+	 * @param index
+	 *            The index of the result
+	 * @return The id of the element the normal points towards
+	 */
+	public int getIdB(int index) {
+		checkIndex(index);
+		return ids[(index * 2) + 1];
+	}
+
+	/**
+	 * Returns the x component of the collision normal of a result
+	 * 
+	 * @param index
+	 *            The index of the result
+	 * @return The x component of the unit normal
+	 */
+	public float getNormalX(int index) {
+		checkIndex(index);
+		return values[index * 3];
+	}
+
+	/**
+	 * Returns the y component of the collision normal of a result
+	 * 
+	 * @param index
+	 *            The index of the result
+	 * @return The y component of the unit normal
+	 */
+	public float getNormalY(int index) {
+		checkIndex(index);
+		return values[(index * 3) + 1];
+	}
+
+	/**
+	 * Returns the penetration depth of a result
+	 * 
+	 * @param index
+	 *            The index of the result
+	 * @return The penetration depth
+	 */
+	public float getDepth(int index) {
+		checkIndex(index);
+		return values[(index * 3) + 2];
+	}
+
+	/**
+	 * Removes all results from this buffer without releasing its storage
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the amount of results stored
+	 * 
+	 * @return 0 if empty
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns if this buffer contains no results
+	 * 
+	 * @return True if empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	private void checkIndex(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+		}
+	}
+}
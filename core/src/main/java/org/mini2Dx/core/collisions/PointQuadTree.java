@@ -23,6 +23,7 @@ import org.mini2Dx.core.geom.Shape;
 import org.mini2Dx.core.graphics.Graphics;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.IntArray;
 
 /**
  * Implements a point quadtree
@@ -38,6 +39,7 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 	private static final long serialVersionUID = -2034928347848875105L;
 
 	protected PointQuadTree<T> parent;
+	protected PointQuadTree<T> rootQuad;
 	protected PointQuadTree<T> topLeft, topRight, bottomLeft, bottomRight;
 	protected List<T> elements;
 	protected final int elementLimitPerQuad;
@@ -46,6 +48,11 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 
 	protected int totalElementsCache = -1;
 
+	protected boolean deferPositionUpdates = false;
+	protected List<T> dirtyElements;
+	protected List<PointQuadTree<T>> dirtyQuads;
+	protected boolean mergePending = false;
+
 	/**
 	 * Constructs a {@link PointQuadTree} with a specified element limit and
 	 * watermark
@@ -111,6 +118,7 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		this(parent.getMinimumQuadWidth(), parent.getMinimumQuadHeight(), parent.getElementLimitPerQuad(),
 				parent.getMergeWatermark(), x, y, width, height);
 		this.parent = parent;
+		this.rootQuad = parent.rootQuad;
 	}
 
 	/**
@@ -151,6 +159,7 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		this.mergeWatermark = mergeWatermark;
 		this.minimumQuadWidth = minimumQuadWidth;
 		this.minimumQuadHeight = minimumQuadHeight;
+		this.rootQuad = this;
 		elements = new ArrayList<T>(elementLimitPerQuad);
 	}
 
@@ -258,12 +267,26 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		bottomLeft = new PointQuadTree<T>(this, getX(), getY() + halfHeight, halfWidth, halfHeight);
 		bottomRight = new PointQuadTree<T>(this, getX() + halfWidth, getY() + halfHeight, halfWidth, halfHeight);
 
+		List<T> displacedElements = null;
 		for (int i = elements.size() - 1; i >= 0; i--) {
 			T element = elements.remove(i);
 			element.removePositionChangeListener(this);
-			addElementToChild(element);
+			if (!addElementToChild(element)) {
+				// Element has moved outside this quad while position updates were deferred
+				if (displacedElements == null) {
+					displacedElements = new ArrayList<T>(1);
+				}
+				displacedElements.add(element);
+			}
 		}
 		elements = null;
+
+		if (displacedElements == null) {
+			return;
+		}
+		for (T element : displacedElements) {
+			addToParent(element);
+		}
 	}
 
 	protected boolean isMergable() {
@@ -301,7 +324,11 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 			return;
 		}
 
-		elements = new ArrayList<>();
+		List<T> mergedElements = new ArrayList<T>();
+		if (elements != null) {
+			mergedElements.addAll(elements);
+		}
+		elements = mergedElements;
 		topLeft.getElements(elements);
 		topRight.getElements(elements);
 		bottomLeft.getElements(elements);
@@ -355,15 +382,26 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		if (parent == null) {
 			return;
 		}
-		if (parent.isMergable()) {
-			parent.merge();
-		}
+		mergeParent();
 	}
 
 	public boolean remove(T element) {
 		if (element == null)
 			return false;
+		if (rootQuad == this && deferPositionUpdates && removeDirtyElement(element)) {
+			return true;
+		}
+		return removeByBounds(element);
+	}
 
+	/**
+	 * Removes an element by searching the quads its current bounds are within
+	 * 
+	 * @param element
+	 *            The element to remove
+	 * @return True if the element was removed
+	 */
+	protected boolean removeByBounds(T element) {
 		if (!this.contains(element.getX(), element.getY())) {
 			return false;
 		}
@@ -410,12 +448,26 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		if (parent == null) {
 			return result;
 		}
-		if (result && parent.isMergable()) {
-			parent.merge();
+		if (result) {
+			mergeParent();
 		}
 		return result;
 	}
 
+	/**
+	 * Merges the parent quad if it is mergable. While position updates are
+	 * deferred, merging is postponed until {@link #flush()}.
+	 */
+	protected void mergeParent() {
+		if (rootQuad.deferPositionUpdates) {
+			rootQuad.mergePending = true;
+			return;
+		}
+		if (parent.isMergable()) {
+			parent.merge();
+		}
+	}
+
 	@Override
 	public List<T> getElementsWithinArea(Shape area) {
 		List<T> result = new ArrayList<T>();
@@ -513,6 +565,212 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		}
 	}
 
+	@Override
+	public void getElementsWithinArea(float x, float y, float width, float height, QuadTreeQueryCallback<T> callback) {
+		getElementsWithinArea(x, y, width, height, callback, null);
+	}
+
+	@Override
+	public void getElementIdsWithinArea(float x, float y, float width, float height, IntArray result) {
+		getElementsWithinArea(x, y, width, height, null, result);
+	}
+
+	@Override
+	public void getElementsWithinRadius(float centerX, float centerY, float radius, QuadTreeQueryCallback<T> callback) {
+		getElementsWithinRadius(centerX, centerY, radius, callback, null);
+	}
+
+	@Override
+	public void getElementIdsWithinRadius(float centerX, float centerY, float radius, IntArray result) {
+		getElementsWithinRadius(centerX, centerY, radius, null, result);
+	}
+
+	@Override
+	public void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback) {
+		getElementsContainingPoint(x, y, callback, null);
+	}
+
+	@Override
+	public void getElementIdsContainingPoint(float x, float y, IntArray result) {
+		getElementsContainingPoint(x, y, null, result);
+	}
+
+	@Override
+	public void raycast(float originX, float originY, float directionX, float directionY, float maxDistance,
+			RaycastCallback<T> callback) {
+		float length = (float) Math.sqrt((directionX * directionX) + (directionY * directionY));
+		if (length == 0f || maxDistance <= 0f) {
+			return;
+		}
+		raycastQuad(originX, originY, directionX / length, directionY / length, maxDistance, callback);
+	}
+
+	protected void getElementsWithinArea(float x, float y, float width, float height,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		if (topLeft != null) {
+			if (topLeft.overlapsArea(x, y, width, height))
+				topLeft.getElementsWithinArea(x, y, width, height, callback, result);
+			if (topRight.overlapsArea(x, y, width, height))
+				topRight.getElementsWithinArea(x, y, width, height, callback, result);
+			if (bottomLeft.overlapsArea(x, y, width, height))
+				bottomLeft.getElementsWithinArea(x, y, width, height, callback, result);
+			if (bottomRight.overlapsArea(x, y, width, height))
+				bottomRight.getElementsWithinArea(x, y, width, height, callback, result);
+		} else {
+			for (int i = elements.size() - 1; i >= 0; i--) {
+				T element = elements.get(i);
+				if (element == null)
+					continue;
+				if (QueryBounds.containsPoint(x, y, x + width, y + height, element.getX(), element.getY())) {
+					QueryBounds.elementFound(element, callback, result);
+				}
+			}
+		}
+	}
+
+	protected void getElementsWithinRadius(float centerX, float centerY, float radius,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		if (topLeft != null) {
+			if (topLeft.overlapsCircle(centerX, centerY, radius))
+				topLeft.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (topRight.overlapsCircle(centerX, centerY, radius))
+				topRight.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (bottomLeft.overlapsCircle(centerX, centerY, radius))
+				bottomLeft.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (bottomRight.overlapsCircle(centerX, centerY, radius))
+				bottomRight.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+		} else {
+			float radiusSquared = radius * radius;
+			for (int i = elements.size() - 1; i >= 0; i--) {
+				T element = elements.get(i);
+				if (element == null)
+					continue;
+				float distanceX = element.getX() - centerX;
+				float distanceY = element.getY() - centerY;
+				if ((distanceX * distanceX) + (distanceY * distanceY) <= radiusSquared) {
+					QueryBounds.elementFound(element, callback, result);
+				}
+			}
+		}
+	}
+
+	protected void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback, IntArray result) {
+		if (topLeft != null) {
+			if (topLeft.containsPoint(x, y))
+				topLeft.getElementsContainingPoint(x, y, callback, result);
+			if (topRight.containsPoint(x, y))
+				topRight.getElementsContainingPoint(x, y, callback, result);
+			if (bottomLeft.containsPoint(x, y))
+				bottomLeft.getElementsContainingPoint(x, y, callback, result);
+			if (bottomRight.containsPoint(x, y))
+				bottomRight.getElementsContainingPoint(x, y, callback, result);
+		} else {
+			for (int i = elements.size() - 1; i >= 0; i--) {
+				T element = elements.get(i);
+				if (element == null)
+					continue;
+				if (element.getX() == x && element.getY() == y) {
+					QueryBounds.elementFound(element, callback, result);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Casts a normalised ray through this quad
+	 * 
+	 * @return The maximum distance of the ray after notifying the callback
+	 */
+	protected float raycastQuad(float originX, float originY, float directionX, float directionY, float maxDistance,
+			RaycastCallback<T> callback) {
+		if (topLeft == null) {
+			return raycastElements(originX, originY, directionX, directionY, maxDistance, callback);
+		}
+		return raycastChildren(originX, originY, directionX, directionY, maxDistance, callback);
+	}
+
+	/**
+	 * Visits the child quads in the order the ray enters them, skipping any
+	 * beyond the maximum distance
+	 */
+	protected float raycastChildren(float originX, float originY, float directionX, float directionY,
+			float maxDistance, RaycastCallback<T> callback) {
+		float topLeftDistance = topLeft.intersectRay(originX, originY, directionX, directionY, maxDistance);
+		float topRightDistance = topRight.intersectRay(originX, originY, directionX, directionY, maxDistance);
+		float bottomLeftDistance = bottomLeft.intersectRay(originX, originY, directionX, directionY, maxDistance);
+		float bottomRightDistance = bottomRight.intersectRay(originX, originY, directionX, directionY, maxDistance);
+
+		while (maxDistance > 0f) {
+			PointQuadTree<T> next = null;
+			float nextDistance = maxDistance;
+			if (topLeftDistance >= 0f && topLeftDistance <= nextDistance) {
+				next = topLeft;
+				nextDistance = topLeftDistance;
+			}
+			if (topRightDistance >= 0f && topRightDistance <= nextDistance) {
+				next = topRight;
+				nextDistance = topRightDistance;
+			}
+			if (bottomLeftDistance >= 0f && bottomLeftDistance <= nextDistance) {
+				next = bottomLeft;
+				nextDistance = bottomLeftDistance;
+			}
+			if (bottomRightDistance >= 0f && bottomRightDistance <= nextDistance) {
+				next = bottomRight;
+				nextDistance = bottomRightDistance;
+			}
+			if (next == null) {
+				break;
+			}
+			if (next == topLeft) {
+				topLeftDistance = -1f;
+			} else if (next == topRight) {
+				topRightDistance = -1f;
+			} else if (next == bottomLeft) {
+				bottomLeftDistance = -1f;
+			} else {
+				bottomRightDistance = -1f;
+			}
+			maxDistance = next.raycastQuad(originX, originY, directionX, directionY, maxDistance, callback);
+		}
+		return maxDistance;
+	}
+
+	protected float raycastElements(float originX, float originY, float directionX, float directionY,
+			float maxDistance, RaycastCallback<T> callback) {
+		for (int i = elements.size() - 1; i >= 0 && maxDistance > 0f; i--) {
+			T element = elements.get(i);
+			if (element == null)
+				continue;
+			float distance = QueryBounds.intersectRay(element.getX(), element.getY(), originX, originY, directionX,
+					directionY, maxDistance);
+			if (distance >= 0f) {
+				maxDistance = Math.min(maxDistance, callback.onHit(element, distance, -directionX, -directionY));
+			}
+		}
+		return maxDistance;
+	}
+
+	protected boolean overlapsArea(float x, float y, float width, float height) {
+		return QueryBounds.overlapsArea(getX(), getY(), getX() + getWidth(), getY() + getHeight(), x, y, width,
+				height);
+	}
+
+	protected boolean overlapsCircle(float centerX, float centerY, float radius) {
+		return QueryBounds.overlapsCircle(getX(), getY(), getX() + getWidth(), getY() + getHeight(), centerX, centerY,
+				radius);
+	}
+
+	protected boolean containsPoint(float x, float y) {
+		return QueryBounds.containsPoint(getX(), getY(), getX() + getWidth(), getY() + getHeight(), x, y);
+	}
+
+	protected float intersectRay(float originX, float originY, float directionX, float directionY,
+			float maxDistance) {
+		return QueryBounds.intersectRay(getX(), getY(), getX() + getWidth(), getY() + getHeight(), originX, originY,
+				directionX, directionY, maxDistance);
+	}
+
 	public List<T> getElements() {
 		List<T> result = new ArrayList<T>();
 		getElements(result);
@@ -561,19 +819,190 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		totalElementsCache = -1;
 	}
 
+	/**
+	 * Clears the cached element totals of this quad and all of its parents
+	 */
+	protected void clearTotalElementsCacheToRoot() {
+		PointQuadTree<T> quad = this;
+		while (quad != null) {
+			quad.clearTotalElementsCache();
+			quad = quad.parent;
+		}
+	}
+
 	@Override
 	public void positionChanged(T moved) {
+		if (rootQuad.deferPositionUpdates) {
+			rootQuad.queueDirtyElement(this, moved);
+			return;
+		}
 		if (this.contains(moved.getX(), moved.getY()))
 			return;
 
 		removeElement(moved);
+		clearTotalElementsCacheToRoot();
+		addToParent(moved);
+	}
+
+	/**
+	 * Returns if the current position of an element is within the bounds of
+	 * this quad
+	 * 
+	 * @param element
+	 *            The element to check
+	 * @return True if the element does not need to move to another quad
+	 */
+	protected boolean isWithinQuad(T element) {
+		return this.contains(element.getX(), element.getY());
+	}
 
-		QuadTree<T> parentQuad = parent;
+	/**
+	 * Sets if position changes should be queued until {@link #flush()} is
+	 * called instead of restructuring the tree immediately. When enabled,
+	 * {@link #flush()} should be called once at the end of each update. This
+	 * applies to the whole tree and can be called on any quad.
+	 * 
+	 * @param deferPositionUpdates
+	 *            True if position changes should be deferred
+	 */
+	public void setDeferPositionUpdates(boolean deferPositionUpdates) {
+		if (rootQuad != this) {
+			rootQuad.setDeferPositionUpdates(deferPositionUpdates);
+			return;
+		}
+		if (this.deferPositionUpdates && !deferPositionUpdates) {
+			flush();
+		}
+		if (deferPositionUpdates && dirtyElements == null) {
+			dirtyElements = new ArrayList<T>();
+			dirtyQuads = new ArrayList<PointQuadTree<T>>();
+		}
+		this.deferPositionUpdates = deferPositionUpdates;
+	}
+
+	/**
+	 * Returns if position changes are queued until {@link #flush()} is called
+	 * 
+	 * @return False by default
+	 */
+	public boolean isDeferPositionUpdates() {
+		return rootQuad.deferPositionUpdates;
+	}
+
+	/**
+	 * Moves all elements that changed position since the previous flush to
+	 * their correct quads. Each element is re-inserted from its current quad
+	 * upwards and quads are merged once after all elements have moved.
+	 */
+	public void flush() {
+		if (rootQuad != this) {
+			rootQuad.flush();
+			return;
+		}
+		if (dirtyElements == null || (dirtyElements.isEmpty() && !mergePending)) {
+			return;
+		}
+		for (int i = 0; i < dirtyElements.size(); i++) {
+			dirtyQuads.get(i).relocateElement(dirtyElements.get(i));
+		}
+		dirtyElements.clear();
+		dirtyQuads.clear();
+		mergePending = false;
+		mergeQuads();
+	}
+
+	protected void queueDirtyElement(PointQuadTree<T> quad, T element) {
+		dirtyElements.add(element);
+		dirtyQuads.add(quad);
+	}
+
+	/**
+	 * Removes an element that has moved since the previous {@link #flush()}
+	 * from the quad it is stored in
+	 * 
+	 * @param element
+	 *            The element to remove
+	 * @return False if the element has not moved or is no longer stored in
+	 *         the quad it moved from
+	 */
+	protected boolean removeDirtyElement(T element) {
+		boolean result = false;
+		for (int i = dirtyElements.size() - 1; i >= 0; i--) {
+			if (dirtyElements.get(i) != element) {
+				continue;
+			}
+			if (!result) {
+				result = dirtyQuads.get(i).removeStoredElement(element);
+			}
+			dirtyElements.remove(i);
+			dirtyQuads.remove(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Removes an element if it is stored in this quad, regardless of its
+	 * current bounds
+	 * 
+	 * @param element
+	 *            The element to remove
+	 * @return True if the element was removed
+	 */
+	protected boolean removeStoredElement(T element) {
+		if (elements == null || !elements.contains(element)) {
+			return false;
+		}
+		clearTotalElementsCacheToRoot();
+		return removeElement(element);
+	}
+
+	/**
+	 * Moves an element from this quad to the nearest parent that can hold it
+	 * without merging any quads
+	 * 
+	 * @param element
+	 *            The element to relocate
+	 */
+	protected void relocateElement(T element) {
+		if (isWithinQuad(element)) {
+			return;
+		}
+		if (elements == null || !elements.remove(element)) {
+			// Element was removed or already relocated
+			return;
+		}
+		element.removePositionChangeListener(this);
+
+		clearTotalElementsCacheToRoot();
+		addToParent(element);
+	}
+
+	protected void addToParent(T element) {
+		PointQuadTree<T> parentQuad = parent;
 		while (parentQuad != null) {
-			if (parentQuad.add(moved)) {
+			// Skip quads that only partially overlap the element, otherwise it
+			// could be stored outside of its quad's bounds and missed by queries
+			if ((parentQuad.parent == null || parentQuad.isWithinQuad(element)) && parentQuad.add(element)) {
 				return;
 			}
-			parentQuad = parentQuad.getParent();
+			parentQuad = parentQuad.parent;
+		}
+	}
+
+	/**
+	 * Merges all mergable quads, starting with the deepest
+	 */
+	protected void mergeQuads() {
+		if (topLeft == null) {
+			return;
+		}
+		topLeft.mergeQuads();
+		topRight.mergeQuads();
+		bottomLeft.mergeQuads();
+		bottomRight.mergeQuads();
+
+		if (isMergable()) {
+			merge();
 		}
 	}
 
@@ -22,6 +22,8 @@ import org.mini2Dx.core.geom.Point;
 import org.mini2Dx.core.geom.Shape;
 import org.mini2Dx.core.graphics.Graphics;
 
+import com.badlogic.gdx.utils.IntArray;
+
 /**
  * Common interface for <a href="http://en.wikipedia.org/wiki/Quadtree">Quad Tree</a> implementation
  */
@@ -48,6 +50,116 @@ public interface QuadTree<T extends Positionable> extends PositionChangeListener
 	
 	public void getElementsContainingPoint(Collection<T> result, Point point);
 	
+	/**
+	 * Passes each element whose bounds overlap an area to a callback without
+	 * allocating any objects
+	 * 
+	 * @param x
+	 *            The x coordinate of the area
+	 * @param y
+	 *            The y coordinate of the area
+	 * @param width
+	 *            The width of the area
+	 * @param height
+	 *            The height of the area
+	 * @param callback
+	 *            The {@link QuadTreeQueryCallback} to notify of each element
+	 */
+	public void getElementsWithinArea(float x, float y, float width, float height, QuadTreeQueryCallback<T> callback);
+	
+	/**
+	 * Stores the ids of each element whose bounds overlap an area
+	 * 
+	 * @param x
+	 *            The x coordinate of the area
+	 * @param y
+	 *            The y coordinate of the area
+	 * @param width
+	 *            The width of the area
+	 * @param height
+	 *            The height of the area
+	 * @param result
+	 *            The {@link IntArray} to add the element ids to
+	 */
+	public void getElementIdsWithinArea(float x, float y, float width, float height, IntArray result);
+	
+	/**
+	 * Passes each element whose bounds overlap a circle to a callback without
+	 * allocating any objects
+	 * 
+	 * @param centerX
+	 *            The x coordinate of the circle's center
+	 * @param centerY
+	 *            The y coordinate of the circle's center
+	 * @param radius
+	 *            The radius of the circle
+	 * @param callback
+	 *            The {@link QuadTreeQueryCallback} to notify of each element
+	 */
+	public void getElementsWithinRadius(float centerX, float centerY, float radius, QuadTreeQueryCallback<T> callback);
+	
+	/**
+	 * Stores the ids of each element whose bounds overlap a circle
+	 * 
+	 * @param centerX
+	 *            The x coordinate of the circle's center
+	 * @param centerY
+	 *            The y coordinate of the circle's center
+	 * @param radius
+	 *            The radius of the circle
+	 * @param result
+	 *            The {@link IntArray} to add the element ids to
+	 */
+	public void getElementIdsWithinRadius(float centerX, float centerY, float radius, IntArray result);
+	
+	/**
+	 * Passes each element containing a point to a callback without allocating
+	 * any objects
+	 * 
+	 * @param x
+	 *            The x coordinate of the point
+	 * @param y
+	 *            The y coordinate of the point
+	 * @param callback
+	 *            The {@link QuadTreeQueryCallback} to notify of each element
+	 */
+	public void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback);
+	
+	/**
+	 * Stores the ids of each element containing a point
+	 * 
+	 * @param x
+	 *            The x coordinate of the point
+	 * @param y
+	 *            The y coordinate of the point
+	 * @param result
+	 *            The {@link IntArray} to add the element ids to
+	 */
+	public void getElementIdsContainingPoint(float x, float y, IntArray result);
+
+	/**
+	 * Casts a ray through the quad tree without allocating any objects.
+	 * Quads are visited in the order the ray passes through them and quads
+	 * beyond the maximum distance returned by the callback are skipped.
+	 *
+	 * @param originX
+	 *            The x coordinate the ray starts at
+	 * @param originY
+	 *            The y coordinate the ray starts at
+	 * @param directionX
+	 *            The x component of the ray direction. Does not need to be
+	 *            normalised.
+	 * @param directionY
+	 *            The y component of the ray direction. Does not need to be
+	 *            normalised.
+	 * @param maxDistance
+	 *            The maximum distance the ray travels
+	 * @param callback
+	 *            The {@link RaycastCallback} to notify of each hit
+	 */
+	public void raycast(float originX, float originY, float directionX, float directionY, float maxDistance,
+			RaycastCallback<T> callback);
+	
 	public List<T> getElements();
 	
 	public void getElements(List<T> result);
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+
+/**
+ * A {@link BroadPhase} implementation backed by a {@link QuadTree}. Each
+ * element queries the {@link QuadTree} for elements overlapping its bounds.
+ * 
+ * The {@link QuadTree} should store elements by their bounds, e.g. a
+ * {@link RegionQuadTree} or {@link SpatialHashGrid}. Pairs are de-duplicated
+ * by element id so each element must have a unique id.
+ * 
+ * Note: This implementation is not thread-safe
+ */
+public class QuadTreeBroadPhase<T extends CollisionShape> implements BroadPhase<T>, QuadTreeQueryCallback<T> {
+	private final QuadTree<T> quadTree;
+	private final List<T> elements = new ArrayList<T>();
+
+	private T currentElement;
+	private CollisionPairBuffer currentResult;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param quadTree
+	 *            The {@link QuadTree} to store elements in
+	 */
+	public QuadTreeBroadPhase(QuadTree<T> quadTree) {
+		this.quadTree = quadTree;
+	}
+
+	@Override
+	public void add(T element) {
+		if (element == null) {
+			return;
+		}
+		if (quadTree.add(element)) {
+			elements.add(element);
+		}
+	}
+
+	@Override
+	public boolean remove(T element) {
+		if (element == null) {
+			return false;
+		}
+		for (int i = 0; i < elements.size(); i++) {
+			if (elements.get(i) != element) {
+				continue;
+			}
+			elements.remove(i);
+			quadTree.remove(element);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < elements.size(); i++) {
+			quadTree.remove(elements.get(i));
+		}
+		elements.clear();
+	}
+
+	@Override
+	public int getTotalElements() {
+		return elements.size();
+	}
+
+	@Override
+	public void findOverlappingPairs(CollisionPairBuffer result) {
+		result.clear();
+		currentResult = result;
+		for (int i = 0; i < elements.size(); i++) {
+			currentElement = elements.get(i);
+			quadTree.getElementsWithinArea(currentElement.getMinX(), currentElement.getMinY(),
+					currentElement.getMaxX() - currentElement.getMinX(),
+					currentElement.getMaxY() - currentElement.getMinY(), this);
+		}
+		currentElement = null;
+		currentResult = null;
+	}
+
+	@Override
+	public void onElementFound(T element) {
+		if (element.getId() <= currentElement.getId()) {
+			return;
+		}
+		if (!QueryBounds.overlapsArea(element.getMinX(), element.getMinY(), element.getMaxX(), element.getMaxY(),
+				currentElement.getMinX(), currentElement.getMinY(),
+				currentElement.getMaxX() - currentElement.getMinX(),
+				currentElement.getMaxY() - currentElement.getMinY())) {
+			return;
+		}
+		currentResult.add(currentElement.getId(), element.getId());
+	}
+
+	/**
+	 * Returns the {@link QuadTree} backing this {@link BroadPhase}
+	 * 
+	 * @return The {@link QuadTree} instance
+	 */
+	public QuadTree<T> getQuadTree() {
+		return quadTree;
+	}
+}
@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.Polygon;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Bounds checks shared by the allocation-free {@link QuadTree} queries
+ */
+final class QueryBounds {
+	/**
+	 * The maximum distance a point may be from a ray and still be hit by it
+	 */
+	static final float RAY_POINT_TOLERANCE = 0.001f;
+
+	private QueryBounds() {
+	}
+
+	static boolean overlapsArea(float minX, float minY, float maxX, float maxY, float x, float y, float width,
+			float height) {
+		return maxX >= x && minX <= x + width && maxY >= y && minY <= y + height;
+	}
+
+	static boolean overlapsCircle(float minX, float minY, float maxX, float maxY, float centerX, float centerY,
+			float radius) {
+		float closestX = centerX < minX ? minX : (centerX > maxX ? maxX : centerX);
+		float closestY = centerY < minY ? minY : (centerY > maxY ? maxY : centerY);
+		float distanceX = centerX - closestX;
+		float distanceY = centerY - closestY;
+		return (distanceX * distanceX) + (distanceY * distanceY) <= radius * radius;
+	}
+
+	static boolean containsPoint(float minX, float minY, float maxX, float maxY, float x, float y) {
+		return x >= minX && x <= maxX && y >= minY && y <= maxY;
+	}
+
+	/**
+	 * Notifies the callback if one is set, otherwise stores the element id
+	 */
+	static <T extends Positionable> void elementFound(T element, QuadTreeQueryCallback<T> callback,
+			IntArray result) {
+		if (callback != null) {
+			callback.onElementFound(element);
+		} else {
+			result.add(element.getId());
+		}
+	}
+
+	/**
+	 * Returns the distance along a normalised ray that it enters an axis
+	 * aligned box, 0 if the ray starts inside the box or -1 if the ray misses
+	 * the box within the maximum distance
+	 */
+	static float intersectRay(float minX, float minY, float maxX, float maxY, float originX, float originY,
+			float directionX, float directionY, float maxDistance) {
+		float entry = 0f;
+		float exit = maxDistance;
+		if (directionX == 0f) {
+			if (originX < minX || originX > maxX) {
+				return -1f;
+			}
+		} else {
+			float inverse = 1f / directionX;
+			float near = (minX - originX) * inverse;
+			float far = (maxX - originX) * inverse;
+			if (near > far) {
+				float swap = near;
+				near = far;
+				far = swap;
+			}
+			entry = Math.max(entry, near);
+			exit = Math.min(exit, far);
+			if (entry > exit) {
+				return -1f;
+			}
+		}
+		if (directionY == 0f) {
+			if (originY < minY || originY > maxY) {
+				return -1f;
+			}
+		} else {
+			float inverse = 1f / directionY;
+			float near = (minY - originY) * inverse;
+			float far = (maxY - originY) * inverse;
+			if (near > far) {
+				float swap = near;
+				near = far;
+				far = swap;
+			}
+			entry = Math.max(entry, near);
+			exit = Math.min(exit, far);
+			if (entry > exit) {
+				return -1f;
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Returns the distance along a normalised ray that it hits a point or -1
+	 * if the ray misses the point within the maximum distance
+	 */
+	static float intersectRay(float x, float y, float originX, float originY, float directionX, float directionY,
+			float maxDistance) {
+		float offsetX = x - originX;
+		float offsetY = y - originY;
+		float distance = (offsetX * directionX) + (offsetY * directionY);
+		if (distance < 0f || distance > maxDistance) {
+			return -1f;
+		}
+		if (Math.abs((offsetX * directionY) - (offsetY * directionX)) > RAY_POINT_TOLERANCE) {
+			return -1f;
+		}
+		return distance;
+	}
+
+	/**
+	 * Returns the distance along a normalised ray that it hits a
+	 * {@link Shape}, 0 if the ray starts inside the {@link Shape} or -1 if the
+	 * ray misses the {@link Shape} within the maximum distance
+	 */
+	static float intersectRay(Shape shape, float originX, float originY, float directionX, float directionY,
+			float maxDistance) {
+		if (shape.isCircle()) {
+			Circle circle = (Circle) shape;
+			float offsetX = originX - circle.getCenterX();
+			float offsetY = originY - circle.getCenterY();
+			float c = (offsetX * offsetX) + (offsetY * offsetY) - (circle.getRadius() * circle.getRadius());
+			if (c <= 0f) {
+				return 0f;
+			}
+			float b = (offsetX * directionX) + (offsetY * directionY);
+			if (b > 0f) {
+				return -1f;
+			}
+			float discriminant = (b * b) - c;
+			if (discriminant < 0f) {
+				return -1f;
+			}
+			float distance = -b - (float) Math.sqrt(discriminant);
+			return distance > maxDistance ? -1f : distance;
+		}
+		float boundsDistance = intersectRay(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY(),
+				originX, originY, directionX, directionY, maxDistance);
+		if (boundsDistance < 0f || isAxisAligned(shape)) {
+			return boundsDistance;
+		}
+		Polygon polygon = shape.getPolygon();
+		if (polygon.contains(originX, originY)) {
+			return 0f;
+		}
+		float[] vertices = polygon.getVertices();
+		float result = -1f;
+		for (int i = 0; i < vertices.length; i += 2) {
+			float edgeX = vertices[(i + 2) % vertices.length] - vertices[i];
+			float edgeY = vertices[(i + 3) % vertices.length] - vertices[i + 1];
+			float denominator = (directionX * edgeY) - (directionY * edgeX);
+			if (denominator == 0f) {
+				continue;
+			}
+			float offsetX = vertices[i] - originX;
+			float offsetY = vertices[i + 1] - originY;
+			float distance = ((offsetX * edgeY) - (offsetY * edgeX)) / denominator;
+			if (distance < 0f || distance > maxDistance || (result >= 0f && distance >= result)) {
+				continue;
+			}
+			float edgePosition = ((offsetX * directionY) - (offsetY * directionX)) / denominator;
+			if (edgePosition < 0f || edgePosition > 1f) {
+				continue;
+			}
+			result = distance;
+		}
+		return result;
+	}
+
+	/**
+	 * Notifies a {@link RaycastCallback} of a hit against a {@link Shape},
+	 * computing the surface normal at the point of impact
+	 * 
+	 * @return The new maximum distance of the ray
+	 */
+	static <T extends CollisionShape> float rayHit(T element, Shape shape, float distance, float originX,
+			float originY, float directionX, float directionY, float maxDistance, RaycastCallback<T> callback) {
+		float normalX = -directionX;
+		float normalY = -directionY;
+		if (distance > 0f) {
+			float hitX = originX + (directionX * distance);
+			float hitY = originY + (directionY * distance);
+			if (shape.isCircle()) {
+				Circle circle = (Circle) shape;
+				normalX = (hitX - circle.getCenterX()) / circle.getRadius();
+				normalY = (hitY - circle.getCenterY()) / circle.getRadius();
+			} else if (isAxisAligned(shape)) {
+				float closest = Math.abs(hitX - shape.getMinX());
+				normalX = -1f;
+				normalY = 0f;
+				if (Math.abs(shape.getMaxX() - hitX) < closest) {
+					closest = Math.abs(shape.getMaxX() - hitX);
+					normalX = 1f;
+				}
+				if (Math.abs(hitY - shape.getMinY()) < closest) {
+					closest = Math.abs(hitY - shape.getMinY());
+					normalX = 0f;
+					normalY = -1f;
+				}
+				if (Math.abs(shape.getMaxY() - hitY) < closest) {
+					normalX = 0f;
+					normalY = 1f;
+				}
+			} else {
+				Polygon polygon = shape.getPolygon();
+				float[] vertices = polygon.getVertices();
+				float[] edgeNormals = polygon.getEdgeNormals();
+				float closest = Float.MAX_VALUE;
+				for (int i = 0; i < vertices.length; i += 2) {
+					float edgeNormalX = edgeNormals[i];
+					float edgeNormalY = edgeNormals[i + 1];
+					float edgeDistance = Math.abs(((hitX - vertices[i]) * edgeNormalX)
+							+ ((hitY - vertices[i + 1]) * edgeNormalY));
+					if (edgeDistance >= closest || (edgeNormalX == 0f && edgeNormalY == 0f)) {
+						continue;
+					}
+					closest = edgeDistance;
+					if ((edgeNormalX * directionX) + (edgeNormalY * directionY) > 0f) {
+						normalX = -edgeNormalX;
+						normalY = -edgeNormalY;
+					} else {
+						normalX = edgeNormalX;
+						normalY = edgeNormalY;
+					}
+				}
+			}
+		}
+		return Math.min(maxDistance, callback.onHit(element, distance, normalX, normalY));
+	}
+
+	private static boolean isAxisAligned(Shape shape) {
+		return shape instanceof Rectangle && shape.getRotation() == 0f;
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.mini2Dx.core.engine.Positionable;
+
+/**
+ * Receives the hits of a {@link QuadTree} raycast. The value returned from
+ * {@link #onHit(Positionable, float, float, float)} controls how far the ray
+ * continues to travel:
+ * <ul>
+ * <li>Return 0 to stop the raycast immediately, e.g. for line of sight
+ * checks</li>
+ * <li>Return the hit distance to only be notified of closer hits</li>
+ * <li>Return {@link Float#MAX_VALUE} to be notified of every hit up to the
+ * original maximum distance</li>
+ * </ul>
+ * Hits are not guaranteed to be reported in order of distance.
+ */
+public interface RaycastCallback<T extends Positionable> {
+
+	/**
+	 * Called for each element hit by the ray
+	 * 
+	 * @param element
+	 *            The element that was hit
+	 * @param distance
+	 *            The distance along the ray to the hit. 0 if the ray starts
+	 *            inside the element.
+	 * @param normalX
+	 *            The x component of the surface normal at the hit
+	 * @param normalY
+	 *            The y component of the surface normal at the hit
+	 * @return The maximum distance to continue the raycast to
+	 */
+	public float onHit(T element, float distance, float normalX, float normalY);
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.mini2Dx.core.engine.Positionable;
+
+/**
+ * A {@link RaycastCallback} that stores the closest hit of a
+ * {@link QuadTree} raycast. Instances can be reused between raycasts to avoid
+ * allocation.
+ */
+public class RaycastResult<T extends Positionable> implements RaycastCallback<T> {
+	private T element;
+	private float distance = -1f;
+	private float normalX, normalY;
+
+	@Override
+	public float onHit(T element, float distance, float normalX, float normalY) {
+		if (this.element == null || distance < this.distance) {
+			this.element = element;
+			this.distance = distance;
+			this.normalX = normalX;
+			this.normalY = normalY;
+		}
+		return this.distance;
+	}
+
+	/**
+	 * Resets this result to no hit
+	 */
+	public void reset() {
+		element = null;
+		distance = -1f;
+		normalX = 0f;
+		normalY = 0f;
+	}
+
+	/**
+	 * Returns if the raycast hit an element
+	 * 
+	 * @return True if {@link #getElement()} is not null
+	 */
+	public boolean isHit() {
+		return element != null;
+	}
+
+	/**
+	 * Returns the closest element hit by the raycast
+	 * 
+	 * @return Null if nothing was hit
+	 */
+	public T getElement() {
+		return element;
+	}
+
+	/**
+	 * Returns the distance along the ray to the closest hit
+	 * 
+	 * @return -1 if nothing was hit
+	 */
+	public float getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Returns the x component of the surface normal at the closest hit
+	 * 
+	 * @return 0 if nothing was hit
+	 */
+	public float getNormalX() {
+		return normalX;
+	}
+
+	/**
+	 * Returns the y component of the surface normal at the closest hit
+	 * 
+	 * @return 0 if nothing was hit
+	 */
+	public float getNormalY() {
+		return normalY;
+	}
+
+	@Override
+	public String toString() {
+		return "RaycastResult [element=" + element + ", distance=" + distance + ", normalX=" + normalX
+				+ ", normalY=" + normalY + "]";
+	}
+}
@@ -22,6 +22,7 @@ import org.mini2Dx.core.geom.Shape;
 import org.mini2Dx.core.graphics.Graphics;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.IntArray;
 
 /**
  * Implements a region quadtree
@@ -157,23 +158,114 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 		}
 		clearTotalElementsCache();
 
-		List<T> elementsWithinQuad = new ArrayList<T>();
+		List<T> elementsWithinQuad = new ArrayList<T>(elementsToAdd.size());
 		for (T element : elementsToAdd) {
 			if (this.contains(element.getShape()) || this.intersects(element.getShape())) {
 				elementsWithinQuad.add(element);
 			}
 		}
+		addAllWithinQuad(elementsWithinQuad);
+	}
 
-		for (T element : elementsWithinQuad) {
-			if (topLeft == null) {
-				addElement(element);
-				continue;
+	/**
+	 * Adds elements that are known to be within this quad. Rather than adding
+	 * elements one at a time, the elements are partitioned between the child
+	 * quads once per level so that each quad is subdivided at most once.
+	 * 
+	 * @param elementsToAdd
+	 *            The elements to add
+	 */
+	protected void addAllWithinQuad(List<T> elementsToAdd) {
+		clearTotalElementsCache();
+
+		if (topLeft == null) {
+			if (elements.size() + elementsToAdd.size() <= elementLimitPerQuad || (getWidth() * 0.5f) < minimumQuadWidth
+					|| (getHeight() * 0.5f) < minimumQuadHeight) {
+				for (int i = 0; i < elementsToAdd.size(); i++) {
+					T element = elementsToAdd.get(i);
+					elements.add(element);
+					element.addPostionChangeListener(this);
+				}
+				return;
 			}
-			if (addElementToChild(element)) {
-				continue;
+			if (!elements.isEmpty()) {
+				List<T> existingElements = new ArrayList<T>(elements.size() + elementsToAdd.size());
+				for (int i = elements.size() - 1; i >= 0; i--) {
+					T element = elements.remove(i);
+					element.removePositionChangeListener(this);
+					existingElements.add(element);
+				}
+				existingElements.addAll(elementsToAdd);
+				elementsToAdd = existingElements;
 			}
-			addElement(element);
+			subdivide();
+		}
+
+		float minX = getX();
+		float minY = getY();
+		float centerX = minX + (getWidth() * 0.5f);
+		float centerY = minY + (getHeight() * 0.5f);
+		float maxX = minX + getWidth();
+		float maxY = minY + getHeight();
+
+		List<T> topLeftElements = null;
+		List<T> topRightElements = null;
+		List<T> bottomLeftElements = null;
+		List<T> bottomRightElements = null;
+
+		for (int i = 0; i < elementsToAdd.size(); i++) {
+			T element = elementsToAdd.get(i);
+			Shape shape = element.getShape();
+			float elementMinX = shape.getMinX();
+			float elementMinY = shape.getMinY();
+			float elementMaxX = shape.getMaxX();
+			float elementMaxY = shape.getMaxY();
+
+			// Bounds are compared first so that only one child needs an exact
+			// containment check
+			if (elementMaxY <= centerY && elementMinY >= minY) {
+				if (elementMaxX <= centerX && elementMinX >= minX && topLeft.contains(shape)) {
+					topLeftElements = addToPartition(topLeftElements, element, elementsToAdd.size());
+					continue;
+				}
+				if (elementMinX >= centerX && elementMaxX <= maxX && topRight.contains(shape)) {
+					topRightElements = addToPartition(topRightElements, element, elementsToAdd.size());
+					continue;
+				}
+			} else if (elementMinY >= centerY && elementMaxY <= maxY) {
+				if (elementMaxX <= centerX && elementMinX >= minX && bottomLeft.contains(shape)) {
+					bottomLeftElements = addToPartition(bottomLeftElements, element, elementsToAdd.size());
+					continue;
+				}
+				if (elementMinX >= centerX && elementMaxX <= maxX && bottomRight.contains(shape)) {
+					bottomRightElements = addToPartition(bottomRightElements, element, elementsToAdd.size());
+					continue;
+				}
+			}
+			elements.add(element);
+			element.addPostionChangeListener(this);
+		}
+
+		if (topLeftElements != null) {
+			((RegionQuadTree<T>) topLeft).addAllWithinQuad(topLeftElements);
+		}
+		if (topRightElements != null) {
+			((RegionQuadTree<T>) topRight).addAllWithinQuad(topRightElements);
+		}
+		if (bottomLeftElements != null) {
+			((RegionQuadTree<T>) bottomLeft).addAllWithinQuad(bottomLeftElements);
+		}
+		if (bottomRightElements != null) {
+			((RegionQuadTree<T>) bottomRight).addAllWithinQuad(bottomRightElements);
+		}
+	}
+
+	private List<T> addToPartition(List<T> partition, T element, int totalElements) {
+		if (partition == null) {
+			partition = new ArrayList<T>(Math.max(elementLimitPerQuad, totalElements / 4));
 		}
+		partition.add(element);
+		return partition;
 	}
 
 	@Override
@@ -234,10 +326,7 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 	}
 
 	@Override
-	public boolean remove(T element) {
-		if (element == null)
-			return false;
-
+	protected boolean removeByBounds(T element) {
 		if (!this.intersects(element.getShape()) && !this.contains(element.getShape())) {
 			return false;
 		}
@@ -359,6 +448,103 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 		}
 	}
 
+	@Override
+	protected void getElementsWithinArea(float x, float y, float width, float height,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		if (topLeft != null) {
+			if (topLeft.overlapsArea(x, y, width, height))
+				topLeft.getElementsWithinArea(x, y, width, height, callback, result);
+			if (topRight.overlapsArea(x, y, width, height))
+				topRight.getElementsWithinArea(x, y, width, height, callback, result);
+			if (bottomLeft.overlapsArea(x, y, width, height))
+				bottomLeft.getElementsWithinArea(x, y, width, height, callback, result);
+			if (bottomRight.overlapsArea(x, y, width, height))
+				bottomRight.getElementsWithinArea(x, y, width, height, callback, result);
+		}
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element == null)
+				continue;
+			Shape shape = element.getShape();
+			if (QueryBounds.overlapsArea(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY(), x, y,
+					width, height)) {
+				QueryBounds.elementFound(element, callback, result);
+			}
+		}
+	}
+
+	@Override
+	protected void getElementsWithinRadius(float centerX, float centerY, float radius,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		if (topLeft != null) {
+			if (topLeft.overlapsCircle(centerX, centerY, radius))
+				topLeft.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (topRight.overlapsCircle(centerX, centerY, radius))
+				topRight.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (bottomLeft.overlapsCircle(centerX, centerY, radius))
+				bottomLeft.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+			if (bottomRight.overlapsCircle(centerX, centerY, radius))
+				bottomRight.getElementsWithinRadius(centerX, centerY, radius, callback, result);
+		}
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element == null)
+				continue;
+			Shape shape = element.getShape();
+			if (QueryBounds.overlapsCircle(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY(),
+					centerX, centerY, radius)) {
+				QueryBounds.elementFound(element, callback, result);
+			}
+		}
+	}
+
+	@Override
+	protected void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback, IntArray result) {
+		if (topLeft != null) {
+			if (topLeft.containsPoint(x, y))
+				topLeft.getElementsContainingPoint(x, y, callback, result);
+			if (topRight.containsPoint(x, y))
+				topRight.getElementsContainingPoint(x, y, callback, result);
+			if (bottomLeft.containsPoint(x, y))
+				bottomLeft.getElementsContainingPoint(x, y, callback, result);
+			if (bottomRight.containsPoint(x, y))
+				bottomRight.getElementsContainingPoint(x, y, callback, result);
+		}
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element != null && element.getShape().contains(x, y)) {
+				QueryBounds.elementFound(element, callback, result);
+			}
+		}
+	}
+
+	@Override
+	protected float raycastQuad(float originX, float originY, float directionX, float directionY, float maxDistance,
+			RaycastCallback<T> callback) {
+		maxDistance = raycastElements(originX, originY, directionX, directionY, maxDistance, callback);
+		if (topLeft == null || maxDistance <= 0f) {
+			return maxDistance;
+		}
+		return raycastChildren(originX, originY, directionX, directionY, maxDistance, callback);
+	}
+
+	@Override
+	protected float raycastElements(float originX, float originY, float directionX, float directionY,
+			float maxDistance, RaycastCallback<T> callback) {
+		for (int i = elements.size() - 1; i >= 0 && maxDistance > 0f; i--) {
+			T element = elements.get(i);
+			if (element == null)
+				continue;
+			Shape shape = element.getShape();
+			float distance = QueryBounds.intersectRay(shape, originX, originY, directionX, directionY, maxDistance);
+			if (distance >= 0f) {
+				maxDistance = QueryBounds.rayHit(element, shape, distance, originX, originY, directionX, directionY,
+						maxDistance, callback);
+			}
+		}
+		return maxDistance;
+	}
+
 	@Override
 	public List<T> getElements() {
 		List<T> result = new ArrayList<T>();
@@ -394,19 +580,22 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 		return totalElementsCache;
 	}
 
+	@Override
+	protected boolean isWithinQuad(T element) {
+		return this.contains(element.getShape());
+	}
+
 	@Override
 	public void positionChanged(T moved) {
+		if (rootQuad.deferPositionUpdates) {
+			rootQuad.queueDirtyElement(this, moved);
+			return;
+		}
 		if (this.contains(moved.getShape()))
 			return;
 
 		removeElement(moved);
-
-		QuadTree<T> parentQuad = parent;
-		while (parentQuad != null) {
-			if (parentQuad.add(moved)) {
-				return;
-			}
-			parentQuad = parentQuad.getParent();
-		}
+		clearTotalElementsCacheToRoot();
+		addToParent(moved);
 	}
 }
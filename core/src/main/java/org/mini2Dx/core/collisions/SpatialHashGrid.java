@@ -0,0 +1,670 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+import org.mini2Dx.core.graphics.Graphics;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Implements a uniform grid of equally sized cells as an alternative to
+ * {@link RegionQuadTree}. Works best when elements are of a similar size and
+ * evenly spread across the area.
+ * 
+ * Cells are stored in a flat array indexed by <code>row * columns + column</code>.
+ * Each element is stored in every cell its bounds overlap. Position changes
+ * only update the cells that an element has entered or left.
+ */
+public class SpatialHashGrid<T extends CollisionShape> extends Rectangle implements QuadTree<T> {
+	private static final long serialVersionUID = 3206528187212567212L;
+
+	public static Color CELL_COLOR = new Color(1f, 0f, 0f, 0.5f);
+	public static Color ELEMENT_COLOR = new Color(0f, 0f, 1f, 0.5f);
+
+	protected final float originX, originY;
+	protected final float cellWidth, cellHeight;
+	protected final int totalColumns, totalRows;
+	protected final List<CellEntry<T>>[] cells;
+	protected final Map<T, CellEntry<T>> entries = new IdentityHashMap<T, CellEntry<T>>();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param cellWidth
+	 *            The width of each cell
+	 * @param cellHeight
+	 *            The height of each cell
+	 * @param x
+	 *            The x coordinate of the {@link SpatialHashGrid}
+	 * @param y
+	 *            The y coordinate of the {@link SpatialHashGrid}
+	 * @param width
+	 *            The width of the {@link SpatialHashGrid}
+	 * @param height
+	 *            The height of the {@link SpatialHashGrid}
+	 */
+	@SuppressWarnings("unchecked")
+	public SpatialHashGrid(float cellWidth, float cellHeight, float x, float y, float width, float height) {
+		super(x, y, width, height);
+		if (cellWidth <= 0f || cellHeight <= 0f) {
+			throw new IllegalArgumentException("Cell width and height must be greater than 0");
+		}
+		this.originX = x;
+		this.originY = y;
+		this.cellWidth = cellWidth;
+		this.cellHeight = cellHeight;
+		this.totalColumns = Math.max(1, (int) Math.ceil(width / cellWidth));
+		this.totalRows = Math.max(1, (int) Math.ceil(height / cellHeight));
+		this.cells = (List<CellEntry<T>>[]) new List<?>[totalColumns * totalRows];
+	}
+
+	@Override
+	public void debugRender(Graphics g) {
+		Color tmp = g.getColor();
+
+		g.setColor(CELL_COLOR);
+		for (int row = 0; row < totalRows; row++) {
+			for (int column = 0; column < totalColumns; column++) {
+				g.drawRect(originX + (column * cellWidth), originY + (row * cellHeight), cellWidth, cellHeight);
+			}
+		}
+
+		g.setColor(ELEMENT_COLOR);
+		for (T element : getElements()) {
+			g.drawRect(element.getX(), element.getY(), element.getWidth(), element.getHeight());
+		}
+		g.setColor(tmp);
+	}
+
+	@Override
+	public boolean add(T element) {
+		if (element == null)
+			return false;
+		if (entries.containsKey(element))
+			return false;
+
+		Shape shape = element.getShape();
+		if (isOutsideGrid(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY())) {
+			return false;
+		}
+		CellEntry<T> entry = new CellEntry<T>(element);
+		setCellRange(entry, shape);
+		entries.put(element, entry);
+		addToCells(entry);
+		element.addPostionChangeListener(this);
+		return true;
+	}
+
+	@Override
+	public void addAll(List<T> elementsToAdd) {
+		if (elementsToAdd == null || elementsToAdd.isEmpty()) {
+			return;
+		}
+		for (int i = 0; i < elementsToAdd.size(); i++) {
+			add(elementsToAdd.get(i));
+		}
+	}
+
+	@Override
+	public boolean remove(T element) {
+		if (element == null)
+			return false;
+
+		CellEntry<T> entry = entries.remove(element);
+		if (entry == null) {
+			return false;
+		}
+		removeFromCells(entry);
+		element.removePositionChangeListener(this);
+		return true;
+	}
+
+	@Override
+	public void removeAll(List<T> elementsToRemove) {
+		if (elementsToRemove == null || elementsToRemove.isEmpty()) {
+			return;
+		}
+		for (int i = 0; i < elementsToRemove.size(); i++) {
+			remove(elementsToRemove.get(i));
+		}
+	}
+
+	@Override
+	public void positionChanged(T moved) {
+		CellEntry<T> entry = entries.get(moved);
+		if (entry == null) {
+			return;
+		}
+		Shape shape = moved.getShape();
+		float minX = shape.getMinX();
+		float minY = shape.getMinY();
+		float maxX = shape.getMaxX();
+		float maxY = shape.getMaxY();
+		if (isOutsideGrid(minX, minY, maxX, maxY)) {
+			remove(moved);
+			return;
+		}
+		if (entry.isCellRange(getColumn(minX), getRow(minY), getColumn(maxX), getRow(maxY))) {
+			return;
+		}
+		removeFromCells(entry);
+		entry.setCellRange(getColumn(minX), getRow(minY), getColumn(maxX), getRow(maxY));
+		addToCells(entry);
+	}
+
+	@Override
+	public List<T> getElementsWithinArea(Shape area) {
+		List<T> result = new ArrayList<T>();
+		getElementsWithinArea(result, area);
+		return result;
+	}
+
+	@Override
+	public void getElementsWithinArea(Collection<T> result, Shape area) {
+		float minX = area.getMinX();
+		float minY = area.getMinY();
+		float maxX = area.getMaxX();
+		float maxY = area.getMaxY();
+		if (isOutsideGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int minColumn = getColumn(minX);
+		int minRow = getRow(minY);
+		int maxColumn = getColumn(maxX);
+		int maxRow = getRow(maxY);
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				List<CellEntry<T>> cell = cells[getCellKey(column, row)];
+				if (cell == null) {
+					continue;
+				}
+				for (int i = cell.size() - 1; i >= 0; i--) {
+					CellEntry<T> entry = cell.get(i);
+					if (!entry.isFirstOverlappingCell(column, row, minColumn, minRow)) {
+						continue;
+					}
+					Shape shape = entry.element.getShape();
+					if (area.contains(shape) || area.intersects(shape)) {
+						result.add(entry.element);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public List<T> getElementsIntersectingLineSegment(LineSegment lineSegment) {
+		List<T> result = new ArrayList<T>();
+		getElementsIntersectingLineSegment(result, lineSegment);
+		return result;
+	}
+
+	@Override
+	public void getElementsIntersectingLineSegment(Collection<T> result, LineSegment lineSegment) {
+		float minX = lineSegment.getMinX();
+		float minY = lineSegment.getMinY();
+		float maxX = lineSegment.getMaxX();
+		float maxY = lineSegment.getMaxY();
+		if (isOutsideGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int minColumn = getColumn(minX);
+		int minRow = getRow(minY);
+		int maxColumn = getColumn(maxX);
+		int maxRow = getRow(maxY);
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				List<CellEntry<T>> cell = cells[getCellKey(column, row)];
+				if (cell == null) {
+					continue;
+				}
+				for (int i = cell.size() - 1; i >= 0; i--) {
+					CellEntry<T> entry = cell.get(i);
+					if (!entry.isFirstOverlappingCell(column, row, minColumn, minRow)) {
+						continue;
+					}
+					if (entry.element.intersects(lineSegment)) {
+						result.add(entry.element);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public List<T> getElementsContainingPoint(Point point) {
+		List<T> result = new ArrayList<T>();
+		getElementsContainingPoint(result, point);
+		return result;
+	}
+
+	@Override
+	public void getElementsContainingPoint(Collection<T> result, Point point) {
+		if (isOutsideGrid(point.getX(), point.getY(), point.getX(), point.getY())) {
+			return;
+		}
+		List<CellEntry<T>> cell = cells[getCellKey(getColumn(point.getX()), getRow(point.getY()))];
+		if (cell == null) {
+			return;
+		}
+		for (int i = cell.size() - 1; i >= 0; i--) {
+			T element = cell.get(i).element;
+			if (element.contains(point)) {
+				result.add(element);
+			}
+		}
+	}
+
+	@Override
+	public void getElementsWithinArea(float x, float y, float width, float height, QuadTreeQueryCallback<T> callback) {
+		getElementsWithinArea(x, y, x + width, y + height, callback, null);
+	}
+
+	@Override
+	public void getElementIdsWithinArea(float x, float y, float width, float height, IntArray result) {
+		getElementsWithinArea(x, y, x + width, y + height, null, result);
+	}
+
+	@Override
+	public void getElementsWithinRadius(float centerX, float centerY, float radius, QuadTreeQueryCallback<T> callback) {
+		getElementsWithinRadius(centerX, centerY, radius, callback, null);
+	}
+
+	@Override
+	public void getElementIdsWithinRadius(float centerX, float centerY, float radius, IntArray result) {
+		getElementsWithinRadius(centerX, centerY, radius, null, result);
+	}
+
+	@Override
+	public void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback) {
+		getElementsContainingPoint(x, y, callback, null);
+	}
+
+	@Override
+	public void getElementIdsContainingPoint(float x, float y, IntArray result) {
+		getElementsContainingPoint(x, y, null, result);
+	}
+
+	@Override
+	public void raycast(float rayOriginX, float rayOriginY, float directionX, float directionY, float maxDistance,
+			RaycastCallback<T> callback) {
+		float length = (float) Math.sqrt((directionX * directionX) + (directionY * directionY));
+		if (length == 0f || maxDistance <= 0f) {
+			return;
+		}
+		directionX /= length;
+		directionY /= length;
+		// As with the other queries, only the area covered by the grid is
+		// searched
+		float cellEntryDistance = QueryBounds.intersectRay(originX, originY, originX + (totalColumns * cellWidth),
+				originY + (totalRows * cellHeight), rayOriginX, rayOriginY, directionX, directionY, maxDistance);
+		if (cellEntryDistance < 0f) {
+			return;
+		}
+		int column = getColumn(rayOriginX + (directionX * cellEntryDistance));
+		int row = getRow(rayOriginY + (directionY * cellEntryDistance));
+		int previousColumn = -1;
+		int previousRow = -1;
+
+		int stepColumn = directionX > 0f ? 1 : -1;
+		int stepRow = directionY > 0f ? 1 : -1;
+		float nextColumnDistance = Float.MAX_VALUE;
+		float columnDistance = Float.MAX_VALUE;
+		if (directionX != 0f) {
+			float boundaryX = originX + ((directionX > 0f ? column + 1 : column) * cellWidth);
+			nextColumnDistance = (boundaryX - rayOriginX) / directionX;
+			columnDistance = cellWidth / Math.abs(directionX);
+		}
+		float nextRowDistance = Float.MAX_VALUE;
+		float rowDistance = Float.MAX_VALUE;
+		if (directionY != 0f) {
+			float boundaryY = originY + ((directionY > 0f ? row + 1 : row) * cellHeight);
+			nextRowDistance = (boundaryY - rayOriginY) / directionY;
+			rowDistance = cellHeight / Math.abs(directionY);
+		}
+
+		while (true) {
+			int nextColumn = column;
+			int nextRow = row;
+			float cellExitDistance;
+			if (nextColumnDistance < nextRowDistance) {
+				cellExitDistance = nextColumnDistance;
+				nextColumn += stepColumn;
+			} else {
+				cellExitDistance = nextRowDistance;
+				nextRow += stepRow;
+			}
+			boolean lastCell = cellExitDistance > maxDistance || nextColumn < 0 || nextColumn >= totalColumns
+					|| nextRow < 0 || nextRow >= totalRows;
+			maxDistance = raycastCell(column, row, previousColumn, previousRow, cellEntryDistance,
+					lastCell ? Float.MAX_VALUE : cellExitDistance, rayOriginX, rayOriginY, directionX, directionY,
+					maxDistance, callback);
+			if (lastCell || maxDistance <= 0f || cellExitDistance > maxDistance) {
+				return;
+			}
+			if (nextColumn != column) {
+				nextColumnDistance += columnDistance;
+			} else {
+				nextRowDistance += rowDistance;
+			}
+			previousColumn = column;
+			previousRow = row;
+			column = nextColumn;
+			row = nextRow;
+			cellEntryDistance = cellExitDistance;
+		}
+	}
+
+	protected void getElementsWithinArea(float minX, float minY, float maxX, float maxY,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		if (isOutsideGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int minColumn = getColumn(minX);
+		int minRow = getRow(minY);
+		int maxColumn = getColumn(maxX);
+		int maxRow = getRow(maxY);
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				List<CellEntry<T>> cell = cells[getCellKey(column, row)];
+				if (cell == null) {
+					continue;
+				}
+				for (int i = cell.size() - 1; i >= 0; i--) {
+					CellEntry<T> entry = cell.get(i);
+					if (!entry.isFirstOverlappingCell(column, row, minColumn, minRow)) {
+						continue;
+					}
+					Shape shape = entry.element.getShape();
+					if (QueryBounds.overlapsArea(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY(),
+							minX, minY, maxX - minX, maxY - minY)) {
+						QueryBounds.elementFound(entry.element, callback, result);
+					}
+				}
+			}
+		}
+	}
+
+	protected void getElementsWithinRadius(float centerX, float centerY, float radius,
+			QuadTreeQueryCallback<T> callback, IntArray result) {
+		float minX = centerX - radius;
+		float minY = centerY - radius;
+		float maxX = centerX + radius;
+		float maxY = centerY + radius;
+		if (isOutsideGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int minColumn = getColumn(minX);
+		int minRow = getRow(minY);
+		int maxColumn = getColumn(maxX);
+		int maxRow = getRow(maxY);
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				List<CellEntry<T>> cell = cells[getCellKey(column, row)];
+				if (cell == null) {
+					continue;
+				}
+				for (int i = cell.size() - 1; i >= 0; i--) {
+					CellEntry<T> entry = cell.get(i);
+					if (!entry.isFirstOverlappingCell(column, row, minColumn, minRow)) {
+						continue;
+					}
+					Shape shape = entry.element.getShape();
+					if (QueryBounds.overlapsCircle(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY(),
+							centerX, centerY, radius)) {
+						QueryBounds.elementFound(entry.element, callback, result);
+					}
+				}
+			}
+		}
+	}
+
+	protected void getElementsContainingPoint(float x, float y, QuadTreeQueryCallback<T> callback, IntArray result) {
+		if (isOutsideGrid(x, y, x, y)) {
+			return;
+		}
+		List<CellEntry<T>> cell = cells[getCellKey(getColumn(x), getRow(y))];
+		if (cell == null) {
+			return;
+		}
+		for (int i = cell.size() - 1; i >= 0; i--) {
+			T element = cell.get(i).element;
+			if (element.getShape().contains(x, y)) {
+				QueryBounds.elementFound(element, callback, result);
+			}
+		}
+	}
+
+	/**
+	 * Tests the elements of a cell the ray passes through. An element
+	 * spanning multiple cells is only reported in the first cell the ray
+	 * visits where the hit occurs before the ray leaves the cell.
+	 * 
+	 * @return The maximum distance of the ray after notifying the callback
+	 */
+	protected float raycastCell(int column, int row, int previousColumn, int previousRow, float cellEntryDistance,
+			float cellExitDistance, float rayOriginX, float rayOriginY, float directionX, float directionY,
+			float maxDistance, RaycastCallback<T> callback) {
+		List<CellEntry<T>> cell = cells[getCellKey(column, row)];
+		if (cell == null) {
+			return maxDistance;
+		}
+		return raycastEntries(cell, previousColumn, previousRow, cellEntryDistance, cellExitDistance, rayOriginX,
+				rayOriginY, directionX, directionY, maxDistance, callback);
+	}
+
+	/**
+	 * Tests the entries of a cell the ray passes through
+	 * 
+	 * @return The maximum distance of the ray after notifying the callback
+	 */
+	protected float raycastEntries(List<CellEntry<T>> cell, int previousColumn, int previousRow,
+			float cellEntryDistance, float cellExitDistance, float rayOriginX, float rayOriginY, float directionX,
+			float directionY, float maxDistance, RaycastCallback<T> callback) {
+		for (int i = cell.size() - 1; i >= 0 && maxDistance > 0f; i--) {
+			CellEntry<T> entry = cell.get(i);
+			Shape shape = entry.element.getShape();
+			float distance = QueryBounds.intersectRay(shape, rayOriginX, rayOriginY, directionX, directionY,
+					maxDistance);
+			if (distance < 0f || distance > cellExitDistance) {
+				continue;
+			}
+			if (distance <= cellEntryDistance && entry.containsCell(previousColumn, previousRow)) {
+				continue;
+			}
+			maxDistance = QueryBounds.rayHit(entry.element, shape, distance, rayOriginX, rayOriginY, directionX,
+					directionY, maxDistance, callback);
+		}
+		return maxDistance;
+	}
+
+	@Override
+	public List<T> getElements() {
+		List<T> result = new ArrayList<T>();
+		getElements(result);
+		return result;
+	}
+
+	@Override
+	public void getElements(List<T> result) {
+		result.addAll(entries.keySet());
+	}
+
+	/**
+	 * Returns the total number of cells in the grid
+	 */
+	@Override
+	public int getTotalQuads() {
+		return cells.length;
+	}
+
+	@Override
+	public int getTotalElements() {
+		return entries.size();
+	}
+
+	/**
+	 * A {@link SpatialHashGrid} has no parent
+	 * 
+	 * @return Always null
+	 */
+	@Override
+	public QuadTree<T> getParent() {
+		return null;
+	}
+
+	/**
+	 * Returns the cell width
+	 */
+	@Override
+	public float getMinimumQuadWidth() {
+		return cellWidth;
+	}
+
+	/**
+	 * Returns the cell height
+	 */
+	@Override
+	public float getMinimumQuadHeight() {
+		return cellHeight;
+	}
+
+	public float getCellWidth() {
+		return cellWidth;
+	}
+
+	public float getCellHeight() {
+		return cellHeight;
+	}
+
+	public int getTotalColumns() {
+		return totalColumns;
+	}
+
+	public int getTotalRows() {
+		return totalRows;
+	}
+
+	protected void addToCells(CellEntry<T> entry) {
+		for (int row = entry.minRow; row <= entry.maxRow; row++) {
+			for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+				int cellKey = getCellKey(column, row);
+				List<CellEntry<T>> cell = cells[cellKey];
+				if (cell == null) {
+					cell = new ArrayList<CellEntry<T>>(4);
+					cells[cellKey] = cell;
+				}
+				cell.add(entry);
+			}
+		}
+	}
+
+	protected void removeFromCells(CellEntry<T> entry) {
+		for (int row = entry.minRow; row <= entry.maxRow; row++) {
+			for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+				List<CellEntry<T>> cell = cells[getCellKey(column, row)];
+				if (cell != null) {
+					cell.remove(entry);
+				}
+			}
+		}
+	}
+
+	protected void setCellRange(CellEntry<T> entry, Shape shape) {
+		entry.setCellRange(getColumn(shape.getMinX()), getRow(shape.getMinY()), getColumn(shape.getMaxX()),
+				getRow(shape.getMaxY()));
+	}
+
+	protected boolean isOutsideGrid(float minX, float minY, float maxX, float maxY) {
+		return maxX < originX || maxY < originY || minX > originX + getWidth() || minY > originY + getHeight();
+	}
+
+	protected int getCellKey(int column, int row) {
+		return (row * totalColumns) + column;
+	}
+
+	protected int getColumn(float x) {
+		int column = (int) Math.floor((x - originX) / cellWidth);
+		if (column < 0) {
+			return 0;
+		}
+		if (column >= totalColumns) {
+			return totalColumns - 1;
+		}
+		return column;
+	}
+
+	protected int getRow(float y) {
+		int row = (int) Math.floor((y - originY) / cellHeight);
+		if (row < 0) {
+			return 0;
+		}
+		if (row >= totalRows) {
+			return totalRows - 1;
+		}
+		return row;
+	}
+
+	/**
+	 * Stores the range of cells an element currently occupies
+	 */
+	static class CellEntry<T> {
+		final T element;
+		int minColumn, minRow, maxColumn, maxRow;
+		boolean removed;
+
+		CellEntry(T element) {
+			this.element = element;
+		}
+
+		void setCellRange(int minColumn, int minRow, int maxColumn, int maxRow) {
+			this.minColumn = minColumn;
+			this.minRow = minRow;
+			this.maxColumn = maxColumn;
+			this.maxRow = maxRow;
+		}
+
+		boolean containsCell(int column, int row) {
+			return column >= minColumn && column <= maxColumn && row >= minRow && row <= maxRow;
+		}
+
+		boolean isCellRange(int minColumn, int minRow, int maxColumn, int maxRow) {
+			return this.minColumn == minColumn && this.minRow == minRow && this.maxColumn == maxColumn
+					&& this.maxRow == maxRow;
+		}
+
+		/**
+		 * Returns if a cell is the first cell a query visits that contains
+		 * this entry. Used to return elements spanning multiple cells only
+		 * once.
+		 */
+		boolean isFirstOverlappingCell(int column, int row, int queryMinColumn, int queryMinRow) {
+			return column == Math.max(minColumn, queryMinColumn) && row == Math.max(minRow, queryMinRow);
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.mini2Dx.core.engine.PositionChangeListener;
+import org.mini2Dx.core.engine.SizeChangeListener;
+import org.mini2Dx.core.engine.geom.CollisionShape;
+
+/**
+ * A {@link BroadPhase} implementation that sorts elements along the x axis
+ * and sweeps over them to find overlapping pairs.
+ * 
+ * The sorted order is kept between calls to
+ * {@link #findOverlappingPairs(CollisionPairBuffer)}. Elements are listened
+ * to for position and size changes and only elements that changed have their
+ * bounds refreshed. Since elements usually move a small amount each frame,
+ * the order is restored with an insertion sort which is close to linear time.
+ * 
+ * Note: This implementation is not thread-safe
+ */
+public class SweepAndPruneBroadPhase<T extends CollisionShape> implements BroadPhase<T> {
+	private final Map<T, Entry<T>> entriesByElement = new IdentityHashMap<T, Entry<T>>();
+
+	private Entry<T>[] entries;
+	private int totalEntries;
+
+	/**
+	 * Constructor with a default initial capacity of 16 elements
+	 */
+	public SweepAndPruneBroadPhase() {
+		this(16);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param initialCapacity
+	 *            The amount of elements that can be stored before the
+	 *            internal array needs to grow
+	 */
+	@SuppressWarnings("unchecked")
+	public SweepAndPruneBroadPhase(int initialCapacity) {
+		entries = (Entry<T>[]) new Entry<?>[Math.max(1, initialCapacity)];
+	}
+
+	@Override
+	public void add(T element) {
+		if (element == null) {
+			return;
+		}
+		if (entriesByElement.containsKey(element)) {
+			return;
+		}
+		Entry<T> entry = new Entry<T>(element);
+		ensureCapacity(totalEntries + 1);
+		entries[totalEntries] = entry;
+		totalEntries++;
+		entriesByElement.put(element, entry);
+
+		element.addPostionChangeListener(entry);
+		element.addSizeChangeListener(entry);
+	}
+
+	@Override
+	public boolean remove(T element) {
+		if (element == null) {
+			return false;
+		}
+		Entry<T> entry = entriesByElement.remove(element);
+		if (entry == null) {
+			return false;
+		}
+		element.removePositionChangeListener(entry);
+		element.removeSizeChangeListener(entry);
+
+		for (int i = 0; i < totalEntries; i++) {
+			if (entries[i] != entry) {
+				continue;
+			}
+			System.arraycopy(entries, i + 1, entries, i, totalEntries - i - 1);
+			totalEntries--;
+			entries[totalEntries] = null;
+			break;
+		}
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < totalEntries; i++) {
+			Entry<T> entry = entries[i];
+			entry.element.removePositionChangeListener(entry);
+			entry.element.removeSizeChangeListener(entry);
+			entries[i] = null;
+		}
+		totalEntries = 0;
+		entriesByElement.clear();
+	}
+
+	@Override
+	public int getTotalElements() {
+		return totalEntries;
+	}
+
+	@Override
+	public void findOverlappingPairs(CollisionPairBuffer result) {
+		result.clear();
+		for (int i = 0; i < totalEntries; i++) {
+			if (entries[i].dirty) {
+				entries[i].updateBounds();
+			}
+		}
+		sortEntries();
+
+		for (int i = 0; i < totalEntries; i++) {
+			Entry<T> entry = entries[i];
+			for (int j = i + 1; j < totalEntries; j++) {
+				Entry<T> other = entries[j];
+				if (other.minX > entry.maxX) {
+					break;
+				}
+				if (other.minY > entry.maxY || other.maxY < entry.minY) {
+					continue;
+				}
+				result.add(entry.id, other.id);
+			}
+		}
+	}
+
+	private void sortEntries() {
+		for (int i = 1; i < totalEntries; i++) {
+			Entry<T> entry = entries[i];
+			int j = i - 1;
+			while (j >= 0 && entries[j].minX > entry.minX) {
+				entries[j + 1] = entries[j];
+				j--;
+			}
+			entries[j + 1] = entry;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void ensureCapacity(int capacity) {
+		if (capacity <= entries.length) {
+			return;
+		}
+		Entry<T>[] newEntries = (Entry<T>[]) new Entry<?>[Math.max(capacity, entries.length * 2)];
+		System.arraycopy(entries, 0, newEntries, 0, totalEntries);
+		entries = newEntries;
+	}
+
+	/**
+	 * Caches the bounds of an element and tracks if they have changed
+	 */
+	private static class Entry<T extends CollisionShape> implements PositionChangeListener<T>, SizeChangeListener<T> {
+		final T element;
+		final int id;
+		float minX, minY, maxX, maxY;
+		boolean dirty;
+
+		Entry(T element) {
+			this.element = element;
+			this.id = element.getId();
+			updateBounds();
+		}
+
+		void updateBounds() {
+			minX = element.getMinX();
+			minY = element.getMinY();
+			maxX = element.getMaxX();
+			maxY = element.getMaxY();
+			dirty = false;
+		}
+
+		@Override
+		public void positionChanged(T moved) {
+			dirty = true;
+		}
+
+		@Override
+		public void sizeChanged(T changed) {
+			dirty = true;
+		}
+	}
+}
@@ -0,0 +1,313 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.engine.geom.CollisionCircle;
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.Shape;
+
+/**
+ * Performs swept (continuous) collision queries against a {@link QuadTree}.
+ * A moving rectangle or circle is swept from its previous position to its
+ * current position and the first element hit is returned along with the time
+ * of impact and contact normal. This prevents fast moving shapes from passing
+ * through thin elements between updates.
+ * 
+ * Circular elements are treated as circles, all other elements are treated
+ * as their axis-aligned bounds. Shapes that only touch are not considered
+ * hits.
+ * 
+ * Note: This class is not thread safe.
+ */
+public class SweepQuery<T extends CollisionShape> implements QuadTreeQueryCallback<T> {
+	private boolean sweepingCircle;
+	private float originX, originY, width, height, radius, deltaX, deltaY;
+	private CollisionShape ignoredElement;
+
+	private T closestElement;
+	private float closestTime, closestNormalX, closestNormalY;
+
+	private float hitTime, hitNormalX, hitNormalY;
+
+	/**
+	 * Sweeps a {@link CollisionBox} from its previous position to its current
+	 * position
+	 * 
+	 * @param quadTree
+	 *            The {@link QuadTree} to query
+	 * @param collisionBox
+	 *            The {@link CollisionBox} to sweep. This is ignored if it is
+	 *            in the {@link QuadTree}.
+	 * @param result
+	 *            The {@link SweepResult} to store the result in
+	 * @return True if an element was hit
+	 */
+	public boolean sweep(QuadTree<T> quadTree, CollisionBox collisionBox, SweepResult<T> result) {
+		return sweepRectangle(quadTree, collisionBox.getPreviousX(), collisionBox.getPreviousY(),
+				collisionBox.getWidth(), collisionBox.getHeight(),
+				collisionBox.getX() - collisionBox.getPreviousX(), collisionBox.getY() - collisionBox.getPreviousY(),
+				collisionBox, result);
+	}
+
+	/**
+	 * Sweeps a {@link CollisionCircle} from its previous position to its
+	 * current position
+	 * 
+	 * @param quadTree
+	 *            The {@link QuadTree} to query
+	 * @param collisionCircle
+	 *            The {@link CollisionCircle} to sweep. This is ignored if it
+	 *            is in the {@link QuadTree}.
+	 * @param result
+	 *            The {@link SweepResult} to store the result in
+	 * @return True if an element was hit
+	 */
+	public boolean sweep(QuadTree<T> quadTree, CollisionCircle collisionCircle, SweepResult<T> result) {
+		return sweepCircle(quadTree, collisionCircle.getPreviousX(), collisionCircle.getPreviousY(),
+				collisionCircle.getRadius(), collisionCircle.getX() - collisionCircle.getPreviousX(),
+				collisionCircle.getY() - collisionCircle.getPreviousY(), collisionCircle, result);
+	}
+
+	/**
+	 * Sweeps an axis-aligned rectangle
+	 * 
+	 * @param quadTree
+	 *            The {@link QuadTree} to query
+	 * @param x
+	 *            The starting x coordinate of the rectangle
+	 * @param y
+	 *            The starting y coordinate of the rectangle
+	 * @param width
+	 *            The width of the rectangle
+	 * @param height
+	 *            The height of the rectangle
+	 * @param deltaX
+	 *            The distance moved along the x axis
+	 * @param deltaY
+	 *            The distance moved along the y axis
+	 * @param ignoredElement
+	 *            An element to ignore, e.g. the moving shape. Can be null.
+	 * @param result
+	 *            The {@link SweepResult} to store the result in
+	 * @return True if an element was hit
+	 */
+	public boolean sweepRectangle(QuadTree<T> quadTree, float x, float y, float width, float height, float deltaX,
+			float deltaY, CollisionShape ignoredElement, SweepResult<T> result) {
+		this.sweepingCircle = false;
+		this.width = width;
+		this.height = height;
+		return sweep(quadTree, x, y, width, height, deltaX, deltaY, ignoredElement, result);
+	}
+
+	/**
+	 * Sweeps a circle
+	 * 
+	 * @param quadTree
+	 *            The {@link QuadTree} to query
+	 * @param centerX
+	 *            The starting x coordinate of the circle's center
+	 * @param centerY
+	 *            The starting y coordinate of the circle's center
+	 * @param radius
+	 *            The radius of the circle
+	 * @param deltaX
+	 *            The distance moved along the x axis
+	 * @param deltaY
+	 *            The distance moved along the y axis
+	 * @param ignoredElement
+	 *            An element to ignore, e.g. the moving shape. Can be null.
+	 * @param result
+	 *            The {@link SweepResult} to store the result in
+	 * @return True if an element was hit
+	 */
+	public boolean sweepCircle(QuadTree<T> quadTree, float centerX, float centerY, float radius, float deltaX,
+			float deltaY, CollisionShape ignoredElement, SweepResult<T> result) {
+		this.sweepingCircle = true;
+		this.radius = radius;
+		return sweep(quadTree, centerX, centerY, radius * 2f, radius * 2f, deltaX, deltaY, ignoredElement, result);
+	}
+
+	private boolean sweep(QuadTree<T> quadTree, float x, float y, float width, float height, float deltaX,
+			float deltaY, CollisionShape ignoredElement, SweepResult<T> result) {
+		result.reset();
+		if (deltaX == 0f && deltaY == 0f) {
+			return false;
+		}
+		this.originX = x;
+		this.originY = y;
+		this.deltaX = deltaX;
+		this.deltaY = deltaY;
+		this.ignoredElement = ignoredElement;
+		closestElement = null;
+		closestTime = Float.MAX_VALUE;
+
+		float minX = sweepingCircle ? x - radius : x;
+		float minY = sweepingCircle ? y - radius : y;
+		quadTree.getElementsWithinArea(Math.min(minX, minX + deltaX), Math.min(minY, minY + deltaY),
+				width + Math.abs(deltaX), height + Math.abs(deltaY), this);
+
+		this.ignoredElement = null;
+		if (closestElement == null) {
+			return false;
+		}
+		result.set(closestElement, closestTime, closestNormalX, closestNormalY, x + (deltaX * closestTime),
+				y + (deltaY * closestTime));
+		closestElement = null;
+		return true;
+	}
+
+	@Override
+	public void onElementFound(T element) {
+		if (element == ignoredElement) {
+			return;
+		}
+		Shape shape = element.getShape();
+		boolean hit;
+		if (sweepingCircle) {
+			if (shape.isCircle()) {
+				Circle circle = (Circle) shape;
+				hit = intersectRayCircle(originX, originY, deltaX, deltaY, circle.getCenterX(), circle.getCenterY(),
+						radius + circle.getRadius());
+			} else {
+				hit = intersectRayRoundedRectangle(originX, originY, deltaX, deltaY, element.getMinX(),
+						element.getMinY(), element.getMaxX(), element.getMaxY(), radius);
+			}
+		} else if (shape.isCircle()) {
+			// Sweep the circle in the opposite direction against the
+			// rectangle and reverse the normal
+			Circle circle = (Circle) shape;
+			hit = intersectRayRoundedRectangle(circle.getCenterX(), circle.getCenterY(), -deltaX, -deltaY, originX,
+					originY, originX + width, originY + height, circle.getRadius());
+			hitNormalX = -hitNormalX;
+			hitNormalY = -hitNormalY;
+		} else {
+			hit = intersectRayRectangle(originX, originY, deltaX, deltaY, element.getMinX() - width,
+					element.getMinY() - height, element.getMaxX(), element.getMaxY());
+		}
+		if (!hit || hitTime >= closestTime) {
+			return;
+		}
+		closestElement = element;
+		closestTime = hitTime;
+		closestNormalX = hitNormalX;
+		closestNormalY = hitNormalY;
+	}
+
+	/**
+	 * Intersects a ray with an axis-aligned rectangle using the slab method
+	 */
+	private boolean intersectRayRectangle(float x, float y, float deltaX, float deltaY, float minX, float minY,
+			float maxX, float maxY) {
+		float entryX, exitX, entryY, exitY;
+		if (deltaX == 0f) {
+			if (x <= minX || x >= maxX) {
+				return false;
+			}
+			entryX = Float.NEGATIVE_INFINITY;
+			exitX = Float.POSITIVE_INFINITY;
+		} else {
+			float time1 = (minX - x) / deltaX;
+			float time2 = (maxX - x) / deltaX;
+			entryX = Math.min(time1, time2);
+			exitX = Math.max(time1, time2);
+		}
+		if (deltaY == 0f) {
+			if (y <= minY || y >= maxY) {
+				return false;
+			}
+			entryY = Float.NEGATIVE_INFINITY;
+			exitY = Float.POSITIVE_INFINITY;
+		} else {
+			float time1 = (minY - y) / deltaY;
+			float time2 = (maxY - y) / deltaY;
+			entryY = Math.min(time1, time2);
+			exitY = Math.max(time1, time2);
+		}
+
+		float entry = Math.max(entryX, entryY);
+		float exit = Math.min(exitX, exitY);
+		if (entry >= exit || exit <= 0f || entry > 1f) {
+			return false;
+		}
+		hitTime = Math.max(0f, entry);
+		if (entryX > entryY) {
+			hitNormalX = deltaX > 0f ? -1f : 1f;
+			hitNormalY = 0f;
+		} else {
+			hitNormalX = 0f;
+			hitNormalY = deltaY > 0f ? -1f : 1f;
+		}
+		return true;
+	}
+
+	/**
+	 * Intersects a ray with a rectangle expanded by a radius with rounded
+	 * corners, i.e. a moving circle against a rectangle
+	 */
+	private boolean intersectRayRoundedRectangle(float x, float y, float deltaX, float deltaY, float minX,
+			float minY, float maxX, float maxY, float radius) {
+		if (!intersectRayRectangle(x, y, deltaX, deltaY, minX - radius, minY - radius, maxX + radius,
+				maxY + radius)) {
+			return false;
+		}
+		float hitX = x + (deltaX * hitTime);
+		float hitY = y + (deltaY * hitTime);
+		boolean outsideX = hitX < minX || hitX > maxX;
+		boolean outsideY = hitY < minY || hitY > maxY;
+		if (!outsideX || !outsideY) {
+			return true;
+		}
+		// Hit point is in a corner region so test against the corner
+		float cornerX = hitX < minX ? minX : maxX;
+		float cornerY = hitY < minY ? minY : maxY;
+		return intersectRayCircle(x, y, deltaX, deltaY, cornerX, cornerY, radius);
+	}
+
+	private boolean intersectRayCircle(float x, float y, float deltaX, float deltaY, float centerX, float centerY,
+			float radius) {
+		float offsetX = x - centerX;
+		float offsetY = y - centerY;
+		float c = (offsetX * offsetX) + (offsetY * offsetY) - (radius * radius);
+		if (c < 0f) {
+			// Already overlapping at the start of the movement
+			float length = (float) Math.sqrt((offsetX * offsetX) + (offsetY * offsetY));
+			if (length == 0f) {
+				offsetX = -deltaX;
+				offsetY = -deltaY;
+				length = (float) Math.sqrt((deltaX * deltaX) + (deltaY * deltaY));
+			}
+			hitTime = 0f;
+			hitNormalX = offsetX / length;
+			hitNormalY = offsetY / length;
+			return true;
+		}
+		float a = (deltaX * deltaX) + (deltaY * deltaY);
+		float b = (offsetX * deltaX) + (offsetY * deltaY);
+		if (a == 0f || b >= 0f) {
+			return false;
+		}
+		float discriminant = (b * b) - (a * c);
+		if (discriminant <= 0f) {
+			return false;
+		}
+		float time = (-b - (float) Math.sqrt(discriminant)) / a;
+		if (time > 1f) {
+			return false;
+		}
+		hitTime = time;
+		hitNormalX = (offsetX + (deltaX * time)) / radius;
+		hitNormalY = (offsetY + (deltaY * time)) / radius;
+		return true;
+	}
+}
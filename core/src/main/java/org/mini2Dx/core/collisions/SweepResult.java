@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+
+/**
+ * Stores the result of a {@link SweepQuery}. Instances can be reused between
+ * queries to avoid allocation.
+ */
+public class SweepResult<T extends CollisionShape> {
+	private T element;
+	private float timeOfImpact = 1f;
+	private float normalX, normalY;
+	private float x, y;
+
+	/**
+	 * Sets the result of a sweep
+	 * 
+	 * @param element
+	 *            The element that was hit
+	 * @param timeOfImpact
+	 *            The fraction of the movement (0 to 1) completed before the
+	 *            hit
+	 * @param normalX
+	 *            The x component of the contact normal
+	 * @param normalY
+	 *            The y component of the contact normal
+	 * @param x
+	 *            The x coordinate of the moving shape at the time of impact
+	 * @param y
+	 *            The y coordinate of the moving shape at the time of impact
+	 */
+	public void set(T element, float timeOfImpact, float normalX, float normalY, float x, float y) {
+		this.element = element;
+		this.timeOfImpact = timeOfImpact;
+		this.normalX = normalX;
+		this.normalY = normalY;
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * Resets this result to no hit
+	 */
+	public void reset() {
+		set(null, 1f, 0f, 0f, 0f, 0f);
+	}
+
+	/**
+	 * Returns if the sweep hit an element
+	 * 
+	 * @return True if {@link #getElement()} is not null
+	 */
+	public boolean isHit() {
+		return element != null;
+	}
+
+	/**
+	 * Returns the first element hit by the sweep
+	 * 
+	 * @return Null if nothing was hit
+	 */
+	public T getElement() {
+		return element;
+	}
+
+	/**
+	 * Returns the fraction of the movement completed before the hit
+	 * 
+	 * @return A value between 0 and 1. 1 if nothing was hit.
+	 */
+	public float getTimeOfImpact() {
+		return timeOfImpact;
+	}
+
+	/**
+	 * Returns the x component of the contact normal. The normal is on the
+	 * surface of the element hit and points towards the moving shape.
+	 * 
+	 * @return 0 if nothing was hit
+	 */
+	public float getNormalX() {
+		return normalX;
+	}
+
+	/**
+	 * Returns the y component of the contact normal. The normal is on the
+	 * surface of the element hit and points towards the moving shape.
+	 * 
+	 * @return 0 if nothing was hit
+	 */
+	public float getNormalY() {
+		return normalY;
+	}
+
+	/**
+	 * Returns the x coordinate of the moving shape at the time of impact. This
+	 * is the top-left corner for rectangles and the center for circles.
+	 * 
+	 * @return 0 if nothing was hit
+	 */
+	public float getX() {
+		return x;
+	}
+
+	/**
+	 * Returns the y coordinate of the moving shape at the time of impact. This
+	 * is the top-left corner for rectangles and the center for circles.
+	 * 
+	 * @return 0 if nothing was hit
+	 */
+	public float getY() {
+		return y;
+	}
+
+	@Override
+	public String toString() {
+		return "SweepResult [element=" + element + ", timeOfImpact=" + timeOfImpact + ", normalX=" + normalX
+				+ ", normalY=" + normalY + ", x=" + x + ", y=" + y + "]";
+	}
+}
@@ -20,10 +20,13 @@ import org.mini2Dx.core.engine.Positionable;
 import org.mini2Dx.core.engine.SizeChangeListener;
 import org.mini2Dx.core.engine.Sizeable;
 import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.game.RenderStatePublisher;
+import org.mini2Dx.core.game.RenderStateSource;
 import org.mini2Dx.core.geom.Point;
 import org.mini2Dx.core.geom.Rectangle;
 import org.mini2Dx.core.geom.Shape;
 import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.core.util.TripleBuffer;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
@@ -33,9 +36,15 @@ import com.badlogic.gdx.math.Vector2;
  * objects can use this class to move around the game world and retrieve the
  * appropriate rendering coordinates after interpolating between the previous
  * and current position.
+ * 
+ * When the game updates on a separate thread, register instances with the
+ * {@link RenderStatePublisher}. Once state has been published, interpolation
+ * reads the published previous and current bounds instead of the bounds being
+ * updated.
  */
-public class CollisionBox extends Rectangle implements CollisionShape {
+public class CollisionBox extends Rectangle implements CollisionShape, RenderStateSource {
 	private static final long serialVersionUID = -8217730724587578266L;
+	private static final int RENDER_STATE_SIZE = 10;
 
 	private final int id;
 	private final ReentrantReadWriteLock positionChangeListenerLock;
@@ -52,6 +61,9 @@ public class CollisionBox extends Rectangle implements CollisionShape {
 
 	private int renderX, renderY, renderWidth, renderHeight;
 	private boolean interpolate = false;
+	
+	private TripleBuffer renderStateBuffer;
+	private volatile float[] renderStates;
 
 	public CollisionBox() {
 		this(0f, 0f, 1f, 1f);
@@ -92,8 +104,37 @@ public class CollisionBox extends Rectangle implements CollisionShape {
 	public void update(GameContainer gc, float delta) {
 	}
 
+	@Override
+	public void publishRenderState() {
+		float[] states = renderStates;
+		if(states == null) {
+			renderStateBuffer = new TripleBuffer();
+			states = new float[RENDER_STATE_SIZE * 3];
+		}
+		int offset = renderStateBuffer.getWriteIndex() * RENDER_STATE_SIZE;
+		states[offset] = previousRectangle.getX();
+		states[offset + 1] = previousRectangle.getY();
+		states[offset + 2] = previousRectangle.getWidth();
+		states[offset + 3] = previousRectangle.getHeight();
+		states[offset + 4] = previousRectangle.getRotation();
+		states[offset + 5] = getX();
+		states[offset + 6] = getY();
+		states[offset + 7] = getWidth();
+		states[offset + 8] = getHeight();
+		states[offset + 9] = getRotation();
+		renderStateBuffer.publish();
+		if(renderStates == null) {
+			renderStates = states;
+		}
+	}
+
 	@Override
 	public void interpolate(GameContainer gc, float alpha) {
+		float[] states = renderStates;
+		if(states != null) {
+			interpolateRenderState(states, alpha);
+			return;
+		}
 		if(!interpolate) {
 			return;
 		}
@@ -114,6 +155,31 @@ public class CollisionBox extends Rectangle implements CollisionShape {
 		interpolate = false;
 	}
 	
+	private void interpolateRenderState(float[] states, float alpha) {
+		final int offset = renderStateBuffer.getReadIndex() * RENDER_STATE_SIZE;
+		final float inverseAlpha = 1.0f - alpha;
+		float x = (states[offset] * inverseAlpha) + (states[offset + 5] * alpha);
+		float y = (states[offset + 1] * inverseAlpha) + (states[offset + 6] * alpha);
+		float width = (states[offset + 2] * inverseAlpha) + (states[offset + 7] * alpha);
+		float height = (states[offset + 3] * inverseAlpha) + (states[offset + 8] * alpha);
+		float rotation = (states[offset + 4] * inverseAlpha) + (states[offset + 9] * alpha);
+		if(rotation != renderRectangle.getRotation()) {
+			renderRectangle.setRotation(rotation);
+		}
+		renderRectangle.set(x, y, width, height);
+		storeRenderCoordinates();
+	}
+	
+	/**
+	 * Returns if interpolation reads state published by
+	 * {@link #publishRenderState()}
+	 * 
+	 * @return True if state has been published
+	 */
+	public boolean isRenderStateBuffered() {
+		return renderStates != null;
+	}
+	
 	@Override
 	public void draw(Graphics g) {
 		renderRectangle.draw(g);
@@ -290,8 +356,10 @@ public class CollisionBox extends Rectangle implements CollisionShape {
 		
 		super.set(x, y, width, height);
 		previousRectangle.set(x, y, width, height);
-		renderRectangle.set(previousRectangle);
-		storeRenderCoordinates();
+		if(renderStates == null) {
+			renderRectangle.set(previousRectangle);
+			storeRenderCoordinates();
+		}
 		interpolate = false;
 		
 		if(notifyPositionListeners) {
@@ -316,8 +384,10 @@ public class CollisionBox extends Rectangle implements CollisionShape {
 	public void forceToWidth(float width) {
 		super.setWidth(width);
 		previousRectangle.set(this);
-		renderRectangle.set(this);
-		storeRenderCoordinates();
+		if(renderStates == null) {
+			renderRectangle.set(this);
+			storeRenderCoordinates();
+		}
 		notifySizeChangeListeners();
 	}
 
@@ -331,8 +401,10 @@ public class CollisionBox extends Rectangle implements CollisionShape {
 	public void forceToHeight(float height) {
 		super.setHeight(height);
 		previousRectangle.set(this);
-		renderRectangle.set(this);
-		storeRenderCoordinates();
+		if(renderStates == null) {
+			renderRectangle.set(this);
+			storeRenderCoordinates();
+		}
 		notifySizeChangeListeners();
 	}
 	
@@ -551,6 +623,22 @@ public class CollisionBox extends Rectangle implements CollisionShape {
 		return renderRectangle.getRotation();
 	}
 
+	public float getPreviousX() {
+		return previousRectangle.getX();
+	}
+
+	public float getPreviousY() {
+		return previousRectangle.getY();
+	}
+
+	public float getPreviousWidth() {
+		return previousRectangle.getWidth();
+	}
+
+	public float getPreviousHeight() {
+		return previousRectangle.getHeight();
+	}
+
 	public int getId() {
 		return id;
 	}
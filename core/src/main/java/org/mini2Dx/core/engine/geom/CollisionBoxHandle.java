@@ -0,0 +1,427 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.mini2Dx.core.engine.PositionChangeListener;
+import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.core.engine.SizeChangeListener;
+import org.mini2Dx.core.engine.Sizeable;
+import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * A view of an axis-aligned box stored in a {@link CollisionBoxStore}. Handles
+ * only hold their id and position in the store. The {@link Rectangle}
+ * returned by {@link #getShape()} and the listener lists are only allocated
+ * when first used.
+ */
+public class CollisionBoxHandle implements CollisionShape {
+	final CollisionBoxStore store;
+	private final int id;
+	int slot;
+
+	private Rectangle shape;
+	private List<PositionChangeListener> positionChangeListeners;
+	private List<SizeChangeListener> sizeChangeListeners;
+
+	CollisionBoxHandle(CollisionBoxStore store, int id, int slot) {
+		this.store = store;
+		this.id = id;
+		this.slot = slot;
+	}
+
+	@Override
+	public void preUpdate() {
+		store.preUpdate(slot);
+	}
+
+	@Override
+	public void update(GameContainer gc, float delta) {
+	}
+
+	@Override
+	public void interpolate(GameContainer gc, float alpha) {
+		store.interpolate(slot, alpha);
+	}
+
+	/**
+	 * Sets the bounds of this box
+	 * 
+	 * @param x
+	 *            The x coordinate to set
+	 * @param y
+	 *            The y coordinate to set
+	 * @param width
+	 *            The width to set
+	 * @param height
+	 *            The height to set
+	 */
+	public void set(float x, float y, float width, float height) {
+		boolean notifyPositionListeners = x != getX() || y != getY();
+		boolean notifySizeListeners = width != getWidth() || height != getHeight();
+
+		store.x[slot] = x;
+		store.y[slot] = y;
+		store.width[slot] = width;
+		store.height[slot] = height;
+
+		if (notifyPositionListeners) {
+			notifyPositionChangeListeners();
+		}
+		if (notifySizeListeners) {
+			notifySizeChangeListeners();
+		}
+	}
+
+	@Override
+	public void set(float x, float y) {
+		if (x == getX() && y == getY()) {
+			return;
+		}
+		store.x[slot] = x;
+		store.y[slot] = y;
+		notifyPositionChangeListeners();
+	}
+
+	@Override
+	public void forceTo(float x, float y) {
+		forceTo(x, y, getWidth(), getHeight());
+	}
+
+	/**
+	 * Sets the current bounds to the specified bounds and force updates the
+	 * rendering bounds to match
+	 * 
+	 * @param x
+	 *            The x coordinate to set
+	 * @param y
+	 *            The y coordinate to set
+	 * @param width
+	 *            The width to set
+	 * @param height
+	 *            The height to set
+	 */
+	public void forceTo(float x, float y, float width, float height) {
+		boolean notifyPositionListeners = x != getX() || y != getY();
+		boolean notifySizeListeners = width != getWidth() || height != getHeight();
+
+		store.forceTo(slot, x, y, width, height);
+
+		if (notifyPositionListeners) {
+			notifyPositionChangeListeners();
+		}
+		if (notifySizeListeners) {
+			notifySizeChangeListeners();
+		}
+	}
+
+	@Override
+	public void setX(float x) {
+		set(x, getY());
+	}
+
+	@Override
+	public void setY(float y) {
+		set(getX(), y);
+	}
+
+	public void setWidth(float width) {
+		setSize(width, getHeight());
+	}
+
+	public void setHeight(float height) {
+		setSize(getWidth(), height);
+	}
+
+	public void setSize(float width, float height) {
+		if (width == getWidth() && height == getHeight()) {
+			return;
+		}
+		store.width[slot] = width;
+		store.height[slot] = height;
+		notifySizeChangeListeners();
+	}
+
+	@Override
+	public void setCenter(float x, float y) {
+		set(x - (getWidth() * 0.5f), y - (getHeight() * 0.5f));
+	}
+
+	@Override
+	public void setCenterX(float x) {
+		setX(x - (getWidth() * 0.5f));
+	}
+
+	@Override
+	public void setCenterY(float y) {
+		setY(y - (getHeight() * 0.5f));
+	}
+
+	@Override
+	public void setRadius(float radius) {
+		Rectangle shape = getRectangle();
+		shape.setRadius(radius);
+		set(shape.getX(), shape.getY(), shape.getWidth(), shape.getHeight());
+	}
+
+	@Override
+	public void scale(float scale) {
+		Rectangle shape = getRectangle();
+		shape.scale(scale);
+		set(shape.getX(), shape.getY(), shape.getWidth(), shape.getHeight());
+	}
+
+	@Override
+	public void moveTowards(float x, float y, float speed) {
+		float directionX = x - getX();
+		float directionY = y - getY();
+		float length = (float) Math.sqrt((directionX * directionX) + (directionY * directionY));
+		if (length == 0f) {
+			return;
+		}
+		set(getX() + ((directionX / length) * speed), getY() + ((directionY / length) * speed));
+	}
+
+	@Override
+	public void moveTowards(Positionable positionable, float speed) {
+		moveTowards(positionable.getX(), positionable.getY(), speed);
+	}
+
+	@Override
+	public float getDistanceTo(Positionable positionable) {
+		return getDistanceTo(positionable.getX(), positionable.getY());
+	}
+
+	@Override
+	public float getDistanceTo(Point point) {
+		return getDistanceTo(point.getX(), point.getY());
+	}
+
+	@Override
+	public float getDistanceTo(float x, float y) {
+		return getShape().getDistanceTo(x, y);
+	}
+
+	@Override
+	public boolean contains(Shape shape) {
+		return getShape().contains(shape);
+	}
+
+	@Override
+	public boolean contains(Vector2 point) {
+		return getShape().contains(point);
+	}
+
+	@Override
+	public boolean intersects(Shape shape) {
+		return getShape().intersects(shape);
+	}
+
+	@Override
+	public boolean intersects(LineSegment lineSegment) {
+		return getShape().intersects(lineSegment);
+	}
+
+	@Override
+	public boolean intersectsLineSegment(Vector2 pointA, Vector2 pointB) {
+		return getShape().intersectsLineSegment(pointA, pointB);
+	}
+
+	@Override
+	public boolean intersectsLineSegment(float x1, float y1, float x2, float y2) {
+		return getShape().intersectsLineSegment(x1, y1, x2, y2);
+	}
+
+	/**
+	 * Returns a {@link Rectangle} matching the current bounds of this box.
+	 * The same instance is updated and returned on each call.
+	 */
+	@Override
+	public Shape getShape() {
+		return getRectangle();
+	}
+
+	private Rectangle getRectangle() {
+		if (shape == null) {
+			shape = new Rectangle();
+		}
+		shape.set(getX(), getY(), getWidth(), getHeight());
+		return shape;
+	}
+
+	@Override
+	public <T extends Positionable> void addPostionChangeListener(PositionChangeListener<T> listener) {
+		synchronized (this) {
+			if (positionChangeListeners == null) {
+				positionChangeListeners = new CopyOnWriteArrayList<PositionChangeListener>();
+			}
+		}
+		positionChangeListeners.add(listener);
+	}
+
+	@Override
+	public <T extends Positionable> void removePositionChangeListener(PositionChangeListener<T> listener) {
+		if (positionChangeListeners == null) {
+			return;
+		}
+		positionChangeListeners.remove(listener);
+	}
+
+	private void notifyPositionChangeListeners() {
+		if (positionChangeListeners == null) {
+			return;
+		}
+		for (PositionChangeListener listener : positionChangeListeners) {
+			listener.positionChanged(this);
+		}
+	}
+
+	@Override
+	public <T extends Sizeable> void addSizeChangeListener(SizeChangeListener<T> listener) {
+		synchronized (this) {
+			if (sizeChangeListeners == null) {
+				sizeChangeListeners = new CopyOnWriteArrayList<SizeChangeListener>();
+			}
+		}
+		sizeChangeListeners.add(listener);
+	}
+
+	@Override
+	public <T extends Sizeable> void removeSizeChangeListener(SizeChangeListener<T> listener) {
+		if (sizeChangeListeners == null) {
+			return;
+		}
+		sizeChangeListeners.remove(listener);
+	}
+
+	private void notifySizeChangeListeners() {
+		if (sizeChangeListeners == null) {
+			return;
+		}
+		for (SizeChangeListener listener : sizeChangeListeners) {
+			listener.sizeChanged(this);
+		}
+	}
+
+	@Override
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public float getX() {
+		return store.x[slot];
+	}
+
+	@Override
+	public float getY() {
+		return store.y[slot];
+	}
+
+	@Override
+	public float getWidth() {
+		return store.width[slot];
+	}
+
+	@Override
+	public float getHeight() {
+		return store.height[slot];
+	}
+
+	@Override
+	public float getMinX() {
+		return store.x[slot];
+	}
+
+	@Override
+	public float getMinY() {
+		return store.y[slot];
+	}
+
+	@Override
+	public float getMaxX() {
+		return store.x[slot] + store.width[slot];
+	}
+
+	@Override
+	public float getMaxY() {
+		return store.y[slot] + store.height[slot];
+	}
+
+	@Override
+	public float getCenterX() {
+		return store.x[slot] + (store.width[slot] * 0.5f);
+	}
+
+	@Override
+	public float getCenterY() {
+		return store.y[slot] + (store.height[slot] * 0.5f);
+	}
+
+	@Override
+	public int getRenderX() {
+		return MathUtils.round(store.renderX[slot]);
+	}
+
+	@Override
+	public int getRenderY() {
+		return MathUtils.round(store.renderY[slot]);
+	}
+
+	public int getRenderWidth() {
+		return MathUtils.round(store.renderWidth[slot]);
+	}
+
+	public int getRenderHeight() {
+		return MathUtils.round(store.renderHeight[slot]);
+	}
+
+	public float getPreviousX() {
+		return store.previousX[slot];
+	}
+
+	public float getPreviousY() {
+		return store.previousY[slot];
+	}
+
+	public float getPreviousWidth() {
+		return store.previousWidth[slot];
+	}
+
+	public float getPreviousHeight() {
+		return store.previousHeight[slot];
+	}
+
+	/**
+	 * Returns the {@link CollisionBoxStore} this box is stored in
+	 * 
+	 * @return The {@link CollisionBoxStore} that created this handle
+	 */
+	public CollisionBoxStore getStore() {
+		return store;
+	}
+
+	@Override
+	public String toString() {
+		return "CollisionBoxHandle [id=" + id + ", x=" + getX() + ", y=" + getY() + ", width=" + getWidth()
+				+ ", height=" + getHeight() + "]";
+	}
+}
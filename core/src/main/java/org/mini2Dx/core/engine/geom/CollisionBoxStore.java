@@ -0,0 +1,305 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import com.badlogic.gdx.utils.IntIntMap;
+
+/**
+ * Stores the bounds of many axis-aligned collision boxes in parallel arrays.
+ * Each box is accessed through a {@link CollisionBoxHandle} which implements
+ * {@link CollisionShape} so it can be added to quad trees and other collision
+ * structures.
+ * 
+ * Unlike calling {@link CollisionBox#preUpdate()} and
+ * {@link CollisionBox#interpolate(org.mini2Dx.core.game.GameContainer, float)}
+ * on each box, {@link #preUpdate()} and {@link #interpolate(float)} process
+ * every box in a single pass over contiguous memory.
+ * 
+ * Boxes are stored densely. Removing a box moves the last box into its slot.
+ */
+public class CollisionBoxStore {
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private final IntIntMap slots;
+	private CollisionBoxHandle[] handles;
+	private int size;
+
+	float[] x, y, width, height;
+	float[] previousX, previousY, previousWidth, previousHeight;
+	float[] renderX, renderY, renderWidth, renderHeight;
+
+	/**
+	 * Constructs a {@link CollisionBoxStore} with the default capacity
+	 */
+	public CollisionBoxStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param initialCapacity
+	 *            The number of boxes to allocate space for
+	 */
+	public CollisionBoxStore(int initialCapacity) {
+		if (initialCapacity < 1) {
+			initialCapacity = 1;
+		}
+		slots = new IntIntMap(initialCapacity);
+		handles = new CollisionBoxHandle[initialCapacity];
+		x = new float[initialCapacity];
+		y = new float[initialCapacity];
+		width = new float[initialCapacity];
+		height = new float[initialCapacity];
+		previousX = new float[initialCapacity];
+		previousY = new float[initialCapacity];
+		previousWidth = new float[initialCapacity];
+		previousHeight = new float[initialCapacity];
+		renderX = new float[initialCapacity];
+		renderY = new float[initialCapacity];
+		renderWidth = new float[initialCapacity];
+		renderHeight = new float[initialCapacity];
+	}
+
+	/**
+	 * Adds a box with a generated id
+	 * 
+	 * @param x
+	 *            The x coordinate of the box
+	 * @param y
+	 *            The y coordinate of the box
+	 * @param width
+	 *            The width of the box
+	 * @param height
+	 *            The height of the box
+	 * @return The {@link CollisionBoxHandle} for the new box
+	 */
+	public CollisionBoxHandle add(float x, float y, float width, float height) {
+		return add(CollisionIdSequence.nextId(), x, y, width, height);
+	}
+
+	/**
+	 * Adds a box with a specific id
+	 * 
+	 * @param id
+	 *            The unique id of the box
+	 * @param x
+	 *            The x coordinate of the box
+	 * @param y
+	 *            The y coordinate of the box
+	 * @param width
+	 *            The width of the box
+	 * @param height
+	 *            The height of the box
+	 * @return The {@link CollisionBoxHandle} for the new box
+	 * @throws IllegalArgumentException
+	 *             Thrown if a box with the same id is already stored
+	 */
+	public CollisionBoxHandle add(int id, float x, float y, float width, float height) {
+		if (slots.containsKey(id)) {
+			throw new IllegalArgumentException("A box with id " + id + " is already stored");
+		}
+		if (size == handles.length) {
+			resize(Math.max(8, (int) (size * 1.75f)));
+		}
+		int slot = size++;
+		CollisionBoxHandle handle = new CollisionBoxHandle(this, id, slot);
+		handles[slot] = handle;
+		slots.put(id, slot);
+		forceTo(slot, x, y, width, height);
+		return handle;
+	}
+
+	/**
+	 * Removes a box from this store. The {@link CollisionBoxHandle} must not
+	 * be used after it is removed.
+	 * 
+	 * @param handle
+	 *            The {@link CollisionBoxHandle} of the box to remove
+	 * @return False if the box was not in this store
+	 */
+	public boolean remove(CollisionBoxHandle handle) {
+		if (handle == null || handle.store != this || handle.slot < 0) {
+			return false;
+		}
+		int slot = handle.slot;
+		int lastSlot = --size;
+		slots.remove(handle.getId(), -1);
+		handle.slot = -1;
+
+		if (slot != lastSlot) {
+			CollisionBoxHandle lastHandle = handles[lastSlot];
+			handles[slot] = lastHandle;
+			lastHandle.slot = slot;
+			slots.put(lastHandle.getId(), slot);
+
+			x[slot] = x[lastSlot];
+			y[slot] = y[lastSlot];
+			width[slot] = width[lastSlot];
+			height[slot] = height[lastSlot];
+			previousX[slot] = previousX[lastSlot];
+			previousY[slot] = previousY[lastSlot];
+			previousWidth[slot] = previousWidth[lastSlot];
+			previousHeight[slot] = previousHeight[lastSlot];
+			renderX[slot] = renderX[lastSlot];
+			renderY[slot] = renderY[lastSlot];
+			renderWidth[slot] = renderWidth[lastSlot];
+			renderHeight[slot] = renderHeight[lastSlot];
+		}
+		handles[lastSlot] = null;
+		return true;
+	}
+
+	/**
+	 * Returns the {@link CollisionBoxHandle} for a box id
+	 * 
+	 * @param id
+	 *            The id of the box
+	 * @return Null if no box with the id is stored
+	 */
+	public CollisionBoxHandle get(int id) {
+		int slot = slots.get(id, -1);
+		if (slot < 0) {
+			return null;
+		}
+		return handles[slot];
+	}
+
+	/**
+	 * Returns if a box id is stored
+	 * 
+	 * @param id
+	 *            The id of the box
+	 * @return True if the box is in this store
+	 */
+	public boolean contains(int id) {
+		return slots.containsKey(id);
+	}
+
+	/**
+	 * Returns the {@link CollisionBoxHandle} stored at an index
+	 * 
+	 * @param index
+	 *            A value between 0 and {@link #size()} - 1
+	 * @return The {@link CollisionBoxHandle} at the index
+	 */
+	public CollisionBoxHandle getHandle(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+		}
+		return handles[index];
+	}
+
+	/**
+	 * Returns the number of boxes in this store
+	 * 
+	 * @return 0 if empty
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all boxes from this store
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			handles[i].slot = -1;
+			handles[i] = null;
+		}
+		slots.clear();
+		size = 0;
+	}
+
+	/**
+	 * Stores the current bounds of every box as its previous bounds. This
+	 * needs to be called at the start of each frame before any boxes are
+	 * moved.
+	 */
+	public void preUpdate() {
+		System.arraycopy(x, 0, previousX, 0, size);
+		System.arraycopy(y, 0, previousY, 0, size);
+		System.arraycopy(width, 0, previousWidth, 0, size);
+		System.arraycopy(height, 0, previousHeight, 0, size);
+	}
+
+	/**
+	 * Interpolates the render bounds of every box between its previous and
+	 * current bounds
+	 * 
+	 * @param alpha
+	 *            The interpolation alpha
+	 */
+	public void interpolate(float alpha) {
+		final float inverseAlpha = 1f - alpha;
+		for (int i = 0; i < size; i++) {
+			renderX[i] = (previousX[i] * inverseAlpha) + (x[i] * alpha);
+			renderY[i] = (previousY[i] * inverseAlpha) + (y[i] * alpha);
+			renderWidth[i] = (previousWidth[i] * inverseAlpha) + (width[i] * alpha);
+			renderHeight[i] = (previousHeight[i] * inverseAlpha) + (height[i] * alpha);
+		}
+	}
+
+	void preUpdate(int slot) {
+		previousX[slot] = x[slot];
+		previousY[slot] = y[slot];
+		previousWidth[slot] = width[slot];
+		previousHeight[slot] = height[slot];
+	}
+
+	void interpolate(int slot, float alpha) {
+		final float inverseAlpha = 1f - alpha;
+		renderX[slot] = (previousX[slot] * inverseAlpha) + (x[slot] * alpha);
+		renderY[slot] = (previousY[slot] * inverseAlpha) + (y[slot] * alpha);
+		renderWidth[slot] = (previousWidth[slot] * inverseAlpha) + (width[slot] * alpha);
+		renderHeight[slot] = (previousHeight[slot] * inverseAlpha) + (height[slot] * alpha);
+	}
+
+	void forceTo(int slot, float x, float y, float width, float height) {
+		this.x[slot] = x;
+		this.y[slot] = y;
+		this.width[slot] = width;
+		this.height[slot] = height;
+		previousX[slot] = x;
+		previousY[slot] = y;
+		previousWidth[slot] = width;
+		previousHeight[slot] = height;
+		renderX[slot] = x;
+		renderY[slot] = y;
+		renderWidth[slot] = width;
+		renderHeight[slot] = height;
+	}
+
+	private void resize(int capacity) {
+		CollisionBoxHandle[] newHandles = new CollisionBoxHandle[capacity];
+		System.arraycopy(handles, 0, newHandles, 0, size);
+		handles = newHandles;
+		x = resize(x, capacity);
+		y = resize(y, capacity);
+		width = resize(width, capacity);
+		height = resize(height, capacity);
+		previousX = resize(previousX, capacity);
+		previousY = resize(previousY, capacity);
+		previousWidth = resize(previousWidth, capacity);
+		previousHeight = resize(previousHeight, capacity);
+		renderX = resize(renderX, capacity);
+		renderY = resize(renderY, capacity);
+		renderWidth = resize(renderWidth, capacity);
+		renderHeight = resize(renderHeight, capacity);
+	}
+
+	private float[] resize(float[] array, int capacity) {
+		float[] result = new float[capacity];
+		System.arraycopy(array, 0, result, 0, size);
+		return result;
+	}
+}
@@ -26,4 +26,10 @@ public interface ApplicationListener extends com.badlogic.gdx.ApplicationListene
 	
 	/** Called when the {@link Application} should interpolate itself. */
 	public void interpolate (float alpha);
+	
+	/** Called after the {@link Application} has rendered with the time in nanoseconds remaining in the frame. */
+	public void runFrameTasks (long remainingNanos);
+	
+	/** Called after the {@link Application} has updated to publish state for interpolation and rendering. */
+	public void publishRenderState ();
 }
@@ -0,0 +1,360 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.game;
+
+import org.mini2Dx.core.exception.MdxException;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Runs {@link FrameTask}s in the time left over after a frame has rendered.
+ * Tasks run in descending order of priority, each for no longer than its
+ * maximum slice or the remaining budget. Tasks of equal priority take turns
+ * to run first. Tasks running longer than their slice are counted as
+ * overruns.
+ * 
+ * Tasks may be registered or unregistered while tasks are running, taking
+ * effect once the current frame's tasks have finished.
+ * 
+ * Note: This class is not thread-safe and should only be used from the game
+ * thread.
+ */
+public class FrameScheduler {
+	private final Array<ScheduledTask> tasks = new Array<ScheduledTask>(true, 4, ScheduledTask.class);
+	private final Array<ScheduledTask> pendingTasks = new Array<ScheduledTask>(true, 4, ScheduledTask.class);
+
+	private FrameClock clock = FrameClock.SYSTEM;
+	private long minimumBudget;
+	private int rotation;
+	private boolean running;
+
+	private long totalOverruns, totalOverrunTime, maximumOverrunTime;
+	private long lastBudget, lastElapsed;
+
+	/**
+	 * Registers a {@link FrameTask}
+	 * 
+	 * @param task
+	 *            The {@link FrameTask} to run
+	 * @param priority
+	 *            The priority of the task. Higher priority tasks run first.
+	 * @param maximumSliceNanos
+	 *            The maximum time in nanoseconds the task can run for each
+	 *            frame
+	 */
+	public void register(FrameTask task, int priority, long maximumSliceNanos) {
+		if (task == null) {
+			throw new MdxException("task cannot be null");
+		}
+		if (maximumSliceNanos <= 0L) {
+			throw new MdxException("maximumSliceNanos must be greater than 0");
+		}
+		if (indexOf(task) >= 0 || indexOfPending(task) >= 0) {
+			throw new MdxException("task is already registered");
+		}
+		ScheduledTask scheduledTask = new ScheduledTask(task, priority, maximumSliceNanos);
+		if (running) {
+			pendingTasks.add(scheduledTask);
+		} else {
+			insert(scheduledTask);
+		}
+	}
+
+	private void insert(ScheduledTask scheduledTask) {
+		int index = 0;
+		while (index < tasks.size && tasks.get(index).priority >= scheduledTask.priority) {
+			index++;
+		}
+		tasks.insert(index, scheduledTask);
+	}
+
+	/**
+	 * Removes a {@link FrameTask} from the scheduler
+	 * 
+	 * @param task
+	 *            The {@link FrameTask} to remove
+	 * @return True if the task was registered
+	 */
+	public boolean unregister(FrameTask task) {
+		int pendingIndex = indexOfPending(task);
+		if (pendingIndex >= 0) {
+			pendingTasks.removeIndex(pendingIndex);
+			return true;
+		}
+		int index = indexOf(task);
+		if (index < 0) {
+			return false;
+		}
+		if (running) {
+			tasks.get(index).complete = true;
+		} else {
+			tasks.removeIndex(index);
+		}
+		return true;
+	}
+
+	/**
+	 * Runs tasks until the remaining frame time is used up. Internal usage
+	 * only, called by the game loop after rendering.
+	 * 
+	 * @param remainingNanos
+	 *            The time in nanoseconds before the next frame is due
+	 */
+	public void run(long remainingNanos) {
+		long budget = Math.max(remainingNanos, minimumBudget);
+		lastBudget = budget;
+		lastElapsed = 0L;
+		if (budget <= 0L || tasks.size == 0) {
+			return;
+		}
+		ScheduledTask[] items = tasks.items;
+		int totalTasks = tasks.size;
+		running = true;
+		try {
+			runTasks(items, totalTasks, budget);
+		} finally {
+			running = false;
+		}
+		rotation++;
+
+		for (int i = tasks.size - 1; i >= 0; i--) {
+			if (tasks.get(i).complete) {
+				tasks.removeIndex(i);
+			}
+		}
+		for (int i = 0; i < pendingTasks.size; i++) {
+			insert(pendingTasks.get(i));
+		}
+		pendingTasks.clear();
+	}
+
+	private void runTasks(ScheduledTask[] items, int totalTasks, long budget) {
+		long startTime = clock.nanoTime();
+
+		int groupStart = 0;
+		while (groupStart < totalTasks && lastElapsed < budget) {
+			int groupEnd = groupStart + 1;
+			while (groupEnd < totalTasks && items[groupEnd].priority == items[groupStart].priority) {
+				groupEnd++;
+			}
+			int groupSize = groupEnd - groupStart;
+			int offset = rotation % groupSize;
+			for (int i = 0; i < groupSize && lastElapsed < budget; i++) {
+				ScheduledTask task = items[groupStart + ((offset + i) % groupSize)];
+				if (task.complete) {
+					continue;
+				}
+				long slice = Math.min(task.maximumSlice, budget - lastElapsed);
+				long taskStart = clock.nanoTime();
+				task.complete = !task.task.run(slice);
+				long taskTime = clock.nanoTime() - taskStart;
+				task.runs++;
+				if (taskTime > slice) {
+					long overrun = taskTime - slice;
+					task.overruns++;
+					task.overrunTime += overrun;
+					totalOverruns++;
+					totalOverrunTime += overrun;
+					maximumOverrunTime = Math.max(maximumOverrunTime, overrun);
+				}
+				lastElapsed = clock.nanoTime() - startTime;
+			}
+			groupStart = groupEnd;
+		}
+	}
+
+	private int indexOf(FrameTask task) {
+		for (int i = 0; i < tasks.size; i++) {
+			// Completed tasks are only kept until the current run finishes
+			if (tasks.get(i).task == task && !tasks.get(i).complete) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int indexOfPending(FrameTask task) {
+		for (int i = 0; i < pendingTasks.size; i++) {
+			if (pendingTasks.get(i).task == task) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the number of registered tasks
+	 * 
+	 * @return 0 if no tasks are registered
+	 */
+	public int getTotalTasks() {
+		return tasks.size;
+	}
+
+	/**
+	 * Returns the number of times a task has run
+	 * 
+	 * @param task
+	 *            The {@link FrameTask}
+	 * @return -1 if the task is not registered
+	 */
+	public long getRuns(FrameTask task) {
+		int index = indexOf(task);
+		return index < 0 ? -1L : tasks.get(index).runs;
+	}
+
+	/**
+	 * Returns the number of times a task has run longer than its slice
+	 * 
+	 * @param task
+	 *            The {@link FrameTask}
+	 * @return -1 if the task is not registered
+	 */
+	public long getOverruns(FrameTask task) {
+		int index = indexOf(task);
+		return index < 0 ? -1L : tasks.get(index).overruns;
+	}
+
+	/**
+	 * Returns the total time a task has run beyond its slices
+	 * 
+	 * @param task
+	 *            The {@link FrameTask}
+	 * @return The time in nanoseconds, -1 if the task is not registered
+	 */
+	public long getOverrunTime(FrameTask task) {
+		int index = indexOf(task);
+		return index < 0 ? -1L : tasks.get(index).overrunTime;
+	}
+
+	/**
+	 * Returns the total number of times tasks have run longer than their
+	 * slice
+	 * 
+	 * @return 0 if no overruns have occurred
+	 */
+	public long getTotalOverruns() {
+		return totalOverruns;
+	}
+
+	/**
+	 * Returns the total time tasks have run beyond their slices
+	 * 
+	 * @return The time in nanoseconds
+	 */
+	public long getTotalOverrunTime() {
+		return totalOverrunTime;
+	}
+
+	/**
+	 * Returns the longest time a task has run beyond its slice
+	 * 
+	 * @return The time in nanoseconds
+	 */
+	public long getMaximumOverrunTime() {
+		return maximumOverrunTime;
+	}
+
+	/**
+	 * Resets the run and overrun statistics of all tasks
+	 */
+	public void resetStatistics() {
+		totalOverruns = 0L;
+		totalOverrunTime = 0L;
+		maximumOverrunTime = 0L;
+		for (int i = 0; i < tasks.size; i++) {
+			ScheduledTask task = tasks.get(i);
+			task.runs = 0L;
+			task.overruns = 0L;
+			task.overrunTime = 0L;
+		}
+	}
+
+	/**
+	 * Returns the budget given to tasks during the most recent frame
+	 * 
+	 * @return The budget in nanoseconds
+	 */
+	public long getLastBudget() {
+		return lastBudget;
+	}
+
+	/**
+	 * Returns the time spent running tasks during the most recent frame
+	 * 
+	 * @return The time in nanoseconds
+	 */
+	public long getLastElapsed() {
+		return lastElapsed;
+	}
+
+	/**
+	 * Returns the minimum time given to tasks each frame
+	 * 
+	 * @return 0 by default
+	 */
+	public long getMinimumBudget() {
+		return minimumBudget;
+	}
+
+	/**
+	 * Sets the minimum time given to tasks each frame, even when no time
+	 * remains before the next frame. Guarantees progress of tasks when the
+	 * game is running slowly or without a frame rate limit.
+	 * 
+	 * @param minimumBudget
+	 *            The time in nanoseconds
+	 */
+	public void setMinimumBudget(long minimumBudget) {
+		if (minimumBudget < 0L) {
+			throw new MdxException("minimumBudget cannot be negative");
+		}
+		this.minimumBudget = minimumBudget;
+	}
+
+	/**
+	 * Returns the {@link FrameClock} tasks are measured with
+	 * 
+	 * @return {@link FrameClock#SYSTEM} by default
+	 */
+	public FrameClock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Sets the {@link FrameClock} tasks are measured with
+	 * 
+	 * @param clock
+	 *            The {@link FrameClock} to use
+	 */
+	public void setClock(FrameClock clock) {
+		if (clock == null) {
+			throw new MdxException("clock cannot be null");
+		}
+		this.clock = clock;
+	}
+
+	private static class ScheduledTask {
+		final FrameTask task;
+		final int priority;
+		final long maximumSlice;
+
+		boolean complete;
+		long runs, overruns, overrunTime;
+
+		ScheduledTask(FrameTask task, int priority, long maximumSlice) {
+			this.task = task;
+			this.priority = priority;
+			this.maximumSlice = maximumSlice;
+		}
+	}
+}
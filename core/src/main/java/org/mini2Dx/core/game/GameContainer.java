@@ -35,6 +35,8 @@ public abstract class GameContainer {
 	protected Graphics graphics;
 	private boolean isInitialised = false;
 	private List<GameResizeListener> gameResizeListeners;
+	private final FrameScheduler frameScheduler = new FrameScheduler();
+	private final RenderStatePublisher renderStatePublisher = new RenderStatePublisher();
 	
 	/**
 	 * Initialse the game
@@ -69,6 +71,23 @@ public abstract class GameContainer {
 		graphics.postRender();
 	}
 	
+	/**
+	 * Runs {@link FrameTask}s registered with the {@link FrameScheduler}.
+	 * Called after rendering with the time remaining in the frame.
+	 * @param remainingNanos The time in nanoseconds before the next frame is due
+	 */
+	public void runFrameTasks(long remainingNanos) {
+		frameScheduler.run(remainingNanos);
+	}
+	
+	/**
+	 * Publishes the state of {@link RenderStateSource}s registered with the
+	 * {@link RenderStatePublisher}. Called after each update.
+	 */
+	public void publishRenderState() {
+		renderStatePublisher.publish();
+	}
+	
 	public void resize(int width, int height) {
 		this.width = width;
 		this.height = height;
@@ -123,6 +142,25 @@ public abstract class GameContainer {
 		gameResizeListeners.remove(listener);
 	}
 
+	/**
+	 * Returns the {@link FrameScheduler} for running deferrable work in the
+	 * time left over at the end of each frame
+	 * @return The {@link FrameScheduler} instance
+	 */
+	public FrameScheduler getFrameScheduler() {
+		return frameScheduler;
+	}
+
+	/**
+	 * Returns the {@link RenderStatePublisher} for objects whose state is
+	 * read by interpolate and render while the game updates on a separate
+	 * thread
+	 * @return The {@link RenderStatePublisher} instance
+	 */
+	public RenderStatePublisher getRenderStatePublisher() {
+		return renderStatePublisher;
+	}
+
 	public int getWidth() {
 		return width;
 	}
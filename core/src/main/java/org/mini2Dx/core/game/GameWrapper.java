@@ -75,6 +75,22 @@ public abstract class GameWrapper implements ApplicationListener {
 		gameContainer.interpolate(alpha);
 	}
 
+	@Override
+	public void runFrameTasks(long remainingNanos) {
+		if(gameContainer == null) {
+			return;
+		}
+		gameContainer.runFrameTasks(remainingNanos);
+	}
+
+	@Override
+	public void publishRenderState() {
+		if(gameContainer == null) {
+			return;
+		}
+		gameContainer.publishRenderState();
+	}
+
 	@Override
 	public void render() {
 		if(gameContainer == null) {
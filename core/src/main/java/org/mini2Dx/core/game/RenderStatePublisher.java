@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.game;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Publishes the state of registered {@link RenderStateSource}s after each
+ * update of the game
+ */
+public class RenderStatePublisher {
+	private final Array<RenderStateSource> sources = new Array<RenderStateSource>(false, 16,
+			RenderStateSource.class);
+	private volatile long totalPublishes;
+
+	/**
+	 * Registers a {@link RenderStateSource} to be published after each update
+	 * 
+	 * @param source
+	 *            The {@link RenderStateSource} to publish
+	 */
+	public void register(RenderStateSource source) {
+		synchronized (sources) {
+			if (sources.contains(source, true)) {
+				return;
+			}
+			sources.add(source);
+		}
+	}
+
+	/**
+	 * Removes a {@link RenderStateSource}
+	 * 
+	 * @param source
+	 *            The {@link RenderStateSource} to remove
+	 * @return True if the source was registered
+	 */
+	public boolean unregister(RenderStateSource source) {
+		synchronized (sources) {
+			return sources.removeValue(source, true);
+		}
+	}
+
+	/**
+	 * Publishes the state of all registered {@link RenderStateSource}s.
+	 * Internal usage only, called by the game loop after updating.
+	 */
+	public void publish() {
+		synchronized (sources) {
+			RenderStateSource[] items = sources.items;
+			for (int i = 0; i < sources.size; i++) {
+				items[i].publishRenderState();
+			}
+		}
+		totalPublishes++;
+	}
+
+	/**
+	 * Returns the number of registered {@link RenderStateSource}s
+	 * 
+	 * @return 0 if no sources are registered
+	 */
+	public int getTotalSources() {
+		synchronized (sources) {
+			return sources.size;
+		}
+	}
+
+	/**
+	 * Returns the number of times state has been published
+	 * 
+	 * @return 0 if state has not been published
+	 */
+	public long getTotalPublishes() {
+		return totalPublishes;
+	}
+}
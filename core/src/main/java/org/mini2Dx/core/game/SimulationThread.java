@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.game;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.mini2Dx.core.Mdx;
+import org.mini2Dx.core.exception.MdxException;
+
+/**
+ * Updates an {@link ApplicationListener} at a fixed timestep on a dedicated
+ * thread, publishing render state after each update. The render thread reads
+ * the published state during interpolate and render using the alpha value
+ * from {@link #getAlpha()}.
+ * 
+ * If updates fall too far behind, the backlog of missed updates is dropped
+ * rather than run back-to-back. Updates stop while the thread is paused and
+ * resume without catching up on the time spent paused.
+ * 
+ * Threading contract: only interpolate and render run concurrently with
+ * update. Any other work on the render thread that touches game state, e.g.
+ * input events, resize, posted runnables and frame tasks, must be done
+ * between {@link #lockUpdates()} and {@link #unlockUpdates()}. Games using
+ * this class must not read unpublished state during interpolate or render.
+ */
+public class SimulationThread implements Runnable {
+	/**
+	 * The default maximum number of updates run back-to-back to catch up
+	 */
+	public static final int DEFAULT_MAXIMUM_CATCH_UP = 5;
+
+	private final ApplicationListener listener;
+	private final float timestep;
+	private final long timestepNanos;
+	private final int maximumCatchUp;
+
+	private final ReentrantLock updateLock = new ReentrantLock();
+
+	private FrameClock clock = FrameClock.SYSTEM;
+	private Thread thread;
+	private volatile boolean running, paused;
+	private volatile long lastUpdateTime;
+	private volatile long totalUpdates, totalDroppedUpdates;
+	private volatile Throwable failure;
+
+	/**
+	 * Constructs a thread that catches up at most
+	 * {@link #DEFAULT_MAXIMUM_CATCH_UP} updates
+	 * 
+	 * @param listener
+	 *            The {@link ApplicationListener} to update
+	 * @param timestep
+	 *            The fixed timestep in seconds
+	 */
+	public SimulationThread(ApplicationListener listener, float timestep) {
+		this(listener, timestep, DEFAULT_MAXIMUM_CATCH_UP);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param listener
+	 *            The {@link ApplicationListener} to update
+	 * @param timestep
+	 *            The fixed timestep in seconds
+	 * @param maximumCatchUp
+	 *            The maximum number of updates to run back-to-back when
+	 *            updates fall behind
+	 */
+	public SimulationThread(ApplicationListener listener, float timestep, int maximumCatchUp) {
+		if (listener == null) {
+			throw new MdxException("listener cannot be null");
+		}
+		if (timestep <= 0f) {
+			throw new MdxException("timestep must be greater than 0");
+		}
+		if (maximumCatchUp < 1) {
+			throw new MdxException("maximumCatchUp must be greater than 0");
+		}
+		this.listener = listener;
+		this.timestep = timestep;
+		this.timestepNanos = (long) (timestep * 1000000000.0);
+		this.maximumCatchUp = maximumCatchUp;
+	}
+
+	/**
+	 * Starts updating on a new thread
+	 */
+	public synchronized void start() {
+		if (thread != null) {
+			throw new MdxException("Simulation thread already started");
+		}
+		running = true;
+		thread = new Thread(this, "mini2Dx-simulation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops updating and waits for the current update to finish
+	 */
+	public synchronized void stop() {
+		running = false;
+		if (thread == null) {
+			return;
+		}
+		if (thread != Thread.currentThread()) {
+			LockSupport.unpark(thread);
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		thread = null;
+	}
+
+	/**
+	 * Stops updating until {@link #resume()} is called. Waits for the current
+	 * update to finish.
+	 */
+	public void pause() {
+		if (paused) {
+			return;
+		}
+		paused = true;
+		updateLock.lock();
+		updateLock.unlock();
+	}
+
+	/**
+	 * Resumes updating after {@link #pause()}
+	 */
+	public synchronized void resume() {
+		if (!paused) {
+			return;
+		}
+		paused = false;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Blocks updates until {@link #unlockUpdates()} is called. Waits for the
+	 * current update to finish. Called by the render thread around work that
+	 * must not run concurrently with update.
+	 */
+	public void lockUpdates() {
+		updateLock.lock();
+	}
+
+	/**
+	 * Allows updates blocked by {@link #lockUpdates()} to continue
+	 */
+	public void unlockUpdates() {
+		updateLock.unlock();
+	}
+
+	@Override
+	public void run() {
+		long nextUpdateTime = clock.nanoTime();
+		while (running) {
+			if (paused) {
+				LockSupport.park(this);
+				nextUpdateTime = clock.nanoTime();
+				continue;
+			}
+			long now = clock.nanoTime();
+			if (now < nextUpdateTime) {
+				LockSupport.parkNanos(nextUpdateTime - now);
+				continue;
+			}
+			long backlog = (now - nextUpdateTime) / timestepNanos;
+			if (backlog >= maximumCatchUp) {
+				totalDroppedUpdates += backlog - maximumCatchUp + 1;
+				nextUpdateTime += (backlog - maximumCatchUp + 1) * timestepNanos;
+			}
+			updateLock.lock();
+			try {
+				if (!paused) {
+					step();
+				}
+			} catch (Throwable t) {
+				failure = t;
+				running = false;
+				return;
+			} finally {
+				updateLock.unlock();
+			}
+			nextUpdateTime += timestepNanos;
+		}
+	}
+
+	/**
+	 * Runs a single update and publishes its render state
+	 */
+	void step() {
+		if (Mdx.performanceTracker != null) {
+			Mdx.performanceTracker.markUpdateBegin();
+		}
+		listener.update(timestep);
+		listener.publishRenderState();
+		if (Mdx.performanceTracker != null) {
+			Mdx.performanceTracker.markUpdateEnd();
+		}
+		lastUpdateTime = clock.nanoTime();
+		totalUpdates++;
+	}
+
+	/**
+	 * Returns the interpolation alpha for the render thread based on the time
+	 * since the last published update
+	 * 
+	 * @return A value between 0 and 1
+	 */
+	public float getAlpha() {
+		long lastUpdate = lastUpdateTime;
+		if (totalUpdates == 0) {
+			return 0f;
+		}
+		float alpha = (clock.nanoTime() - lastUpdate) / (float) timestepNanos;
+		if (alpha < 0f) {
+			return 0f;
+		}
+		if (alpha > 1f) {
+			return 1f;
+		}
+		return alpha;
+	}
+
+	/**
+	 * Throws an {@link MdxException} if an update failed on the simulation
+	 * thread. Called by the render thread to surface errors.
+	 */
+	public void checkFailure() {
+		Throwable t = failure;
+		if (t != null) {
+			throw new MdxException("Simulation thread failed: " + t.getMessage(), t);
+		}
+	}
+
+	/**
+	 * Returns if the thread is updating
+	 * 
+	 * @return False if stopped or an update failed
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Returns if updates are paused
+	 * 
+	 * @return True if {@link #pause()} was called without {@link #resume()}
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Returns the fixed timestep
+	 * 
+	 * @return The timestep in seconds
+	 */
+	public float getTimestep() {
+		return timestep;
+	}
+
+	/**
+	 * Returns the total number of updates run
+	 * 
+	 * @return 0 if no updates have run
+	 */
+	public long getTotalUpdates() {
+		return totalUpdates;
+	}
+
+	/**
+	 * Returns the total number of updates dropped due to falling behind
+	 * 
+	 * @return 0 if no updates have been dropped
+	 */
+	public long getTotalDroppedUpdates() {
+		return totalDroppedUpdates;
+	}
+
+	/**
+	 * Sets the {@link FrameClock} used for timing. Must be set before
+	 * {@link #start()}.
+	 * 
+	 * @param clock
+	 *            The {@link FrameClock} to use
+	 */
+	public void setClock(FrameClock clock) {
+		if (clock == null) {
+			throw new MdxException("clock cannot be null");
+		}
+		this.clock = clock;
+	}
+}
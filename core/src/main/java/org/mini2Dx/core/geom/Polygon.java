@@ -41,6 +41,7 @@ public class Polygon extends Shape {
 
 	private final Vector2 centroid = new Vector2();
 	private float[] vertices;
+	private float[] edgeNormals;
 	private float rotation = 0f;
 	private int totalSidesCache = -1;
 	private float minX, minY, maxX, maxY;
@@ -49,6 +50,8 @@ public class Polygon extends Shape {
 	private boolean minMaxDirty = true;
 	private boolean trianglesDirty = true;
 	private boolean centroidDirty = true;
+	private boolean edgeNormalsDirty = true;
+	private boolean convex;
 
 	/**
 	 * Constructor. Note that vertices must be in a clockwise order for
@@ -447,6 +450,28 @@ public class Polygon extends Shape {
 		g.fillPolygon(vertices, getTriangles().items);
 	}
 
+	/**
+	 * Returns the unit normal of each edge of this {@link Polygon}. The
+	 * normals are cached until the vertices change.
+	 * 
+	 * @return The edge normals in x,y pairs. E.g. x1,y1,x2,y2,etc.
+	 */
+	public float[] getEdgeNormals() {
+		edgeNormalsDirtyCheck();
+		return edgeNormals;
+	}
+
+	/**
+	 * Returns if this {@link Polygon} is convex, i.e. every interior angle is
+	 * 180 degrees or less. This is cached with the edge normals.
+	 * 
+	 * @return False if this {@link Polygon} is concave
+	 */
+	public boolean isConvex() {
+		edgeNormalsDirtyCheck();
+		return convex;
+	}
+
 	public float[] getVertices() {
 		return vertices;
 	}
@@ -705,7 +730,7 @@ public class Polygon extends Shape {
 		for (int i = 0; i < vertices.length; i += 2) {
 			vertices[i] += xDiff;
 		}
-		setDirty();
+		setTranslationDirty();
 	}
 
 	@Override
@@ -719,7 +744,7 @@ public class Polygon extends Shape {
 		for (int i = 1; i < vertices.length; i += 2) {
 			vertices[i] += yDiff;
 		}
-		setDirty();
+		setTranslationDirty();
 	}
 
 	@Override
@@ -735,7 +760,7 @@ public class Polygon extends Shape {
 			vertices[i] += xDiff;
 			vertices[i + 1] += yDiff;
 		}
-		setDirty();
+		setTranslationDirty();
 	}
 	
 	@Override
@@ -777,7 +802,7 @@ public class Polygon extends Shape {
 			vertices[i] += translateX;
 			vertices[i + 1] += translateY;
 		}
-		setDirty();
+		setTranslationDirty();
 	}
 
 	@Override
@@ -834,6 +859,16 @@ public class Polygon extends Shape {
 		minMaxDirty = true;
 		trianglesDirty = true;
 		centroidDirty = true;
+		edgeNormalsDirty = true;
+	}
+
+	/**
+	 * Translation does not change the edge normals so they remain cached
+	 */
+	private void setTranslationDirty() {
+		minMaxDirty = true;
+		trianglesDirty = true;
+		centroidDirty = true;
 	}
 
 	private void minMaxDirtyCheck() {
@@ -852,6 +887,56 @@ public class Polygon extends Shape {
 		trianglesDirty = false;
 	}
 
+	private void edgeNormalsDirtyCheck() {
+		if (!edgeNormalsDirty) {
+			return;
+		}
+		int totalSides = getNumberOfSides();
+		if (edgeNormals == null || edgeNormals.length != totalSides * 2) {
+			edgeNormals = new float[totalSides * 2];
+		}
+		int index = 0;
+		internalEdgeIterator.begin();
+		while (internalEdgeIterator.hasNext()) {
+			internalEdgeIterator.next();
+			float edgeX = internalEdgeIterator.getPointBX() - internalEdgeIterator.getPointAX();
+			float edgeY = internalEdgeIterator.getPointBY() - internalEdgeIterator.getPointAY();
+			float length = (float) Math.sqrt((edgeX * edgeX) + (edgeY * edgeY));
+			if (length > 0f) {
+				edgeNormals[index] = edgeY / length;
+				edgeNormals[index + 1] = -edgeX / length;
+			} else {
+				edgeNormals[index] = 0f;
+				edgeNormals[index + 1] = 0f;
+			}
+			index += 2;
+		}
+		internalEdgeIterator.end();
+		convex = computeConvex();
+		edgeNormalsDirty = false;
+	}
+
+	/**
+	 * A polygon is convex if all its corners turn in the same direction
+	 */
+	private boolean computeConvex() {
+		boolean clockwise = false;
+		boolean counterClockwise = false;
+		for (int i = 0; i < edgeNormals.length; i += 2) {
+			int next = (i + 2) % edgeNormals.length;
+			float cross = (edgeNormals[i] * edgeNormals[next + 1]) - (edgeNormals[i + 1] * edgeNormals[next]);
+			if (cross > MathUtils.FLOAT_ROUNDING_ERROR) {
+				counterClockwise = true;
+			} else if (cross < -MathUtils.FLOAT_ROUNDING_ERROR) {
+				clockwise = true;
+			}
+			if (clockwise && counterClockwise) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private void computeTriangles(float[] vertices) {
 		triangles = triangulator.computeTriangles(vertices);
 	}
@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A resizable ring buffer of primitive ints. Mirrors the API of libgdx's
+ * {@link com.badlogic.gdx.utils.Queue} without boxing values.
+ */
+public class IntQueue {
+	protected int[] values;
+	protected int head;
+	protected int tail;
+	public int size;
+
+	/**
+	 * Creates a queue with an initial capacity of 16
+	 */
+	public IntQueue() {
+		this(16);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param initialCapacity
+	 *            The initial capacity of the queue
+	 */
+	public IntQueue(int initialCapacity) {
+		values = new int[Math.max(1, initialCapacity)];
+	}
+
+	/**
+	 * Appends a value to the end of the queue, resizing if necessary
+	 * 
+	 * @param value
+	 *            The value to append
+	 */
+	public void addLast(int value) {
+		if (size == values.length) {
+			resize(values.length << 1);
+		}
+		values[tail++] = value;
+		if (tail == values.length) {
+			tail = 0;
+		}
+		size++;
+	}
+
+	/**
+	 * Prepends a value to the front of the queue, resizing if necessary
+	 * 
+	 * @param value
+	 *            The value to prepend
+	 */
+	public void addFirst(int value) {
+		if (size == values.length) {
+			resize(values.length << 1);
+		}
+		head--;
+		if (head == -1) {
+			head = values.length - 1;
+		}
+		values[head] = value;
+		size++;
+	}
+
+	/**
+	 * Ensures the queue can hold additional values without resizing
+	 * 
+	 * @param additional
+	 *            The number of additional values
+	 */
+	public void ensureCapacity(int additional) {
+		int required = size + additional;
+		if (values.length < required) {
+			resize(required);
+		}
+	}
+
+	protected void resize(int newSize) {
+		int[] newValues = new int[newSize];
+		if (head < tail) {
+			System.arraycopy(values, head, newValues, 0, tail - head);
+		} else if (size > 0) {
+			int rest = values.length - head;
+			System.arraycopy(values, head, newValues, 0, rest);
+			System.arraycopy(values, 0, newValues, rest, tail);
+		}
+		values = newValues;
+		head = 0;
+		tail = size;
+	}
+
+	/**
+	 * Removes and returns the first value of the queue
+	 * 
+	 * @return The first value
+	 * @throws NoSuchElementException
+	 *             Thrown if the queue is empty
+	 */
+	public int removeFirst() {
+		if (size == 0) {
+			throw new NoSuchElementException("Queue is empty.");
+		}
+		int result = values[head];
+		head++;
+		if (head == values.length) {
+			head = 0;
+		}
+		size--;
+		return result;
+	}
+
+	/**
+	 * Removes and returns the last value of the queue
+	 * 
+	 * @return The last value
+	 * @throws NoSuchElementException
+	 *             Thrown if the queue is empty
+	 */
+	public int removeLast() {
+		if (size == 0) {
+			throw new NoSuchElementException("Queue is empty.");
+		}
+		tail--;
+		if (tail == -1) {
+			tail = values.length - 1;
+		}
+		size--;
+		return values[tail];
+	}
+
+	/**
+	 * Returns the first value of the queue without removing it
+	 * 
+	 * @return The first value
+	 * @throws NoSuchElementException
+	 *             Thrown if the queue is empty
+	 */
+	public int first() {
+		if (size == 0) {
+			throw new NoSuchElementException("Queue is empty.");
+		}
+		return values[head];
+	}
+
+	/**
+	 * Returns the last value of the queue without removing it
+	 * 
+	 * @return The last value
+	 * @throws NoSuchElementException
+	 *             Thrown if the queue is empty
+	 */
+	public int last() {
+		if (size == 0) {
+			throw new NoSuchElementException("Queue is empty.");
+		}
+		int index = tail - 1;
+		if (index == -1) {
+			index = values.length - 1;
+		}
+		return values[index];
+	}
+
+	/**
+	 * Returns the value at an index, where 0 is the first value of the queue
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The value at the index
+	 * @throws IndexOutOfBoundsException
+	 *             Thrown if the index is negative or not less than
+	 *             {@link #size}
+	 */
+	public int get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+		}
+		int i = head + index;
+		if (i >= values.length) {
+			i -= values.length;
+		}
+		return values[i];
+	}
+
+	/**
+	 * Removes all values from the queue
+	 */
+	public void clear() {
+		head = 0;
+		tail = 0;
+		size = 0;
+	}
+
+	/**
+	 * Returns if the queue is empty
+	 * 
+	 * @return True if {@link #size} is 0
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of values the queue can hold before resizing
+	 * 
+	 * @return The capacity of the queue
+	 */
+	public int getCapacity() {
+		return values.length;
+	}
+}
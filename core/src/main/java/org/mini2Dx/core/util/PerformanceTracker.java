@@ -25,6 +25,8 @@ import com.badlogic.gdx.utils.Align;
  * <li>Frames per second</li>
  * <li>Current memory usage</li>
  * </ul>
+ * 
+ * Update and frame marks may be made from different threads.
  */
 public class PerformanceTracker {
 	private static final GlyphLayout GLYPH_LAYOUT = new GlyphLayout();
@@ -58,7 +60,7 @@ public class PerformanceTracker {
 	/**
 	 * Internal usage only: marks the beginning of update operations
 	 */
-	public void markUpdateBegin() {
+	public synchronized void markUpdateBegin() {
 		long time = System.nanoTime();
 
 		if (time - updateSecondStart >= 1000000000) {
@@ -74,7 +76,7 @@ public class PerformanceTracker {
 	/**
 	 * Internal usage only: marks the end of update operations
 	 */
-	public void markUpdateEnd() {
+	public synchronized void markUpdateEnd() {
 		long time = System.nanoTime();
 		long updateDuration = time - updateStart;
 
@@ -84,7 +86,7 @@ public class PerformanceTracker {
 	/**
 	 * Internal usage only: marks a new frame
 	 */
-	public void markFrame() {
+	public synchronized void markFrame() {
 		long time = System.nanoTime();
 
 		if (time - frameSecondStart >= 1000000000) {
@@ -100,7 +102,7 @@ public class PerformanceTracker {
 	 * 
 	 * @return
 	 */
-	public int getUpdatesPerSecond() {
+	public synchronized int getUpdatesPerSecond() {
 		return updatesPerSecond;
 	}
 
@@ -109,7 +111,7 @@ public class PerformanceTracker {
 	 * 
 	 * @return
 	 */
-	public int getFramesPerSecond() {
+	public synchronized int getFramesPerSecond() {
 		return framesPerSecond;
 	}
 
@@ -118,7 +120,7 @@ public class PerformanceTracker {
 	 * 
 	 * @return The average duration in nanoseconds
 	 */
-	public double getAverageUpdateDuration() {
+	public synchronized double getAverageUpdateDuration() {
 		return averageUpdateDuration.getAverage();
 	}
 
@@ -267,7 +269,7 @@ public class PerformanceTracker {
 		return String.format("%.1f %sB", bytes / Math.pow(unit, exp), pre);
 	}
 
-	private void updateMessages() {
+	private synchronized void updateMessages() {
 		long currentTime = System.currentTimeMillis();
 		if(currentTime - lastMessagesUpdate < 1000L) {
 			return;
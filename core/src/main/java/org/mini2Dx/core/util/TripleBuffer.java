@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free management of three buffer indices shared between a single writer
+ * thread and a single reader thread. The writer fills the buffer at
+ * {@link #getWriteIndex()} and calls {@link #publish()}. The reader calls
+ * {@link #getReadIndex()} to receive the most recently published buffer.
+ * Neither thread ever waits for the other or sees a partially written buffer.
+ */
+public class TripleBuffer {
+	private static final int INDEX_MASK = 3;
+	private static final int MIDDLE_SHIFT = 2;
+	private static final int FRONT_SHIFT = 4;
+	private static final int FRESH_FLAG = 1 << 6;
+
+	/**
+	 * Back (writer) index in bits 0-1, middle index in bits 2-3, front
+	 * (reader) index in bits 4-5 and a flag set when the middle buffer holds
+	 * a newer publish than the front buffer
+	 */
+	private final AtomicInteger state = new AtomicInteger(0 | (1 << MIDDLE_SHIFT) | (2 << FRONT_SHIFT));
+
+	/**
+	 * Returns the index of the buffer the writer thread should fill
+	 * 
+	 * @return 0, 1 or 2
+	 */
+	public int getWriteIndex() {
+		return state.get() & INDEX_MASK;
+	}
+
+	/**
+	 * Publishes the buffer at {@link #getWriteIndex()} to the reader thread.
+	 * The writer receives a new buffer to fill.
+	 */
+	public void publish() {
+		while (true) {
+			int current = state.get();
+			int back = current & INDEX_MASK;
+			int middle = (current >> MIDDLE_SHIFT) & INDEX_MASK;
+			int front = (current >> FRONT_SHIFT) & INDEX_MASK;
+			int next = middle | (back << MIDDLE_SHIFT) | (front << FRONT_SHIFT) | FRESH_FLAG;
+			if (state.compareAndSet(current, next)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the index of the most recently published buffer for the reader
+	 * thread. The buffer remains valid until the next call to this method.
+	 * 
+	 * @return 0, 1 or 2
+	 */
+	public int getReadIndex() {
+		while (true) {
+			int current = state.get();
+			if ((current & FRESH_FLAG) == 0) {
+				return (current >> FRONT_SHIFT) & INDEX_MASK;
+			}
+			int back = current & INDEX_MASK;
+			int middle = (current >> MIDDLE_SHIFT) & INDEX_MASK;
+			int front = (current >> FRONT_SHIFT) & INDEX_MASK;
+			int next = back | (front << MIDDLE_SHIFT) | (middle << FRONT_SHIFT);
+			if (state.compareAndSet(current, next)) {
+				return middle;
+			}
+		}
+	}
+
+	/**
+	 * Returns if a buffer has been published since the reader last called
+	 * {@link #getReadIndex()}
+	 * 
+	 * @return True if a newer buffer is available to the reader
+	 */
+	public boolean hasUpdate() {
+		return (state.get() & FRESH_FLAG) != 0;
+	}
+}
@@ -187,6 +187,62 @@ public class ConcurrentPointQuadTreeTest implements Runnable {
 		}
 	}
 
+	@Test
+	public void testDeferPositionUpdates() {
+		ConcurrentPointQuadTree<CollisionPoint> rootQuad = new ConcurrentPointQuadTree<CollisionPoint>(4, 3, 0, 0, 128, 128);
+		rootQuad.setDeferPositionUpdates(true);
+		Assert.assertEquals(true, rootQuad.isDeferPositionUpdates());
+		rootQuad.add(point1);
+		rootQuad.add(point2);
+		rootQuad.add(point3);
+		rootQuad.add(point4);
+		rootQuad.add(new CollisionPoint(48, 48));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+
+		point2.set(2, 1);
+		point3.set(1, 2);
+		point4.set(2, 2);
+		Assert.assertEquals(2, rootQuad.topLeft.getTotalElements());
+
+		rootQuad.flush();
+		Assert.assertEquals(5, rootQuad.topLeft.getTotalElements());
+		Assert.assertEquals(4, rootQuad.getElementsWithinArea(new Rectangle(0, 0, 8, 8)).size());
+		Assert.assertEquals(5, rootQuad.getTotalElements());
+		Assert.assertEquals(7, rootQuad.getTotalQuads());
+
+		point4.set(127, 127);
+		rootQuad.setDeferPositionUpdates(false);
+		Assert.assertEquals(false, rootQuad.isDeferPositionUpdates());
+		Assert.assertEquals(1, rootQuad.getElementsWithinArea(new Rectangle(120, 120, 8, 8)).size());
+		Assert.assertEquals(5, rootQuad.getTotalElements());
+	}
+
+	@Test
+	public void testRemoveMovedElementBeforeFlush() {
+		ConcurrentPointQuadTree<CollisionPoint> rootQuad = new ConcurrentPointQuadTree<CollisionPoint>(4, 3, 0, 0, 128, 128);
+		rootQuad.setDeferPositionUpdates(true);
+		rootQuad.add(point1);
+		rootQuad.add(point2);
+		rootQuad.add(point3);
+		rootQuad.add(point4);
+		rootQuad.add(new CollisionPoint(48, 48));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+
+		point2.set(2, 1);
+		Assert.assertEquals(true, rootQuad.remove(point2));
+		rootQuad.flush();
+		Assert.assertEquals(4, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(point2));
+		Assert.assertEquals(1, rootQuad.getElementsWithinArea(new Rectangle(0, 0, 8, 8)).size());
+
+		rootQuad.remove(point3);
+		rootQuad.remove(point4);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		rootQuad.flush();
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+	}
+
 	@Test
 	public void testGetTotalElements() {
 		rootQuad.add(point1);
@@ -31,6 +31,7 @@ import org.mini2Dx.core.geom.Point;
 import org.mini2Dx.core.geom.Rectangle;
 
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntArray;
 
 import junit.framework.Assert;
 import net.jodah.concurrentunit.Waiter;
@@ -202,6 +203,71 @@ public class ConcurrentRegionQuadTreeTest implements Runnable {
 		Assert.assertEquals(true, rootQuad.getElements().contains(box1));
 	}
 
+	@Test
+	public void testElementMovingOutOfParentQuad() {
+		rootQuad = new ConcurrentRegionQuadTree<CollisionBox>(4, 0, 0, 128, 128);
+		CollisionBox movingBox = new CollisionBox(40, 2, 4, 4);
+		rootQuad.add(new CollisionBox(2, 2, 4, 4));
+		rootQuad.add(new CollisionBox(10, 10, 4, 4));
+		rootQuad.add(new CollisionBox(20, 20, 4, 4));
+		rootQuad.add(new CollisionBox(50, 10, 4, 4));
+		rootQuad.add(movingBox);
+		Assert.assertEquals(5, rootQuad.topLeft.getTotalElements());
+
+		movingBox.set(62, 20);
+		Assert.assertEquals(5, rootQuad.getTotalElements());
+		Assert.assertEquals(true, rootQuad.getElementsWithinArea(new Rectangle(65, 22, 1, 1)).contains(movingBox));
+	}
+
+	@Test
+	public void testDeferPositionUpdates() {
+		ConcurrentRegionQuadTree<CollisionBox> rootQuad = new ConcurrentRegionQuadTree<CollisionBox>(4, 3, 0, 0, 128, 128);
+		rootQuad.setDeferPositionUpdates(true);
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		rootQuad.add(new CollisionBox(24, 24, 2, 2));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+
+		box2.set(60, 60);
+		box3.set(50, 50);
+		box4.set(40, 40);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+
+		rootQuad.flush();
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		Assert.assertEquals(5, rootQuad.getTotalElements());
+		Assert.assertEquals(3, rootQuad.getElementsContainingPoint(new Point(64, 64)).size());
+		Assert.assertEquals(true, rootQuad.getElements().contains(box1));
+	}
+
+	@Test
+	public void testRemoveMovedElementBeforeFlush() {
+		ConcurrentRegionQuadTree<CollisionBox> rootQuad = new ConcurrentRegionQuadTree<CollisionBox>(4, 3, 0, 0, 128, 128);
+		rootQuad.setDeferPositionUpdates(true);
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		rootQuad.add(new CollisionBox(24, 24, 2, 2));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+
+		box2.set(10, 70);
+		Assert.assertEquals(true, rootQuad.remove(box2));
+		rootQuad.flush();
+		Assert.assertEquals(4, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(box2));
+		Assert.assertEquals(0, rootQuad.getElementsContainingPoint(new Point(20, 80)).size());
+
+		rootQuad.remove(box3);
+		rootQuad.remove(box4);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		rootQuad.flush();
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+	}
+
 	@Test
 	public void testGetTotalElements() {
 		rootQuad.add(box1);
@@ -408,4 +474,52 @@ public class ConcurrentRegionQuadTreeTest implements Runnable {
 		threadCollisions.offer(nextCollision);
 		rootQuad.add(nextCollision);
 	}
+	
+	@Test
+	public void testGetElementIdsWithinArea() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		CollisionBox centerBox = new CollisionBox(48, 48, 32, 32);
+		rootQuad.add(centerBox);
+		
+		IntArray result = new IntArray();
+		rootQuad.getElementIdsWithinArea(0f, 0f, 50f, 50f, result);
+		Assert.assertEquals(2, result.size);
+		Assert.assertEquals(true, result.contains(box1.getId()));
+		Assert.assertEquals(true, result.contains(centerBox.getId()));
+		
+		result.clear();
+		rootQuad.getElementIdsWithinArea(100f, 100f, 4f, 4f, result);
+		Assert.assertEquals(1, result.size);
+		Assert.assertEquals(box4.getId(), result.get(0));
+	}
+	
+	@Test
+	public void testGetElementsWithinRadius() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		
+		final List<CollisionBox> result = new ArrayList<CollisionBox>();
+		QuadTreeQueryCallback<CollisionBox> callback = new QuadTreeQueryCallback<CollisionBox>() {
+			@Override
+			public void onElementFound(CollisionBox element) {
+				result.add(element);
+			}
+		};
+		rootQuad.getElementsWithinRadius(40f, 40f, 7f, callback);
+		Assert.assertEquals(0, result.size());
+		
+		rootQuad.getElementsWithinRadius(40f, 40f, 12f, callback);
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(box1, result.get(0));
+		
+		result.clear();
+		rootQuad.getElementsContainingPoint(112f, 16f, callback);
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(box2, result.get(0));
+	}
 }
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.Rectangle;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link ConcurrentSpatialHashGrid}
+ */
+public class ConcurrentSpatialHashGridTest {
+	private static final long CONCURRENCY_TEST_TIMEOUT = 10000L;
+
+	private ConcurrentSpatialHashGrid<CollisionBox> grid;
+
+	@Before
+	public void setup() {
+		grid = new ConcurrentSpatialHashGrid<CollisionBox>(4, 16, 16, 0, 0, 128, 128);
+	}
+
+	@Test
+	public void testAddRemoveAndMove() {
+		CollisionBox box = new CollisionBox(1, 1, 32, 32);
+		Assert.assertEquals(true, grid.add(box));
+		Assert.assertEquals(false, grid.add(box));
+		Assert.assertEquals(1, grid.getElementsWithinArea(new Rectangle(0, 0, 128, 128)).size());
+
+		box.set(90, 90);
+		Assert.assertEquals(0, grid.getElementsWithinArea(new Rectangle(0, 0, 8, 8)).size());
+		Assert.assertEquals(1, grid.getElementsWithinArea(new Rectangle(100, 100, 8, 8)).size());
+
+		Assert.assertEquals(true, grid.remove(box));
+		Assert.assertEquals(0, grid.getTotalElements());
+		Assert.assertEquals(0, grid.getElementsWithinArea(new Rectangle(0, 0, 128, 128)).size());
+	}
+
+	@Test(timeout = CONCURRENCY_TEST_TIMEOUT)
+	public void testCallbacksCanModifyGrid() {
+		final CollisionBox box1 = new CollisionBox(1, 1, 8, 8);
+		final CollisionBox box2 = new CollisionBox(40, 1, 8, 8);
+		grid.add(box1);
+		grid.add(box2);
+
+		grid.raycast(0f, 4f, 1f, 0f, 128f, new RaycastCallback<CollisionBox>() {
+			@Override
+			public float onHit(CollisionBox element, float distance, float normalX, float normalY) {
+				element.set(element.getX(), 100f);
+				return Float.MAX_VALUE;
+			}
+		});
+		Assert.assertEquals(0, grid.getElementsWithinArea(new Rectangle(0, 0, 128, 16)).size());
+		Assert.assertEquals(2, grid.getElementsWithinArea(new Rectangle(0, 96, 128, 16)).size());
+
+		grid.getElementsWithinArea(0f, 96f, 128f, 16f, new QuadTreeQueryCallback<CollisionBox>() {
+			@Override
+			public void onElementFound(CollisionBox element) {
+				grid.remove(element);
+			}
+		});
+		Assert.assertEquals(0, grid.getTotalElements());
+		Assert.assertEquals(0, grid.getElementsWithinArea(new Rectangle(0, 0, 128, 128)).size());
+	}
+
+	@Test
+	public void testConcurrentMovesAndReads() throws Exception {
+		final int totalBoxes = 200;
+		final List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		final Random random = new Random();
+		for (int i = 0; i < totalBoxes; i++) {
+			boxes.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		grid.addAll(boxes);
+
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final AtomicBoolean exceptionOccurred = new AtomicBoolean(false);
+
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			final boolean writer = i % 2 == 0;
+			final int offset = i / 2;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Random threadRandom = new Random();
+					Rectangle area = new Rectangle(0f, 0f, 128f, 128f);
+					try {
+						while (running.get()) {
+							if (writer) {
+								CollisionBox box = boxes.get((threadRandom.nextInt(totalBoxes / 2) * 2) + offset);
+								box.set(threadRandom.nextInt(120), threadRandom.nextInt(120));
+							} else {
+								grid.getElementsWithinArea(area);
+							}
+						}
+					} catch (Exception e) {
+						e.printStackTrace();
+						exceptionOccurred.set(true);
+					}
+				}
+			});
+			threads[i].start();
+		}
+
+		Thread.sleep(500L);
+		running.set(false);
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join(CONCURRENCY_TEST_TIMEOUT);
+		}
+
+		Assert.assertEquals(false, exceptionOccurred.get());
+		Assert.assertEquals(totalBoxes, grid.getTotalElements());
+		Assert.assertEquals(totalBoxes, grid.getElementsWithinArea(new Rectangle(0f, 0f, 128f, 128f)).size());
+	}
+}
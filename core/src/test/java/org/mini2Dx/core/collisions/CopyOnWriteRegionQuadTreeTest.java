@@ -0,0 +1,343 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link CopyOnWriteRegionQuadTree}
+ */
+public class CopyOnWriteRegionQuadTreeTest {
+	private static final long CONCURRENCY_TEST_TIMEOUT = 10000L;
+
+	private CopyOnWriteRegionQuadTree<CollisionBox> rootQuad;
+	private CollisionBox box1, box2, box3, box4;
+
+	@Before
+	public void setup() {
+		rootQuad = new CopyOnWriteRegionQuadTree<CollisionBox>(2, 0, 0, 128, 128);
+
+		box1 = new CollisionBox(1, 1, 32, 32);
+		box2 = new CollisionBox(95, 1, 32, 32);
+		box3 = new CollisionBox(1, 95, 32, 32);
+		box4 = new CollisionBox(95, 95, 32, 32);
+	}
+
+	@Test
+	public void testAdd() {
+		int totalElements = 100;
+		Random random = new Random();
+		for (int i = 0; i < totalElements; i++) {
+			CollisionBox rect = new CollisionBox(random.nextInt(96), random.nextInt(96), 32f, 32f);
+			Assert.assertEquals(true, rootQuad.add(rect));
+			Assert.assertEquals(i + 1, rootQuad.getTotalElements());
+		}
+		Assert.assertEquals(false, rootQuad.add(new CollisionBox(256f, 256f, 32f, 32f)));
+		Assert.assertEquals(totalElements, rootQuad.getElements().size());
+	}
+
+	@Test
+	public void testAddAll() {
+		Random random = new Random();
+		List<CollisionBox> rects = new ArrayList<CollisionBox>();
+		for (int i = 0; i < 100; i++) {
+			rects.add(new CollisionBox(random.nextInt(96), random.nextInt(96), 32f, 32f));
+		}
+		rects.add(new CollisionBox(-4f, -4f, 32f, 32f));
+
+		rootQuad.addAll(rects);
+		Assert.assertEquals(rects.size(), rootQuad.getTotalElements());
+	}
+
+	@Test
+	public void testRemove() {
+		Random random = new Random();
+		List<CollisionBox> collisionBoxes = new ArrayList<CollisionBox>();
+		for (int i = 0; i < 1000; i++) {
+			collisionBoxes.add(
+					new CollisionBox(random.nextInt(96), random.nextInt(96), random.nextInt(32), random.nextInt(32)));
+		}
+
+		for (int i = 0; i < collisionBoxes.size(); i++) {
+			rootQuad.add(collisionBoxes.get(i));
+			Assert.assertEquals(i + 1, rootQuad.getElements().size());
+		}
+
+		for (int i = collisionBoxes.size() - 1; i >= 0; i--) {
+			Assert.assertEquals(i + 1, rootQuad.getElements().size());
+			Assert.assertEquals(true, rootQuad.remove(collisionBoxes.get(i)));
+			Assert.assertEquals(i, rootQuad.getElements().size());
+		}
+		Assert.assertEquals(false, rootQuad.remove(box1));
+	}
+
+	@Test
+	public void testRemoveAll() {
+		Random random = new Random();
+		List<CollisionBox> rects = new ArrayList<CollisionBox>();
+		for (int i = 0; i < 100; i++) {
+			rects.add(new CollisionBox(random.nextInt(96), random.nextInt(96), random.nextInt(32), random.nextInt(32)));
+		}
+		rootQuad.addAll(rects);
+		Assert.assertEquals(rects.size(), rootQuad.getTotalElements());
+		rootQuad.removeAll(rects);
+		Assert.assertEquals(0, rootQuad.getTotalElements());
+	}
+
+	@Test
+	public void testSubdivide() {
+		rootQuad.add(box1);
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		rootQuad.add(box2);
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		rootQuad.add(box3);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		rootQuad.add(box4);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		rootQuad.add(new CollisionBox(24, 24, 2, 2));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		rootQuad.add(new CollisionBox(48, 48, 32, 32));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		rootQuad.add(new CollisionBox(12, 48, 8, 8));
+		Assert.assertEquals(7, rootQuad.getTotalQuads());
+		Assert.assertEquals(7, rootQuad.getElements().size());
+	}
+
+	@Test
+	public void testMerge() {
+		rootQuad = new CopyOnWriteRegionQuadTree<CollisionBox>(4, 3, 0, 0, 128, 128);
+		Assert.assertEquals(true, rootQuad.add(box1));
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		Assert.assertEquals(true, rootQuad.add(box2));
+		Assert.assertEquals(true, rootQuad.add(box3));
+		Assert.assertEquals(true, rootQuad.add(box4));
+		Assert.assertEquals(true, rootQuad.add(new CollisionBox(24, 24, 2, 2)));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		Assert.assertEquals(true, rootQuad.remove(box4));
+		Assert.assertEquals(true, rootQuad.remove(box3));
+		Assert.assertEquals(true, rootQuad.remove(box2));
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+		Assert.assertEquals(true, rootQuad.getElements().contains(box1));
+	}
+
+	@Test
+	public void testGetElementsWithinRegion() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		List<CollisionBox> collisionBoxes = rootQuad.getElementsWithinArea(new CollisionBox(48, 48, 32, 32));
+		Assert.assertEquals(0, collisionBoxes.size());
+
+		CollisionBox collisionBox5 = new CollisionBox(24, 24, 2, 2);
+		CollisionBox collisionBox6 = new CollisionBox(48, 48, 32, 32);
+		CollisionBox collisionBox7 = new CollisionBox(12, 48, 8, 8);
+
+		rootQuad.add(collisionBox5);
+		rootQuad.add(collisionBox6);
+		rootQuad.add(collisionBox7);
+
+		collisionBoxes = rootQuad.getElementsWithinArea(new CollisionBox(0, 0, 128, 128));
+		Assert.assertEquals(rootQuad.getElements().size(), collisionBoxes.size());
+
+		collisionBoxes = rootQuad.getElementsWithinArea(new CollisionBox(36, 36, 32, 32));
+		Assert.assertEquals(1, collisionBoxes.size());
+		Assert.assertEquals(collisionBox6, collisionBoxes.get(0));
+
+		collisionBoxes = rootQuad.getElementsWithinArea(new CollisionBox(0, 0, 64, 64));
+		Assert.assertEquals(4, collisionBoxes.size());
+		Assert.assertEquals(true, collisionBoxes.contains(box1));
+		Assert.assertEquals(true, collisionBoxes.contains(collisionBox5));
+		Assert.assertEquals(true, collisionBoxes.contains(collisionBox6));
+		Assert.assertEquals(true, collisionBoxes.contains(collisionBox7));
+
+		collisionBoxes = rootQuad.getElementsWithinArea(new CollisionBox(12, 40, 48, 8));
+		Assert.assertEquals(2, collisionBoxes.size());
+		Assert.assertEquals(true, collisionBoxes.contains(collisionBox6));
+		Assert.assertEquals(true, collisionBoxes.contains(collisionBox7));
+	}
+
+	@Test
+	public void testGetElementsIntersectingLineSegment() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		List<CollisionBox> collisionBoxes = rootQuad
+				.getElementsIntersectingLineSegment(new LineSegment(0, 0, 128, 128));
+		Assert.assertEquals(2, collisionBoxes.size());
+		Assert.assertEquals(true, collisionBoxes.contains(box1));
+		Assert.assertEquals(true, collisionBoxes.contains(box4));
+	}
+
+	@Test
+	public void testGetElementsContainingPoint() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		List<CollisionBox> collisionBoxes = rootQuad.getElementsContainingPoint(new Point(16, 16));
+		Assert.assertEquals(1, collisionBoxes.size());
+		Assert.assertEquals(true, collisionBoxes.contains(box1));
+
+		collisionBoxes = rootQuad.getElementsContainingPoint(new Point(112, 112));
+		Assert.assertEquals(1, collisionBoxes.size());
+		Assert.assertEquals(true, collisionBoxes.contains(box4));
+	}
+
+	@Test
+	public void testPositionChanged() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		box1.set(96f, 96f);
+		Assert.assertEquals(4, rootQuad.getTotalElements());
+		Assert.assertEquals(0, rootQuad.getElementsContainingPoint(new Point(16, 16)).size());
+		Assert.assertEquals(2, rootQuad.getElementsContainingPoint(new Point(112, 112)).size());
+
+		box1.set(512f, 512f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(box1));
+	}
+
+	@Test
+	public void testSnapshotUnaffectedByWrites() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+
+		CopyOnWriteRegionQuadTree.Snapshot<CollisionBox> snapshot = rootQuad.getSnapshot();
+		rootQuad.add(box3);
+		rootQuad.remove(box1);
+
+		Assert.assertEquals(2, snapshot.getTotalElements());
+		Assert.assertEquals(true, snapshot.getElements().contains(box1));
+		Assert.assertEquals(false, snapshot.getElements().contains(box3));
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+		Assert.assertEquals(true, rootQuad.getElements().contains(box3));
+	}
+
+	@Test
+	public void testConcurrentReadsDuringWrites() throws Exception {
+		final int totalBoxes = 200;
+		final List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		final Random random = new Random();
+		for (int i = 0; i < totalBoxes; i++) {
+			boxes.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		rootQuad = new CopyOnWriteRegionQuadTree<CollisionBox>(4, 2, 0, 0, 128, 128);
+		rootQuad.addAll(boxes);
+
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final AtomicBoolean inconsistencyFound = new AtomicBoolean(false);
+
+		Thread[] readers = new Thread[4];
+		for (int i = 0; i < readers.length; i++) {
+			readers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Rectangle area = new Rectangle(0f, 0f, 128f, 128f);
+					while (running.get()) {
+						CopyOnWriteRegionQuadTree.Snapshot<CollisionBox> snapshot = rootQuad.getSnapshot();
+						if (snapshot.getElements().size() != totalBoxes) {
+							inconsistencyFound.set(true);
+						}
+						if (snapshot.getElementsWithinArea(area).size() > totalBoxes) {
+							inconsistencyFound.set(true);
+						}
+					}
+				}
+			});
+			readers[i].start();
+		}
+
+		long endTime = System.currentTimeMillis() + Math.min(1000L, CONCURRENCY_TEST_TIMEOUT);
+		while (System.currentTimeMillis() < endTime) {
+			CollisionBox box = boxes.get(random.nextInt(totalBoxes));
+			box.set(random.nextInt(120), random.nextInt(120));
+		}
+		running.set(false);
+		for (int i = 0; i < readers.length; i++) {
+			readers[i].join(CONCURRENCY_TEST_TIMEOUT);
+		}
+
+		Assert.assertEquals(false, inconsistencyFound.get());
+		Assert.assertEquals(totalBoxes, rootQuad.getTotalElements());
+	}
+	
+	@Test
+	public void testGetElementIdsWithinArea() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		CollisionBox centerBox = new CollisionBox(48, 48, 32, 32);
+		rootQuad.add(centerBox);
+		
+		IntArray result = new IntArray();
+		rootQuad.getElementIdsWithinArea(0f, 0f, 50f, 50f, result);
+		Assert.assertEquals(2, result.size);
+		Assert.assertEquals(true, result.contains(box1.getId()));
+		Assert.assertEquals(true, result.contains(centerBox.getId()));
+		
+		result.clear();
+		rootQuad.getElementIdsWithinArea(100f, 100f, 4f, 4f, result);
+		Assert.assertEquals(1, result.size);
+		Assert.assertEquals(box4.getId(), result.get(0));
+	}
+	
+	@Test
+	public void testGetElementsWithinRadius() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		
+		final List<CollisionBox> result = new ArrayList<CollisionBox>();
+		QuadTreeQueryCallback<CollisionBox> callback = new QuadTreeQueryCallback<CollisionBox>() {
+			@Override
+			public void onElementFound(CollisionBox element) {
+				result.add(element);
+			}
+		};
+		rootQuad.getElementsWithinRadius(40f, 40f, 8f, callback);
+		Assert.assertEquals(0, result.size());
+		
+		rootQuad.getElementsWithinRadius(40f, 40f, 10f, callback);
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(box1, result.get(0));
+		
+		result.clear();
+		rootQuad.getElementsContainingPoint(112f, 16f, callback);
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(box2, result.get(0));
+	}
+}
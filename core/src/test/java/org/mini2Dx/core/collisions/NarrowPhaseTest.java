@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.engine.geom.CollisionCircle;
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Polygon;
+import org.mini2Dx.core.geom.Rectangle;
+
+import com.badlogic.gdx.utils.IntMap;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link NarrowPhase}
+ */
+public class NarrowPhaseTest {
+	private static final float TOLERANCE = 0.0001f;
+
+	private NarrowPhase narrowPhase;
+	private Penetration penetration;
+
+	@Before
+	public void setup() {
+		narrowPhase = new NarrowPhase();
+		penetration = new Penetration();
+	}
+
+	@Test
+	public void testRectangles() {
+		Rectangle rectangle1 = new Rectangle(0f, 0f, 10f, 10f);
+		Rectangle rectangle2 = new Rectangle(8f, 1f, 10f, 10f);
+		Assert.assertEquals(true, narrowPhase.computePenetration(rectangle1, rectangle2, penetration));
+		Assert.assertEquals(1f, penetration.getNormalX(), TOLERANCE);
+		Assert.assertEquals(0f, penetration.getNormalY(), TOLERANCE);
+		Assert.assertEquals(2f, penetration.getDepth(), TOLERANCE);
+		Assert.assertEquals(-2f, penetration.getTranslationX(), TOLERANCE);
+		Assert.assertEquals(0f, penetration.getTranslationY(), TOLERANCE);
+
+		Assert.assertEquals(true, narrowPhase.computePenetration(rectangle2, rectangle1, penetration));
+		Assert.assertEquals(-1f, penetration.getNormalX(), TOLERANCE);
+		Assert.assertEquals(2f, penetration.getDepth(), TOLERANCE);
+
+		rectangle2.set(10f, 0f);
+		Assert.assertEquals(false, narrowPhase.computePenetration(rectangle1, rectangle2, penetration));
+		Assert.assertEquals(0f, penetration.getDepth());
+	}
+
+	@Test
+	public void testConcavePolygon() {
+		// U shape with a notch between x 4 and 6 above y 4
+		Polygon polygon = new Polygon(new Point[] { new Point(0f, 0f), new Point(10f, 0f), new Point(10f, 10f),
+				new Point(6f, 10f), new Point(6f, 4f), new Point(4f, 4f), new Point(4f, 10f), new Point(0f, 10f) });
+		Assert.assertEquals(false, polygon.isConvex());
+
+		Rectangle rectangle = new Rectangle(4.5f, 6f, 1f, 2f);
+		Assert.assertEquals(false, narrowPhase.computePenetration(polygon, rectangle, penetration));
+		Assert.assertEquals(false, narrowPhase.computePenetration(rectangle, polygon, penetration));
+		Assert.assertEquals(0f, penetration.getDepth());
+
+		Circle circle = new Circle(5f, 7f, 0.5f);
+		Assert.assertEquals(false, narrowPhase.computePenetration(polygon, circle, penetration));
+
+		rectangle.set(4.5f, 3f);
+		Assert.assertEquals(true, narrowPhase.computePenetration(polygon, rectangle, penetration));
+		Assert.assertEquals(true, penetration.getDepth() > 0f);
+	}
+
+	@Test
+	public void testRotatedRectangles() {
+		Rectangle rectangle1 = new Rectangle(0f, 0f, 10f, 10f);
+		Rectangle rectangle2 = new Rectangle(1f, 7f, 10f, 10f);
+		rectangle2.rotate(45f);
+		Assert.assertEquals(true, narrowPhase.computePenetration(rectangle1, rectangle2, penetration));
+		// Separating along the diamond's edge is shorter than moving 3 units up
+		Assert.assertEquals(2f * (float) Math.sqrt(2f), penetration.getDepth(), 0.001f);
+		Assert.assertEquals(true, penetration.getNormalY() > 0f);
+
+		rectangle1.set(rectangle1.getX() + (penetration.getTranslationX() * 1.01f),
+				rectangle1.getY() + (penetration.getTranslationY() * 1.01f));
+		Assert.assertEquals(false, narrowPhase.computePenetration(rectangle1, rectangle2, penetration));
+
+		rectangle1.set(20f, 0f);
+		Assert.assertEquals(false, narrowPhase.computePenetration(rectangle1, rectangle2, penetration));
+	}
+
+	@Test
+	public void testPolygons() {
+		Polygon triangle = new Polygon(new Point[] { new Point(0f, 0f), new Point(10f, 10f), new Point(0f, 10f) });
+		Polygon square = new Polygon(new Point[] { new Point(4f, 0f), new Point(14f, 0f), new Point(14f, 10f),
+				new Point(4f, 10f) });
+		Assert.assertEquals(true, narrowPhase.computePenetration(triangle, square, penetration));
+		float expectedDepth = 6f / (float) Math.sqrt(2f);
+		Assert.assertEquals(expectedDepth, penetration.getDepth(), TOLERANCE);
+
+		// Applying the translation separates the shapes
+		triangle.translate(penetration.getTranslationX() * 1.01f, penetration.getTranslationY() * 1.01f);
+		Assert.assertEquals(false, narrowPhase.computePenetration(triangle, square, penetration));
+	}
+
+	@Test
+	public void testCircles() {
+		Circle circle1 = new Circle(0f, 0f, 5f);
+		Circle circle2 = new Circle(0f, 8f, 5f);
+		Assert.assertEquals(true, narrowPhase.computePenetration(circle1, circle2, penetration));
+		Assert.assertEquals(0f, penetration.getNormalX(), TOLERANCE);
+		Assert.assertEquals(1f, penetration.getNormalY(), TOLERANCE);
+		Assert.assertEquals(2f, penetration.getDepth(), TOLERANCE);
+
+		circle2.setY(10f);
+		Assert.assertEquals(false, narrowPhase.computePenetration(circle1, circle2, penetration));
+	}
+
+	@Test
+	public void testCircleAndRectangle() {
+		Rectangle rectangle = new Rectangle(0f, 0f, 10f, 10f);
+		Circle circle = new Circle(13f, 5f, 5f);
+		Assert.assertEquals(true, narrowPhase.computePenetration(rectangle, circle, penetration));
+		Assert.assertEquals(1f, penetration.getNormalX(), TOLERANCE);
+		Assert.assertEquals(0f, penetration.getNormalY(), TOLERANCE);
+		Assert.assertEquals(2f, penetration.getDepth(), TOLERANCE);
+
+		Assert.assertEquals(true, narrowPhase.computePenetration(circle, rectangle, penetration));
+		Assert.assertEquals(-1f, penetration.getNormalX(), TOLERANCE);
+		Assert.assertEquals(2f, penetration.getDepth(), TOLERANCE);
+
+		// Near the corner the closest vertex axis separates the shapes
+		circle.set(14f, 14f);
+		Assert.assertEquals(false, narrowPhase.computePenetration(rectangle, circle, penetration));
+		circle.set(13f, 13f);
+		Assert.assertEquals(true, narrowPhase.computePenetration(rectangle, circle, penetration));
+		Assert.assertEquals(5f - (float) Math.sqrt(18f), penetration.getDepth(), TOLERANCE);
+	}
+
+	@Test
+	public void testComputePenetrations() {
+		CollisionBox box1 = new CollisionBox(1, 0f, 0f, 10f, 10f);
+		CollisionBox box2 = new CollisionBox(2, 8f, 0f, 10f, 10f);
+		CollisionCircle circle = new CollisionCircle(3, 40f, 40f, 5f);
+		CollisionBox box4 = new CollisionBox(4, 20f, 0f, 10f, 10f);
+
+		IntMap<CollisionShape> shapes = new IntMap<CollisionShape>();
+		shapes.put(box1.getId(), box1);
+		shapes.put(box2.getId(), box2);
+		shapes.put(circle.getId(), circle);
+		shapes.put(box4.getId(), box4);
+
+		CollisionPairBuffer pairs = new CollisionPairBuffer();
+		pairs.add(box1.getId(), box2.getId());
+		pairs.add(box1.getId(), circle.getId());
+		pairs.add(box2.getId(), box4.getId());
+		pairs.add(box2.getId(), 99);
+
+		PenetrationBuffer result = new PenetrationBuffer(1);
+		Assert.assertEquals(1, narrowPhase.computePenetrations(pairs, shapes, result));
+		Assert.assertEquals(1, result.getIdA(0));
+		Assert.assertEquals(2, result.getIdB(0));
+		Assert.assertEquals(1f, result.getNormalX(0), TOLERANCE);
+		Assert.assertEquals(2f, result.getDepth(0), TOLERANCE);
+
+		box4.set(16f, 0f);
+		Assert.assertEquals(2, narrowPhase.computePenetrations(pairs, shapes, result));
+		result.get(1, penetration);
+		Assert.assertEquals(2f, penetration.getDepth(), TOLERANCE);
+	}
+}
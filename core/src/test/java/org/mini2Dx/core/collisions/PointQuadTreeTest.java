@@ -21,6 +21,8 @@ import org.mini2Dx.core.engine.geom.CollisionPoint;
 import org.mini2Dx.core.geom.LineSegment;
 import org.mini2Dx.core.geom.Rectangle;
 
+import com.badlogic.gdx.utils.IntArray;
+
 import junit.framework.Assert;
 
 /**
@@ -132,6 +134,62 @@ public class PointQuadTreeTest {
 		Assert.assertEquals(true, rootQuad.getElements().contains(point1));
 	}
 	
+	@Test
+	public void testDeferPositionUpdates() {
+		PointQuadTree<CollisionPoint> rootQuad = new PointQuadTree<CollisionPoint>(4, 3, 0, 0, 128, 128);
+		rootQuad.setDeferPositionUpdates(true);
+		Assert.assertEquals(true, rootQuad.isDeferPositionUpdates());
+		rootQuad.add(point1);
+		rootQuad.add(point2);
+		rootQuad.add(point3);
+		rootQuad.add(point4);
+		rootQuad.add(new CollisionPoint(48, 48));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+
+		point2.set(2, 1);
+		point3.set(1, 2);
+		point4.set(2, 2);
+		Assert.assertEquals(2, rootQuad.topLeft.getTotalElements());
+
+		rootQuad.flush();
+		Assert.assertEquals(5, rootQuad.topLeft.getTotalElements());
+		Assert.assertEquals(4, rootQuad.getElementsWithinArea(new Rectangle(0, 0, 8, 8)).size());
+		Assert.assertEquals(5, rootQuad.getTotalElements());
+		Assert.assertEquals(7, rootQuad.getTotalQuads());
+
+		point4.set(127, 127);
+		rootQuad.setDeferPositionUpdates(false);
+		Assert.assertEquals(false, rootQuad.isDeferPositionUpdates());
+		Assert.assertEquals(1, rootQuad.getElementsWithinArea(new Rectangle(120, 120, 8, 8)).size());
+		Assert.assertEquals(5, rootQuad.getTotalElements());
+	}
+	
+	@Test
+	public void testRemoveMovedElementBeforeFlush() {
+		PointQuadTree<CollisionPoint> rootQuad = new PointQuadTree<CollisionPoint>(4, 3, 0, 0, 128, 128);
+		rootQuad.setDeferPositionUpdates(true);
+		rootQuad.add(point1);
+		rootQuad.add(point2);
+		rootQuad.add(point3);
+		rootQuad.add(point4);
+		rootQuad.add(new CollisionPoint(48, 48));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+
+		point2.set(2, 1);
+		Assert.assertEquals(true, rootQuad.remove(point2));
+		rootQuad.flush();
+		Assert.assertEquals(4, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(point2));
+		Assert.assertEquals(1, rootQuad.getElementsWithinArea(new Rectangle(0, 0, 8, 8)).size());
+
+		rootQuad.remove(point3);
+		rootQuad.remove(point4);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		rootQuad.flush();
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+	}
+
 	@Test
 	public void testGetTotalElements() {
 		rootQuad.add(point1);
@@ -200,4 +258,76 @@ public class PointQuadTreeTest {
 		Assert.assertEquals(false, CollisionPoints.contains(point3));
 		Assert.assertEquals(true, CollisionPoints.contains(point4));
 	}
+	
+	@Test
+	public void testGetElementIdsWithinArea() {
+		rootQuad.add(point1);
+		rootQuad.add(point2);
+		rootQuad.add(point3);
+		rootQuad.add(point4);
+		rootQuad.add(new CollisionPoint(32, 32));
+		
+		IntArray result = new IntArray();
+		rootQuad.getElementIdsWithinArea(0f, 0f, 63f, 63f, result);
+		Assert.assertEquals(2, result.size);
+		Assert.assertEquals(true, result.contains(point1.getId()));
+		
+		result.clear();
+		rootQuad.getElementIdsWithinArea(64f, 64f, 64f, 64f, result);
+		Assert.assertEquals(1, result.size);
+		Assert.assertEquals(point4.getId(), result.get(0));
+	}
+	
+	@Test
+	public void testGetElementsWithinRadius() {
+		rootQuad.add(point1);
+		rootQuad.add(point2);
+		rootQuad.add(point3);
+		rootQuad.add(point4);
+		
+		final List<CollisionPoint> result = new ArrayList<CollisionPoint>();
+		QuadTreeQueryCallback<CollisionPoint> callback = new QuadTreeQueryCallback<CollisionPoint>() {
+			@Override
+			public void onElementFound(CollisionPoint element) {
+				result.add(element);
+			}
+		};
+		rootQuad.getElementsWithinRadius(4f, 4f, 8f, callback);
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(point1, result.get(0));
+		
+		result.clear();
+		rootQuad.getElementsWithinRadius(64f, 64f, 64f, callback);
+		Assert.assertEquals(0, result.size());
+		
+		rootQuad.getElementsWithinRadius(64f, 64f, 91f, callback);
+		Assert.assertEquals(4, result.size());
+		
+		result.clear();
+		rootQuad.getElementsContainingPoint(127f, 127f, callback);
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(point4, result.get(0));
+	}
+	
+	@Test
+	public void testRaycast() {
+		rootQuad.add(point1);
+		rootQuad.add(point2);
+		rootQuad.add(point3);
+		rootQuad.add(point4);
+		
+		RaycastResult<CollisionPoint> result = new RaycastResult<CollisionPoint>();
+		rootQuad.raycast(64f, 0f, 1f, 0f, 200f, result);
+		Assert.assertEquals(point2, result.getElement());
+		Assert.assertEquals(63f, result.getDistance(), 0.001f);
+		
+		result.reset();
+		rootQuad.raycast(127f, 127f, -1f, -1f, 500f, result);
+		Assert.assertEquals(point4, result.getElement());
+		Assert.assertEquals(0f, result.getDistance(), 0.001f);
+		
+		result.reset();
+		rootQuad.raycast(64f, 1f, 1f, 0f, 200f, result);
+		Assert.assertEquals(false, result.isHit());
+	}
 }
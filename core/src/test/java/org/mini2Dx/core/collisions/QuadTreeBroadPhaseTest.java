@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link QuadTreeBroadPhase}
+ */
+public class QuadTreeBroadPhaseTest {
+	private QuadTreeBroadPhase<CollisionBox> broadPhase;
+	private CollisionPairBuffer pairs;
+	private CollisionBox box1, box2, box3, box4;
+
+	@Before
+	public void setup() {
+		broadPhase = new QuadTreeBroadPhase<CollisionBox>(new RegionQuadTree<CollisionBox>(4, 0, 0, 256, 256));
+		pairs = new CollisionPairBuffer(1);
+
+		box1 = new CollisionBox(0, 0, 32, 32);
+		box2 = new CollisionBox(16, 16, 32, 32);
+		box3 = new CollisionBox(128, 128, 32, 32);
+		box4 = new CollisionBox(32, 200, 32, 32);
+	}
+
+	@Test
+	public void testFindOverlappingPairs() {
+		broadPhase.add(box1);
+		broadPhase.add(box2);
+		broadPhase.add(box3);
+		broadPhase.add(box4);
+		Assert.assertEquals(4, broadPhase.getTotalElements());
+
+		broadPhase.findOverlappingPairs(pairs);
+		Assert.assertEquals(1, pairs.size());
+		Assert.assertEquals(true, pairs.contains(box1.getId(), box2.getId()));
+		Assert.assertEquals(Math.min(box1.getId(), box2.getId()), pairs.getIdA(0));
+		Assert.assertEquals(Math.max(box1.getId(), box2.getId()), pairs.getIdB(0));
+
+		box4.set(140, 140);
+		box1.set(100, 0);
+		broadPhase.findOverlappingPairs(pairs);
+		Assert.assertEquals(1, pairs.size());
+		Assert.assertEquals(true, pairs.contains(box3.getId(), box4.getId()));
+
+		box2.setWidth(256);
+		broadPhase.findOverlappingPairs(pairs);
+		Assert.assertEquals(2, pairs.size());
+		Assert.assertEquals(true, pairs.contains(box1.getId(), box2.getId()));
+		Assert.assertEquals(true, pairs.contains(box3.getId(), box4.getId()));
+	}
+
+	@Test
+	public void testRemove() {
+		broadPhase.add(box1);
+		broadPhase.add(box2);
+		Assert.assertEquals(true, broadPhase.remove(box2));
+		Assert.assertEquals(false, broadPhase.remove(box2));
+		Assert.assertEquals(1, broadPhase.getTotalElements());
+
+		broadPhase.findOverlappingPairs(pairs);
+		Assert.assertEquals(true, pairs.isEmpty());
+
+		broadPhase.clear();
+		Assert.assertEquals(0, broadPhase.getTotalElements());
+	}
+
+	@Test
+	public void testFindOverlappingPairsMatchesBruteForce() {
+		Random random = new Random();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for (int i = 0; i < 200; i++) {
+			CollisionBox box = new CollisionBox(random.nextInt(224), random.nextInt(224), 1 + random.nextInt(32),
+					1 + random.nextInt(32));
+			boxes.add(box);
+			broadPhase.add(box);
+		}
+		for (int frame = 0; frame < 5; frame++) {
+			for (int i = 0; i < boxes.size(); i += 3) {
+				CollisionBox box = boxes.get(i);
+				box.preUpdate();
+				box.set(Math.min(200f, Math.max(0f, box.getX() + random.nextInt(17) - 8)),
+						Math.min(200f, Math.max(0f, box.getY() + random.nextInt(17) - 8)));
+			}
+			broadPhase.findOverlappingPairs(pairs);
+
+			int expected = 0;
+			for (int i = 0; i < boxes.size(); i++) {
+				for (int j = i + 1; j < boxes.size(); j++) {
+					CollisionBox box = boxes.get(i);
+					CollisionBox other = boxes.get(j);
+					if (box.getMaxX() < other.getMinX() || box.getMinX() > other.getMaxX()) {
+						continue;
+					}
+					if (box.getMaxY() < other.getMinY() || box.getMinY() > other.getMaxY()) {
+						continue;
+					}
+					Assert.assertEquals(true, pairs.contains(box.getId(), other.getId()));
+					expected++;
+				}
+			}
+			Assert.assertEquals(expected, pairs.size());
+		}
+	}
+}
@@ -18,8 +18,13 @@ import java.util.Random;
 import org.junit.Before;
 import org.junit.Test;
 import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.engine.geom.CollisionCircle;
+import org.mini2Dx.core.engine.geom.CollisionShape;
 import org.mini2Dx.core.geom.LineSegment;
 import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+
+import com.badlogic.gdx.utils.IntArray;
 
 import junit.framework.Assert;
 
@@ -71,6 +76,56 @@ public class RegionQuadTreeTest {
 		Assert.assertEquals(rects.size(), rootQuad.getTotalElements());
 	}
 	
+	@Test
+	public void testElementMovingOutOfParentQuad() {
+		rootQuad = new RegionQuadTree<CollisionBox>(4, 0, 0, 128, 128);
+		CollisionBox movingBox = new CollisionBox(40, 2, 4, 4);
+		rootQuad.add(new CollisionBox(2, 2, 4, 4));
+		rootQuad.add(new CollisionBox(10, 10, 4, 4));
+		rootQuad.add(new CollisionBox(20, 20, 4, 4));
+		rootQuad.add(new CollisionBox(50, 10, 4, 4));
+		rootQuad.add(movingBox);
+		Assert.assertEquals(5, rootQuad.topLeft.getTotalElements());
+
+		movingBox.set(62, 20);
+		Assert.assertEquals(5, rootQuad.getTotalElements());
+		Assert.assertEquals(true, rootQuad.getElementsWithinArea(new Rectangle(65, 22, 1, 1)).contains(movingBox));
+	}
+	
+	@Test
+	public void testAddAllSubdivides() {
+		rootQuad = new RegionQuadTree<CollisionBox>(4, 0, 0, 128, 128);
+		Random random = new Random();
+		List<CollisionBox> rects = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 200; i++) {
+			rects.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 1 + random.nextInt(8), 1 + random.nextInt(8)));
+		}
+		rootQuad.addAll(rects.subList(0, 3));
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		rootQuad.addAll(rects.subList(3, rects.size()));
+		Assert.assertEquals(true, rootQuad.getTotalQuads() > 4);
+		Assert.assertEquals(rects.size(), rootQuad.getTotalElements());
+		
+		Rectangle area = new Rectangle(32, 32, 48, 48);
+		List<CollisionBox> expected = new ArrayList<CollisionBox>();
+		for(CollisionBox rect : rects) {
+			if(area.contains(rect) || area.intersects(rect)) {
+				expected.add(rect);
+			}
+		}
+		List<CollisionBox> collisions = rootQuad.getElementsWithinArea(area);
+		Assert.assertEquals(expected.size(), collisions.size());
+		Assert.assertEquals(true, collisions.containsAll(expected));
+		
+		CollisionBox moved = rects.get(0);
+		moved.set(100, 100);
+		Assert.assertEquals(true, rootQuad.getElementsContainingPoint(new Point(moved.getCenterX(), moved.getCenterY())).contains(moved));
+		for(CollisionBox rect : rects) {
+			Assert.assertEquals(true, rootQuad.remove(rect));
+		}
+		Assert.assertEquals(0, rootQuad.getTotalElements());
+	}
+	
 	@Test
 	public void testRemove() {
 		Random random = new Random();
@@ -153,6 +208,55 @@ public class RegionQuadTreeTest {
 		Assert.assertEquals(true, rootQuad.getElements().contains(box1));
 	}
 	
+	@Test
+	public void testDeferPositionUpdates() {
+		RegionQuadTree<CollisionBox> rootQuad = new RegionQuadTree<CollisionBox>(4, 3, 0, 0, 128, 128);
+		rootQuad.setDeferPositionUpdates(true);
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		rootQuad.add(new CollisionBox(24, 24, 2, 2));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+
+		box2.set(60, 60);
+		box3.set(50, 50);
+		box4.set(40, 40);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+
+		rootQuad.flush();
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		Assert.assertEquals(5, rootQuad.getTotalElements());
+		Assert.assertEquals(3, rootQuad.getElementsContainingPoint(new Point(64, 64)).size());
+		Assert.assertEquals(true, rootQuad.getElements().contains(box1));
+	}
+	
+	@Test
+	public void testRemoveMovedElementBeforeFlush() {
+		RegionQuadTree<CollisionBox> rootQuad = new RegionQuadTree<CollisionBox>(4, 3, 0, 0, 128, 128);
+		rootQuad.setDeferPositionUpdates(true);
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		rootQuad.add(new CollisionBox(24, 24, 2, 2));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+
+		box2.set(10, 70);
+		Assert.assertEquals(true, rootQuad.remove(box2));
+		rootQuad.flush();
+		Assert.assertEquals(4, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(box2));
+		Assert.assertEquals(0, rootQuad.getElementsContainingPoint(new Point(20, 80)).size());
+
+		rootQuad.remove(box3);
+		rootQuad.remove(box4);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		rootQuad.flush();
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+	}
+
 	@Test
 	public void testGetTotalElements() {
 		rootQuad.add(box1);
@@ -267,4 +371,152 @@ public class RegionQuadTreeTest {
 		Assert.assertEquals(1, collisionBoxs.size());
 		Assert.assertEquals(true, collisionBoxs.contains(box4));
 	}
+	
+	@Test
+	public void testGetElementIdsWithinArea() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		CollisionBox centerBox = new CollisionBox(48, 48, 32, 32);
+		rootQuad.add(centerBox);
+		
+		IntArray result = new IntArray();
+		rootQuad.getElementIdsWithinArea(0f, 0f, 50f, 50f, result);
+		Assert.assertEquals(2, result.size);
+		Assert.assertEquals(true, result.contains(box1.getId()));
+		Assert.assertEquals(true, result.contains(centerBox.getId()));
+		
+		result.clear();
+		rootQuad.getElementIdsWithinArea(100f, 100f, 4f, 4f, result);
+		Assert.assertEquals(1, result.size);
+		Assert.assertEquals(box4.getId(), result.get(0));
+	}
+	
+	@Test
+	public void testGetElementsWithinRadius() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		
+		final List<CollisionBox> result = new ArrayList<CollisionBox>();
+		QuadTreeQueryCallback<CollisionBox> callback = new QuadTreeQueryCallback<CollisionBox>() {
+			@Override
+			public void onElementFound(CollisionBox element) {
+				result.add(element);
+			}
+		};
+		rootQuad.getElementsWithinRadius(40f, 40f, 8f, callback);
+		Assert.assertEquals(0, result.size());
+		
+		rootQuad.getElementsWithinRadius(40f, 40f, 10f, callback);
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(box1, result.get(0));
+		
+		result.clear();
+		rootQuad.getElementsContainingPoint(112f, 16f, callback);
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(box2, result.get(0));
+	}
+	
+	@Test
+	public void testRaycast() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		
+		RaycastResult<CollisionBox> result = new RaycastResult<CollisionBox>();
+		rootQuad.raycast(64f, 16f, 1f, 0f, 200f, result);
+		Assert.assertEquals(box2, result.getElement());
+		Assert.assertEquals(31f, result.getDistance(), 0.001f);
+		Assert.assertEquals(-1f, result.getNormalX(), 0.001f);
+		Assert.assertEquals(0f, result.getNormalY(), 0.001f);
+		
+		result.reset();
+		rootQuad.raycast(64f, 16f, 1f, 0f, 20f, result);
+		Assert.assertEquals(false, result.isHit());
+		
+		result.reset();
+		rootQuad.raycast(0f, 16f, 4f, 0f, 200f, result);
+		Assert.assertEquals(box1, result.getElement());
+		Assert.assertEquals(1f, result.getDistance(), 0.001f);
+		
+		result.reset();
+		rootQuad.raycast(64f, 64f, 1f, 1f, 200f, result);
+		Assert.assertEquals(box4, result.getElement());
+		Assert.assertEquals(31f * (float) Math.sqrt(2f), result.getDistance(), 0.001f);
+		
+		result.reset();
+		rootQuad.raycast(16f, 16f, 0f, 1f, 200f, result);
+		Assert.assertEquals(box1, result.getElement());
+		Assert.assertEquals(0f, result.getDistance(), 0.001f);
+	}
+	
+	@Test
+	public void testRaycastEarlyExit() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		
+		final List<CollisionBox> hits = new ArrayList<CollisionBox>();
+		rootQuad.raycast(0f, 16f, 1f, 0f, 200f, new RaycastCallback<CollisionBox>() {
+			@Override
+			public float onHit(CollisionBox element, float distance, float normalX, float normalY) {
+				hits.add(element);
+				return Float.MAX_VALUE;
+			}
+		});
+		Assert.assertEquals(2, hits.size());
+		Assert.assertEquals(true, hits.contains(box1));
+		Assert.assertEquals(true, hits.contains(box2));
+		
+		hits.clear();
+		rootQuad.raycast(0f, 16f, 1f, 0f, 200f, new RaycastCallback<CollisionBox>() {
+			@Override
+			public float onHit(CollisionBox element, float distance, float normalX, float normalY) {
+				hits.add(element);
+				return 0f;
+			}
+		});
+		Assert.assertEquals(1, hits.size());
+		Assert.assertEquals(box1, hits.get(0));
+	}
+	
+	@Test
+	public void testRaycastShapeNormals() {
+		RegionQuadTree<CollisionShape> shapeQuad = new RegionQuadTree<CollisionShape>(2, 0, 0, 128, 128);
+		CollisionCircle circle = new CollisionCircle(100f, 20f, 10f);
+		CollisionBox diamond = new CollisionBox(40f, 60f, 20f, 20f);
+		diamond.setRotationAround(50f, 70f, 45f);
+		shapeQuad.add(circle);
+		shapeQuad.add(diamond);
+		
+		RaycastResult<CollisionShape> result = new RaycastResult<CollisionShape>();
+		shapeQuad.raycast(0f, 20f, 1f, 0f, 200f, result);
+		Assert.assertEquals(circle, result.getElement());
+		Assert.assertEquals(90f, result.getDistance(), 0.001f);
+		Assert.assertEquals(-1f, result.getNormalX(), 0.001f);
+		Assert.assertEquals(0f, result.getNormalY(), 0.001f);
+		
+		result.reset();
+		shapeQuad.raycast(100f, 0f, 0f, 1f, 200f, result);
+		Assert.assertEquals(circle, result.getElement());
+		Assert.assertEquals(10f, result.getDistance(), 0.001f);
+		Assert.assertEquals(0f, result.getNormalX(), 0.001f);
+		Assert.assertEquals(-1f, result.getNormalY(), 0.001f);
+		
+		result.reset();
+		shapeQuad.raycast(0f, 65f, 1f, 0f, 200f, result);
+		Assert.assertEquals(diamond, result.getElement());
+		Assert.assertEquals(105.858f - 65f, result.getDistance(), 0.01f);
+		Assert.assertEquals(-0.7071f, result.getNormalX(), 0.001f);
+		Assert.assertEquals(-0.7071f, result.getNormalY(), 0.001f);
+		
+		result.reset();
+		shapeQuad.raycast(0f, 100f, 1f, 0f, 200f, result);
+		Assert.assertEquals(false, result.isHit());
+	}
 }
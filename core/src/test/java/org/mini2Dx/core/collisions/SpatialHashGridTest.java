@@ -0,0 +1,292 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link SpatialHashGrid}
+ */
+public class SpatialHashGridTest {
+	private SpatialHashGrid<CollisionBox> grid;
+	private CollisionBox box1, box2, box3, box4;
+
+	@Before
+	public void setup() {
+		grid = new SpatialHashGrid<CollisionBox>(32, 32, 0, 0, 128, 128);
+
+		box1 = new CollisionBox(1, 1, 32, 32);
+		box2 = new CollisionBox(95, 1, 32, 32);
+		box3 = new CollisionBox(1, 95, 32, 32);
+		box4 = new CollisionBox(95, 95, 32, 32);
+	}
+
+	@Test
+	public void testConstructor() {
+		Assert.assertEquals(4, grid.getTotalColumns());
+		Assert.assertEquals(4, grid.getTotalRows());
+		Assert.assertEquals(16, grid.getTotalQuads());
+
+		grid = new SpatialHashGrid<CollisionBox>(48, 48, 0, 0, 128, 128);
+		Assert.assertEquals(3, grid.getTotalColumns());
+		Assert.assertEquals(3, grid.getTotalRows());
+	}
+
+	@Test
+	public void testAdd() {
+		Random random = new Random();
+		for (int i = 0; i < 100; i++) {
+			CollisionBox box = new CollisionBox(random.nextInt(96), random.nextInt(96), 32f, 32f);
+			Assert.assertEquals(true, grid.add(box));
+			Assert.assertEquals(i + 1, grid.getTotalElements());
+		}
+		Assert.assertEquals(false, grid.add(null));
+		Assert.assertEquals(false, grid.add(new CollisionBox(256, 256, 32, 32)));
+		Assert.assertEquals(true, grid.add(new CollisionBox(-4, -4, 32, 32)));
+		Assert.assertEquals(101, grid.getTotalElements());
+	}
+
+	@Test
+	public void testAddDuplicate() {
+		Assert.assertEquals(true, grid.add(box1));
+		Assert.assertEquals(false, grid.add(box1));
+		Assert.assertEquals(1, grid.getTotalElements());
+	}
+
+	@Test
+	public void testAddAll() {
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		boxes.add(box1);
+		boxes.add(box2);
+		boxes.add(box3);
+		boxes.add(box4);
+		grid.addAll(boxes);
+		Assert.assertEquals(4, grid.getTotalElements());
+		Assert.assertEquals(true, grid.getElements().containsAll(boxes));
+	}
+
+	@Test
+	public void testRemove() {
+		grid.add(box1);
+		grid.add(box2);
+		Assert.assertEquals(true, grid.remove(box1));
+		Assert.assertEquals(false, grid.remove(box1));
+		Assert.assertEquals(1, grid.getTotalElements());
+		Assert.assertEquals(0, grid.getElementsWithinArea(new Rectangle(0, 0, 48, 48)).size());
+
+		box1.set(96, 1);
+		Assert.assertEquals(1, grid.getElementsWithinArea(new Rectangle(96, 0, 8, 8)).size());
+	}
+
+	@Test
+	public void testRemoveAll() {
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		boxes.add(box1);
+		boxes.add(box2);
+		boxes.add(box3);
+		grid.addAll(boxes);
+		grid.add(box4);
+		grid.removeAll(boxes);
+		Assert.assertEquals(1, grid.getTotalElements());
+		Assert.assertEquals(true, grid.getElements().contains(box4));
+	}
+
+	@Test
+	public void testPositionChanged() {
+		grid.add(box1);
+		Assert.assertEquals(1, grid.getElementsWithinArea(new Rectangle(0, 0, 8, 8)).size());
+
+		box1.set(64, 64);
+		Assert.assertEquals(0, grid.getElementsWithinArea(new Rectangle(0, 0, 8, 8)).size());
+		Assert.assertEquals(1, grid.getElementsWithinArea(new Rectangle(90, 90, 4, 4)).size());
+		Assert.assertEquals(1, grid.getTotalElements());
+
+		box1.set(512, 512);
+		Assert.assertEquals(0, grid.getTotalElements());
+	}
+
+	@Test
+	public void testGetElementsWithinArea() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+		CollisionBox largeBox = new CollisionBox(16, 16, 96, 96);
+		grid.add(largeBox);
+
+		List<CollisionBox> collisions = grid.getElementsWithinArea(new Rectangle(0, 0, 128, 128));
+		Assert.assertEquals(5, collisions.size());
+
+		collisions = grid.getElementsWithinArea(new Rectangle(0, 0, 24, 24));
+		Assert.assertEquals(2, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box1));
+		Assert.assertEquals(true, collisions.contains(largeBox));
+
+		collisions = grid.getElementsWithinArea(new Rectangle(48, 48, 16, 16));
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(largeBox));
+	}
+
+	@Test
+	public void testGetElementsIntersectingLineSegment() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+
+		List<CollisionBox> collisions = grid
+				.getElementsIntersectingLineSegment(new LineSegment(new Point(0, 0), new Point(128, 128)));
+		Assert.assertEquals(2, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box1));
+		Assert.assertEquals(true, collisions.contains(box4));
+
+		collisions = grid.getElementsIntersectingLineSegment(new LineSegment(new Point(0, 64), new Point(128, 64)));
+		Assert.assertEquals(0, collisions.size());
+	}
+
+	@Test
+	public void testGetElementsContainingPoint() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+		CollisionBox largeBox = new CollisionBox(16, 16, 96, 96);
+		grid.add(largeBox);
+
+		List<CollisionBox> collisions = grid.getElementsContainingPoint(new Point(24, 24));
+		Assert.assertEquals(2, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box1));
+		Assert.assertEquals(true, collisions.contains(largeBox));
+
+		collisions = grid.getElementsContainingPoint(new Point(200, 200));
+		Assert.assertEquals(0, collisions.size());
+	}
+	
+	@Test
+	public void testGetElementIdsWithinArea() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+		CollisionBox centerBox = new CollisionBox(48, 48, 32, 32);
+		grid.add(centerBox);
+		
+		IntArray result = new IntArray();
+		grid.getElementIdsWithinArea(0f, 0f, 50f, 50f, result);
+		Assert.assertEquals(2, result.size);
+		Assert.assertEquals(true, result.contains(box1.getId()));
+		Assert.assertEquals(true, result.contains(centerBox.getId()));
+		
+		result.clear();
+		grid.getElementIdsWithinArea(100f, 100f, 4f, 4f, result);
+		Assert.assertEquals(1, result.size);
+		Assert.assertEquals(box4.getId(), result.get(0));
+	}
+	
+	@Test
+	public void testGetElementsWithinRadius() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+		
+		final List<CollisionBox> result = new ArrayList<CollisionBox>();
+		QuadTreeQueryCallback<CollisionBox> callback = new QuadTreeQueryCallback<CollisionBox>() {
+			@Override
+			public void onElementFound(CollisionBox element) {
+				result.add(element);
+			}
+		};
+		grid.getElementsWithinRadius(40f, 40f, 8f, callback);
+		Assert.assertEquals(0, result.size());
+		
+		grid.getElementsWithinRadius(40f, 40f, 10f, callback);
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(box1, result.get(0));
+		
+		result.clear();
+		grid.getElementsContainingPoint(112f, 16f, callback);
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(box2, result.get(0));
+	}
+	
+	@Test
+	public void testRaycast() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+		
+		RaycastResult<CollisionBox> result = new RaycastResult<CollisionBox>();
+		grid.raycast(64f, 16f, 1f, 0f, 200f, result);
+		Assert.assertEquals(box2, result.getElement());
+		Assert.assertEquals(31f, result.getDistance(), 0.001f);
+		Assert.assertEquals(-1f, result.getNormalX(), 0.001f);
+		
+		result.reset();
+		grid.raycast(64f, 16f, 1f, 0f, 20f, result);
+		Assert.assertEquals(false, result.isHit());
+		
+		result.reset();
+		grid.raycast(200f, 200f, -1f, -1f, 500f, result);
+		Assert.assertEquals(box4, result.getElement());
+		Assert.assertEquals(73f * (float) Math.sqrt(2f), result.getDistance(), 0.01f);
+		
+		result.reset();
+		grid.raycast(64f, 112f, -1f, 0f, 200f, result);
+		Assert.assertEquals(box3, result.getElement());
+		Assert.assertEquals(31f, result.getDistance(), 0.001f);
+		Assert.assertEquals(1f, result.getNormalX(), 0.001f);
+	}
+	
+	@Test
+	public void testRaycastReportsSpanningElementOnce() {
+		CollisionBox wideBox = new CollisionBox(40f, 40f, 80f, 16f);
+		grid.add(wideBox);
+		grid.add(box1);
+		
+		final List<CollisionBox> hits = new ArrayList<CollisionBox>();
+		RaycastCallback<CollisionBox> callback = new RaycastCallback<CollisionBox>() {
+			@Override
+			public float onHit(CollisionBox element, float distance, float normalX, float normalY) {
+				hits.add(element);
+				return Float.MAX_VALUE;
+			}
+		};
+		grid.raycast(0f, 48f, 1f, 0f, 200f, callback);
+		Assert.assertEquals(1, hits.size());
+		Assert.assertEquals(wideBox, hits.get(0));
+		
+		hits.clear();
+		grid.raycast(127f, 44f, -1f, 0f, 200f, callback);
+		Assert.assertEquals(1, hits.size());
+		Assert.assertEquals(wideBox, hits.get(0));
+		
+		hits.clear();
+		grid.raycast(16f, 0f, 0f, 1f, 200f, callback);
+		Assert.assertEquals(1, hits.size());
+		Assert.assertEquals(box1, hits.get(0));
+	}
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.engine.geom.CollisionCircle;
+import org.mini2Dx.core.engine.geom.CollisionShape;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link SweepQuery}
+ */
+public class SweepQueryTest {
+	private static final float TOLERANCE = 0.0001f;
+
+	private RegionQuadTree<CollisionShape> quadTree;
+	private SweepQuery<CollisionShape> sweepQuery;
+	private SweepResult<CollisionShape> result;
+	private CollisionBox wall, nearWall;
+	private CollisionCircle pillar;
+
+	@Before
+	public void setup() {
+		quadTree = new RegionQuadTree<CollisionShape>(4, 0f, 0f, 256f, 256f);
+		sweepQuery = new SweepQuery<CollisionShape>();
+		result = new SweepResult<CollisionShape>();
+
+		wall = new CollisionBox(100f, 0f, 2f, 100f);
+		nearWall = new CollisionBox(60f, 0f, 2f, 40f);
+		pillar = new CollisionCircle(150f, 150f, 10f);
+		quadTree.add(wall);
+		quadTree.add(nearWall);
+		quadTree.add(pillar);
+	}
+
+	@Test
+	public void testSweepCollisionBox() {
+		CollisionBox projectile = new CollisionBox(0f, 50f, 4f, 4f);
+		quadTree.add(projectile);
+		projectile.preUpdate();
+		projectile.set(200f, 50f);
+
+		Assert.assertEquals(true, sweepQuery.sweep(quadTree, projectile, result));
+		Assert.assertEquals(wall, result.getElement());
+		Assert.assertEquals(0.48f, result.getTimeOfImpact(), TOLERANCE);
+		Assert.assertEquals(-1f, result.getNormalX(), TOLERANCE);
+		Assert.assertEquals(0f, result.getNormalY(), TOLERANCE);
+		Assert.assertEquals(96f, result.getX(), TOLERANCE);
+		Assert.assertEquals(50f, result.getY(), TOLERANCE);
+
+		// Closest element is returned
+		projectile.forceTo(0f, 30f);
+		projectile.set(200f, 30f);
+		Assert.assertEquals(true, sweepQuery.sweep(quadTree, projectile, result));
+		Assert.assertEquals(nearWall, result.getElement());
+		Assert.assertEquals(56f, result.getX(), TOLERANCE);
+
+		projectile.forceTo(0f, 120f);
+		projectile.set(90f, 120f);
+		Assert.assertEquals(false, sweepQuery.sweep(quadTree, projectile, result));
+		Assert.assertEquals(false, result.isHit());
+		Assert.assertEquals(1f, result.getTimeOfImpact());
+	}
+
+	@Test
+	public void testSweepCollisionBoxAgainstCircle() {
+		CollisionBox projectile = new CollisionBox(148f, 200f, 4f, 4f);
+		projectile.preUpdate();
+		projectile.set(148f, 100f);
+
+		Assert.assertEquals(true, sweepQuery.sweep(quadTree, projectile, result));
+		Assert.assertEquals(pillar, result.getElement());
+		Assert.assertEquals(0.4f, result.getTimeOfImpact(), TOLERANCE);
+		Assert.assertEquals(0f, result.getNormalX(), TOLERANCE);
+		Assert.assertEquals(1f, result.getNormalY(), TOLERANCE);
+		Assert.assertEquals(160f, result.getY(), TOLERANCE);
+	}
+
+	@Test
+	public void testSweepCollisionCircle() {
+		CollisionCircle projectile = new CollisionCircle(0f, 50f, 2f);
+		quadTree.add(projectile);
+		projectile.preUpdate();
+		projectile.set(200f, 50f);
+
+		Assert.assertEquals(true, sweepQuery.sweep(quadTree, projectile, result));
+		Assert.assertEquals(wall, result.getElement());
+		Assert.assertEquals(0.49f, result.getTimeOfImpact(), TOLERANCE);
+		Assert.assertEquals(-1f, result.getNormalX(), TOLERANCE);
+		Assert.assertEquals(98f, result.getX(), TOLERANCE);
+
+		projectile.forceTo(150f, 200f);
+		projectile.set(150f, 100f);
+		Assert.assertEquals(true, sweepQuery.sweep(quadTree, projectile, result));
+		Assert.assertEquals(pillar, result.getElement());
+		Assert.assertEquals(0.38f, result.getTimeOfImpact(), TOLERANCE);
+		Assert.assertEquals(0f, result.getNormalX(), TOLERANCE);
+		Assert.assertEquals(1f, result.getNormalY(), TOLERANCE);
+	}
+
+	@Test
+	public void testSweepCircleAroundCorner() {
+		// Passes just below the bottom-left corner of the wall
+		Assert.assertEquals(false, sweepQuery.sweepCircle(quadTree, 97f, 102.5f, 2f, 6f, 0f, null, result));
+		Assert.assertEquals(true, sweepQuery.sweepCircle(quadTree, 97f, 101.5f, 2f, 6f, 0f, null, result));
+		Assert.assertEquals(wall, result.getElement());
+		Assert.assertEquals(100f - (float) Math.sqrt(1.75f), result.getX(), 0.001f);
+		float hitX = result.getX();
+		float hitY = result.getY();
+		float distanceX = hitX - 100f;
+		float distanceY = hitY - 100f;
+		Assert.assertEquals(2f, (float) Math.sqrt((distanceX * distanceX) + (distanceY * distanceY)), 0.001f);
+		Assert.assertEquals(distanceX / 2f, result.getNormalX(), 0.001f);
+		Assert.assertEquals(distanceY / 2f, result.getNormalY(), 0.001f);
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.collisions.RegionQuadTree;
+import org.mini2Dx.core.engine.PositionChangeListener;
+import org.mini2Dx.core.engine.SizeChangeListener;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link CollisionBoxStore}
+ */
+public class CollisionBoxStoreTest implements PositionChangeListener<CollisionBoxHandle>, SizeChangeListener<CollisionBoxHandle> {
+	private CollisionBoxStore store;
+	private int positionNotificationReceived, sizeNotificationReceived;
+
+	@Before
+	public void setup() {
+		store = new CollisionBoxStore(2);
+		positionNotificationReceived = 0;
+		sizeNotificationReceived = 0;
+	}
+
+	@Test
+	public void testAddAndGet() {
+		CollisionBoxHandle box1 = store.add(10f, 20f, 30f, 40f);
+		CollisionBoxHandle box2 = store.add(1f, 2f, 3f, 4f);
+		CollisionBoxHandle box3 = store.add(5f, 6f, 7f, 8f);
+		Assert.assertEquals(3, store.size());
+		Assert.assertEquals(true, box1.getId() != box2.getId());
+		Assert.assertEquals(box1, store.get(box1.getId()));
+		Assert.assertEquals(box3, store.get(box3.getId()));
+
+		Assert.assertEquals(10f, box1.getX());
+		Assert.assertEquals(20f, box1.getY());
+		Assert.assertEquals(30f, box1.getWidth());
+		Assert.assertEquals(40f, box1.getHeight());
+		Assert.assertEquals(40f, box1.getMaxX());
+		Assert.assertEquals(60f, box1.getMaxY());
+		Assert.assertEquals(10, box1.getRenderX());
+		Assert.assertEquals(30, box1.getRenderWidth());
+		Assert.assertEquals(5f, box3.getX());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testAddDuplicateId() {
+		store.add(1000, 0f, 0f, 1f, 1f);
+		store.add(1000, 0f, 0f, 1f, 1f);
+	}
+
+	@Test
+	public void testRemove() {
+		CollisionBoxHandle box1 = store.add(10f, 20f, 30f, 40f);
+		CollisionBoxHandle box2 = store.add(1f, 2f, 3f, 4f);
+		CollisionBoxHandle box3 = store.add(5f, 6f, 7f, 8f);
+
+		Assert.assertEquals(true, store.remove(box1));
+		Assert.assertEquals(false, store.remove(box1));
+		Assert.assertEquals(2, store.size());
+		Assert.assertEquals(null, store.get(box1.getId()));
+		Assert.assertEquals(false, store.contains(box1.getId()));
+
+		Assert.assertEquals(box3, store.get(box3.getId()));
+		Assert.assertEquals(5f, box3.getX());
+		Assert.assertEquals(6f, box3.getY());
+		Assert.assertEquals(7f, box3.getWidth());
+		Assert.assertEquals(8f, box3.getHeight());
+		Assert.assertEquals(1f, box2.getX());
+
+		store.clear();
+		Assert.assertEquals(0, store.size());
+		Assert.assertEquals(false, store.remove(box2));
+	}
+
+	@Test
+	public void testPreUpdateAndInterpolate() {
+		CollisionBoxHandle box1 = store.add(0f, 0f, 10f, 10f);
+		CollisionBoxHandle box2 = store.add(100f, 100f, 10f, 10f);
+
+		store.preUpdate();
+		box1.set(10f, 20f);
+		box2.set(100f, 100f, 20f, 30f);
+		Assert.assertEquals(0f, box1.getPreviousX());
+		Assert.assertEquals(10f, box2.getPreviousWidth());
+
+		store.interpolate(0.5f);
+		Assert.assertEquals(5, box1.getRenderX());
+		Assert.assertEquals(10, box1.getRenderY());
+		Assert.assertEquals(100, box2.getRenderX());
+		Assert.assertEquals(15, box2.getRenderWidth());
+		Assert.assertEquals(20, box2.getRenderHeight());
+
+		store.preUpdate();
+		store.interpolate(0.5f);
+		Assert.assertEquals(10, box1.getRenderX());
+		Assert.assertEquals(20, box1.getRenderY());
+
+		box1.forceTo(50f, 50f);
+		Assert.assertEquals(50, box1.getRenderX());
+		Assert.assertEquals(50f, box1.getPreviousX());
+	}
+
+	@Test
+	public void testListeners() {
+		CollisionBoxHandle box = store.add(0f, 0f, 10f, 10f);
+		box.addPostionChangeListener(this);
+		box.addSizeChangeListener(this);
+
+		box.set(0f, 0f);
+		Assert.assertEquals(0, positionNotificationReceived);
+		box.set(5f, 5f);
+		Assert.assertEquals(1, positionNotificationReceived);
+		box.setWidth(20f);
+		Assert.assertEquals(1, sizeNotificationReceived);
+		box.forceTo(1f, 1f, 2f, 2f);
+		Assert.assertEquals(2, positionNotificationReceived);
+		Assert.assertEquals(2, sizeNotificationReceived);
+
+		box.removePositionChangeListener(this);
+		box.set(50f, 50f);
+		Assert.assertEquals(2, positionNotificationReceived);
+	}
+
+	@Test
+	public void testHandlesInQuadTree() {
+		RegionQuadTree<CollisionBoxHandle> quadTree = new RegionQuadTree<CollisionBoxHandle>(2, 0f, 0f, 128f, 128f);
+		CollisionBoxHandle box1 = store.add(1f, 1f, 16f, 16f);
+		CollisionBoxHandle box2 = store.add(100f, 100f, 16f, 16f);
+		CollisionBoxHandle box3 = store.add(100f, 1f, 16f, 16f);
+		quadTree.add(box1);
+		quadTree.add(box2);
+		quadTree.add(box3);
+
+		Assert.assertEquals(1, quadTree.getElementsWithinArea(new Rectangle(0f, 0f, 20f, 20f)).size());
+		box1.set(64f, 64f);
+		Assert.assertEquals(0, quadTree.getElementsWithinArea(new Rectangle(0f, 0f, 20f, 20f)).size());
+		Assert.assertEquals(box1, quadTree.getElementsContainingPoint(new Point(70f, 70f)).get(0));
+		Assert.assertEquals(3, quadTree.getTotalElements());
+	}
+
+	@Override
+	public void positionChanged(CollisionBoxHandle moved) {
+		positionNotificationReceived++;
+	}
+
+	@Override
+	public void sizeChanged(CollisionBoxHandle changed) {
+		sizeNotificationReceived++;
+	}
+}
@@ -321,6 +321,45 @@ public class CollisionBoxTest implements PositionChangeListener<CollisionBox>, S
 		}
 	}
 
+	@Test
+	public void testInterpolateWithPublishedRenderState() {
+		rectangle1 = new CollisionBox(0f, 0f, 50f, 50f);
+		Assert.assertEquals(false, rectangle1.isRenderStateBuffered());
+
+		rectangle1.preUpdate();
+		rectangle1.set(100f, 200f);
+		rectangle1.publishRenderState();
+		Assert.assertEquals(true, rectangle1.isRenderStateBuffered());
+
+		rectangle1.preUpdate();
+		rectangle1.set(300f, 400f);
+
+		rectangle1.interpolate(null, 0.5f);
+		Assert.assertEquals(50, rectangle1.getRenderX());
+		Assert.assertEquals(100, rectangle1.getRenderY());
+
+		rectangle1.publishRenderState();
+		rectangle1.interpolate(null, 0.5f);
+		Assert.assertEquals(200, rectangle1.getRenderX());
+		Assert.assertEquals(300, rectangle1.getRenderY());
+		Assert.assertEquals(50, rectangle1.getRenderWidth());
+	}
+
+	@Test
+	public void testForceToWithPublishedRenderState() {
+		rectangle1 = new CollisionBox(0f, 0f, 50f, 50f);
+		rectangle1.publishRenderState();
+		rectangle1.interpolate(null, 1f);
+
+		rectangle1.forceTo(500f, 500f);
+		Assert.assertEquals(0, rectangle1.getRenderX());
+
+		rectangle1.publishRenderState();
+		rectangle1.interpolate(null, 0.5f);
+		Assert.assertEquals(500, rectangle1.getRenderX());
+		Assert.assertEquals(500, rectangle1.getRenderY());
+	}
+
 	@Override
 	public void positionChanged(CollisionBox moved) {
 		positionNotificationReceived++;
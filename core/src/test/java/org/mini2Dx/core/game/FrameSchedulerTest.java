@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.exception.MdxException;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link FrameScheduler}
+ */
+public class FrameSchedulerTest {
+	private final List<String> runOrder = new ArrayList<String>();
+
+	private FrameScheduler scheduler;
+	private SimulatedClock clock;
+
+	@Before
+	public void setUp() {
+		runOrder.clear();
+		clock = new SimulatedClock();
+		scheduler = new FrameScheduler();
+		scheduler.setClock(clock);
+	}
+
+	@Test
+	public void testHigherPriorityRunsFirst() {
+		scheduler.register(new SimulatedTask("low", 10L, true), 0, 100L);
+		scheduler.register(new SimulatedTask("high", 10L, true), 5, 100L);
+		scheduler.register(new SimulatedTask("medium", 10L, true), 2, 100L);
+		scheduler.run(1000L);
+
+		Assert.assertEquals(3, runOrder.size());
+		Assert.assertEquals("high", runOrder.get(0));
+		Assert.assertEquals("medium", runOrder.get(1));
+		Assert.assertEquals("low", runOrder.get(2));
+	}
+
+	@Test
+	public void testBudgetLimitsTasks() {
+		SimulatedTask first = new SimulatedTask("first", 60L, true);
+		SimulatedTask second = new SimulatedTask("second", 60L, true);
+		SimulatedTask third = new SimulatedTask("third", 60L, true);
+		scheduler.register(first, 2, 100L);
+		scheduler.register(second, 1, 100L);
+		scheduler.register(third, 0, 100L);
+		scheduler.run(100L);
+
+		Assert.assertEquals(2, runOrder.size());
+		Assert.assertEquals(100L, first.lastSlice);
+		Assert.assertEquals(40L, second.lastSlice);
+		Assert.assertEquals(120L, scheduler.getLastElapsed());
+		Assert.assertEquals(1L, scheduler.getOverruns(second));
+		Assert.assertEquals(20L, scheduler.getOverrunTime(second));
+		Assert.assertEquals(0L, scheduler.getRuns(third));
+	}
+
+	@Test
+	public void testMaximumSlice() {
+		SimulatedTask task = new SimulatedTask("task", 10L, true);
+		scheduler.register(task, 0, 25L);
+		scheduler.run(1000L);
+
+		Assert.assertEquals(25L, task.lastSlice);
+	}
+
+	@Test
+	public void testOverrunsTracked() {
+		SimulatedTask task = new SimulatedTask("task", 150L, true);
+		scheduler.register(task, 0, 100L);
+		scheduler.run(1000L);
+		scheduler.run(1000L);
+
+		Assert.assertEquals(2L, scheduler.getOverruns(task));
+		Assert.assertEquals(100L, scheduler.getOverrunTime(task));
+		Assert.assertEquals(2L, scheduler.getTotalOverruns());
+		Assert.assertEquals(50L, scheduler.getMaximumOverrunTime());
+
+		scheduler.resetStatistics();
+		Assert.assertEquals(0L, scheduler.getOverruns(task));
+		Assert.assertEquals(0L, scheduler.getTotalOverruns());
+	}
+
+	@Test
+	public void testEqualPriorityTasksTakeTurns() {
+		scheduler.register(new SimulatedTask("a", 100L, true), 0, 100L);
+		scheduler.register(new SimulatedTask("b", 100L, true), 0, 100L);
+		scheduler.run(100L);
+		scheduler.run(100L);
+
+		Assert.assertEquals(2, runOrder.size());
+		Assert.assertEquals("a", runOrder.get(0));
+		Assert.assertEquals("b", runOrder.get(1));
+	}
+
+	@Test
+	public void testCompletedTasksRemoved() {
+		SimulatedTask task = new SimulatedTask("task", 10L, false);
+		scheduler.register(task, 0, 100L);
+		scheduler.run(1000L);
+
+		Assert.assertEquals(0, scheduler.getTotalTasks());
+		Assert.assertEquals(-1L, scheduler.getRuns(task));
+	}
+
+	@Test
+	public void testNoBudget() {
+		SimulatedTask task = new SimulatedTask("task", 10L, true);
+		scheduler.register(task, 0, 100L);
+		scheduler.run(-50L);
+		Assert.assertEquals(0, runOrder.size());
+
+		scheduler.setMinimumBudget(20L);
+		scheduler.run(-50L);
+		Assert.assertEquals(1, runOrder.size());
+		Assert.assertEquals(20L, task.lastSlice);
+	}
+
+	@Test
+	public void testRegisterAndUnregisterWhileRunning() {
+		final SimulatedTask added = new SimulatedTask("added", 10L, true);
+		final SimulatedTask removed = new SimulatedTask("removed", 10L, true);
+		scheduler.register(new FrameTask() {
+			@Override
+			public boolean run(long sliceNanos) {
+				runOrder.add("modifier");
+				scheduler.register(added, 10, 100L);
+				scheduler.unregister(removed);
+				return false;
+			}
+		}, 5, 100L);
+		scheduler.register(removed, 0, 100L);
+		scheduler.run(1000L);
+
+		Assert.assertEquals(1, runOrder.size());
+		Assert.assertEquals(1, scheduler.getTotalTasks());
+
+		scheduler.run(1000L);
+		Assert.assertEquals("added", runOrder.get(1));
+	}
+
+	@Test
+	public void testReregisterWhileRunning() {
+		final SimulatedTask task = new SimulatedTask("task", 10L, true);
+		final boolean[] unregistered = new boolean[2];
+		scheduler.register(new FrameTask() {
+			@Override
+			public boolean run(long sliceNanos) {
+				unregistered[0] = scheduler.unregister(task);
+				unregistered[1] = scheduler.unregister(task);
+				scheduler.register(task, 0, 100L);
+				return false;
+			}
+		}, 5, 100L);
+		scheduler.register(task, 0, 100L);
+		scheduler.run(1000L);
+
+		Assert.assertEquals(true, unregistered[0]);
+		Assert.assertEquals(false, unregistered[1]);
+		Assert.assertEquals(1, scheduler.getTotalTasks());
+		Assert.assertEquals(0, runOrder.size());
+
+		scheduler.run(1000L);
+		Assert.assertEquals("task", runOrder.get(0));
+	}
+
+	@Test(expected = MdxException.class)
+	public void testRegisterTwice() {
+		SimulatedTask task = new SimulatedTask("task", 10L, true);
+		scheduler.register(task, 0, 100L);
+		scheduler.register(task, 1, 100L);
+	}
+
+	private class SimulatedTask implements FrameTask {
+		private final String name;
+		private final long cost;
+		private final boolean repeat;
+		private long lastSlice;
+
+		public SimulatedTask(String name, long cost, boolean repeat) {
+			this.name = name;
+			this.cost = cost;
+			this.repeat = repeat;
+		}
+
+		@Override
+		public boolean run(long sliceNanos) {
+			runOrder.add(name);
+			lastSlice = sliceNanos;
+			clock.time += cost;
+			return repeat;
+		}
+	}
+
+	private static class SimulatedClock implements FrameClock {
+		private long time;
+
+		@Override
+		public long nanoTime() {
+			return time;
+		}
+	}
+}
@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.game;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.exception.MdxException;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link SimulationThread} and {@link RenderStatePublisher}
+ */
+public class SimulationThreadTest {
+	private static final float TIMESTEP = 1f / 60f;
+
+	private ScriptedListener listener;
+	private RenderStatePublisher publisher;
+	private CountingSource source;
+
+	@Before
+	public void setUp() {
+		publisher = new RenderStatePublisher();
+		source = new CountingSource();
+		publisher.register(source);
+		listener = new ScriptedListener(publisher);
+	}
+
+	@Test
+	public void testStepUpdatesThenPublishes() {
+		SimulationThread thread = new SimulationThread(listener, TIMESTEP);
+		thread.step();
+		thread.step();
+
+		Assert.assertEquals(2, listener.updates);
+		Assert.assertEquals(TIMESTEP, listener.lastDelta);
+		Assert.assertEquals(2, source.publishes);
+		Assert.assertEquals(2, publisher.getTotalPublishes());
+		Assert.assertEquals(2L, thread.getTotalUpdates());
+	}
+
+	@Test
+	public void testAlpha() {
+		SimulationThread thread = new SimulationThread(listener, 1f);
+		SimulatedClock clock = new SimulatedClock();
+		thread.setClock(clock);
+		Assert.assertEquals(0f, thread.getAlpha());
+
+		clock.time = 1000000000L;
+		thread.step();
+		Assert.assertEquals(0f, thread.getAlpha());
+
+		clock.time += 250000000L;
+		Assert.assertEquals(0.25f, thread.getAlpha(), 0.0001f);
+
+		clock.time += 2000000000L;
+		Assert.assertEquals(1f, thread.getAlpha());
+	}
+
+	@Test
+	public void testStartAndStop() throws InterruptedException {
+		SimulationThread thread = new SimulationThread(listener, 0.001f);
+		thread.start();
+		long timeout = System.currentTimeMillis() + 5000L;
+		while (thread.getTotalUpdates() < 5 && System.currentTimeMillis() < timeout) {
+			Thread.sleep(1L);
+		}
+		thread.stop();
+		Assert.assertEquals(false, thread.isRunning());
+		Assert.assertEquals(true, thread.getTotalUpdates() >= 5);
+
+		long updates = listener.updates;
+		Thread.sleep(20L);
+		Assert.assertEquals(updates, listener.updates);
+		thread.checkFailure();
+	}
+
+	@Test
+	public void testPauseAndResume() throws InterruptedException {
+		SimulationThread thread = new SimulationThread(listener, 0.001f);
+		thread.start();
+		waitForUpdates(thread, 5);
+
+		thread.pause();
+		Assert.assertEquals(true, thread.isPaused());
+		long updates = listener.updates;
+		Thread.sleep(20L);
+		Assert.assertEquals(updates, listener.updates);
+
+		thread.resume();
+		Assert.assertEquals(false, thread.isPaused());
+		waitForUpdates(thread, thread.getTotalUpdates() + 5);
+		thread.stop();
+		Assert.assertEquals(true, listener.updates >= updates + 5);
+		Assert.assertEquals(0L, thread.getTotalDroppedUpdates());
+	}
+
+	@Test
+	public void testLockUpdates() throws InterruptedException {
+		SimulationThread thread = new SimulationThread(listener, 0.001f);
+		thread.start();
+		waitForUpdates(thread, 5);
+
+		thread.lockUpdates();
+		long updates = listener.updates;
+		Thread.sleep(20L);
+		Assert.assertEquals(updates, listener.updates);
+		thread.unlockUpdates();
+
+		waitForUpdates(thread, thread.getTotalUpdates() + 5);
+		thread.stop();
+		Assert.assertEquals(true, listener.updates >= updates + 5);
+	}
+
+	@Test(expected = MdxException.class)
+	public void testFailureIsRethrown() throws InterruptedException {
+		listener.failOnUpdate = true;
+		SimulationThread thread = new SimulationThread(listener, 0.001f);
+		thread.start();
+		long timeout = System.currentTimeMillis() + 5000L;
+		while (thread.isRunning() && System.currentTimeMillis() < timeout) {
+			Thread.sleep(1L);
+		}
+		thread.stop();
+		thread.checkFailure();
+	}
+
+	@Test
+	public void testUnregister() {
+		Assert.assertEquals(1, publisher.getTotalSources());
+		publisher.register(source);
+		Assert.assertEquals(1, publisher.getTotalSources());
+		Assert.assertEquals(true, publisher.unregister(source));
+		Assert.assertEquals(false, publisher.unregister(source));
+
+		publisher.publish();
+		Assert.assertEquals(0, source.publishes);
+	}
+
+	@Test(expected = MdxException.class)
+	public void testInvalidTimestep() {
+		new SimulationThread(listener, 0f);
+	}
+
+	private static void waitForUpdates(SimulationThread thread, long totalUpdates) throws InterruptedException {
+		long timeout = System.currentTimeMillis() + 5000L;
+		while (thread.getTotalUpdates() < totalUpdates && System.currentTimeMillis() < timeout) {
+			Thread.sleep(1L);
+		}
+	}
+
+	private static class CountingSource implements RenderStateSource {
+		private int publishes;
+
+		@Override
+		public void publishRenderState() {
+			publishes++;
+		}
+	}
+
+	private static class SimulatedClock implements FrameClock {
+		private long time;
+
+		@Override
+		public long nanoTime() {
+			return time;
+		}
+	}
+
+	private static class ScriptedListener implements ApplicationListener {
+		private final RenderStatePublisher publisher;
+		private volatile long updates;
+		private float lastDelta;
+		private boolean failOnUpdate;
+
+		public ScriptedListener(RenderStatePublisher publisher) {
+			this.publisher = publisher;
+		}
+
+		@Override
+		public void update(float delta) {
+			if (failOnUpdate) {
+				throw new IllegalStateException("Update failed");
+			}
+			lastDelta = delta;
+			updates++;
+		}
+
+		@Override
+		public void publishRenderState() {
+			publisher.publish();
+		}
+
+		@Override
+		public void interpolate(float alpha) {
+		}
+
+		@Override
+		public void runFrameTasks(long remainingNanos) {
+		}
+
+		@Override
+		public void create() {
+		}
+
+		@Override
+		public void resize(int width, int height) {
+		}
+
+		@Override
+		public void render() {
+		}
+
+		@Override
+		public void pause() {
+		}
+
+		@Override
+		public void resume() {
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+}
@@ -787,6 +787,43 @@ public class PolygonTest {
 		iterator.end();
 	}
 	
+	@Test
+	public void testGetEdgeNormals() {
+		Polygon polygon = new Polygon(new Point[] { new Point(0f, 0f), new Point(10f, 0f), new Point(10f, 10f),
+				new Point(0f, 10f) });
+		float[] normals = polygon.getEdgeNormals();
+		Assert.assertEquals(8, normals.length);
+		Assert.assertEquals(0f, normals[0], 0.0001f);
+		Assert.assertEquals(-1f, normals[1], 0.0001f);
+		Assert.assertEquals(1f, normals[2], 0.0001f);
+		Assert.assertEquals(0f, normals[3], 0.0001f);
+
+		polygon.translate(5f, 5f);
+		Assert.assertSame(normals, polygon.getEdgeNormals());
+		Assert.assertEquals(0f, normals[0], 0.0001f);
+		Assert.assertEquals(-1f, normals[1], 0.0001f);
+
+		polygon.rotate(90f);
+		normals = polygon.getEdgeNormals();
+		Assert.assertEquals(1f, normals[0], 0.0001f);
+		Assert.assertEquals(0f, normals[1], 0.0001f);
+	}
+	
+	@Test
+	public void testIsConvex() {
+		Polygon polygon = new Polygon(new Point[] { new Point(0f, 0f), new Point(10f, 0f), new Point(10f, 10f),
+				new Point(0f, 10f) });
+		Assert.assertEquals(true, polygon.isConvex());
+		polygon.rotate(30f);
+		Assert.assertEquals(true, polygon.isConvex());
+
+		polygon = new Polygon(new Point[] { new Point(0f, 0f), new Point(10f, 0f), new Point(5f, 2f),
+				new Point(10f, 10f), new Point(0f, 10f) });
+		Assert.assertEquals(false, polygon.isConvex());
+		polygon.translate(5f, 5f);
+		Assert.assertEquals(false, polygon.isConvex());
+	}
+	
 	private void clearDirtyBit(Polygon polygon) {
 		polygon.getMaxX();
 		polygon.getTriangles();
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.util;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link IntQueue}
+ */
+public class IntQueueTest {
+
+	@Test
+	public void testAddLastRemoveFirst() {
+		IntQueue queue = new IntQueue(4);
+		for (int i = 0; i < 10; i++) {
+			queue.addLast(i);
+		}
+		Assert.assertEquals(10, queue.size);
+		Assert.assertEquals(0, queue.first());
+		Assert.assertEquals(9, queue.last());
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals(i, queue.removeFirst());
+		}
+		Assert.assertEquals(true, queue.isEmpty());
+	}
+
+	@Test
+	public void testWrapAround() {
+		IntQueue queue = new IntQueue(4);
+		for (int i = 0; i < 100; i++) {
+			queue.addLast(i);
+			queue.addLast(i + 1000);
+			Assert.assertEquals(i, queue.removeFirst());
+			Assert.assertEquals(i + 1000, queue.removeFirst());
+		}
+		Assert.assertEquals(4, queue.getCapacity());
+	}
+
+	@Test
+	public void testResizeWhileWrapped() {
+		IntQueue queue = new IntQueue(4);
+		queue.addLast(1);
+		queue.addLast(2);
+		queue.addLast(3);
+		queue.removeFirst();
+		queue.removeFirst();
+		queue.addLast(4);
+		queue.addLast(5);
+		queue.addLast(6);
+		queue.addLast(7);
+
+		Assert.assertEquals(5, queue.size);
+		for (int i = 0; i < 5; i++) {
+			Assert.assertEquals(i + 3, queue.get(i));
+		}
+	}
+
+	@Test
+	public void testAddFirstRemoveLast() {
+		IntQueue queue = new IntQueue(2);
+		queue.addFirst(1);
+		queue.addFirst(2);
+		queue.addFirst(3);
+
+		Assert.assertEquals(3, queue.first());
+		Assert.assertEquals(1, queue.removeLast());
+		Assert.assertEquals(2, queue.removeLast());
+		Assert.assertEquals(3, queue.removeLast());
+	}
+
+	@Test
+	public void testEnsureCapacity() {
+		IntQueue queue = new IntQueue(4);
+		queue.addLast(1);
+		queue.ensureCapacity(100);
+		Assert.assertEquals(true, queue.getCapacity() >= 101);
+		Assert.assertEquals(1, queue.first());
+	}
+
+	@Test
+	public void testClear() {
+		IntQueue queue = new IntQueue();
+		queue.addLast(1);
+		queue.addLast(2);
+		queue.clear();
+		Assert.assertEquals(0, queue.size);
+		queue.addLast(3);
+		Assert.assertEquals(3, queue.first());
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testRemoveFirstWhenEmpty() {
+		new IntQueue().removeFirst();
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetOutOfBounds() {
+		IntQueue queue = new IntQueue();
+		queue.addLast(1);
+		queue.get(1);
+	}
+}
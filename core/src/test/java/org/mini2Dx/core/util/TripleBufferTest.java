@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.util;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link TripleBuffer}
+ */
+public class TripleBufferTest {
+
+	@Test
+	public void testIndicesAreDistinct() {
+		TripleBuffer buffer = new TripleBuffer();
+		for (int i = 0; i < 10; i++) {
+			int writeIndex = buffer.getWriteIndex();
+			int readIndex = buffer.getReadIndex();
+			Assert.assertEquals(true, writeIndex != readIndex);
+			buffer.publish();
+		}
+	}
+
+	@Test
+	public void testReadIndexReturnsLatestPublish() {
+		int[] values = new int[3];
+		TripleBuffer buffer = new TripleBuffer();
+
+		values[buffer.getWriteIndex()] = 1;
+		buffer.publish();
+		values[buffer.getWriteIndex()] = 2;
+		buffer.publish();
+		Assert.assertEquals(true, buffer.hasUpdate());
+		Assert.assertEquals(2, values[buffer.getReadIndex()]);
+		Assert.assertEquals(false, buffer.hasUpdate());
+
+		values[buffer.getWriteIndex()] = 3;
+		Assert.assertEquals(2, values[buffer.getReadIndex()]);
+		buffer.publish();
+		Assert.assertEquals(3, values[buffer.getReadIndex()]);
+	}
+
+	@Test
+	public void testConcurrentPublishAndRead() throws InterruptedException {
+		final int total = 100000;
+		final int[][] values = new int[3][2];
+		final TripleBuffer buffer = new TripleBuffer();
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 1; i <= total; i++) {
+					int[] value = values[buffer.getWriteIndex()];
+					value[0] = i;
+					value[1] = -i;
+					buffer.publish();
+				}
+			}
+		});
+		writer.start();
+
+		int last = 0;
+		while (last < total) {
+			int[] value = values[buffer.getReadIndex()];
+			Assert.assertEquals(value[0], -value[1]);
+			Assert.assertEquals(true, value[0] >= last);
+			last = value[0];
+			if (!writer.isAlive() && !buffer.hasUpdate()) {
+				last = values[buffer.getReadIndex()][0];
+				break;
+			}
+		}
+		writer.join();
+		Assert.assertEquals(total, last);
+	}
+}
@@ -22,6 +22,7 @@ import org.lwjgl.opengl.Display;
 import org.mini2Dx.core.Mdx;
 import org.mini2Dx.core.game.ApplicationListener;
 import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.game.SimulationThread;
 import org.mini2Dx.desktop.DesktopGameWrapper;
 import org.mini2Dx.desktop.DesktopMini2DxConfig;
 
@@ -55,6 +56,12 @@ public class DesktopMini2DxGame implements Application {
 	protected final ApplicationListener listener;
 	protected Thread mainLoopThread;
 	protected boolean running = true;
+	/**
+	 * Updates the game when {@link DesktopMini2DxConfig#simulationThread} is
+	 * enabled. Work on this thread that touches game state must hold its
+	 * update lock.
+	 */
+	private SimulationThread simulationThread;
 	protected final Array<Runnable> runnables = new Array<Runnable>();
 	protected final Array<Runnable> executedRunnables = new Array<Runnable>();
 	protected final Array<LifecycleListener> lifecycleListeners = new Array<LifecycleListener>();
@@ -152,6 +159,11 @@ public class DesktopMini2DxGame implements Application {
 		float accumulator = 0f;
 		float targetTimestep = config.targetTimestep;
 
+		if (config.simulationThread) {
+			simulationThread = new SimulationThread(listener, targetTimestep);
+			simulationThread.start();
+		}
+
 		boolean wasActive = true;
 		while (running) {
 			Display.processMessages();
@@ -163,6 +175,9 @@ public class DesktopMini2DxGame implements Application {
 			if (wasActive && !isGameActive) { // if it's just recently minimized
 												// from active state
 				wasActive = false;
+				if (simulationThread != null) {
+					simulationThread.pause();
+				}
 				synchronized (lifecycleListeners) {
 					for (LifecycleListener listener : lifecycleListeners) {
 						listener.pause();
@@ -182,6 +197,7 @@ public class DesktopMini2DxGame implements Application {
 			}
 
 			boolean shouldRender = false;
+			lockUpdates();
 
 			if (graphics.canvas != null) {
 				int width = graphics.canvas.getWidth();
@@ -213,6 +229,7 @@ public class DesktopMini2DxGame implements Application {
 			if (executeRunnables()) {
 				shouldRender = true;
 			}
+			unlockUpdates();
 
 			// If one of the runnables set running to false, for example after
 			// an exit().
@@ -239,21 +256,50 @@ public class DesktopMini2DxGame implements Application {
 					delta = maximumDelta;
 				}
 
-				accumulator += delta;
-
-				while (accumulator >= targetTimestep) {
-					Mdx.performanceTracker.markUpdateBegin();
+				if (simulationThread != null) {
+					simulationThread.checkFailure();
+					if (isGameActive) {
+						simulationThread.resume();
+					}
+					simulationThread.lockUpdates();
 					input.update();
 					input.processEvents();
-					listener.update(targetTimestep);
-					Mdx.performanceTracker.markUpdateEnd();
-					accumulator -= targetTimestep;
+					simulationThread.unlockUpdates();
+					listener.interpolate(simulationThread.getAlpha());
+				} else {
+					accumulator += delta;
+
+					boolean updated = false;
+					while (accumulator >= targetTimestep) {
+						Mdx.performanceTracker.markUpdateBegin();
+						input.update();
+						input.processEvents();
+						listener.update(targetTimestep);
+						Mdx.performanceTracker.markUpdateEnd();
+						accumulator -= targetTimestep;
+						updated = true;
+					}
+					if (updated) {
+						listener.publishRenderState();
+					}
+					listener.interpolate(accumulator / targetTimestep);
 				}
-				listener.interpolate(accumulator / targetTimestep);
 
 				listener.render();
 				Display.update(false);
+
+				long remainingNanos = 0L;
+				if (frameRate > 0) {
+					remainingNanos = (1000000000L / frameRate) - (System.nanoTime() - graphics.lastTime);
+				}
+				lockUpdates();
+				listener.runFrameTasks(remainingNanos);
+				unlockUpdates();
 			} else {
+				if (simulationThread != null) {
+					// Match the serial loop which does not update without rendering
+					simulationThread.pause();
+				}
 				// Sleeps to avoid wasting CPU in an empty loop.
 				if (frameRate == -1) {
 					frameRate = 10;
@@ -270,6 +316,9 @@ public class DesktopMini2DxGame implements Application {
 			}
 		}
 
+		if (simulationThread != null) {
+			simulationThread.stop();
+		}
 		synchronized (lifecycleListeners) {
 			for (LifecycleListener listener : lifecycleListeners) {
 				listener.pause();
@@ -287,6 +336,18 @@ public class DesktopMini2DxGame implements Application {
 		}
 	}
 
+	private void lockUpdates() {
+		if (simulationThread != null) {
+			simulationThread.lockUpdates();
+		}
+	}
+
+	private void unlockUpdates() {
+		if (simulationThread != null) {
+			simulationThread.unlockUpdates();
+		}
+	}
+
 	public boolean executeRunnables() {
 		synchronized (runnables) {
 			for (int i = runnables.size - 1; i >= 0; i--) {
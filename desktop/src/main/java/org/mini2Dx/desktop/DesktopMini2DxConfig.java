@@ -26,6 +26,16 @@ public class DesktopMini2DxConfig extends LwjglApplicationConfiguration {
 	 * The target timestep
 	 */
 	public float targetTimestep = (1f / targetFPS);
+	/**
+	 * True if the game should update on a dedicated thread at the target
+	 * timestep. Only interpolate and render run concurrently with update;
+	 * input events, resize, posted runnables and frame tasks are run on the
+	 * render thread while updates are blocked. Updates pause while the game
+	 * is paused or not rendering. Objects read during interpolate and render
+	 * must be registered with the game's
+	 * {@link org.mini2Dx.core.game.RenderStatePublisher}.
+	 */
+	public boolean simulationThread = false;
 	
 	public DesktopMini2DxConfig(String gameIdentifier) {
 		this.gameIdentifier = gameIdentifier;
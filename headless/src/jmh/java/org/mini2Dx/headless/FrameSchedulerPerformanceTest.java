@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.headless;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mini2Dx.core.game.BasicGame;
+import org.mini2Dx.core.game.FrameClock;
+import org.mini2Dx.core.game.FrameScheduler;
+import org.mini2Dx.core.game.FrameTask;
+import org.mini2Dx.core.graphics.Graphics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.badlogic.gdx.backends.headless.HeadlessMini2DxGame;
+
+/**
+ * Performance tests for {@link FrameScheduler} running {@link FrameTask}s in
+ * a headless game loop. Tasks advance a simulated clock so that each frame
+ * runs the same amount of work.
+ */
+@Threads(value = 1)
+public class FrameSchedulerPerformanceTest {
+	private static final int TOTAL_TASKS = 16;
+	/**
+	 * The simulated frame task budget in nanoseconds
+	 */
+	private static final long FRAME_TASK_BUDGET = 2000000L;
+	/**
+	 * The simulated maximum slice of each task in nanoseconds
+	 */
+	private static final long MAXIMUM_SLICE = 500000L;
+	/**
+	 * The simulated cost of a single unit of work in nanoseconds
+	 */
+	private static final long WORK_UNIT_COST = 10000L;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public HeadlessMini2DxGame game;
+		public SchedulerGame gameContainer;
+		public final SimulatedClock clock = new SimulatedClock();
+
+		@Setup(Level.Trial)
+		public void createGame() {
+			HeadlessMini2DxConfig config = new HeadlessMini2DxConfig(FrameSchedulerPerformanceTest.class.getName());
+			config.runGame = false;
+			config.frameTaskBudget = FRAME_TASK_BUDGET;
+			gameContainer = new SchedulerGame();
+			game = new HeadlessMini2DxGame(gameContainer, config);
+
+			FrameScheduler scheduler = gameContainer.getFrameScheduler();
+			scheduler.setClock(clock);
+			for (int i = 0; i < TOTAL_TASKS; i++) {
+				scheduler.register(new WorkTask(clock), i % 4, MAXIMUM_SLICE);
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("FrameScheduler_HeadlessFrame")
+	public long testHeadlessFrame(TestState state) {
+		state.game.executeFrame();
+		return state.gameContainer.getFrameScheduler().getLastElapsed();
+	}
+
+	public static class SchedulerGame extends BasicGame {
+		@Override
+		public void initialise() {
+		}
+
+		@Override
+		public void update(float delta) {
+		}
+
+		@Override
+		public void interpolate(float alpha) {
+		}
+
+		@Override
+		public void render(Graphics g) {
+		}
+	}
+
+	public static class SimulatedClock implements FrameClock {
+		public long time;
+
+		@Override
+		public long nanoTime() {
+			return time;
+		}
+	}
+
+	/**
+	 * Performs units of work until its simulated slice is used up
+	 */
+	public static class WorkTask implements FrameTask {
+		private final SimulatedClock clock;
+		private float value;
+
+		public WorkTask(SimulatedClock clock) {
+			this.clock = clock;
+		}
+
+		@Override
+		public boolean run(long sliceNanos) {
+			long deadline = clock.time + sliceNanos;
+			while (clock.time < deadline) {
+				for (int i = 0; i < 64; i++) {
+					value = (value * 0.99f) + (float) Math.sin(value + i);
+				}
+				clock.time += WORK_UNIT_COST;
+			}
+			return true;
+		}
+	}
+}
@@ -63,6 +63,7 @@ public class HeadlessMini2DxGame implements Application {
 	protected int logLevel = LOG_INFO;
 	protected ApplicationLogger applicationLogger;
 	protected String preferencesdir;
+	protected float accumulator = 0f;
 
 	public HeadlessMini2DxGame(GameContainer game, HeadlessMini2DxConfig config) {
 		setApplicationLogger(new HeadlessApplicationLogger());
@@ -118,55 +119,74 @@ public class HeadlessMini2DxGame implements Application {
 
 		listener.create();
 
+		while (running) {
+			executeFrame();
+		}
+
+		synchronized (lifecycleListeners) {
+			for (LifecycleListener listener : lifecycleListeners) {
+				listener.pause();
+				listener.dispose();
+			}
+		}
+		listener.pause();
+		listener.dispose();
+	}
+
+	/**
+	 * Executes a single frame of the game loop. Can be used to step the game
+	 * manually when {@link HeadlessMini2DxConfig#runGame} is false.
+	 */
+	public void executeFrame() {
 		int frameRate = config.targetFPS;
 		float maximumDelta = 1f / frameRate;
 		long fpsDeltaNanos = (long) (maximumDelta*1000000000f);
-		float accumulator = 0f;
 		float targetTimestep = config.targetTimestep;
 
-		while (running) {
-
-			graphics.updateTime();
-			Mdx.performanceTracker.markFrame();
-			graphics.incrementFrameId();
+		graphics.updateTime();
+		Mdx.performanceTracker.markFrame();
+		graphics.incrementFrameId();
 
-			executeRunnables();
-			// If one of the runnables set running to false, for example after
-			// an exit().
-			if (!running) {
-				break;
-			}
-			
-			float delta = graphics.getDeltaTime();
-			if (delta > maximumDelta) {
-				delta = maximumDelta;
-			}
+		executeRunnables();
+		// If one of the runnables set running to false, for example after
+		// an exit().
+		if (!running) {
+			return;
+		}
+		
+		float delta = graphics.getDeltaTime();
+		if (delta > maximumDelta) {
+			delta = maximumDelta;
+		}
 
-			accumulator += delta;
+		accumulator += delta;
 
-			while (accumulator >= targetTimestep) {
-				Mdx.performanceTracker.markUpdateBegin();
-				listener.update(targetTimestep);
-				Mdx.performanceTracker.markUpdateEnd();
-				accumulator -= targetTimestep;
-			}
-			listener.interpolate(accumulator / targetTimestep);
+		boolean updated = false;
+		while (accumulator >= targetTimestep) {
+			Mdx.performanceTracker.markUpdateBegin();
+			listener.update(targetTimestep);
+			Mdx.performanceTracker.markUpdateEnd();
+			accumulator -= targetTimestep;
+			updated = true;
+		}
+		if (updated) {
+			listener.publishRenderState();
+		}
+		listener.interpolate(accumulator / targetTimestep);
 
-			listener.render();
+		listener.render();
 
-			if (frameRate > 0) {
-				graphics.sleepTillDeltaTime(fpsDeltaNanos);
-			}
+		if (config.frameTaskBudget >= 0L) {
+			listener.runFrameTasks(config.frameTaskBudget);
+		} else if (frameRate > 0) {
+			listener.runFrameTasks(graphics.getTimeRemaining(fpsDeltaNanos));
+		} else {
+			listener.runFrameTasks(0L);
 		}
 
-		synchronized (lifecycleListeners) {
-			for (LifecycleListener listener : lifecycleListeners) {
-				listener.pause();
-				listener.dispose();
-			}
+		if (frameRate > 0 && config.frameTaskBudget < 0L) {
+			graphics.sleepTillDeltaTime(fpsDeltaNanos);
 		}
-		listener.pause();
-		listener.dispose();
 	}
 
 	public boolean executeRunnables() {
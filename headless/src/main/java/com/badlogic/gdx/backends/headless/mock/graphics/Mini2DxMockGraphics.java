@@ -222,6 +222,11 @@ public class Mini2DxMockGraphics extends MockGraphics {
 		}
 	}
 	
+	// returns the time left in the frame after calling updateTime()
+	public long getTimeRemaining(long fpsDeltaNanos){
+		return fpsDeltaNanos - TimeUtils.timeSinceNanos(lastTime);
+	}
+	
 	public void incrementFrameId () {
 		frameId++;
 	}
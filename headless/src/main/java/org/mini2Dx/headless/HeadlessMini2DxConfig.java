@@ -43,6 +43,14 @@ public class HeadlessMini2DxConfig extends HeadlessApplicationConfiguration {
 	 */
 	public boolean runGame = true;
 	
+	/**
+	 * If 0 or greater, frame tasks are given this fixed budget in nanoseconds
+	 * each frame instead of the time remaining in the frame and the game loop
+	 * does not sleep between frames. Allows frame tasks to be benchmarked
+	 * deterministically.
+	 */
+	public long frameTaskBudget = -1L;
+	
 	public HeadlessMini2DxConfig(String gameIdentifier) {
 		this.gameIdentifier = gameIdentifier;
 	}
@@ -165,6 +165,7 @@ public class IOSMini2DxGraphics extends NSObject implements Graphics, GLKViewDel
 	
 	private final float maximumDelta;
 	private final float targetTimestep;
+	private final long frameBudget;
 	private float accumulator = 0f;
 
 	IOSApplicationConfiguration config;
@@ -178,6 +179,7 @@ public class IOSMini2DxGraphics extends NSObject implements Graphics, GLKViewDel
 		
 		maximumDelta = 1f / config.targetFPS;
 		targetTimestep = config.targetTimestep;
+		frameBudget = 1000000000L / config.targetFPS;
 
 		final CGRect bounds = app.getBounds();
 		// setup view and OpenGL
@@ -351,16 +353,22 @@ public class IOSMini2DxGraphics extends NSObject implements Graphics, GLKViewDel
 
 		accumulator += delta;
 
+		boolean updated = false;
 		while (accumulator >= targetTimestep) {
 			Mdx.performanceTracker.markUpdateBegin();
 			input.processEvents();
 			app.listener.update(targetTimestep);
 			Mdx.performanceTracker.markUpdateEnd();
 			accumulator -= targetTimestep;
+			updated = true;
+		}
+		if (updated) {
+			app.listener.publishRenderState();
 		}
 		app.listener.interpolate(accumulator / targetTimestep);
 		frameId++;
 		app.listener.render();
+		app.listener.runFrameTasks(frameBudget - (System.nanoTime() - time));
 	}
 
 	void makeCurrent () {
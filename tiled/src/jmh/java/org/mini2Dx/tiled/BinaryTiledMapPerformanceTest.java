@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.mini2Dx.tiled.exception.TiledException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Base64Coder;
+
+/**
+ * Load time performance tests comparing TMX files against binary maps created
+ * by {@link BinaryTiledMapConverter}
+ */
+@Threads(value = 1)
+public class BinaryTiledMapPerformanceTest {
+	private static final int MAP_SIZE = 1000;
+	private static final int TOTAL_LAYERS = 4;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public File directory;
+		public FileHandle tmxFile, binaryFile;
+
+		@Setup(Level.Trial)
+		public void createMaps() throws IOException {
+			directory = File.createTempFile("binarymap", "");
+			directory.delete();
+			directory.mkdirs();
+
+			tmxFile = new FileHandle(new File(directory, "large.tmx"));
+			binaryFile = new FileHandle(new File(directory, "large.bin"));
+			tmxFile.writeString(generateTmx(), false, "UTF-8");
+			new BinaryTiledMapConverter().convert(tmxFile, binaryFile);
+		}
+
+		@TearDown(Level.Trial)
+		public void deleteMaps() {
+			tmxFile.delete();
+			binaryFile.delete();
+			directory.delete();
+		}
+
+		private String generateTmx() throws IOException {
+			Random random = new Random(1234);
+			StringBuilder result = new StringBuilder();
+			result.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+			result.append("<map version=\"1.0\" orientation=\"orthogonal\" renderorder=\"right-down\" width=\""
+					+ MAP_SIZE + "\" height=\"" + MAP_SIZE + "\" tilewidth=\"32\" tileheight=\"32\">\n");
+			result.append(" <tileset firstgid=\"1\" name=\"tileset1\" tilewidth=\"32\" tileheight=\"32\">\n");
+			result.append("  <image source=\"orthogonal_tileset.png\" width=\"512\" height=\"512\"/>\n");
+			result.append(" </tileset>\n");
+			for (int layer = 0; layer < TOTAL_LAYERS; layer++) {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				GZIPOutputStream outputStream = new GZIPOutputStream(bytes);
+				for (int i = 0; i < MAP_SIZE * MAP_SIZE; i++) {
+					int id = random.nextInt(257);
+					outputStream.write(id);
+					outputStream.write(id >> 8);
+					outputStream.write(0);
+					outputStream.write(random.nextInt(8) == 0 ? 0x80 : 0);
+				}
+				outputStream.close();
+
+				result.append(" <layer name=\"Layer" + layer + "\" width=\"" + MAP_SIZE + "\" height=\"" + MAP_SIZE
+						+ "\">\n");
+				result.append("  <data encoding=\"base64\" compression=\"gzip\">\n   ");
+				result.append(Base64Coder.encode(bytes.toByteArray()));
+				result.append("\n  </data>\n");
+				result.append(" </layer>\n");
+			}
+			result.append("</map>\n");
+			return result.toString();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Group("TiledMap_Load_Tmx")
+	public TiledMap testLoadTmx(TestState state) throws TiledException {
+		return new TiledMap(new TiledParser(), state.tmxFile, false, false);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Group("TiledMap_Load_Binary")
+	public TiledMap testLoadBinary(TestState state) throws TiledException {
+		return new TiledMap(new BinaryTiledParser(), state.binaryFile, false, false);
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.mini2Dx.tiled.tileset.ImageTilesetSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-tile performance tests for looking up {@link Tile}s by tile id on a map
+ * with many {@link Tileset}s
+ */
+@Threads(value = 1)
+public class TileLookupPerformanceTest {
+	private static final int TOTAL_TILESETS = 16;
+	private static final int TOTAL_LOOKUPS = 4096;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public TiledMap tiledMap;
+		public int[] tileIds = new int[TOTAL_LOOKUPS];
+
+		@Setup(Level.Trial)
+		public void createMap() {
+			tiledMap = new TiledMap();
+			int firstGid = 1;
+			for (int i = 0; i < TOTAL_TILESETS; i++) {
+				Tileset tileset = new Tileset(firstGid, new ImageTilesetSource(512, 512, 32, 32, 0, 0));
+				tiledMap.onTilesetParsed(tileset);
+				firstGid += tileset.getWidthInTiles() * tileset.getHeightInTiles();
+			}
+			Random random = new Random(1234);
+			for (int i = 0; i < tileIds.length; i++) {
+				tileIds[i] = 1 + random.nextInt(firstGid - 1);
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@OperationsPerInvocation(TOTAL_LOOKUPS)
+	@Group("TileLookup_LinearScan")
+	public void testLinearScan(TestState state, Blackhole blackhole) {
+		List<Tileset> tilesets = state.tiledMap.getTilesets();
+		for (int i = 0; i < state.tileIds.length; i++) {
+			int tileId = state.tileIds[i];
+			for (int j = 0; j < tilesets.size(); j++) {
+				Tileset tileset = tilesets.get(j);
+				if (tileset.contains(tileId)) {
+					blackhole.consume(tileset.getTile(tileId));
+					break;
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@OperationsPerInvocation(TOTAL_LOOKUPS)
+	@Group("TileLookup_Table")
+	public void testLookupTable(TestState state, Blackhole blackhole) {
+		for (int i = 0; i < state.tileIds.length; i++) {
+			blackhole.consume(state.tiledMap.getTile(state.tileIds[i]));
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mini2Dx.core.collisions.RegionQuadTree;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TiledMap;
+import org.mini2Dx.tiled.exception.TiledException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Compares re-merging collisions after a single tile edit using
+ * {@link DynamicTiledCollisionMapper} against re-merging an entire large
+ * layer
+ */
+@Threads(value = 1)
+public class DynamicTiledCollisionMapperPerformanceTest {
+	private static final int ELEMENTS_PER_QUAD = 8;
+	private static final int LARGE_MAP_SIZE = 1000;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public TiledMap tiledMap;
+		public TileLayer largeLayer;
+		public int largeLayerIndex;
+		public int editTileId;
+		public boolean tileSet;
+
+		public TiledCollisionMapper<CollisionBox> collisionMapper;
+		public DynamicTiledCollisionMapper<CollisionBox> dynamicMapper;
+		public List<CollisionBox> results = new ArrayList<CollisionBox>();
+
+		@Setup(Level.Trial)
+		public void loadMap() throws TiledException {
+			FileHandle file = new FileHandle(
+					Thread.currentThread().getContextClassLoader().getResource("orthogonal.tmx").getFile());
+			tiledMap = new TiledMap(file, false, false);
+			TileLayer collisionLayer = tiledMap.getTileLayer("Collisions");
+
+			largeLayer = new TileLayer(LARGE_MAP_SIZE, LARGE_MAP_SIZE);
+			for (int x = 0; x < LARGE_MAP_SIZE; x++) {
+				for (int y = 0; y < LARGE_MAP_SIZE; y++) {
+					largeLayer.setTileId(x, y, collisionLayer.getTileId(x % collisionLayer.getWidth(),
+							y % collisionLayer.getHeight()));
+				}
+			}
+			tiledMap.onTileLayerParsed(largeLayer);
+			largeLayerIndex = largeLayer.getIndex();
+			editTileId = collisionLayer.getTileId(1, 5);
+
+			collisionMapper = new TiledCollisionMapper<CollisionBox>(new TiledCollisionBoxFactory());
+			RegionQuadTree<CollisionBox> quadTree = new RegionQuadTree<CollisionBox>(ELEMENTS_PER_QUAD, 0f, 0f,
+					LARGE_MAP_SIZE * tiledMap.getTileWidth(), LARGE_MAP_SIZE * tiledMap.getTileHeight());
+			dynamicMapper = new DynamicTiledCollisionMapper<CollisionBox>(collisionMapper, tiledMap, largeLayerIndex,
+					quadTree);
+		}
+
+		@Setup(Level.Invocation)
+		public void clearResults() {
+			results.clear();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("DynamicTiledCollisionMapper_SingleTileEdit")
+	public DynamicTiledCollisionMapper<CollisionBox> testSingleTileEdit(TestState state) {
+		state.tileSet = !state.tileSet;
+		state.largeLayer.setTileId(500, 500, state.tileSet ? state.editTileId : 0);
+		state.largeLayer.flushChanges();
+		return state.dynamicMapper;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("TiledCollisionMapper_LargeMap_FullRemerge")
+	public List<CollisionBox> testFullRemerge(TestState state) {
+		state.collisionMapper.mapAndMergeCollisionsByLayer(state.results, state.tiledMap, state.largeLayerIndex);
+		return state.results;
+	}
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.mini2Dx.core.collisions.RegionQuadTree;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TiledMap;
+import org.mini2Dx.tiled.exception.TiledException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Load time performance tests for {@link TiledCollisionMapper} and
+ * {@link RegionQuadTree} construction
+ */
+@Threads(value = 1)
+public class TiledCollisionMapperPerformanceTest {
+	private static final int ELEMENTS_PER_QUAD = 8;
+	/**
+	 * The number of tiles along each axis of the large map built by repeating
+	 * the test map
+	 */
+	private static final int LARGE_MAP_SIZE = 1000;
+	/**
+	 * The number of tiles along each axis of the randomly generated map
+	 */
+	private static final int GENERATED_MAP_SIZE = 2000;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public TiledMap tiledMap;
+		public TiledCollisionMapper<CollisionBox> collisionMapper;
+		public int collisionLayerIndex;
+
+		public float largeMapWidth, largeMapHeight;
+		public List<CollisionBox> largeMapTemplate = new ArrayList<CollisionBox>();
+		public List<CollisionBox> largeMapCollisions = new ArrayList<CollisionBox>();
+
+		public TiledMap generatedMap;
+		public int generatedLayerIndex;
+		public ForkJoinPool pool;
+
+		@Setup(Level.Trial)
+		public void loadMap() throws TiledException {
+			FileHandle file = new FileHandle(
+					Thread.currentThread().getContextClassLoader().getResource("orthogonal.tmx").getFile());
+			tiledMap = new TiledMap(file, false, false);
+			collisionMapper = new TiledCollisionMapper<CollisionBox>(new TiledCollisionBoxFactory());
+			collisionLayerIndex = tiledMap.getLayerIndex("Collisions");
+
+			List<CollisionBox> mapCollisions = new ArrayList<CollisionBox>();
+			collisionMapper.mapAndMergeCollisionsByLayer(mapCollisions, tiledMap, collisionLayerIndex);
+
+			int repeatX = LARGE_MAP_SIZE / tiledMap.getWidth();
+			int repeatY = LARGE_MAP_SIZE / tiledMap.getHeight();
+			float mapWidth = tiledMap.getWidth() * tiledMap.getTileWidth();
+			float mapHeight = tiledMap.getHeight() * tiledMap.getTileHeight();
+			largeMapWidth = mapWidth * repeatX;
+			largeMapHeight = mapHeight * repeatY;
+
+			for (int x = 0; x < repeatX; x++) {
+				for (int y = 0; y < repeatY; y++) {
+					for (CollisionBox collision : mapCollisions) {
+						largeMapTemplate.add(new CollisionBox((x * mapWidth) + collision.getX(),
+								(y * mapHeight) + collision.getY(), collision.getWidth(), collision.getHeight()));
+					}
+				}
+			}
+
+			generatedMap = new TiledMap(file, false, false);
+			TileLayer collisionLayer = generatedMap.getTileLayer(collisionLayerIndex);
+			Random random = new Random(LARGE_MAP_SIZE);
+			TileLayer generatedLayer = createGeneratedLayer(random, collisionLayer.getTileId(1, 5));
+			generatedMap.onTileLayerParsed(generatedLayer);
+			generatedLayerIndex = generatedLayer.getIndex();
+			pool = new ForkJoinPool();
+		}
+
+		/**
+		 * Generates terrain of randomly sized solid blocks with scattered
+		 * single tiles
+		 */
+		private TileLayer createGeneratedLayer(Random random, int tileId) {
+			TileLayer result = new TileLayer(GENERATED_MAP_SIZE, GENERATED_MAP_SIZE);
+			for (int i = 0; i < GENERATED_MAP_SIZE * 4; i++) {
+				int blockX = random.nextInt(GENERATED_MAP_SIZE);
+				int blockY = random.nextInt(GENERATED_MAP_SIZE);
+				int blockWidth = Math.min(1 + random.nextInt(24), GENERATED_MAP_SIZE - blockX);
+				int blockHeight = Math.min(1 + random.nextInt(24), GENERATED_MAP_SIZE - blockY);
+				for (int x = blockX; x < blockX + blockWidth; x++) {
+					for (int y = blockY; y < blockY + blockHeight; y++) {
+						result.setTileId(x, y, tileId);
+					}
+				}
+			}
+			for (int i = 0; i < GENERATED_MAP_SIZE * 20; i++) {
+				result.setTileId(random.nextInt(GENERATED_MAP_SIZE), random.nextInt(GENERATED_MAP_SIZE), tileId);
+			}
+			return result;
+		}
+
+		@TearDown(Level.Trial)
+		public void shutdownPool() {
+			pool.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void createCollisions() {
+			largeMapCollisions.clear();
+			for (int i = 0; i < largeMapTemplate.size(); i++) {
+				CollisionBox template = largeMapTemplate.get(i);
+				largeMapCollisions.add(new CollisionBox(template.getX(), template.getY(), template.getWidth(),
+						template.getHeight()));
+			}
+		}
+
+		public RegionQuadTree<CollisionBox> createMapQuadTree() {
+			return new RegionQuadTree<CollisionBox>(ELEMENTS_PER_QUAD, 0f, 0f,
+					tiledMap.getWidth() * tiledMap.getTileWidth(), tiledMap.getHeight() * tiledMap.getTileHeight());
+		}
+
+		public RegionQuadTree<CollisionBox> createLargeMapQuadTree() {
+			return new RegionQuadTree<CollisionBox>(ELEMENTS_PER_QUAD, 0f, 0f, largeMapWidth, largeMapHeight);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("TiledCollisionMapper_MapAndMerge")
+	public RegionQuadTree<CollisionBox> testMapAndMergeCollisionsByLayer(TestState state) {
+		RegionQuadTree<CollisionBox> quadTree = state.createMapQuadTree();
+		state.collisionMapper.mapAndMergeCollisionsByLayer(quadTree, state.tiledMap, state.collisionLayerIndex);
+		return quadTree;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Group("RegionQuadTree_LargeMap_Add")
+	public RegionQuadTree<CollisionBox> testLargeMapIndividualAdd(TestState state) {
+		RegionQuadTree<CollisionBox> quadTree = state.createLargeMapQuadTree();
+		for (int i = 0; i < state.largeMapCollisions.size(); i++) {
+			quadTree.add(state.largeMapCollisions.get(i));
+		}
+		return quadTree;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Group("RegionQuadTree_LargeMap_AddAll")
+	public RegionQuadTree<CollisionBox> testLargeMapAddAll(TestState state) {
+		RegionQuadTree<CollisionBox> quadTree = state.createLargeMapQuadTree();
+		quadTree.addAll(state.largeMapCollisions);
+		return quadTree;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Group("TiledCollisionMapper_GeneratedMap_Serial")
+	public List<CollisionBox> testGeneratedMapSerialMerge(TestState state) {
+		List<CollisionBox> results = new ArrayList<CollisionBox>();
+		state.collisionMapper.mapAndMergeCollisionsByLayer(results, state.generatedMap, state.generatedLayerIndex);
+		return results;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Group("TiledCollisionMapper_GeneratedMap_Parallel")
+	public List<CollisionBox> testGeneratedMapParallelMerge(TestState state) {
+		List<CollisionBox> results = new ArrayList<CollisionBox>();
+		state.collisionMapper.mapAndMergeCollisionsByLayer(results, state.generatedMap, state.generatedLayerIndex,
+				state.pool);
+		return results;
+	}
+}
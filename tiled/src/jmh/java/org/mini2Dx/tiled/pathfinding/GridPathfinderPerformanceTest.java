@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.mini2Dx.tiled.Orientation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Performance tests for batches of {@link GridPathfinder} queries on a large
+ * generated map
+ */
+@Threads(value = 1)
+public class GridPathfinderPerformanceTest {
+	/**
+	 * The number of tiles along each axis of the generated map
+	 */
+	private static final int MAP_SIZE = 1024;
+	/**
+	 * The number of path queries in each batch
+	 */
+	private static final int TOTAL_QUERIES = 10000;
+	/**
+	 * The maximum distance in tiles along each axis between the start and
+	 * goal of a query
+	 */
+	private static final int MAX_QUERY_DISTANCE = 64;
+	private static final int TOTAL_THREADS = 4;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public PathfindingGrid grid;
+		public GridPathfinder jumpPointSearch, aStar;
+		public PathfindingContext context;
+		public GridPath path = new GridPath();
+		public int[] queries = new int[TOTAL_QUERIES * 4];
+
+		public ExecutorService executorService;
+		public PathfindingContext[] threadContexts = new PathfindingContext[TOTAL_THREADS];
+
+		@Setup(Level.Trial)
+		public void createGrid() {
+			Random random = new Random(MAP_SIZE);
+			byte[][] collisions = new byte[MAP_SIZE][MAP_SIZE];
+			for (int i = 0; i < MAP_SIZE * 4; i++) {
+				int blockX = random.nextInt(MAP_SIZE);
+				int blockY = random.nextInt(MAP_SIZE);
+				int blockWidth = Math.min(1 + random.nextInt(24), MAP_SIZE - blockX);
+				int blockHeight = Math.min(1 + random.nextInt(24), MAP_SIZE - blockY);
+				for (int x = blockX; x < blockX + blockWidth; x++) {
+					for (int y = blockY; y < blockY + blockHeight; y++) {
+						collisions[x][y] = 1;
+					}
+				}
+			}
+			for (int i = 0; i < MAP_SIZE * 20; i++) {
+				collisions[random.nextInt(MAP_SIZE)][random.nextInt(MAP_SIZE)] = 1;
+			}
+			grid = new PathfindingGrid(collisions, Orientation.ORTHOGONAL, null, null, true);
+			jumpPointSearch = new GridPathfinder(grid);
+			aStar = new GridPathfinder(grid);
+			aStar.setJumpPointSearch(false);
+			context = new PathfindingContext(grid);
+
+			for (int i = 0; i < queries.length; i += 4) {
+				int startX, startY, goalX, goalY;
+				do {
+					startX = random.nextInt(MAP_SIZE);
+					startY = random.nextInt(MAP_SIZE);
+					goalX = Math.max(0, Math.min(MAP_SIZE - 1,
+							startX + random.nextInt(MAX_QUERY_DISTANCE * 2) - MAX_QUERY_DISTANCE));
+					goalY = Math.max(0, Math.min(MAP_SIZE - 1,
+							startY + random.nextInt(MAX_QUERY_DISTANCE * 2) - MAX_QUERY_DISTANCE));
+				} while (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY));
+				queries[i] = startX;
+				queries[i + 1] = startY;
+				queries[i + 2] = goalX;
+				queries[i + 3] = goalY;
+			}
+
+			executorService = Executors.newFixedThreadPool(TOTAL_THREADS);
+			for (int i = 0; i < TOTAL_THREADS; i++) {
+				threadContexts[i] = new PathfindingContext(grid);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void shutdownExecutor() {
+			executorService.shutdown();
+		}
+
+		public int findPaths(GridPathfinder pathfinder, PathfindingContext context, GridPath path, int fromQuery,
+				int toQuery) {
+			int result = 0;
+			for (int i = fromQuery * 4; i < toQuery * 4; i += 4) {
+				if (pathfinder.findPath(context, queries[i], queries[i + 1], queries[i + 2], queries[i + 3], path)) {
+					result += path.getLength();
+				}
+			}
+			return result;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Group("GridPathfinder_AStar")
+	public int testAStar(TestState state) {
+		return state.findPaths(state.aStar, state.context, state.path, 0, TOTAL_QUERIES);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Group("GridPathfinder_JumpPointSearch")
+	public int testJumpPointSearch(TestState state) {
+		return state.findPaths(state.jumpPointSearch, state.context, state.path, 0, TOTAL_QUERIES);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Group("GridPathfinder_JumpPointSearch_Threaded")
+	public int testThreadedJumpPointSearch(final TestState state) throws Exception {
+		final int queriesPerThread = TOTAL_QUERIES / TOTAL_THREADS;
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int i = 0; i < TOTAL_THREADS; i++) {
+			final int thread = i;
+			futures.add(state.executorService.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					return state.findPaths(state.jumpPointSearch, state.threadContexts[thread], new GridPath(),
+							thread * queriesPerThread, (thread + 1) * queriesPerThread);
+				}
+			}));
+		}
+		int result = 0;
+		for (Future<Integer> future : futures) {
+			result += future.get();
+		}
+		return result;
+	}
+}
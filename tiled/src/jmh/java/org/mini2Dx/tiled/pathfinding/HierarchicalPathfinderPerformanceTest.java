@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.mini2Dx.tiled.Orientation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Performance tests comparing {@link HierarchicalPathfinder} and
+ * {@link GridPathfinder} queries across a large generated map
+ */
+@Threads(value = 1)
+public class HierarchicalPathfinderPerformanceTest {
+	/**
+	 * The number of tiles along each axis of the generated map
+	 */
+	private static final int MAP_SIZE = 2000;
+	/**
+	 * The number of path queries in each batch
+	 */
+	private static final int TOTAL_QUERIES = 100;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public PathfindingGrid grid;
+		public GridPathfinder gridPathfinder;
+		public HierarchicalPathfinder hierarchicalPathfinder;
+		public PathfindingContext context;
+		public GridPath path = new GridPath();
+		public int[] queries = new int[TOTAL_QUERIES * 4];
+		public Random random = new Random();
+
+		@Setup(Level.Trial)
+		public void createGrid() {
+			Random random = new Random(MAP_SIZE);
+			byte[][] collisions = new byte[MAP_SIZE][MAP_SIZE];
+			for (int i = 0; i < MAP_SIZE * 4; i++) {
+				int blockX = random.nextInt(MAP_SIZE);
+				int blockY = random.nextInt(MAP_SIZE);
+				int blockWidth = Math.min(1 + random.nextInt(24), MAP_SIZE - blockX);
+				int blockHeight = Math.min(1 + random.nextInt(24), MAP_SIZE - blockY);
+				for (int x = blockX; x < blockX + blockWidth; x++) {
+					for (int y = blockY; y < blockY + blockHeight; y++) {
+						collisions[x][y] = 1;
+					}
+				}
+			}
+			for (int i = 0; i < MAP_SIZE * 20; i++) {
+				collisions[random.nextInt(MAP_SIZE)][random.nextInt(MAP_SIZE)] = 1;
+			}
+			grid = new PathfindingGrid(collisions, Orientation.ORTHOGONAL, null, null, true);
+			gridPathfinder = new GridPathfinder(grid);
+			hierarchicalPathfinder = new HierarchicalPathfinder(grid);
+			context = new PathfindingContext(grid);
+
+			for (int i = 0; i < queries.length; i += 4) {
+				do {
+					queries[i] = random.nextInt(MAP_SIZE);
+					queries[i + 1] = random.nextInt(MAP_SIZE);
+					queries[i + 2] = random.nextInt(MAP_SIZE);
+					queries[i + 3] = random.nextInt(MAP_SIZE);
+				} while (!grid.isWalkable(queries[i], queries[i + 1])
+						|| !grid.isWalkable(queries[i + 2], queries[i + 3]));
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Group("Pathfinding_LargeMap_JumpPointSearch")
+	public int testJumpPointSearch(TestState state) {
+		int result = 0;
+		for (int i = 0; i < state.queries.length; i += 4) {
+			if (state.gridPathfinder.findPath(state.context, state.queries[i], state.queries[i + 1],
+					state.queries[i + 2], state.queries[i + 3], state.path)) {
+				result += state.path.getLength();
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Group("Pathfinding_LargeMap_Hierarchical")
+	public int testHierarchical(TestState state) {
+		int result = 0;
+		for (int i = 0; i < state.queries.length; i += 4) {
+			if (state.hierarchicalPathfinder.findPath(state.context, state.queries[i], state.queries[i + 1],
+					state.queries[i + 2], state.queries[i + 3], state.path)) {
+				result += state.path.getLength();
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Group("Pathfinding_LargeMap_HierarchicalUpdate")
+	public HierarchicalPathfinder testHierarchicalUpdate(TestState state) {
+		int x = state.random.nextInt(MAP_SIZE);
+		int y = state.random.nextInt(MAP_SIZE);
+		state.grid.setBlocked(x, y, state.grid.isWalkable(x, y));
+		state.hierarchicalPathfinder.updateTiles(x, y, 1, 1);
+		return state.hierarchicalPathfinder;
+	}
+}
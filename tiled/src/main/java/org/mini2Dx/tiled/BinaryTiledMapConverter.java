@@ -0,0 +1,384 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.mini2Dx.tiled.renderer.AnimatedTileRenderer;
+import org.mini2Dx.tiled.renderer.TileFrame;
+import org.mini2Dx.tiled.tileset.ImageTilesetSource;
+import org.mini2Dx.tiled.tileset.TilesetSource;
+import org.mini2Dx.tiled.tileset.TsxTilesetSource;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+
+/**
+ * Converts TMX files into the binary map format read by
+ * {@link BinaryTiledParser}. Intended to be run offline as part of a build,
+ * e.g. <code>java org.mini2Dx.tiled.BinaryTiledMapConverter map.tmx map.bin</code>
+ * 
+ * The format is little-endian and consists of a header ({@link BinaryTiledParser#MAGIC}
+ * followed by {@link BinaryTiledParser#VERSION}), the map attributes and
+ * properties, the tilesets and then each layer in order. Tile layers are
+ * stored as 4-byte aligned arrays of raw tile ids row by row with flip flags
+ * in the upper bits, the same as TMX data.
+ */
+public class BinaryTiledMapConverter implements TiledParserListener {
+	static final Charset CHARSET = Charset.forName("UTF-8");
+
+	private final TiledParser parser;
+	private final List<String> mapPropertyNames = new ArrayList<String>();
+	private final List<String> mapPropertyValues = new ArrayList<String>();
+	private final List<Tileset> tilesets = new ArrayList<Tileset>();
+	private final List<Layer> layers = new ArrayList<Layer>();
+
+	private String orientation, staggerAxis, staggerIndex;
+	private Color backgroundColor;
+	private int width, height, tileWidth, tileHeight, sideLength;
+
+	private ByteBuffer buffer;
+
+	/**
+	 * Constructor
+	 */
+	public BinaryTiledMapConverter() {
+		this(new TiledParser());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param parser
+	 *            The {@link TiledParser} to read TMX files with
+	 */
+	public BinaryTiledMapConverter(TiledParser parser) {
+		this.parser = parser;
+	}
+
+	/**
+	 * Converts a TMX file to a binary map file
+	 * 
+	 * @param tmxFileHandle
+	 *            The {@link FileHandle} of the TMX file to read
+	 * @param binaryFileHandle
+	 *            The {@link FileHandle} to write the binary map to. The file
+	 *            must be in the same directory as the TMX file if the map
+	 *            references external TSX tilesets.
+	 * @throws IOException
+	 *             Thrown if the TMX file could not be read or the binary map
+	 *             could not be written
+	 */
+	public void convert(FileHandle tmxFileHandle, FileHandle binaryFileHandle) throws IOException {
+		mapPropertyNames.clear();
+		mapPropertyValues.clear();
+		tilesets.clear();
+		layers.clear();
+		backgroundColor = null;
+
+		parser.addListener(this);
+		try {
+			parser.parseTmx(tmxFileHandle);
+		} finally {
+			parser.removeListener(this);
+		}
+		write(binaryFileHandle);
+	}
+
+	/**
+	 * Writes the map data received since the last conversion
+	 */
+	void write(FileHandle binaryFileHandle) throws IOException {
+		buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+		writeMap();
+
+		OutputStream outputStream = binaryFileHandle.write(false);
+		try {
+			outputStream.write(buffer.array(), 0, buffer.position());
+		} finally {
+			outputStream.close();
+		}
+		buffer = null;
+	}
+
+	private void writeMap() {
+		ensureCapacity(8);
+		buffer.putInt(BinaryTiledParser.MAGIC);
+		buffer.putInt(BinaryTiledParser.VERSION);
+
+		writeString(orientation);
+		writeString(staggerAxis);
+		writeString(staggerIndex);
+		ensureCapacity(37);
+		if (backgroundColor != null) {
+			buffer.put((byte) 1);
+			buffer.putFloat(backgroundColor.r);
+			buffer.putFloat(backgroundColor.g);
+			buffer.putFloat(backgroundColor.b);
+			buffer.putFloat(backgroundColor.a);
+		} else {
+			buffer.put((byte) 0);
+		}
+		buffer.putInt(width);
+		buffer.putInt(height);
+		buffer.putInt(tileWidth);
+		buffer.putInt(tileHeight);
+		buffer.putInt(sideLength);
+
+		writeInt(mapPropertyNames.size());
+		for (int i = 0; i < mapPropertyNames.size(); i++) {
+			writeString(mapPropertyNames.get(i));
+			writeString(mapPropertyValues.get(i));
+		}
+
+		writeInt(tilesets.size());
+		for (int i = 0; i < tilesets.size(); i++) {
+			writeTileset(tilesets.get(i));
+		}
+
+		writeInt(layers.size());
+		for (int i = 0; i < layers.size(); i++) {
+			Layer layer = layers.get(i);
+			switch (layer.getLayerType()) {
+			case TILE:
+				writeTileLayer((TileLayer) layer);
+				break;
+			case OBJECT:
+				writeObjectGroup((TiledObjectGroup) layer);
+				break;
+			}
+		}
+	}
+
+	private void writeTileset(Tileset tileset) {
+		TilesetSource tilesetSource = tileset.getTilesetSource();
+		if (tilesetSource instanceof TsxTilesetSource) {
+			ensureCapacity(5);
+			buffer.put(BinaryTiledParser.TILESET_TSX);
+			buffer.putInt(tileset.getFirstGid());
+			writeString(((TsxTilesetSource) tilesetSource).getTsxPath());
+			return;
+		}
+		ImageTilesetSource imageTilesetSource = (ImageTilesetSource) tilesetSource;
+		ensureCapacity(5);
+		buffer.put(BinaryTiledParser.TILESET_IMAGE);
+		buffer.putInt(tileset.getFirstGid());
+		writeString(imageTilesetSource.getName());
+		writeString(imageTilesetSource.getTilesetImagePath());
+		writeString(imageTilesetSource.getTransparentColorValue());
+		writeInt(imageTilesetSource.getWidth());
+		writeInt(imageTilesetSource.getHeight());
+		writeInt(imageTilesetSource.getTileWidth());
+		writeInt(imageTilesetSource.getTileHeight());
+		writeInt(imageTilesetSource.getSpacing());
+		writeInt(imageTilesetSource.getMargin());
+		writeProperties(tileset.getProperties());
+
+		List<Tile> tiles = new ArrayList<Tile>();
+		for (int y = 0; y < tilesetSource.getHeightInTiles(); y++) {
+			for (int x = 0; x < tilesetSource.getWidthInTiles(); x++) {
+				Tile tile = tilesetSource.getTileByPosition(x, y);
+				if (tile == null) {
+					continue;
+				}
+				if (tile.getProperties() != null || tile.getTileRenderer() instanceof AnimatedTileRenderer) {
+					tiles.add(tile);
+				}
+			}
+		}
+		writeInt(tiles.size());
+		for (int i = 0; i < tiles.size(); i++) {
+			Tile tile = tiles.get(i);
+			writeInt(tile.getTileId(0));
+			writeProperties(tile.getProperties());
+			if (!(tile.getTileRenderer() instanceof AnimatedTileRenderer)) {
+				writeInt(0);
+				continue;
+			}
+			TileFrame[] frames = ((AnimatedTileRenderer) tile.getTileRenderer()).getFrames();
+			ensureCapacity(4 + (frames.length * 8));
+			buffer.putInt(frames.length);
+			for (int j = 0; j < frames.length; j++) {
+				buffer.putFloat(frames[j].getDuration());
+				buffer.putInt(frames[j].getTileId());
+			}
+		}
+	}
+
+	private void writeTileLayer(TileLayer layer) {
+		ensureCapacity(1);
+		buffer.put(BinaryTiledParser.LAYER_TILE);
+		writeString(layer.getName());
+		ensureCapacity(9);
+		buffer.put(layer.isVisible() ? (byte) 1 : (byte) 0);
+		buffer.putInt(layer.getWidth());
+		buffer.putInt(layer.getHeight());
+		writeProperties(layer.getProperties());
+
+		ensureCapacity(3 + (layer.getWidth() * layer.getHeight() * 4));
+		while (buffer.position() % 4 != 0) {
+			buffer.put((byte) 0);
+		}
+		int[] row = new int[layer.getWidth()];
+		for (int y = 0; y < layer.getHeight(); y++) {
+			layer.getRawTileIds(0, y, row.length, row, 0);
+			for (int x = 0; x < row.length; x++) {
+				buffer.putInt(row[x]);
+			}
+		}
+	}
+
+	private void writeObjectGroup(TiledObjectGroup objectGroup) {
+		ensureCapacity(1);
+		buffer.put(BinaryTiledParser.LAYER_OBJECT_GROUP);
+		writeString(objectGroup.getName());
+		writeInt(objectGroup.getWidth());
+		writeInt(objectGroup.getHeight());
+		writeProperties(objectGroup.getProperties());
+
+		List<TiledObject> objects = objectGroup.getObjects();
+		writeInt(objects.size());
+		for (int i = 0; i < objects.size(); i++) {
+			TiledObject object = objects.get(i);
+			ensureCapacity(16);
+			buffer.putFloat(object.getX());
+			buffer.putFloat(object.getY());
+			buffer.putFloat(object.getWidth());
+			buffer.putFloat(object.getHeight());
+			writeString(object.getName());
+			writeString(object.getType());
+
+			byte flags = 0;
+			if (object.isGidFlipHorizontally()) {
+				flags |= BinaryTiledParser.OBJECT_FLIP_HORIZONTALLY;
+			}
+			if (object.isGidFlipVertically()) {
+				flags |= BinaryTiledParser.OBJECT_FLIP_VERTICALLY;
+			}
+			if (object.isGidFlipDiagonally()) {
+				flags |= BinaryTiledParser.OBJECT_FLIP_DIAGONALLY;
+			}
+			if (object.isVisible()) {
+				flags |= BinaryTiledParser.OBJECT_VISIBLE;
+			}
+			ensureCapacity(5);
+			buffer.putInt(object.getGid());
+			buffer.put(flags);
+			writeString(object.getPolyline());
+			writeString(object.getPolygon());
+			writeProperties(object.getProperties());
+		}
+	}
+
+	private void writeProperties(Map<String, String> properties) {
+		if (properties == null) {
+			writeInt(0);
+			return;
+		}
+		writeInt(properties.size());
+		for (Map.Entry<String, String> property : properties.entrySet()) {
+			writeString(property.getKey());
+			writeString(property.getValue());
+		}
+	}
+
+	private void writeString(String value) {
+		if (value == null) {
+			writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(CHARSET);
+		ensureCapacity(4 + bytes.length);
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+
+	private void writeInt(int value) {
+		ensureCapacity(4);
+		buffer.putInt(value);
+	}
+
+	private void ensureCapacity(int bytes) {
+		if (buffer.remaining() >= bytes) {
+			return;
+		}
+		int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+		ByteBuffer result = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.flip();
+		result.put(buffer);
+		buffer = result;
+	}
+
+	@Override
+	public void onBeginParsing(String orientation, String staggerAxis, String staggerIndex, Color backgroundColor,
+			int width, int height, int tileWidth, int tileHeight, int sideLength) {
+		this.orientation = orientation;
+		this.staggerAxis = staggerAxis;
+		this.staggerIndex = staggerIndex;
+		this.backgroundColor = backgroundColor;
+		this.width = width;
+		this.height = height;
+		this.tileWidth = tileWidth;
+		this.tileHeight = tileHeight;
+		this.sideLength = sideLength;
+	}
+
+	@Override
+	public void onMapPropertyParsed(String propertyName, String value) {
+		mapPropertyNames.add(propertyName);
+		mapPropertyValues.add(value);
+	}
+
+	@Override
+	public void onTilePropertiesParsed(Tile tile) {
+	}
+
+	@Override
+	public void onTilesetParsed(Tileset parsedTileset) {
+		tilesets.add(parsedTileset);
+	}
+
+	@Override
+	public void onTileLayerParsed(TileLayer parsedLayer) {
+		layers.add(parsedLayer);
+	}
+
+	@Override
+	public void onObjectGroupParsed(TiledObjectGroup parsedObjectGroup) {
+		layers.add(parsedObjectGroup);
+	}
+
+	/**
+	 * Converts a TMX file to a binary map file
+	 * 
+	 * @param args
+	 *            The path of the TMX file followed by the path of the binary
+	 *            file to write
+	 * @throws IOException
+	 *             Thrown if the conversion failed
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: " + BinaryTiledMapConverter.class.getName() + " <input.tmx> <output>");
+			System.exit(1);
+		}
+		new BinaryTiledMapConverter().convert(new FileHandle(new File(args[0])), new FileHandle(new File(args[1])));
+	}
+}
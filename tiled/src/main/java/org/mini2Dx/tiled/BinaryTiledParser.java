@@ -0,0 +1,274 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import org.mini2Dx.tiled.renderer.AnimatedTileRenderer;
+import org.mini2Dx.tiled.renderer.TileFrame;
+import org.mini2Dx.tiled.tileset.ImageTilesetSource;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+
+/**
+ * Parses binary map files created by {@link BinaryTiledMapConverter} and
+ * notifies {@link TiledParserListener}s of map data. Files are memory-mapped
+ * where possible and tile layers are copied directly from the file without
+ * any per-tile parsing.
+ * 
+ * Pass an instance to
+ * {@link TiledMap#TiledMap(TiledParser, FileHandle, boolean, boolean)} to
+ * load a binary map in place of a TMX file.
+ */
+public class BinaryTiledParser extends TiledParser {
+	/**
+	 * The first 4 bytes of every binary map file
+	 */
+	public static final int MAGIC = 0x4D44324D;
+	/**
+	 * The current version of the binary map format
+	 */
+	public static final int VERSION = 1;
+
+	static final byte TILESET_IMAGE = 0;
+	static final byte TILESET_TSX = 1;
+	static final byte LAYER_TILE = 0;
+	static final byte LAYER_OBJECT_GROUP = 1;
+
+	static final byte OBJECT_FLIP_HORIZONTALLY = 1;
+	static final byte OBJECT_FLIP_VERTICALLY = 1 << 1;
+	static final byte OBJECT_FLIP_DIAGONALLY = 1 << 2;
+	static final byte OBJECT_VISIBLE = 1 << 3;
+
+	/**
+	 * Parses a binary map file. Allows this parser to be used with
+	 * {@link TiledMap} constructors.
+	 * 
+	 * @param binaryFileHandle
+	 *            A {@link FileHandle} to a binary map file
+	 * @throws IOException
+	 *             Thrown if the file could not be read or is not a supported
+	 *             binary map
+	 */
+	@Override
+	public void parseTmx(FileHandle binaryFileHandle) throws IOException {
+		parseBinary(binaryFileHandle);
+	}
+
+	/**
+	 * Parses a binary map file created by {@link BinaryTiledMapConverter}
+	 * 
+	 * @param binaryFileHandle
+	 *            A {@link FileHandle} to a binary map file
+	 * @throws IOException
+	 *             Thrown if the file could not be read or is not a supported
+	 *             binary map
+	 */
+	public void parseBinary(FileHandle binaryFileHandle) throws IOException {
+		ByteBuffer buffer = map(binaryFileHandle);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+			throw new IOException(binaryFileHandle.path() + " is not a binary map file");
+		}
+		int version = buffer.getInt();
+		if (version > VERSION) {
+			throw new IOException("Unsupported binary map version " + version + " in " + binaryFileHandle.path());
+		}
+
+		String orientation = readString(buffer);
+		String staggerAxis = readString(buffer);
+		String staggerIndex = readString(buffer);
+		Color backgroundColor = null;
+		if (buffer.get() != 0) {
+			backgroundColor = new Color(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+		}
+		int width = buffer.getInt();
+		int height = buffer.getInt();
+		int tileWidth = buffer.getInt();
+		int tileHeight = buffer.getInt();
+		int sideLength = buffer.getInt();
+		notifyBeginParsing(orientation, staggerAxis, staggerIndex, backgroundColor, width, height, tileWidth,
+				tileHeight, sideLength);
+
+		for (int i = buffer.getInt(); i > 0; i--) {
+			notifyMapPropertyParsed(readString(buffer), readString(buffer));
+		}
+		for (int i = buffer.getInt(); i > 0; i--) {
+			loadTileSet(buffer, binaryFileHandle);
+		}
+		for (int i = buffer.getInt(); i > 0; i--) {
+			byte layerType = buffer.get();
+			switch (layerType) {
+			case LAYER_TILE:
+				loadTileLayer(buffer);
+				break;
+			case LAYER_OBJECT_GROUP:
+				loadObjectGroup(buffer);
+				break;
+			default:
+				throw new IOException("Unknown layer type " + layerType + " in " + binaryFileHandle.path());
+			}
+		}
+	}
+
+	private void loadTileSet(ByteBuffer buffer, FileHandle binaryFileHandle) throws IOException {
+		byte tilesetType = buffer.get();
+		int firstGid = buffer.getInt();
+		if (tilesetType == TILESET_TSX) {
+			notifyTilesetParsed(loadTsxTileSet(firstGid, readString(buffer), binaryFileHandle));
+			return;
+		}
+		if (tilesetType != TILESET_IMAGE) {
+			throw new IOException("Unknown tileset type " + tilesetType + " in " + binaryFileHandle.path());
+		}
+
+		String name = readString(buffer);
+		String imageSource = readString(buffer);
+		String transparentColor = readString(buffer);
+		int imageWidth = buffer.getInt();
+		int imageHeight = buffer.getInt();
+		int tileWidth = buffer.getInt();
+		int tileHeight = buffer.getInt();
+		int spacing = buffer.getInt();
+		int margin = buffer.getInt();
+
+		ImageTilesetSource tilesetSource = new ImageTilesetSource(imageWidth, imageHeight, tileWidth, tileHeight,
+				spacing, margin);
+		tilesetSource.setName(name);
+		tilesetSource.setTransparentColorValue(transparentColor);
+		tilesetSource.setTilesetImagePath(imageSource);
+		Tileset tileset = new Tileset(firstGid, tilesetSource);
+
+		for (int i = buffer.getInt(); i > 0; i--) {
+			tileset.setProperty(readString(buffer), readString(buffer));
+		}
+		for (int i = buffer.getInt(); i > 0; i--) {
+			Tile tile = tilesetSource.getTile(buffer.getInt(), 0);
+			for (int j = buffer.getInt(); j > 0; j--) {
+				tile.setProperty(readString(buffer), readString(buffer));
+			}
+			int totalFrames = buffer.getInt();
+			if (totalFrames > 0) {
+				TileFrame[] frames = new TileFrame[totalFrames];
+				for (int j = 0; j < totalFrames; j++) {
+					float duration = buffer.getFloat();
+					frames[j] = new TileFrame(duration, buffer.getInt());
+				}
+				tile.setTileRenderer(new AnimatedTileRenderer(tilesetSource, frames));
+			}
+			notifyTilePropertyParsed(tile);
+		}
+		loadStaticTileRenderers(tilesetSource);
+
+		notifyTilesetParsed(tileset);
+	}
+
+	private void loadTileLayer(ByteBuffer buffer) {
+		String name = readString(buffer);
+		boolean visible = buffer.get() != 0;
+		int width = buffer.getInt();
+		int height = buffer.getInt();
+
+		TileLayer layer = createTileLayer(width, height);
+		layer.setName(name);
+		layer.setVisible(visible);
+		readProperties(buffer, layer);
+
+		alignToInt(buffer);
+		layer.setRawTileIds(buffer.asIntBuffer());
+		buffer.position(buffer.position() + (width * height * 4));
+		notifyTileLayerParsed(layer);
+	}
+
+	private void loadObjectGroup(ByteBuffer buffer) {
+		TiledObjectGroup tiledObjectGroup = new TiledObjectGroup();
+		tiledObjectGroup.setName(readString(buffer));
+		tiledObjectGroup.setWidth(buffer.getInt());
+		tiledObjectGroup.setHeight(buffer.getInt());
+		readProperties(buffer, tiledObjectGroup);
+
+		for (int i = buffer.getInt(); i > 0; i--) {
+			float x = buffer.getFloat();
+			float y = buffer.getFloat();
+			float width = buffer.getFloat();
+			float height = buffer.getFloat();
+			TiledObject object = new TiledObject(x, y, width, height);
+			object.setName(readString(buffer));
+			String type = readString(buffer);
+			if (type != null) {
+				object.setType(type);
+			}
+			object.setGid(buffer.getInt());
+			byte flags = buffer.get();
+			object.setGidFlipHorizontally((flags & OBJECT_FLIP_HORIZONTALLY) != 0);
+			object.setGidFlipVertically((flags & OBJECT_FLIP_VERTICALLY) != 0);
+			object.setGidFlipDiagonally((flags & OBJECT_FLIP_DIAGONALLY) != 0);
+			object.setVisible((flags & OBJECT_VISIBLE) != 0);
+			object.setPolyline(readString(buffer));
+			object.setPolygon(readString(buffer));
+			for (int j = buffer.getInt(); j > 0; j--) {
+				object.setProperty(readString(buffer), readString(buffer));
+			}
+			tiledObjectGroup.getObjects().add(object);
+		}
+		notifyObjectGroupParsed(tiledObjectGroup);
+	}
+
+	private void readProperties(ByteBuffer buffer, Layer layer) {
+		for (int i = buffer.getInt(); i > 0; i--) {
+			layer.setProperty(readString(buffer), readString(buffer));
+		}
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, BinaryTiledMapConverter.CHARSET);
+	}
+
+	static void alignToInt(ByteBuffer buffer) {
+		int remainder = buffer.position() % 4;
+		if (remainder != 0) {
+			buffer.position(buffer.position() + 4 - remainder);
+		}
+	}
+
+	/**
+	 * Memory-maps a file if it exists on the file system, otherwise reads it
+	 * into memory, e.g. for classpath files or internal files on Android
+	 */
+	private static ByteBuffer map(FileHandle fileHandle) throws IOException {
+		File file = fileHandle.file();
+		if (fileHandle.type() == FileType.Classpath || !file.isFile()) {
+			return ByteBuffer.wrap(fileHandle.readBytes());
+		}
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+}
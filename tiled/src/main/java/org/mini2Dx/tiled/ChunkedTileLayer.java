@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.util.Arrays;
+
+/**
+ * A {@link TileLayer} that stores its tiles in fixed-size chunks. Chunks are
+ * kept compressed and are only decompressed by a shared {@link TileChunkCache}
+ * when their tiles are accessed, e.g. when they are within view of the
+ * camera. Chunks containing no tiles use no memory.
+ * 
+ * Note: Layer caching should be disabled on {@link TiledMap}s using this class
+ * since caching renders every tile of the layer.
+ */
+public class ChunkedTileLayer extends TileLayer {
+	/**
+	 * The default width and height of chunks in tiles
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 32;
+
+	private final int chunkSize;
+	private final int chunksWide, chunksHigh;
+	private final TileChunk[] chunks;
+	private final TileChunkCache cache;
+
+	/**
+	 * Constructs a layer with chunks of {@link #DEFAULT_CHUNK_SIZE}
+	 * 
+	 * @param width
+	 *            The width in tiles
+	 * @param height
+	 *            The height in tiles
+	 * @param cache
+	 *            The {@link TileChunkCache} to load chunks with
+	 */
+	public ChunkedTileLayer(int width, int height, TileChunkCache cache) {
+		this(width, height, DEFAULT_CHUNK_SIZE, cache);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param width
+	 *            The width in tiles
+	 * @param height
+	 *            The height in tiles
+	 * @param chunkSize
+	 *            The width and height of each chunk in tiles
+	 * @param cache
+	 *            The {@link TileChunkCache} to load chunks with
+	 */
+	public ChunkedTileLayer(int width, int height, int chunkSize, TileChunkCache cache) {
+		super(width, height, false);
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("chunkSize must be greater than 0");
+		}
+		this.chunkSize = chunkSize;
+		this.cache = cache;
+		chunksWide = (width + chunkSize - 1) / chunkSize;
+		chunksHigh = (height + chunkSize - 1) / chunkSize;
+		chunks = new TileChunk[chunksWide * chunksHigh];
+	}
+
+	/**
+	 * Returns the width and height of each chunk
+	 * 
+	 * @return The chunk size in tiles
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Returns the {@link TileChunkCache} chunks of this layer are loaded with
+	 * 
+	 * @return The {@link TileChunkCache} instance
+	 */
+	public TileChunkCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Replaces a horizontal band of chunks without loading them into the
+	 * {@link TileChunkCache}
+	 * 
+	 * @param chunkY
+	 *            The y coordinate of the band in chunks
+	 * @param tiles
+	 *            The raw tile ids (including flip flags) of the band, row by
+	 *            row with {@link #getChunkSize()} rows of
+	 *            {@link #getChunksWide()} * {@link #getChunkSize()} tiles
+	 */
+	void setChunkRow(int chunkY, int[] tiles) {
+		int stride = chunksWide * chunkSize;
+		for (int chunkX = 0; chunkX < chunksWide; chunkX++) {
+			int index = (chunkY * chunksWide) + chunkX;
+			byte[] compressed = cache.compress(tiles, chunkX * chunkSize, stride, chunkSize);
+			TileChunk chunk = chunks[index];
+			if (chunk != null) {
+				cache.discard(chunk);
+				chunk.compressed = compressed;
+			} else if (compressed != null) {
+				chunk = new TileChunk(chunkSize);
+				chunk.compressed = compressed;
+				chunks[index] = chunk;
+			}
+		}
+		int startY = chunkY * chunkSize;
+		markDirty(0, startY, getWidth(), Math.min(chunkSize, getHeight() - startY));
+	}
+
+	int getChunksWide() {
+		return chunksWide;
+	}
+
+	int getChunksHigh() {
+		return chunksHigh;
+	}
+
+	@Override
+	public int getRawTileId(int x, int y) {
+		checkBounds(x, y);
+		TileChunk chunk = chunks[((y / chunkSize) * chunksWide) + (x / chunkSize)];
+		if (chunk == null || chunk.isEmpty()) {
+			return 0;
+		}
+		int[] tiles = cache.load(chunk);
+		return tiles[((y % chunkSize) * chunkSize) + (x % chunkSize)];
+	}
+
+	@Override
+	public void setRawTileId(int x, int y, int rawId) {
+		checkBounds(x, y);
+		int index = ((y / chunkSize) * chunksWide) + (x / chunkSize);
+		TileChunk chunk = chunks[index];
+		if (chunk == null) {
+			if (rawId == 0) {
+				return;
+			}
+			chunk = new TileChunk(chunkSize);
+			chunks[index] = chunk;
+		}
+		int[] tiles = cache.load(chunk);
+		tiles[((y % chunkSize) * chunkSize) + (x % chunkSize)] = rawId;
+		chunk.dirty = true;
+		markDirty(x, y, 1, 1);
+	}
+
+	@Override
+	public void getRawTileIds(int startX, int y, int length, int[] result, int offset) {
+		if (length <= 0) {
+			return;
+		}
+		checkBounds(startX, y);
+		checkBounds(startX + length - 1, y);
+		int chunkRow = (y / chunkSize) * chunksWide;
+		int rowOffset = (y % chunkSize) * chunkSize;
+		int x = startX;
+		int endX = startX + length;
+		while (x < endX) {
+			int chunkX = x / chunkSize;
+			int runLength = Math.min(endX, (chunkX + 1) * chunkSize) - x;
+			TileChunk chunk = chunks[chunkRow + chunkX];
+			if (chunk == null || chunk.isEmpty()) {
+				Arrays.fill(result, offset, offset + runLength, 0);
+			} else {
+				int[] tiles = cache.load(chunk);
+				System.arraycopy(tiles, rowOffset + (x % chunkSize), result, offset, runLength);
+			}
+			x += runLength;
+			offset += runLength;
+		}
+	}
+
+	private void checkBounds(int x, int y) {
+		if (x < 0 || y < 0 || x >= getWidth() || y >= getHeight()) {
+			throw new ArrayIndexOutOfBoundsException("Tile " + x + "," + y + " is outside the layer");
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.nio.IntBuffer;
+
+/**
+ * A {@link TileLayer} for maps with tile ids no greater than 65535. Tile ids
+ * are stored in a single row-major array of 16-bit values, halving the memory
+ * of a regular {@link TileLayer}. Flip flags are stored separately and only
+ * allocated once a flipped tile is set.
+ */
+public class CompactTileLayer extends TileLayer {
+	/**
+	 * The maximum tile id that can be stored by this layer
+	 */
+	public static final int MAX_TILE_ID = 0xFFFF;
+
+	private static final int FLAG_SHIFT = 29;
+
+	private final char[] tiles;
+	private byte[] flags;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param width
+	 *            The width in tiles
+	 * @param height
+	 *            The height in tiles
+	 */
+	public CompactTileLayer(int width, int height) {
+		super(width, height, false);
+		tiles = new char[width * height];
+	}
+
+	@Override
+	public int getRawTileId(int x, int y) {
+		int index = getTileIndex(x, y);
+		int result = tiles[index];
+		if (flags != null) {
+			result |= (flags[index] & 0xFF) << FLAG_SHIFT;
+		}
+		return result;
+	}
+
+	@Override
+	public void setRawTileId(int x, int y, int rawTileId) {
+		storeRawTileId(getTileIndex(x, y), rawTileId);
+		markDirty(x, y, 1, 1);
+	}
+
+	@Override
+	public void getRawTileIds(int startX, int y, int length, int[] result, int offset) {
+		if (length <= 0) {
+			return;
+		}
+		getTileIndex(startX + length - 1, y);
+		int index = getTileIndex(startX, y);
+		if (flags == null) {
+			for (int i = 0; i < length; i++) {
+				result[offset + i] = tiles[index + i];
+			}
+		} else {
+			for (int i = 0; i < length; i++) {
+				result[offset + i] = tiles[index + i] | ((flags[index + i] & 0xFF) << FLAG_SHIFT);
+			}
+		}
+	}
+
+	@Override
+	void setRawTileIds(IntBuffer rawTileIds) {
+		flags = null;
+		for (int i = 0; i < tiles.length; i++) {
+			storeRawTileId(i, rawTileIds.get());
+		}
+		markDirty(0, 0, getWidth(), getHeight());
+	}
+
+	private void storeRawTileId(int index, int rawTileId) {
+		int tileId = rawTileId & ~TiledParser.MASK_CLEAR;
+		if (tileId > MAX_TILE_ID) {
+			throw new IllegalArgumentException(
+					"Tile id " + tileId + " exceeds the maximum tile id of " + MAX_TILE_ID);
+		}
+		tiles[index] = (char) tileId;
+
+		byte flag = (byte) (rawTileId >>> FLAG_SHIFT);
+		if (flags == null) {
+			if (flag == 0) {
+				return;
+			}
+			flags = new byte[tiles.length];
+		}
+		flags[index] = flag;
+	}
+
+	private int getTileIndex(int x, int y) {
+		if (x < 0 || x >= getWidth()) {
+			throw new ArrayIndexOutOfBoundsException(x);
+		}
+		return (y * getWidth()) + x;
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Records rectangular regions of tiles that have changed. Regions that
+ * overlap or touch are coalesced into their bounding rectangle so that many
+ * edits to the same area are reported as a single region.
+ */
+public class DirtyTileRegions {
+	/**
+	 * The default maximum amount of regions kept before all regions are
+	 * coalesced into one
+	 */
+	public static final int DEFAULT_MAX_REGIONS = 16;
+
+	private final IntArray regions = new IntArray(true, 4 * 4);
+	private final int maxRegions;
+
+	/**
+	 * Constructs an instance that keeps at most {@link #DEFAULT_MAX_REGIONS}
+	 */
+	public DirtyTileRegions() {
+		this(DEFAULT_MAX_REGIONS);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param maxRegions
+	 *            The maximum amount of regions to keep. When exceeded all
+	 *            regions are coalesced into their bounding rectangle.
+	 */
+	public DirtyTileRegions(int maxRegions) {
+		if (maxRegions < 1) {
+			throw new IllegalArgumentException("maxRegions must be greater than 0");
+		}
+		this.maxRegions = maxRegions;
+	}
+
+	/**
+	 * Marks a region as changed
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @param width
+	 *            The width in tiles
+	 * @param height
+	 *            The height in tiles
+	 */
+	public void add(int x, int y, int width, int height) {
+		if (width < 1 || height < 1) {
+			return;
+		}
+		int maxX = x + width;
+		int maxY = y + height;
+
+		int i = 0;
+		while (i < regions.size) {
+			int regionX = regions.get(i);
+			int regionY = regions.get(i + 1);
+			int regionMaxX = regionX + regions.get(i + 2);
+			int regionMaxY = regionY + regions.get(i + 3);
+
+			if (regionX > maxX || regionMaxX < x || regionY > maxY || regionMaxY < y) {
+				i += 4;
+				continue;
+			}
+			x = Math.min(x, regionX);
+			y = Math.min(y, regionY);
+			maxX = Math.max(maxX, regionMaxX);
+			maxY = Math.max(maxY, regionMaxY);
+			regions.removeRange(i, i + 3);
+			// The enlarged region may now touch regions already checked
+			i = 0;
+		}
+
+		if (regions.size >= maxRegions * 4) {
+			for (i = 0; i < regions.size; i += 4) {
+				x = Math.min(x, regions.get(i));
+				y = Math.min(y, regions.get(i + 1));
+				maxX = Math.max(maxX, regions.get(i) + regions.get(i + 2));
+				maxY = Math.max(maxY, regions.get(i + 1) + regions.get(i + 3));
+			}
+			regions.clear();
+		}
+		regions.add(x);
+		regions.add(y);
+		regions.add(maxX - x);
+		regions.add(maxY - y);
+	}
+
+	/**
+	 * Removes all regions
+	 */
+	public void clear() {
+		regions.clear();
+	}
+
+	/**
+	 * Returns if no regions have been marked as changed
+	 * 
+	 * @return True if there are no regions
+	 */
+	public boolean isEmpty() {
+		return regions.size == 0;
+	}
+
+	/**
+	 * Returns the amount of regions
+	 * 
+	 * @return 0 if there are no regions
+	 */
+	public int size() {
+		return regions.size / 4;
+	}
+
+	/**
+	 * Returns the x coordinate of a region
+	 * 
+	 * @param index
+	 *            The index of the region
+	 * @return The x coordinate in tiles
+	 */
+	public int getX(int index) {
+		return regions.get(index * 4);
+	}
+
+	/**
+	 * Returns the y coordinate of a region
+	 * 
+	 * @param index
+	 *            The index of the region
+	 * @return The y coordinate in tiles
+	 */
+	public int getY(int index) {
+		return regions.get((index * 4) + 1);
+	}
+
+	/**
+	 * Returns the width of a region
+	 * 
+	 * @param index
+	 *            The index of the region
+	 * @return The width in tiles
+	 */
+	public int getWidth(int index) {
+		return regions.get((index * 4) + 2);
+	}
+
+	/**
+	 * Returns the height of a region
+	 * 
+	 * @param index
+	 *            The index of the region
+	 * @return The height in tiles
+	 */
+	public int getHeight(int index) {
+		return regions.get((index * 4) + 3);
+	}
+}
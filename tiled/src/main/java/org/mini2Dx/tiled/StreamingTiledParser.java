@@ -0,0 +1,421 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.XmlReader.Element;
+
+/**
+ * A {@link TiledParser} that streams TMX files instead of reading the entire
+ * document into memory. Tile layers are notified as {@link ChunkedTileLayer}s
+ * whose chunks are loaded on demand by a shared {@link TileChunkCache}, making
+ * it possible to load maps whose tile data exceeds the available memory when
+ * decompressed.
+ */
+public class StreamingTiledParser extends TiledParser {
+	private static final int BUFFER_SIZE = 8192;
+
+	private final TileChunkCache cache;
+	private final int chunkSize;
+
+	/**
+	 * Constructs a parser with a {@link TileChunkCache} using its default
+	 * memory cap
+	 */
+	public StreamingTiledParser() {
+		this(new TileChunkCache());
+	}
+
+	/**
+	 * Constructs a parser with chunks of
+	 * {@link ChunkedTileLayer#DEFAULT_CHUNK_SIZE}
+	 * 
+	 * @param cache
+	 *            The {@link TileChunkCache} shared by all parsed layers
+	 */
+	public StreamingTiledParser(TileChunkCache cache) {
+		this(cache, ChunkedTileLayer.DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param cache
+	 *            The {@link TileChunkCache} shared by all parsed layers
+	 * @param chunkSize
+	 *            The width and height of chunks in tiles
+	 */
+	public StreamingTiledParser(TileChunkCache cache, int chunkSize) {
+		super();
+		this.cache = cache;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public void parseTmx(FileHandle tmxFileHandle) throws IOException {
+		Reader fileReader = tmxFileHandle.reader(BUFFER_SIZE, "UTF-8");
+		try {
+			XmlPullReader reader = new XmlPullReader(fileReader);
+			int event = reader.next();
+			while (event != XmlPullReader.START_ELEMENT) {
+				if (event == XmlPullReader.END_DOCUMENT) {
+					throw new GdxRuntimeException("No root element found in " + tmxFileHandle.path());
+				}
+				event = reader.next();
+			}
+			parseMap(reader, tmxFileHandle);
+		} finally {
+			fileReader.close();
+		}
+	}
+
+	private void parseMap(XmlPullReader reader, FileHandle tmxFileHandle) throws IOException {
+		String mapOrientation = reader.getAttribute("orientation", null);
+		int mapWidth = reader.getIntAttribute("width", 0);
+		int mapHeight = reader.getIntAttribute("height", 0);
+		int tileWidth = reader.getIntAttribute("tilewidth", 0);
+		int tileHeight = reader.getIntAttribute("tileheight", 0);
+		int sideLength = reader.getIntAttribute("hexsidelength", -1);
+		String staggerAxis = reader.getAttribute("staggeraxis", null);
+		String staggerIndex = reader.getAttribute("staggerindex", null);
+		String mapBackgroundColor = reader.getAttribute("backgroundcolor", null);
+		Color backgroundColor = null;
+		if (mapBackgroundColor != null) {
+			backgroundColor = convertHexColorToColor(mapBackgroundColor);
+		}
+
+		notifyBeginParsing(mapOrientation, staggerAxis, staggerIndex, backgroundColor, mapWidth, mapHeight, tileWidth,
+				tileHeight, sideLength);
+
+		while (true) {
+			switch (reader.next()) {
+			case XmlPullReader.START_ELEMENT:
+				String name = reader.getName();
+				if (name.equals("properties")) {
+					loadMapProperties(readElement(reader, null));
+				} else if (name.equals("tileset")) {
+					loadTileSet(readElement(reader, null), tmxFileHandle);
+				} else if (name.equals("layer")) {
+					loadChunkedTileLayer(reader);
+				} else if (name.equals("objectgroup")) {
+					loadObjectGroup(readElement(reader, null));
+				} else {
+					reader.skipElement();
+				}
+				break;
+			case XmlPullReader.END_ELEMENT:
+			case XmlPullReader.END_DOCUMENT:
+				return;
+			}
+		}
+	}
+
+	private void loadChunkedTileLayer(XmlPullReader reader) throws IOException {
+		String name = reader.getAttribute("name", null);
+		int width = reader.getIntAttribute("width", 0);
+		int height = reader.getIntAttribute("height", 0);
+		boolean visible = reader.getIntAttribute("visible", 1) == 1;
+		ChunkedTileLayer layer = new ChunkedTileLayer(width, height, chunkSize, cache);
+		layer.setVisible(visible);
+		layer.setName(name);
+
+		while (true) {
+			int event = reader.next();
+			if (event == XmlPullReader.END_ELEMENT) {
+				break;
+			}
+			if (event == XmlPullReader.END_DOCUMENT) {
+				throw new GdxRuntimeException("Unexpected end of document inside layer " + name);
+			}
+			if (event != XmlPullReader.START_ELEMENT) {
+				continue;
+			}
+			if (reader.getName().equals("properties")) {
+				Element properties = readElement(reader, null);
+				for (Element property : properties.getChildrenByName("property")) {
+					String propertyName = property.getAttribute("name", null);
+					String propertyValue = property.getAttribute("value", null);
+					if (propertyValue == null) {
+						propertyValue = property.getText();
+					}
+					layer.setProperty(propertyName, propertyValue);
+				}
+			} else if (reader.getName().equals("data")) {
+				loadTileData(reader, layer);
+			} else {
+				reader.skipElement();
+			}
+		}
+		notifyTileLayerParsed(layer);
+	}
+
+	private void loadTileData(XmlPullReader reader, ChunkedTileLayer layer) throws IOException {
+		String encoding = reader.getAttribute("encoding", null);
+		String compression = reader.getAttribute("compression", null);
+		if (encoding == null) { // no 'encoding' attribute means that the
+								// encoding is XML
+			throw new GdxRuntimeException("Unsupported encoding (XML) for TMX Layer Data");
+		}
+
+		int event = reader.next();
+		if (event == XmlPullReader.END_ELEMENT) {
+			return;
+		}
+		if (event != XmlPullReader.TEXT) {
+			throw new GdxRuntimeException("Expected text content for TMX Layer Data");
+		}
+
+		TileIdReader tileIdReader;
+		if (encoding.equals("csv")) {
+			tileIdReader = new CsvTileIdReader(reader);
+		} else if (encoding.equals("base64")) {
+			InputStream inputStream = new Base64InputStream(reader);
+			if (compression != null) {
+				if (compression.equals("gzip")) {
+					inputStream = new GZIPInputStream(inputStream, BUFFER_SIZE);
+				} else if (compression.equals("zlib")) {
+					inputStream = new InflaterInputStream(inputStream);
+				} else {
+					throw new GdxRuntimeException("Unrecognised compression (" + compression + ") for TMX Layer Data");
+				}
+			}
+			tileIdReader = new BinaryTileIdReader(inputStream);
+		} else {
+			// any other value of 'encoding' is one we're not aware of,
+			// probably a feature of a future version of Tiled
+			throw new GdxRuntimeException("Unrecognised encoding (" + encoding + ") for TMX Layer Data");
+		}
+
+		// Decode one row of chunks at a time so that only a single band of
+		// the layer is ever decompressed during loading
+		int stride = layer.getChunksWide() * chunkSize;
+		int[] band = new int[stride * chunkSize];
+		for (int y = 0; y < layer.getHeight(); y++) {
+			int offset = (y % chunkSize) * stride;
+			for (int x = 0; x < layer.getWidth(); x++) {
+				band[offset + x] = tileIdReader.next();
+			}
+			if (y % chunkSize == chunkSize - 1 || y == layer.getHeight() - 1) {
+				layer.setChunkRow(y / chunkSize, band);
+				Arrays.fill(band, 0);
+			}
+		}
+
+		while (true) {
+			int next = reader.next();
+			if (next == XmlPullReader.END_ELEMENT) {
+				return;
+			}
+			if (next == XmlPullReader.END_DOCUMENT) {
+				throw new IOException("Unexpected end of document inside TMX Layer Data");
+			}
+		}
+	}
+
+	/**
+	 * Reads the current element and its children into an {@link Element} so
+	 * that small sections of the document can be parsed by {@link TiledParser}
+	 */
+	private Element readElement(XmlPullReader reader, Element parent) throws IOException {
+		Element element = new Element(reader.getName(), parent);
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			element.setAttribute(reader.getAttributeName(i), reader.getAttributeValue(i));
+		}
+		if (parent != null) {
+			parent.addChild(element);
+		}
+		String text = null;
+		while (true) {
+			switch (reader.next()) {
+			case XmlPullReader.START_ELEMENT:
+				readElement(reader, element);
+				break;
+			case XmlPullReader.TEXT:
+				text = text == null ? reader.getText() : text + reader.getText();
+				break;
+			case XmlPullReader.END_ELEMENT:
+				if (text != null && text.length() > 0) {
+					element.setText(text);
+				}
+				return element;
+			case XmlPullReader.END_DOCUMENT:
+				throw new GdxRuntimeException("Unexpected end of document inside <" + element.getName() + ">");
+			}
+		}
+	}
+
+	/**
+	 * Returns the {@link TileChunkCache} shared by all parsed layers
+	 * 
+	 * @return The {@link TileChunkCache} instance
+	 */
+	public TileChunkCache getCache() {
+		return cache;
+	}
+
+	private interface TileIdReader {
+		public int next() throws IOException;
+	}
+
+	private static class CsvTileIdReader implements TileIdReader {
+		private final XmlPullReader reader;
+
+		public CsvTileIdReader(XmlPullReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public int next() throws IOException {
+			int c = reader.readTextChar();
+			while (c == ',' || Character.isWhitespace(c)) {
+				c = reader.readTextChar();
+			}
+			if (c < '0' || c > '9') {
+				throw new GdxRuntimeException("Unexpected end of CSV TMX Layer Data");
+			}
+			long id = 0;
+			while (c >= '0' && c <= '9') {
+				id = (id * 10) + (c - '0');
+				c = reader.readTextChar();
+			}
+			return (int) id;
+		}
+	}
+
+	private static class BinaryTileIdReader implements TileIdReader {
+		private final InputStream inputStream;
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+		private int position, limit;
+
+		public BinaryTileIdReader(InputStream inputStream) {
+			this.inputStream = inputStream;
+		}
+
+		@Override
+		public int next() throws IOException {
+			return read() | read() << 8 | read() << 16 | read() << 24;
+		}
+
+		private int read() throws IOException {
+			while (position == limit) {
+				limit = inputStream.read(buffer, 0, buffer.length);
+				position = 0;
+				if (limit == -1) {
+					throw new GdxRuntimeException("Unexpected end of TMX Layer Data");
+				}
+			}
+			return unsignedByteToInt(buffer[position++]);
+		}
+	}
+
+	/**
+	 * Decodes base64 text as it is read from the document
+	 */
+	private static class Base64InputStream extends InputStream {
+		private final XmlPullReader reader;
+		private final int[] quad = new int[4];
+		private final byte[] decoded = new byte[3];
+		private int position, limit;
+		private boolean finished;
+
+		public Base64InputStream(XmlPullReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (position == limit && !decode()) {
+				return -1;
+			}
+			return decoded[position++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			int total = 0;
+			while (total < len) {
+				if (position == limit && !decode()) {
+					break;
+				}
+				int count = Math.min(len - total, limit - position);
+				System.arraycopy(decoded, position, b, off + total, count);
+				position += count;
+				total += count;
+			}
+			return total == 0 ? -1 : total;
+		}
+
+		private boolean decode() throws IOException {
+			if (finished) {
+				return false;
+			}
+			int count = 0;
+			while (count < 4) {
+				int c = reader.readTextChar();
+				if (c == -1) {
+					break;
+				}
+				if (c == '=') {
+					finished = true;
+					continue;
+				}
+				int value = decodeChar(c);
+				if (value >= 0 && !finished) {
+					quad[count++] = value;
+				}
+			}
+			if (count < 4) {
+				finished = true;
+			}
+			position = 0;
+			limit = Math.max(0, count - 1);
+			if (limit == 0) {
+				return false;
+			}
+			decoded[0] = (byte) ((quad[0] << 2) | (quad[1] >> 4));
+			decoded[1] = (byte) ((quad[1] << 4) | (count > 2 ? quad[2] >> 2 : 0));
+			decoded[2] = (byte) ((count > 2 ? quad[2] << 6 : 0) | (count > 3 ? quad[3] : 0));
+			return true;
+		}
+
+		private static int decodeChar(int c) {
+			if (c >= 'A' && c <= 'Z') {
+				return c - 'A';
+			}
+			if (c >= 'a' && c <= 'z') {
+				return c - 'a' + 26;
+			}
+			if (c >= '0' && c <= '9') {
+				return c - '0' + 52;
+			}
+			if (c == '+') {
+				return 62;
+			}
+			if (c == '/') {
+				return 63;
+			}
+			return -1;
+		}
+	}
+}
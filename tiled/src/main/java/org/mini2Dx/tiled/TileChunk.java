@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+/**
+ * A fixed-size square of tiles belonging to a {@link ChunkedTileLayer}. While
+ * a chunk is not loaded its tiles are only held in compressed form.
+ */
+class TileChunk {
+	final int size;
+
+	/**
+	 * Raw tile ids including flip flags, null while the chunk is not loaded
+	 */
+	int[] tiles;
+	/**
+	 * Compressed tile ids, null if every tile in the chunk is empty
+	 */
+	byte[] compressed;
+	boolean dirty;
+
+	TileChunk previous, next;
+
+	TileChunk(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Returns if the chunk is known to contain no tiles without loading it
+	 * 
+	 * @return True if the chunk is not loaded and has no tile data
+	 */
+	boolean isEmpty() {
+		return tiles == null && compressed == null;
+	}
+
+	boolean isLoaded() {
+		return tiles != null;
+	}
+}
@@ -0,0 +1,281 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Keeps the most recently used {@link TileChunk}s of one or more
+ * {@link ChunkedTileLayer}s decompressed in memory. When the memory used by
+ * loaded chunks exceeds the cap, the least recently used chunks are
+ * compressed and their tile arrays are reused for the next chunk loaded.
+ * 
+ * Note: This class is not thread safe
+ */
+public class TileChunkCache {
+	/**
+	 * The default memory cap of 16MB
+	 */
+	public static final long DEFAULT_MAX_MEMORY = 16L * 1024L * 1024L;
+
+	private final long maxMemory;
+	private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+	private final Inflater inflater = new Inflater();
+
+	private TileChunk head, tail;
+	private long memoryUsage;
+	private int totalLoadedChunks;
+
+	private byte[] rawBuffer = new byte[0];
+	private byte[] compressBuffer = new byte[1024];
+	private int[] recycledTiles;
+
+	/**
+	 * Constructs a cache with a memory cap of {@link #DEFAULT_MAX_MEMORY}
+	 */
+	public TileChunkCache() {
+		this(DEFAULT_MAX_MEMORY);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param maxMemory
+	 *            The maximum bytes of tile data to keep decompressed. At
+	 *            least one chunk is always kept loaded regardless of this
+	 *            value.
+	 */
+	public TileChunkCache(long maxMemory) {
+		if (maxMemory < 0) {
+			throw new IllegalArgumentException("maxMemory cannot be less than 0");
+		}
+		this.maxMemory = maxMemory;
+	}
+
+	/**
+	 * Returns the tiles of a chunk, decompressing it if necessary and marking
+	 * it as the most recently used chunk
+	 * 
+	 * @param chunk
+	 *            The {@link TileChunk} to load
+	 * @return The raw tile ids of the chunk
+	 */
+	int[] load(TileChunk chunk) {
+		if (chunk.tiles != null) {
+			if (chunk != head) {
+				unlink(chunk);
+				linkFirst(chunk);
+			}
+			return chunk.tiles;
+		}
+		int length = chunk.size * chunk.size;
+		ensureCapacity(length * 4L);
+
+		int[] tiles = recycledTiles;
+		if (tiles != null && tiles.length == length) {
+			recycledTiles = null;
+		} else {
+			tiles = new int[length];
+		}
+		if (chunk.compressed == null) {
+			Arrays.fill(tiles, 0);
+		} else {
+			decompress(chunk.compressed, tiles);
+		}
+		chunk.tiles = tiles;
+		chunk.dirty = false;
+		linkFirst(chunk);
+		memoryUsage += length * 4L;
+		totalLoadedChunks++;
+		return tiles;
+	}
+
+	/**
+	 * Compresses all loaded chunks and releases their tile arrays
+	 */
+	public void evictAll() {
+		while (tail != null) {
+			evict(tail);
+		}
+		recycledTiles = null;
+	}
+
+	/**
+	 * Removes a chunk from the cache without keeping its modifications. Used
+	 * when a chunk's data is being replaced.
+	 * 
+	 * @param chunk
+	 *            The {@link TileChunk} to discard
+	 */
+	void discard(TileChunk chunk) {
+		if (chunk.tiles == null) {
+			return;
+		}
+		unlink(chunk);
+		memoryUsage -= chunk.tiles.length * 4L;
+		totalLoadedChunks--;
+		recycledTiles = chunk.tiles;
+		chunk.tiles = null;
+		chunk.dirty = false;
+	}
+
+	private void ensureCapacity(long bytes) {
+		while (tail != null && memoryUsage + bytes > maxMemory) {
+			evict(tail);
+		}
+	}
+
+	private void evict(TileChunk chunk) {
+		if (chunk.dirty) {
+			chunk.compressed = compress(chunk.tiles, 0, chunk.size, chunk.size);
+		}
+		discard(chunk);
+	}
+
+	private void linkFirst(TileChunk chunk) {
+		chunk.previous = null;
+		chunk.next = head;
+		if (head != null) {
+			head.previous = chunk;
+		}
+		head = chunk;
+		if (tail == null) {
+			tail = chunk;
+		}
+	}
+
+	private void unlink(TileChunk chunk) {
+		if (chunk.previous != null) {
+			chunk.previous.next = chunk.next;
+		} else {
+			head = chunk.next;
+		}
+		if (chunk.next != null) {
+			chunk.next.previous = chunk.previous;
+		} else {
+			tail = chunk.previous;
+		}
+		chunk.previous = null;
+		chunk.next = null;
+	}
+
+	/**
+	 * Compresses a square region of tile ids
+	 * 
+	 * @param tiles
+	 *            The source tile ids
+	 * @param offset
+	 *            The index of the region's first tile in the source
+	 * @param stride
+	 *            The number of tiles per row in the source
+	 * @param size
+	 *            The width and height of the region
+	 * @return Null if every tile in the region is empty
+	 */
+	byte[] compress(int[] tiles, int offset, int stride, int size) {
+		int rawLength = size * size * 4;
+		if (rawBuffer.length < rawLength) {
+			rawBuffer = new byte[rawLength];
+		}
+		boolean empty = true;
+		int write = 0;
+		for (int y = 0; y < size; y++) {
+			int read = offset + (y * stride);
+			for (int x = 0; x < size; x++) {
+				int id = tiles[read++];
+				if (id != 0) {
+					empty = false;
+				}
+				rawBuffer[write++] = (byte) id;
+				rawBuffer[write++] = (byte) (id >> 8);
+				rawBuffer[write++] = (byte) (id >> 16);
+				rawBuffer[write++] = (byte) (id >> 24);
+			}
+		}
+		if (empty) {
+			return null;
+		}
+
+		deflater.reset();
+		deflater.setInput(rawBuffer, 0, rawLength);
+		deflater.finish();
+		int compressedLength = 0;
+		while (!deflater.finished()) {
+			if (compressedLength == compressBuffer.length) {
+				compressBuffer = Arrays.copyOf(compressBuffer, compressBuffer.length * 2);
+			}
+			compressedLength += deflater.deflate(compressBuffer, compressedLength,
+					compressBuffer.length - compressedLength);
+		}
+		return Arrays.copyOf(compressBuffer, compressedLength);
+	}
+
+	private void decompress(byte[] compressed, int[] result) {
+		int rawLength = result.length * 4;
+		if (rawBuffer.length < rawLength) {
+			rawBuffer = new byte[rawLength];
+		}
+		inflater.reset();
+		inflater.setInput(compressed);
+		try {
+			int read = 0;
+			while (read < rawLength && !inflater.finished()) {
+				int inflated = inflater.inflate(rawBuffer, read, rawLength - read);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new GdxRuntimeException("Tile chunk data is truncated");
+				}
+				read += inflated;
+			}
+		} catch (DataFormatException e) {
+			throw new GdxRuntimeException("Error decompressing tile chunk", e);
+		}
+		int read = 0;
+		for (int i = 0; i < result.length; i++) {
+			result[i] = TiledParser.unsignedByteToInt(rawBuffer[read++])
+					| TiledParser.unsignedByteToInt(rawBuffer[read++]) << 8
+					| TiledParser.unsignedByteToInt(rawBuffer[read++]) << 16
+					| TiledParser.unsignedByteToInt(rawBuffer[read++]) << 24;
+		}
+	}
+
+	/**
+	 * Returns the maximum bytes of tile data kept decompressed
+	 * 
+	 * @return The memory cap in bytes
+	 */
+	public long getMaxMemory() {
+		return maxMemory;
+	}
+
+	/**
+	 * Returns the bytes of tile data currently decompressed
+	 * 
+	 * @return The memory usage in bytes
+	 */
+	public long getMemoryUsage() {
+		return memoryUsage;
+	}
+
+	/**
+	 * Returns the amount of chunks currently decompressed
+	 * 
+	 * @return 0 if no chunks are loaded
+	 */
+	public int getTotalLoadedChunks() {
+		return totalLoadedChunks;
+	}
+}
@@ -11,23 +11,43 @@
  */
 package org.mini2Dx.tiled;
 
-import java.util.BitSet;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Represents a tile layer with in a {@link TiledMap}
+ * Represents a tile layer with in a {@link TiledMap}. Tiles are stored in a
+ * single row-major array of raw tile ids with the flip flags kept in the upper
+ * bits as they are in TMX files.
  */
 public class TileLayer extends Layer {
-	private final int[][] tiles;
-	private final BitSet flipHorizontally;
-	private final BitSet flipVertically;
-	private final BitSet flipDiagonally;
+	private final int width, height;
+	private final int[] tiles;
+	private List<TileLayerListener> listeners;
+	private DirtyTileRegions dirtyRegions;
 
 	public TileLayer(int width, int height) {
+		this(width, height, true);
+	}
+
+	/**
+	 * Constructor for subclasses that may store tile data themselves. If tiles
+	 * are not allocated, {@link #getRawTileId(int, int)},
+	 * {@link #setRawTileId(int, int, int)} and
+	 * {@link #getRawTileIds(int, int, int, int[], int)} must be overridden.
+	 * 
+	 * @param width
+	 *            The width in tiles
+	 * @param height
+	 *            The height in tiles
+	 * @param allocateTiles
+	 *            True if this class should allocate storage for the tiles
+	 */
+	protected TileLayer(int width, int height, boolean allocateTiles) {
 		super(LayerType.TILE);
-		tiles = new int[width][height];
-		flipHorizontally = new BitSet(width * height);
-		flipVertically = new BitSet(width * height);
-		flipDiagonally = new BitSet(width * height);
+		this.width = width;
+		this.height = height;
+		tiles = allocateTiles ? new int[width * height] : null;
 	}
 
 	/**
@@ -40,11 +60,12 @@ public class TileLayer extends Layer {
 	 * @return 0 if there is no tile
 	 */
 	public int getTileId(int x, int y) {
-		return tiles[x][y];
+		return getRawTileId(x, y) & ~TiledParser.MASK_CLEAR;
 	}
 
 	/**
-	 * Sets the tile id at a given coordinate on the layer
+	 * Sets the tile id at a given coordinate on the layer. The tile keeps its
+	 * existing flip flags.
 	 * 
 	 * @param x
 	 *            The x coordinate in tiles
@@ -54,7 +75,7 @@ public class TileLayer extends Layer {
 	 *            0 if there is no tile
 	 */
 	public void setTileId(int x, int y, int id) {
-		tiles[x][y] = id;
+		setRawTileId(x, y, (getRawTileId(x, y) & TiledParser.MASK_CLEAR) | (id & ~TiledParser.MASK_CLEAR));
 	}
 	
 	/**
@@ -71,10 +92,80 @@ public class TileLayer extends Layer {
 	 * @param flipD True if the tile is flipped (anti) diagonally - rotation
 	 */
 	public void setTileId(int x, int y, int id, boolean flipH, boolean flipV, boolean flipD) {
-		tiles[x][y] = id;
-		setFlippedHorizontally(x, y, flipH);
-		setFlippedVertically(x, y, flipV);
-		setFlippedDiagonally(x, y, flipD);
+		setRawTileId(x, y, encodeRawTileId(id, flipH, flipV, flipD));
+	}
+
+	/**
+	 * Returns the raw tile id at a given coordinate on the layer
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @return The tile id with the flip flags in the upper bits. 0 if there is
+	 *         no tile.
+	 */
+	public int getRawTileId(int x, int y) {
+		return tiles[getTileIndex(x, y)];
+	}
+
+	/**
+	 * Sets the raw tile id at a given coordinate on the layer
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @param rawTileId
+	 *            The tile id with the flip flags in the upper bits
+	 */
+	public void setRawTileId(int x, int y, int rawTileId) {
+		tiles[getTileIndex(x, y)] = rawTileId;
+		markDirty(x, y, 1, 1);
+	}
+
+	/**
+	 * Copies a horizontal run of raw tile ids from a row of the layer. Raw
+	 * tile ids can be decoded with {@link #decodeTileId(int)} and the
+	 * decodeFlip methods.
+	 * 
+	 * @param startX
+	 *            The x coordinate in tiles to start from
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @param length
+	 *            The amount of tiles to copy
+	 * @param result
+	 *            The array to copy the raw tile ids into
+	 * @param offset
+	 *            The index in the result array to start copying into
+	 */
+	public void getRawTileIds(int startX, int y, int length, int[] result, int offset) {
+		if (length <= 0) {
+			return;
+		}
+		getTileIndex(startX + length - 1, y);
+		System.arraycopy(tiles, getTileIndex(startX, y), result, offset, length);
+	}
+
+	/**
+	 * Copies a region of raw tile ids from the layer row by row
+	 * 
+	 * @param startX
+	 *            The x coordinate in tiles to start from
+	 * @param startY
+	 *            The y coordinate in tiles to start from
+	 * @param regionWidth
+	 *            The width of the region in tiles
+	 * @param regionHeight
+	 *            The height of the region in tiles
+	 * @param result
+	 *            The array to copy regionWidth * regionHeight raw tile ids into
+	 */
+	public void getRawTileIds(int startX, int startY, int regionWidth, int regionHeight, int[] result) {
+		for (int y = 0; y < regionHeight; y++) {
+			getRawTileIds(startX, startY + y, regionWidth, result, y * regionWidth);
+		}
 	}
 	
 	/**
@@ -84,7 +175,7 @@ public class TileLayer extends Layer {
 	 * @return True if flipped horizontally
 	 */
 	public boolean isFlippedHorizontally(int x, int y) {
-		return flipHorizontally.get(getBitIndex(x, y));
+		return decodeFlipHorizontally(getRawTileId(x, y));
 	}
 	
 	/**
@@ -94,7 +185,7 @@ public class TileLayer extends Layer {
 	 * @param flip True if flipped horizontally
 	 */
 	public void setFlippedHorizontally(int x, int y, boolean flip) {
-		flipHorizontally.set(getBitIndex(x, y), flip);
+		setFlag(x, y, TiledParser.FLAG_FLIP_HORIZONTALLY, flip);
 	}
 	
 	/**
@@ -104,7 +195,7 @@ public class TileLayer extends Layer {
 	 * @return True if flipped vertically
 	 */
 	public boolean isFlippedVertically(int x, int y) {
-		return flipVertically.get(getBitIndex(x, y));
+		return decodeFlipVertically(getRawTileId(x, y));
 	}
 	
 	/**
@@ -114,7 +205,7 @@ public class TileLayer extends Layer {
 	 * @param flip True if flipped vertically
 	 */
 	public void setFlippedVertically(int x, int y, boolean flip) {
-		flipVertically.set(getBitIndex(x, y), flip);
+		setFlag(x, y, TiledParser.FLAG_FLIP_VERTICALLY, flip);
 	}
 	
 	/**
@@ -124,7 +215,7 @@ public class TileLayer extends Layer {
 	 * @return True if flipped diagonally
 	 */
 	public boolean isFlippedDiagonally(int x, int y) {
-		return flipDiagonally.get(getBitIndex(x, y));
+		return decodeFlipDiagonally(getRawTileId(x, y));
 	}
 	
 	/**
@@ -134,7 +225,7 @@ public class TileLayer extends Layer {
 	 * @param flip True if flipped diagonally
 	 */
 	public void setFlippedDiagonally(int x, int y, boolean flip) {
-		flipDiagonally.set(getBitIndex(x, y), flip);
+		setFlag(x, y, TiledParser.FLAG_FLIP_DIAGONALLY, flip);
 	}
 
 	/**
@@ -142,7 +233,7 @@ public class TileLayer extends Layer {
 	 * @return The width in tiles
 	 */
 	public int getWidth() {
-		return tiles.length;
+		return width;
 	}
 
 	/**
@@ -150,10 +241,186 @@ public class TileLayer extends Layer {
 	 * @return The height in tiles
 	 */
 	public int getHeight() {
-		return tiles[0].length;
+		return height;
 	}
-	
-	private int getBitIndex(int x, int y) {
-		return (y * tiles.length) + x;
+
+	/**
+	 * Replaces the contents of the layer with raw tile ids in the TMX
+	 * format, i.e. row by row with flip flags stored in the upper bits
+	 * 
+	 * @param rawTileIds
+	 *            The {@link IntBuffer} to read {@link #getWidth()} *
+	 *            {@link #getHeight()} tile ids from
+	 */
+	void setRawTileIds(IntBuffer rawTileIds) {
+		if (tiles != null) {
+			rawTileIds.get(tiles);
+			markDirty(0, 0, width, height);
+			return;
+		}
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				setRawTileId(x, y, rawTileIds.get());
+			}
+		}
+	}
+
+	/**
+	 * Adds a listener to be notified when tiles in this layer change. Changes
+	 * are only recorded while at least one listener is registered and
+	 * listeners are notified of them by {@link #flushChanges()}.
+	 * 
+	 * @param listener
+	 *            The {@link TileLayerListener} to add
+	 */
+	public void addListener(TileLayerListener listener) {
+		if (listeners == null) {
+			listeners = new ArrayList<TileLayerListener>(1);
+			dirtyRegions = new DirtyTileRegions();
+		}
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener from being notified when tiles in this layer change
+	 * 
+	 * @param listener
+	 *            The {@link TileLayerListener} to remove
+	 */
+	public void removeListener(TileLayerListener listener) {
+		if (listeners == null) {
+			return;
+		}
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Notifies all {@link TileLayerListener}s of each region changed since the
+	 * previous flush. Overlapping changes are coalesced so that many edits
+	 * within one tick result in few notifications. This is called by
+	 * {@link TiledMap#update(float)}.
+	 */
+	public void flushChanges() {
+		if (dirtyRegions == null || dirtyRegions.isEmpty()) {
+			return;
+		}
+		for (int i = 0; i < dirtyRegions.size(); i++) {
+			for (int j = listeners.size() - 1; j >= 0; j--) {
+				listeners.get(j).onTilesChanged(this, dirtyRegions.getX(i), dirtyRegions.getY(i),
+						dirtyRegions.getWidth(i), dirtyRegions.getHeight(i));
+			}
+		}
+		dirtyRegions.clear();
+	}
+
+	/**
+	 * Returns if tiles have changed since the previous
+	 * {@link #flushChanges()}
+	 * 
+	 * @return False if there are no changes or no listeners are registered
+	 */
+	public boolean hasChanges() {
+		return dirtyRegions != null && !dirtyRegions.isEmpty();
+	}
+
+	/**
+	 * Records that a region of tiles has changed. Subclasses that override
+	 * {@link #setRawTileId(int, int, int)} must call this after storing a
+	 * tile.
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles of the changed region
+	 * @param y
+	 *            The y coordinate in tiles of the changed region
+	 * @param width
+	 *            The width in tiles of the changed region
+	 * @param height
+	 *            The height in tiles of the changed region
+	 */
+	protected void markDirty(int x, int y, int width, int height) {
+		if (dirtyRegions == null) {
+			return;
+		}
+		dirtyRegions.add(x, y, width, height);
+	}
+
+	private void setFlag(int x, int y, int flag, boolean value) {
+		int rawTileId = getRawTileId(x, y);
+		setRawTileId(x, y, value ? rawTileId | flag : rawTileId & ~flag);
+	}
+
+	private int getTileIndex(int x, int y) {
+		if (x < 0 || x >= width) {
+			throw new ArrayIndexOutOfBoundsException(x);
+		}
+		return (y * width) + x;
+	}
+
+	/**
+	 * Returns the tile id stored in a raw tile id
+	 * 
+	 * @param rawTileId
+	 *            The tile id with the flip flags in the upper bits
+	 * @return 0 if there is no tile
+	 */
+	public static int decodeTileId(int rawTileId) {
+		return rawTileId & ~TiledParser.MASK_CLEAR;
+	}
+
+	/**
+	 * Returns if a raw tile id is flipped horizontally
+	 * 
+	 * @param rawTileId
+	 *            The tile id with the flip flags in the upper bits
+	 * @return True if flipped horizontally
+	 */
+	public static boolean decodeFlipHorizontally(int rawTileId) {
+		return (rawTileId & TiledParser.FLAG_FLIP_HORIZONTALLY) != 0;
+	}
+
+	/**
+	 * Returns if a raw tile id is flipped vertically
+	 * 
+	 * @param rawTileId
+	 *            The tile id with the flip flags in the upper bits
+	 * @return True if flipped vertically
+	 */
+	public static boolean decodeFlipVertically(int rawTileId) {
+		return (rawTileId & TiledParser.FLAG_FLIP_VERTICALLY) != 0;
+	}
+
+	/**
+	 * Returns if a raw tile id is flipped diagonally
+	 * 
+	 * @param rawTileId
+	 *            The tile id with the flip flags in the upper bits
+	 * @return True if flipped diagonally
+	 */
+	public static boolean decodeFlipDiagonally(int rawTileId) {
+		return (rawTileId & TiledParser.FLAG_FLIP_DIAGONALLY) != 0;
+	}
+
+	/**
+	 * Combines a tile id and its flip flags into a raw tile id
+	 * 
+	 * @param id
+	 *            The tile id
+	 * @param flipH True if the tile is flipped horizontally
+	 * @param flipV True if the tile is flipped vertically
+	 * @param flipD True if the tile is flipped (anti) diagonally - rotation
+	 * @return The tile id with the flip flags in the upper bits
+	 */
+	public static int encodeRawTileId(int id, boolean flipH, boolean flipV, boolean flipD) {
+		int result = id & ~TiledParser.MASK_CLEAR;
+		if (flipH) {
+			result |= TiledParser.FLAG_FLIP_HORIZONTALLY;
+		}
+		if (flipV) {
+			result |= TiledParser.FLAG_FLIP_VERTICALLY;
+		}
+		if (flipD) {
+			result |= TiledParser.FLAG_FLIP_DIAGONALLY;
+		}
+		return result;
 	}
 }
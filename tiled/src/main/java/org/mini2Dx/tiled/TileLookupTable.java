@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.util.List;
+
+/**
+ * Maps global tile ids to {@link Tile}s in constant time. Tiles are stored in
+ * fixed-size pages so that maps whose tilesets start at very large ids only
+ * allocate pages for the id ranges actually in use.
+ */
+class TileLookupTable {
+	private static final int PAGE_SHIFT = 10;
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	private Tile[][] pages = new Tile[0][];
+
+	/**
+	 * Rebuilds the table from a list of {@link Tileset}s. Where tilesets
+	 * overlap, the tileset earliest in the list takes precedence.
+	 * 
+	 * @param tilesets
+	 *            The {@link Tileset}s to map tile ids for
+	 */
+	void rebuild(List<Tileset> tilesets) {
+		int maxTileId = 0;
+		for (int i = 0; i < tilesets.size(); i++) {
+			Tileset tileset = tilesets.get(i);
+			int lastTileId = tileset.getFirstGid() + (tileset.getWidthInTiles() * tileset.getHeightInTiles()) - 1;
+			maxTileId = Math.max(maxTileId, lastTileId);
+		}
+		pages = new Tile[(maxTileId >>> PAGE_SHIFT) + 1][];
+
+		for (int i = tilesets.size() - 1; i >= 0; i--) {
+			Tileset tileset = tilesets.get(i);
+			for (int x = 0; x < tileset.getWidthInTiles(); x++) {
+				for (int y = 0; y < tileset.getHeightInTiles(); y++) {
+					int tileId = tileset.getTileId(x, y);
+					if (tileId < 1) {
+						continue;
+					}
+					Tile[] page = pages[tileId >>> PAGE_SHIFT];
+					if (page == null) {
+						page = new Tile[PAGE_SIZE];
+						pages[tileId >>> PAGE_SHIFT] = page;
+					}
+					page[tileId & PAGE_MASK] = tileset.getTile(x, y);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the {@link Tile} for a global tile id
+	 * 
+	 * @param tileId
+	 *            The tile id to look up
+	 * @return Null if no tileset contains the tile id
+	 */
+	Tile get(int tileId) {
+		int pageIndex = tileId >>> PAGE_SHIFT;
+		if (pageIndex >= pages.length) {
+			return null;
+		}
+		Tile[] page = pages[pageIndex];
+		if (page == null) {
+			return null;
+		}
+		return page[tileId & PAGE_MASK];
+	}
+}
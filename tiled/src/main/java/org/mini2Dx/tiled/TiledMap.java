@@ -53,6 +53,9 @@ public class TiledMap implements TiledParserListener {
 	private Map<String, String> properties;
 	private FileHandle fileHandle;
 
+	private final TileLookupTable tileLookupTable = new TileLookupTable();
+	private int tileLookupTotalTilesets = -1;
+
 	private TileLayerRenderer tileLayerRenderer;
 	private TiledObjectGroupRenderer tiledObjectGroupRenderer;
 
@@ -167,10 +170,17 @@ public class TiledMap implements TiledParserListener {
 	}
 	
 	/**
-	 * Updates map elements such as animated tiles
+	 * Updates map elements such as animated tiles and notifies
+	 * {@link TileLayerListener}s of tiles changed since the previous update
 	 * @param delta The time since the last frame (in seconds)
 	 */
 	public void update(float delta) {
+		for (int i = 0; i < layers.size(); i++) {
+			Layer layer = layers.get(i);
+			if (layer.getLayerType().equals(LayerType.TILE)) {
+				((TileLayer) layer).flushChanges();
+			}
+		}
 		if(animatedTiles == null) {
 			return;
 		}
@@ -462,6 +472,7 @@ public class TiledMap implements TiledParserListener {
 	@Override
 	public void onTilesetParsed(Tileset parsedTileset) {
 		tilesets.add(parsedTileset);
+		tileLookupTotalTilesets = -1;
 	}
 
 	@Override
@@ -580,12 +591,21 @@ public class TiledMap implements TiledParserListener {
 	 * @return Null if there is no {@link Tile} with the given ID
 	 */
 	public Tile getTile(int tileId) {
-		for (int i = 0; i < tilesets.size(); i++) {
-			if (tilesets.get(i).contains(tileId)) {
-				return tilesets.get(i).getTile(tileId);
-			}
+		if (tileLookupTotalTilesets != tilesets.size()) {
+			updateTileLookup();
 		}
-		return null;
+		return tileLookupTable.get(tileId);
+	}
+
+	/**
+	 * Rebuilds the table used to look up {@link Tile}s by tile ID. This is
+	 * called automatically when {@link Tileset}s are added or removed and
+	 * only needs to be called manually if a {@link Tileset} is replaced via
+	 * {@link #getTilesets()}.
+	 */
+	public void updateTileLookup() {
+		tileLookupTable.rebuild(tilesets);
+		tileLookupTotalTilesets = tilesets.size();
 	}
 
 	/**
@@ -47,6 +47,8 @@ public class TiledParser implements TiledParserNotifier {
 
 	private XmlReader xmlReader;
 	private List<TiledParserListener> listeners;
+	private boolean compactTileLayers = false;
+	private int maxTileId = 0;
 
 	/**
 	 * Constructor
@@ -146,7 +148,7 @@ public class TiledParser implements TiledParserNotifier {
 		return result;
 	}
 
-	private void loadMapProperties(Element element) {
+	protected void loadMapProperties(Element element) {
 		if (element.getName().equals("properties")) {
 			for (Element property : element.getChildrenByName("property")) {
 				String name = property.getAttribute("name", null);
@@ -159,7 +161,7 @@ public class TiledParser implements TiledParserNotifier {
 		}
 	}
 
-	private void loadTileSet(Element element, FileHandle tmxFile) {
+	protected void loadTileSet(Element element, FileHandle tmxFile) {
 		if (element.getName().equals("tileset")) {
 			Tileset tileset = null;
 			String source = element.getAttribute("source", null);
@@ -205,31 +207,48 @@ public class TiledParser implements TiledParserNotifier {
 				}
 			} else {
 				// TSX tileset
-				TsxTilesetSource tilesetSource = new TsxTilesetSource(tmxFile.parent(), source);
-				tileset = new Tileset(firstGid, tilesetSource);
-				
-				for(int x = 0; x < tilesetSource.getWidthInTiles(); x++) {
-					for(int y = 0; y < tilesetSource.getHeightInTiles(); y++) {
-						Tile tile = tilesetSource.getTileByPosition(x, y);
-						if (tile == null) {
-							continue;
-						}
-						if (tile.getTileRenderer() == null) {
-							continue;
-						}
-						if (tile.getTileRenderer() instanceof AnimatedTileRenderer) {
-							notifyTilePropertyParsed(tile);
-						} else if(tile.getProperties() != null) {
-							notifyTilePropertyParsed(tile);
-						}
-					}
-				}
+				tileset = loadTsxTileSet(firstGid, source, tmxFile);
 			}
 
 			notifyTilesetParsed(tileset);
 		}
 	}
 
+	/**
+	 * Loads a {@link Tileset} stored in an external TSX file and notifies
+	 * listeners of its animated tiles and tiles with properties
+	 * 
+	 * @param firstGid
+	 *            The first tile id of the tileset within the map
+	 * @param source
+	 *            The path to the TSX file relative to the map
+	 * @param tmxFile
+	 *            The map file
+	 * @return The resulting {@link Tileset}
+	 */
+	protected Tileset loadTsxTileSet(int firstGid, String source, FileHandle tmxFile) {
+		TsxTilesetSource tilesetSource = new TsxTilesetSource(tmxFile.parent(), source);
+		Tileset tileset = new Tileset(firstGid, tilesetSource);
+		
+		for(int x = 0; x < tilesetSource.getWidthInTiles(); x++) {
+			for(int y = 0; y < tilesetSource.getHeightInTiles(); y++) {
+				Tile tile = tilesetSource.getTileByPosition(x, y);
+				if (tile == null) {
+					continue;
+				}
+				if (tile.getTileRenderer() == null) {
+					continue;
+				}
+				if (tile.getTileRenderer() instanceof AnimatedTileRenderer) {
+					notifyTilePropertyParsed(tile);
+				} else if(tile.getProperties() != null) {
+					notifyTilePropertyParsed(tile);
+				}
+			}
+		}
+		return tileset;
+	}
+
 	private void loadTileProperties(TilesetSource tilesetSource, Array<Element> tileElements) {
 		for (Element tileElement : tileElements) {
 			int localtid = tileElement.getIntAttribute("id", 0);
@@ -275,7 +294,17 @@ public class TiledParser implements TiledParserNotifier {
 				notifyTilePropertyParsed(tile);
 			}
 		}
-		
+		loadStaticTileRenderers(tilesetSource);
+	}
+
+	/**
+	 * Assigns a {@link StaticTileRenderer} to each tile of a
+	 * {@link TilesetSource} that is not animated
+	 * 
+	 * @param tilesetSource
+	 *            The {@link TilesetSource} to assign renderers for
+	 */
+	protected void loadStaticTileRenderers(TilesetSource tilesetSource) {
 		for(int x = 0; x < tilesetSource.getWidthInTiles(); x++) {
 			for(int y = 0; y < tilesetSource.getHeightInTiles(); y++) {
 				Tile tile = tilesetSource.getTileByPosition(x, y);
@@ -296,7 +325,7 @@ public class TiledParser implements TiledParserNotifier {
 			int width = element.getIntAttribute("width", 0);
 			int height = element.getIntAttribute("height", 0);
 			boolean visible = element.getIntAttribute("visible", 1) == 1;
-			TileLayer layer = new TileLayer(width, height);
+			TileLayer layer = createTileLayer(width, height);
 			layer.setVisible(visible);
 			layer.setName(name);
 
@@ -406,6 +435,45 @@ public class TiledParser implements TiledParserNotifier {
 		}
 	}
 
+	/**
+	 * Creates the {@link TileLayer} instance to store a parsed layer's tiles
+	 * in. If compact tile layers are enabled and all tile ids parsed so far
+	 * fit in 16 bits, a {@link CompactTileLayer} is returned.
+	 * 
+	 * @param width
+	 *            The width of the layer in tiles
+	 * @param height
+	 *            The height of the layer in tiles
+	 * @return A new {@link TileLayer} instance
+	 */
+	protected TileLayer createTileLayer(int width, int height) {
+		if (compactTileLayers && maxTileId <= CompactTileLayer.MAX_TILE_ID) {
+			return new CompactTileLayer(width, height);
+		}
+		return new TileLayer(width, height);
+	}
+
+	/**
+	 * Returns if {@link CompactTileLayer}s are used for maps with tile ids
+	 * that fit in 16 bits
+	 * 
+	 * @return False by default
+	 */
+	public boolean isCompactTileLayers() {
+		return compactTileLayers;
+	}
+
+	/**
+	 * Sets if {@link CompactTileLayer}s should be used for maps with tile ids
+	 * that fit in 16 bits
+	 * 
+	 * @param compactTileLayers
+	 *            True if compact layers should be used
+	 */
+	public void setCompactTileLayers(boolean compactTileLayers) {
+		this.compactTileLayers = compactTileLayers;
+	}
+
 	protected void loadObjectGroup(Element element) {
 		if (element.getName().equals("objectgroup")) {
 			String name = element.getAttribute("name", null);
@@ -512,6 +580,7 @@ public class TiledParser implements TiledParserNotifier {
 	@Override
 	public void notifyBeginParsing(String orientation, String staggerAxis, String staggerIndex, Color backgroundColor,
 			int width, int height, int tileWidth, int tileHeight, int sideLength) {
+		maxTileId = 0;
 		for (TiledParserListener tiledParserListener : listeners) {
 			tiledParserListener.onBeginParsing(orientation, staggerAxis, staggerIndex, backgroundColor, width, height,
 					tileWidth, tileHeight, sideLength);
@@ -534,6 +603,8 @@ public class TiledParser implements TiledParserNotifier {
 
 	@Override
 	public void notifyTilesetParsed(Tileset parsedTileset) {
+		maxTileId = Math.max(maxTileId,
+				parsedTileset.getFirstGid() + (parsedTileset.getWidthInTiles() * parsedTileset.getHeightInTiles()) - 1);
 		for (TiledParserListener tiledParserListener : listeners) {
 			tiledParserListener.onTilesetParsed(parsedTileset);
 		}
@@ -553,7 +624,7 @@ public class TiledParser implements TiledParserNotifier {
 		}
 	}
 
-	private Color convertHexColorToColor(String hexColor) {
+	protected Color convertHexColorToColor(String hexColor) {
 		return new Color((Integer.valueOf(hexColor.substring(1, 3), 16) / 255f),
 				(Integer.valueOf(hexColor.substring(3, 5), 16) / 255f),
 				(Integer.valueOf(hexColor.substring(5, 7), 16) / 255f), 0f);
@@ -272,4 +272,13 @@ public class Tileset implements Disposable {
 	public int getFirstGid() {
 		return firstGid;
 	}
+
+	/**
+	 * Returns the source of this tileset's tiles and image
+	 * 
+	 * @return The {@link TilesetSource} instance
+	 */
+	public TilesetSource getTilesetSource() {
+		return tilesetSource;
+	}
 }
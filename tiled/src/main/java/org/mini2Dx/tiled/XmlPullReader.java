@@ -0,0 +1,406 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * A minimal pull parser for reading large XML documents without building the
+ * entire document in memory. Text content can be read one character at a
+ * time so that large layer data never needs to be held as a single
+ * {@link String}.
+ */
+class XmlPullReader {
+	static final int START_ELEMENT = 0;
+	static final int END_ELEMENT = 1;
+	static final int TEXT = 2;
+	static final int END_DOCUMENT = 3;
+
+	private static final String CDATA_START = "[CDATA[";
+
+	private final Reader reader;
+	private final char[] buffer = new char[8192];
+	private final StringBuilder builder = new StringBuilder();
+	private final List<String> attributeNames = new ArrayList<String>();
+	private final List<String> attributeValues = new ArrayList<String>();
+
+	private int position, limit;
+	private String name;
+	private boolean pendingEndElement;
+	private boolean inText, inCData;
+
+	XmlPullReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Advances to the next event, skipping any unread text of the current
+	 * event
+	 * 
+	 * @return {@link #START_ELEMENT}, {@link #END_ELEMENT}, {@link #TEXT} or
+	 *         {@link #END_DOCUMENT}
+	 * @throws IOException
+	 *             Thrown if the document could not be read
+	 */
+	int next() throws IOException {
+		if (pendingEndElement) {
+			pendingEndElement = false;
+			return END_ELEMENT;
+		}
+		while (inText) {
+			readTextChar();
+		}
+		while (true) {
+			skipWhitespace();
+			int c = peek(0);
+			if (c == -1) {
+				return END_DOCUMENT;
+			}
+			if (c != '<') {
+				inText = true;
+				return TEXT;
+			}
+			position++;
+			switch (peek(0)) {
+			case '/':
+				position++;
+				name = readName();
+				skipUntil(">");
+				return END_ELEMENT;
+			case '?':
+				skipUntil("?>");
+				break;
+			case '!':
+				position++;
+				if (startsWith("--")) {
+					skipUntil("-->");
+				} else if (startsWith(CDATA_START)) {
+					position += CDATA_START.length();
+					inText = true;
+					inCData = true;
+					return TEXT;
+				} else {
+					skipDeclaration();
+				}
+				break;
+			default:
+				readStartElement();
+				return START_ELEMENT;
+			}
+		}
+	}
+
+	/**
+	 * Reads the next character of the current {@link #TEXT} event with
+	 * entities decoded
+	 * 
+	 * @return -1 if the end of the text has been reached
+	 * @throws IOException
+	 *             Thrown if the document could not be read
+	 */
+	int readTextChar() throws IOException {
+		if (!inText) {
+			return -1;
+		}
+		if (inCData) {
+			if (startsWith("]]>")) {
+				position += 3;
+				inText = false;
+				inCData = false;
+				return -1;
+			}
+			int c = read();
+			if (c == -1) {
+				throw new GdxRuntimeException("Unexpected end of document in CDATA section");
+			}
+			return c;
+		}
+		int c = peek(0);
+		if (c == -1 || c == '<') {
+			inText = false;
+			return -1;
+		}
+		position++;
+		if (c == '&') {
+			return readEntity();
+		}
+		return c;
+	}
+
+	/**
+	 * Reads the remainder of the current {@link #TEXT} event
+	 * 
+	 * @return The text with leading and trailing whitespace removed
+	 * @throws IOException
+	 *             Thrown if the document could not be read
+	 */
+	String getText() throws IOException {
+		builder.setLength(0);
+		int c;
+		while ((c = readTextChar()) != -1) {
+			builder.append((char) c);
+		}
+		return builder.toString().trim();
+	}
+
+	/**
+	 * Returns the name of the current element
+	 * 
+	 * @return The element name
+	 */
+	String getName() {
+		return name;
+	}
+
+	int getAttributeCount() {
+		return attributeNames.size();
+	}
+
+	String getAttributeName(int index) {
+		return attributeNames.get(index);
+	}
+
+	String getAttributeValue(int index) {
+		return attributeValues.get(index);
+	}
+
+	/**
+	 * Returns the value of an attribute of the current element
+	 * 
+	 * @param name
+	 *            The attribute name
+	 * @param defaultValue
+	 *            The value to return if the attribute does not exist
+	 * @return The attribute value
+	 */
+	String getAttribute(String name, String defaultValue) {
+		int index = attributeNames.indexOf(name);
+		if (index < 0) {
+			return defaultValue;
+		}
+		return attributeValues.get(index);
+	}
+
+	int getIntAttribute(String name, int defaultValue) {
+		String value = getAttribute(name, null);
+		if (value == null) {
+			return defaultValue;
+		}
+		return Integer.parseInt(value);
+	}
+
+	/**
+	 * Skips the remaining content of the current element including its end
+	 * tag
+	 * 
+	 * @throws IOException
+	 *             Thrown if the document could not be read
+	 */
+	void skipElement() throws IOException {
+		int depth = 1;
+		while (depth > 0) {
+			switch (next()) {
+			case START_ELEMENT:
+				depth++;
+				break;
+			case END_ELEMENT:
+				depth--;
+				break;
+			case END_DOCUMENT:
+				throw new GdxRuntimeException("Unexpected end of document inside <" + name + ">");
+			}
+		}
+	}
+
+	private void readStartElement() throws IOException {
+		name = readName();
+		attributeNames.clear();
+		attributeValues.clear();
+		while (true) {
+			skipWhitespace();
+			int c = read();
+			switch (c) {
+			case -1:
+				throw new GdxRuntimeException("Unexpected end of document inside <" + name + ">");
+			case '>':
+				return;
+			case '/':
+				skipUntil(">");
+				pendingEndElement = true;
+				return;
+			default:
+				position--;
+				String attributeName = readName();
+				skipWhitespace();
+				if (read() != '=') {
+					throw new GdxRuntimeException("Expected '=' after attribute " + attributeName + " of <" + name + ">");
+				}
+				skipWhitespace();
+				attributeNames.add(attributeName);
+				attributeValues.add(readAttributeValue());
+				break;
+			}
+		}
+	}
+
+	private String readName() throws IOException {
+		builder.setLength(0);
+		while (true) {
+			int c = peek(0);
+			if (c == -1 || c == '>' || c == '/' || c == '=' || Character.isWhitespace(c)) {
+				break;
+			}
+			builder.append((char) c);
+			position++;
+		}
+		return builder.toString();
+	}
+
+	private String readAttributeValue() throws IOException {
+		int quote = read();
+		if (quote != '"' && quote != '\'') {
+			throw new GdxRuntimeException("Expected quoted attribute value in <" + name + ">");
+		}
+		builder.setLength(0);
+		while (true) {
+			int c = read();
+			if (c == -1) {
+				throw new GdxRuntimeException("Unexpected end of document inside <" + name + ">");
+			}
+			if (c == quote) {
+				return builder.toString();
+			}
+			if (c == '&') {
+				c = readEntity();
+			}
+			builder.append((char) c);
+		}
+	}
+
+	private int readEntity() throws IOException {
+		int start = builder.length();
+		while (true) {
+			int c = read();
+			if (c == -1) {
+				throw new GdxRuntimeException("Unexpected end of document inside entity");
+			}
+			if (c == ';') {
+				break;
+			}
+			builder.append((char) c);
+		}
+		String entity = builder.substring(start);
+		builder.setLength(start);
+		if (entity.equals("amp")) {
+			return '&';
+		} else if (entity.equals("lt")) {
+			return '<';
+		} else if (entity.equals("gt")) {
+			return '>';
+		} else if (entity.equals("quot")) {
+			return '"';
+		} else if (entity.equals("apos")) {
+			return '\'';
+		} else if (entity.startsWith("#x")) {
+			return Integer.parseInt(entity.substring(2), 16);
+		} else if (entity.startsWith("#")) {
+			return Integer.parseInt(entity.substring(1));
+		}
+		throw new GdxRuntimeException("Unsupported XML entity &" + entity + ";");
+	}
+
+	private void skipDeclaration() throws IOException {
+		int depth = 0;
+		while (true) {
+			int c = read();
+			switch (c) {
+			case -1:
+				return;
+			case '[':
+				depth++;
+				break;
+			case ']':
+				depth--;
+				break;
+			case '>':
+				if (depth <= 0) {
+					return;
+				}
+				break;
+			}
+		}
+	}
+
+	private void skipWhitespace() throws IOException {
+		while (true) {
+			int c = peek(0);
+			if (c == -1 || !Character.isWhitespace(c)) {
+				return;
+			}
+			position++;
+		}
+	}
+
+	private void skipUntil(String terminator) throws IOException {
+		while (!startsWith(terminator)) {
+			if (read() == -1) {
+				throw new GdxRuntimeException("Unexpected end of document, expected " + terminator);
+			}
+		}
+		position += terminator.length();
+	}
+
+	private boolean startsWith(String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			if (peek(i) != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int read() throws IOException {
+		int c = peek(0);
+		if (c != -1) {
+			position++;
+		}
+		return c;
+	}
+
+	private int peek(int offset) throws IOException {
+		if (position + offset >= limit && !fill(offset + 1)) {
+			return -1;
+		}
+		return buffer[position + offset];
+	}
+
+	private boolean fill(int required) throws IOException {
+		if (position > 0) {
+			System.arraycopy(buffer, position, buffer, 0, limit - position);
+			limit -= position;
+			position = 0;
+		}
+		while (limit < required) {
+			int read = reader.read(buffer, limit, buffer.length - limit);
+			if (read == -1) {
+				return false;
+			}
+			limit += read;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mini2Dx.core.collisions.QuadTree;
+import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TileLayerListener;
+import org.mini2Dx.tiled.TiledMap;
+
+/**
+ * Keeps merged collisions of a {@link TiledMap} layer up to date as tiles
+ * change. The layer is divided into square sectors and collisions are merged
+ * within each sector, so when tiles change only the sectors containing them
+ * are re-merged rather than the entire layer.
+ * 
+ * Changes are applied when the {@link TileLayer}'s changes are flushed by
+ * {@link TiledMap#update(float)}.
+ */
+public class DynamicTiledCollisionMapper<T extends Positionable> implements TileLayerListener {
+	/**
+	 * The default width and height of sectors in tiles
+	 */
+	public static final int DEFAULT_SECTOR_SIZE = 32;
+
+	private final TiledCollisionMapper<T> collisionMapper;
+	private final TiledMap tiledMap;
+	private final int layerIndex;
+	private final int sectorSize;
+	private final int sectorsWide, sectorsHigh;
+	private final List<List<T>> sectors;
+	private final QuadTree<T> quadTree;
+
+	/**
+	 * Constructs an instance with sectors of {@link #DEFAULT_SECTOR_SIZE}
+	 * 
+	 * @param collisionMapper
+	 *            The {@link TiledCollisionMapper} to merge collisions with
+	 * @param tiledMap
+	 *            The {@link TiledMap} to extract collisions from
+	 * @param layerIndex
+	 *            The index of the layer to extract collisions from. Each tile
+	 *            drawn in the layer is treated as a collision.
+	 * @param quadTree
+	 *            The {@link QuadTree} to keep up to date with the collisions.
+	 *            May be null.
+	 */
+	public DynamicTiledCollisionMapper(TiledCollisionMapper<T> collisionMapper, TiledMap tiledMap, int layerIndex,
+			QuadTree<T> quadTree) {
+		this(collisionMapper, tiledMap, layerIndex, DEFAULT_SECTOR_SIZE, quadTree);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param collisionMapper
+	 *            The {@link TiledCollisionMapper} to merge collisions with
+	 * @param tiledMap
+	 *            The {@link TiledMap} to extract collisions from
+	 * @param layerIndex
+	 *            The index of the layer to extract collisions from. Each tile
+	 *            drawn in the layer is treated as a collision.
+	 * @param sectorSize
+	 *            The width and height of sectors in tiles. Collisions are
+	 *            never merged across sectors.
+	 * @param quadTree
+	 *            The {@link QuadTree} to keep up to date with the collisions.
+	 *            May be null.
+	 */
+	public DynamicTiledCollisionMapper(TiledCollisionMapper<T> collisionMapper, TiledMap tiledMap, int layerIndex,
+			int sectorSize, QuadTree<T> quadTree) {
+		if (sectorSize < 1) {
+			throw new IllegalArgumentException("sectorSize must be greater than 0");
+		}
+		this.collisionMapper = collisionMapper;
+		this.tiledMap = tiledMap;
+		this.layerIndex = layerIndex;
+		this.sectorSize = sectorSize;
+		this.quadTree = quadTree;
+
+		TileLayer layer = tiledMap.getTileLayer(layerIndex);
+		sectorsWide = (layer.getWidth() + sectorSize - 1) / sectorSize;
+		sectorsHigh = (layer.getHeight() + sectorSize - 1) / sectorSize;
+		sectors = new ArrayList<List<T>>(sectorsWide * sectorsHigh);
+
+		List<T> allCollisions = new ArrayList<T>();
+		for (int sectorY = 0; sectorY < sectorsHigh; sectorY++) {
+			for (int sectorX = 0; sectorX < sectorsWide; sectorX++) {
+				List<T> collisions = new ArrayList<T>();
+				mapSector(collisions, sectorX, sectorY);
+				sectors.add(collisions);
+				allCollisions.addAll(collisions);
+			}
+		}
+		if (quadTree != null) {
+			// Adding all at once allows the tree to be built in a single pass
+			quadTree.addAll(allCollisions);
+		}
+		layer.addListener(this);
+	}
+
+	@Override
+	public void onTilesChanged(TileLayer layer, int x, int y, int width, int height) {
+		int startSectorX = Math.max(0, x / sectorSize);
+		int startSectorY = Math.max(0, y / sectorSize);
+		int endSectorX = Math.min(sectorsWide - 1, (x + width - 1) / sectorSize);
+		int endSectorY = Math.min(sectorsHigh - 1, (y + height - 1) / sectorSize);
+
+		for (int sectorY = startSectorY; sectorY <= endSectorY; sectorY++) {
+			for (int sectorX = startSectorX; sectorX <= endSectorX; sectorX++) {
+				remapSector(sectorX, sectorY);
+			}
+		}
+	}
+
+	/**
+	 * Re-merges the collisions of a sector
+	 * 
+	 * @param sectorX
+	 *            The x coordinate of the sector in sectors
+	 * @param sectorY
+	 *            The y coordinate of the sector in sectors
+	 */
+	public void remapSector(int sectorX, int sectorY) {
+		List<T> collisions = sectors.get((sectorY * sectorsWide) + sectorX);
+		if (quadTree != null && !collisions.isEmpty()) {
+			quadTree.removeAll(collisions);
+		}
+		collisions.clear();
+		mapSector(collisions, sectorX, sectorY);
+		if (quadTree != null) {
+			quadTree.addAll(collisions);
+		}
+	}
+
+	/**
+	 * Stops listening for changes to the layer
+	 */
+	public void dispose() {
+		tiledMap.getTileLayer(layerIndex).removeListener(this);
+	}
+
+	/**
+	 * Adds all current collisions to a {@link List}
+	 * 
+	 * @param result
+	 *            The {@link List} to add collisions to
+	 */
+	public void getCollisions(List<T> result) {
+		for (int i = 0; i < sectors.size(); i++) {
+			result.addAll(sectors.get(i));
+		}
+	}
+
+	/**
+	 * Returns the current collisions of a sector
+	 * 
+	 * @param sectorX
+	 *            The x coordinate of the sector in sectors
+	 * @param sectorY
+	 *            The y coordinate of the sector in sectors
+	 * @return The {@link List} of collisions within the sector
+	 */
+	public List<T> getCollisions(int sectorX, int sectorY) {
+		return sectors.get((sectorY * sectorsWide) + sectorX);
+	}
+
+	/**
+	 * Returns the width and height of each sector
+	 * 
+	 * @return The sector size in tiles
+	 */
+	public int getSectorSize() {
+		return sectorSize;
+	}
+
+	/**
+	 * Returns the width of the layer in sectors
+	 * 
+	 * @return The amount of sectors along the x axis
+	 */
+	public int getSectorsWide() {
+		return sectorsWide;
+	}
+
+	/**
+	 * Returns the height of the layer in sectors
+	 * 
+	 * @return The amount of sectors along the y axis
+	 */
+	public int getSectorsHigh() {
+		return sectorsHigh;
+	}
+
+	private void mapSector(List<T> result, int sectorX, int sectorY) {
+		collisionMapper.mapAndMergeCollisionsByRegion(result, tiledMap, layerIndex, sectorX * sectorSize,
+				sectorY * sectorSize, sectorSize, sectorSize);
+	}
+}
@@ -11,11 +11,15 @@
  */
 package org.mini2Dx.tiled.collisions;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.mini2Dx.core.collisions.QuadTree;
 import org.mini2Dx.core.engine.Positionable;
 import org.mini2Dx.core.exception.MdxException;
+import org.mini2Dx.tiled.ChunkedTileLayer;
 import org.mini2Dx.tiled.Tile;
 import org.mini2Dx.tiled.TileLayer;
 import org.mini2Dx.tiled.TiledMap;
@@ -23,13 +27,23 @@ import org.mini2Dx.tiled.TiledObject;
 import org.mini2Dx.tiled.TiledObjectGroup;
 import org.mini2Dx.tiled.collisions.merger.TileIdCollisionMerger;
 
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+
 /**
  * Utility class for converting {@link TiledMap} data into collision data.
  */
 public class TiledCollisionMapper<T extends Positionable> {
+	/**
+	 * The default height in tiles of bands merged in parallel
+	 */
+	public static final int DEFAULT_BAND_HEIGHT = 64;
+
 	private final TiledCollisionFactory<T> collisionFactory;
 	private final TiledCollisionMerger collisionMerger;
 
+	private TiledCollisionMergeStrategy mergeStrategy = TiledCollisionMergeStrategy.GREEDY;
+
 	/**
 	 * Creates a {@link TiledCollisionMapper} with a
 	 * {@link TileIdCollisionMerger} instance for merge operations
@@ -58,6 +72,28 @@ public class TiledCollisionMapper<T extends Positionable> {
 		this.collisionMerger = collisionMerger;
 	}
 
+	/**
+	 * Returns the algorithm used to merge collisions
+	 * 
+	 * @return {@link TiledCollisionMergeStrategy#GREEDY} by default
+	 */
+	public TiledCollisionMergeStrategy getMergeStrategy() {
+		return mergeStrategy;
+	}
+
+	/**
+	 * Sets the algorithm used to merge collisions
+	 * 
+	 * @param mergeStrategy
+	 *            The {@link TiledCollisionMergeStrategy} to use
+	 */
+	public void setMergeStrategy(TiledCollisionMergeStrategy mergeStrategy) {
+		if (mergeStrategy == null) {
+			throw new MdxException("mergeStrategy cannot be null");
+		}
+		this.mergeStrategy = mergeStrategy;
+	}
+
 	/**
 	 * Creates a 2D byte array representing the collisions in a {@link TiledMap}
 	 * layer
@@ -92,9 +128,11 @@ public class TiledCollisionMapper<T extends Positionable> {
 
 	private static byte[][] mapCollisionsByLayer(TiledMap tiledMap, TileLayer layer) {
 		byte[][] result = new byte[layer.getWidth()][layer.getHeight()];
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (layer.getTileId(x, y) > 0) {
+		int[] row = new int[layer.getWidth()];
+		for (int y = 0; y < layer.getHeight(); y++) {
+			layer.getRawTileIds(0, y, row.length, row, 0);
+			for (int x = 0; x < row.length; x++) {
+				if (TileLayer.decodeTileId(row[x]) > 0) {
 					result[x][y] = 1;
 				}
 			}
@@ -136,9 +174,11 @@ public class TiledCollisionMapper<T extends Positionable> {
 
 	private static byte[][] mapEmptySpacesByLayer(TiledMap tiledMap, TileLayer layer) {
 		byte[][] result = new byte[layer.getWidth()][layer.getHeight()];
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (layer.getTileId(x, y) == 0) {
+		int[] row = new int[layer.getWidth()];
+		for (int y = 0; y < layer.getHeight(); y++) {
+			layer.getRawTileIds(0, y, row.length, row, 0);
+			for (int x = 0; x < row.length; x++) {
+				if (TileLayer.decodeTileId(row[x]) == 0) {
 					result[x][y] = 1;
 				}
 			}
@@ -163,10 +203,13 @@ public class TiledCollisionMapper<T extends Positionable> {
 			return;
 		}
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (layer.getTileId(x, y) > 0) {
-					quadTree.add(collisionFactory.createCollision(tiledMap.getTile(layer.getTileId(x, y)),
+		int[] row = new int[layer.getWidth()];
+		for (int y = 0; y < layer.getHeight(); y++) {
+			layer.getRawTileIds(0, y, row.length, row, 0);
+			for (int x = 0; x < row.length; x++) {
+				int tileId = TileLayer.decodeTileId(row[x]);
+				if (tileId > 0) {
+					quadTree.add(collisionFactory.createCollision(tiledMap.getTile(tileId),
 							x * tiledMap.getTileWidth(), y * tiledMap.getTileHeight(), tiledMap.getTileWidth(),
 							tiledMap.getTileHeight()));
 				}
@@ -191,10 +234,13 @@ public class TiledCollisionMapper<T extends Positionable> {
 			return;
 		}
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (layer.getTileId(x, y) == 0) {
-					quadTree.add(collisionFactory.createCollision(tiledMap.getTile(layer.getTileId(x, y)),
+		int[] row = new int[layer.getWidth()];
+		for (int y = 0; y < layer.getHeight(); y++) {
+			layer.getRawTileIds(0, y, row.length, row, 0);
+			for (int x = 0; x < row.length; x++) {
+				int tileId = TileLayer.decodeTileId(row[x]);
+				if (tileId == 0) {
+					quadTree.add(collisionFactory.createCollision(tiledMap.getTile(tileId),
 							x * tiledMap.getTileWidth(), y * tiledMap.getTileHeight(), tiledMap.getTileWidth(),
 							tiledMap.getTileHeight()));
 				}
@@ -219,10 +265,13 @@ public class TiledCollisionMapper<T extends Positionable> {
 			return;
 		}
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (layer.getTileId(x, y) > 0) {
-					results.add(collisionFactory.createCollision(tiledMap.getTile(layer.getTileId(x, y)),
+		int[] row = new int[layer.getWidth()];
+		for (int y = 0; y < layer.getHeight(); y++) {
+			layer.getRawTileIds(0, y, row.length, row, 0);
+			for (int x = 0; x < row.length; x++) {
+				int tileId = TileLayer.decodeTileId(row[x]);
+				if (tileId > 0) {
+					results.add(collisionFactory.createCollision(tiledMap.getTile(tileId),
 							x * tiledMap.getTileWidth(), y * tiledMap.getTileHeight(), tiledMap.getTileWidth(),
 							tiledMap.getTileHeight()));
 				}
@@ -247,10 +296,13 @@ public class TiledCollisionMapper<T extends Positionable> {
 			return;
 		}
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (layer.getTileId(x, y) == 0) {
-					results.add(collisionFactory.createCollision(tiledMap.getTile(layer.getTileId(x, y)),
+		int[] row = new int[layer.getWidth()];
+		for (int y = 0; y < layer.getHeight(); y++) {
+			layer.getRawTileIds(0, y, row.length, row, 0);
+			for (int x = 0; x < row.length; x++) {
+				int tileId = TileLayer.decodeTileId(row[x]);
+				if (tileId == 0) {
+					results.add(collisionFactory.createCollision(tiledMap.getTile(tileId),
 							x * tiledMap.getTileWidth(), y * tiledMap.getTileHeight(), tiledMap.getTileWidth(),
 							tiledMap.getTileHeight()));
 				}
@@ -489,27 +541,13 @@ public class TiledCollisionMapper<T extends Positionable> {
 	 */
 	public void mapAndMergeCollisionsByLayer(QuadTree<T> quadTree, TiledMap tiledMap, final int layerIndex,
 			final int maxColumns, final int maxRows) {
-		if (layerIndex < 0) {
+		List<T> results = new ArrayList<T>();
+		mapAndMergeCollisionsByLayer(results, tiledMap, layerIndex, maxColumns, maxRows);
+		if (results.isEmpty()) {
 			return;
 		}
-		if (maxColumns < 0) {
-			throw new MdxException("maxColumns cannot be less than 1");
-		}
-		if (maxRows < 0) {
-			throw new MdxException("maxRows cannot be less than 1");
-		}
-
-		TileLayer layer = tiledMap.getTileLayer(layerIndex);
-		byte[][] collisions = mapCollisionsByLayer(tiledMap, layer);
-
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (collisions[x][y] == 0) {
-					continue;
-				}
-				quadTree.add(mergeCollisions(x, y, maxColumns, maxRows, collisions, layer, tiledMap));
-			}
-		}
+		// Adding all at once allows the tree to be built in a single pass
+		quadTree.addAll(results);
 	}
 
 	/**
@@ -568,27 +606,13 @@ public class TiledCollisionMapper<T extends Positionable> {
 	 */
 	public void mapAndMergeEmptySpacesByLayer(QuadTree<T> quadTree, TiledMap tiledMap, final int layerIndex,
 			final int maxColumns, final int maxRows) {
-		if (layerIndex < 0) {
+		List<T> results = new ArrayList<T>();
+		mapAndMergeEmptySpacesByLayer(results, tiledMap, layerIndex, maxColumns, maxRows);
+		if (results.isEmpty()) {
 			return;
 		}
-		if (maxColumns < 0) {
-			throw new MdxException("maxColumns cannot be less than 1");
-		}
-		if (maxRows < 0) {
-			throw new MdxException("maxRows cannot be less than 1");
-		}
-
-		TileLayer layer = tiledMap.getTileLayer(layerIndex);
-		byte[][] emptySpaces = mapEmptySpacesByLayer(tiledMap, layer);
-
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (emptySpaces[x][y] == 0) {
-					continue;
-				}
-				quadTree.add(mergeCollisions(x, y, maxColumns, maxRows, emptySpaces, layer, tiledMap));
-			}
-		}
+		// Adding all at once allows the tree to be built in a single pass
+		quadTree.addAll(results);
 	}
 
 	/**
@@ -658,16 +682,216 @@ public class TiledCollisionMapper<T extends Positionable> {
 		}
 
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
-		byte[][] collisions = mapCollisionsByLayer(tiledMap, layer);
+		mapAndMergeRegion(results, tiledMap, layer, 0, 0, layer.getWidth(), layer.getHeight(), maxColumns, maxRows,
+				true);
+	}
 
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (collisions[x][y] == 0) {
-					continue;
-				}
-				results.add(mergeCollisions(x, y, maxColumns, maxRows, collisions, layer, tiledMap));
+	/**
+	 * Extracts and merges collisions in a {@link TiledMap} layer in parallel
+	 * and adds them to a {@link List} instance. The layer is split into
+	 * horizontal bands of {@link #DEFAULT_BAND_HEIGHT} rows which are merged
+	 * concurrently and then joined where a collision continues across the
+	 * edge of a band. The result may contain slightly more collisions than
+	 * {@link #mapAndMergeCollisionsByLayer(List, TiledMap, int)}.
+	 * 
+	 * Collisions are created by the {@link TiledCollisionFactory} on the
+	 * calling thread but {@link TiledCollisionMerger#isMergable(Tile, Tile)}
+	 * is called concurrently.
+	 * 
+	 * @param results
+	 *            The {@link List} instance to add collisions to
+	 * @param tiledMap
+	 *            The {@link TiledMap} to extract collisions from
+	 * @param layerIndex
+	 *            The index of the layer to extract collisions from. Each tile
+	 *            drawn in the layer is treated as a collision.
+	 * @param pool
+	 *            The {@link ForkJoinPool} to merge bands on
+	 */
+	public void mapAndMergeCollisionsByLayer(List<T> results, TiledMap tiledMap, int layerIndex, ForkJoinPool pool) {
+		mapAndMergeCollisionsByLayer(results, tiledMap, layerIndex, Integer.MAX_VALUE, Integer.MAX_VALUE,
+				DEFAULT_BAND_HEIGHT, pool);
+	}
+
+	/**
+	 * Extracts and merges collisions in a {@link TiledMap} layer in parallel
+	 * and adds them to a {@link List} instance. The layer is split into
+	 * horizontal bands which are merged concurrently and then joined where a
+	 * collision continues across the edge of a band. The result may contain
+	 * slightly more collisions than
+	 * {@link #mapAndMergeCollisionsByLayer(List, TiledMap, int, int, int)}.
+	 * 
+	 * Collisions are created by the {@link TiledCollisionFactory} on the
+	 * calling thread but {@link TiledCollisionMerger#isMergable(Tile, Tile)}
+	 * is called concurrently.
+	 * 
+	 * @param results
+	 *            The {@link List} instance to add collisions to
+	 * @param tiledMap
+	 *            The {@link TiledMap} to extract collisions from
+	 * @param layerIndex
+	 *            The index of the layer to extract collisions from. Each tile
+	 *            drawn in the layer is treated as a collision.
+	 * @param maxColumns
+	 *            The maximum number of columns to merge
+	 * @param maxRows
+	 *            The maximum number of rows to merge
+	 * @param bandHeight
+	 *            The height in tiles of each band
+	 * @param pool
+	 *            The {@link ForkJoinPool} to merge bands on
+	 */
+	public void mapAndMergeCollisionsByLayer(List<T> results, TiledMap tiledMap, final int layerIndex,
+			final int maxColumns, final int maxRows, int bandHeight, ForkJoinPool pool) {
+		if (layerIndex < 0) {
+			return;
+		}
+		if (maxColumns < 0) {
+			throw new MdxException("maxColumns cannot be less than 1");
+		}
+		if (maxRows < 0) {
+			throw new MdxException("maxRows cannot be less than 1");
+		}
+		if (bandHeight < 1) {
+			throw new MdxException("bandHeight cannot be less than 1");
+		}
+
+		TileLayer layer = tiledMap.getTileLayer(layerIndex);
+		if (layer instanceof ChunkedTileLayer || layer.getHeight() <= bandHeight) {
+			// Chunked layers cannot be read concurrently
+			mapAndMergeRegion(results, tiledMap, layer, 0, 0, layer.getWidth(), layer.getHeight(), maxColumns,
+					maxRows, true);
+			return;
+		}
+		// Ensure the tile lookup is built before tiles are looked up concurrently
+		tiledMap.getTile(0);
+
+		final List<MergeBandTask> bands = new ArrayList<MergeBandTask>();
+		for (int y = 0; y < layer.getHeight(); y += bandHeight) {
+			bands.add(new MergeBandTask(tiledMap, layer, y, Math.min(bandHeight, layer.getHeight() - y),
+					maxColumns, maxRows));
+		}
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(bands);
 			}
+		});
+
+		IntArray rectangles = new IntArray();
+		IntArray openRectangles = new IntArray();
+		for (int i = 0; i < bands.size(); i++) {
+			MergeBandTask band = bands.get(i);
+			stitchBand(rectangles, openRectangles, band.rectangles, band.bandY, band.bandHeight, maxRows, tiledMap,
+					layer);
 		}
+		createCollisions(results, rectangles, tiledMap, layer);
+	}
+
+	/**
+	 * Extracts and merges collisions in a {@link TiledMap} layer in parallel
+	 * and adds them to a {@link QuadTree} instance. See
+	 * {@link #mapAndMergeCollisionsByLayer(List, TiledMap, int, ForkJoinPool)}.
+	 * 
+	 * @param quadTree
+	 *            The {@link QuadTree} instance to add collisions to
+	 * @param tiledMap
+	 *            The {@link TiledMap} to extract collisions from
+	 * @param layerIndex
+	 *            The index of the layer to extract collisions from. Each tile
+	 *            drawn in the layer is treated as a collision.
+	 * @param pool
+	 *            The {@link ForkJoinPool} to merge bands on
+	 */
+	public void mapAndMergeCollisionsByLayer(QuadTree<T> quadTree, TiledMap tiledMap, int layerIndex,
+			ForkJoinPool pool) {
+		List<T> results = new ArrayList<T>();
+		mapAndMergeCollisionsByLayer(results, tiledMap, layerIndex, pool);
+		if (results.isEmpty()) {
+			return;
+		}
+		// Adding all at once allows the tree to be built in a single pass
+		quadTree.addAll(results);
+	}
+
+	/**
+	 * Extracts and merges collisions within a region of a {@link TiledMap}
+	 * layer and adds them to a {@link List} instance. Collisions are not
+	 * merged across the edges of the region, allowing a changed area of a
+	 * layer to be re-merged without processing the entire layer.
+	 * 
+	 * @param results
+	 *            The {@link List} instance to add collisions to
+	 * @param tiledMap
+	 *            The {@link TiledMap} to extract collisions from
+	 * @param layerIndex
+	 *            The index of the layer to extract collisions from. Each tile
+	 *            drawn in the layer is treated as a collision.
+	 * @param x
+	 *            The x coordinate of the region in tiles
+	 * @param y
+	 *            The y coordinate of the region in tiles
+	 * @param width
+	 *            The width of the region in tiles
+	 * @param height
+	 *            The height of the region in tiles
+	 */
+	public void mapAndMergeCollisionsByRegion(List<T> results, TiledMap tiledMap, int layerIndex, int x, int y,
+			int width, int height) {
+		mapAndMergeCollisionsByRegion(results, tiledMap, layerIndex, x, y, width, height, Integer.MAX_VALUE,
+				Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Extracts and merges collisions within a region of a {@link TiledMap}
+	 * layer and adds them to a {@link List} instance. Collisions are not
+	 * merged across the edges of the region, allowing a changed area of a
+	 * layer to be re-merged without processing the entire layer.
+	 * 
+	 * @param results
+	 *            The {@link List} instance to add collisions to
+	 * @param tiledMap
+	 *            The {@link TiledMap} to extract collisions from
+	 * @param layerIndex
+	 *            The index of the layer to extract collisions from. Each tile
+	 *            drawn in the layer is treated as a collision.
+	 * @param x
+	 *            The x coordinate of the region in tiles
+	 * @param y
+	 *            The y coordinate of the region in tiles
+	 * @param width
+	 *            The width of the region in tiles
+	 * @param height
+	 *            The height of the region in tiles
+	 * @param maxColumns
+	 *            The maximum number of columns to merge
+	 * @param maxRows
+	 *            The maximum number of rows to merge
+	 */
+	public void mapAndMergeCollisionsByRegion(List<T> results, TiledMap tiledMap, int layerIndex, int x, int y,
+			int width, int height, final int maxColumns, final int maxRows) {
+		if (layerIndex < 0) {
+			return;
+		}
+		if (maxColumns < 0) {
+			throw new MdxException("maxColumns cannot be less than 1");
+		}
+		if (maxRows < 0) {
+			throw new MdxException("maxRows cannot be less than 1");
+		}
+
+		TileLayer layer = tiledMap.getTileLayer(layerIndex);
+		int startX = Math.max(0, x);
+		int startY = Math.max(0, y);
+		int endX = Math.min(layer.getWidth(), x + width);
+		int endY = Math.min(layer.getHeight(), y + height);
+		if (endX <= startX || endY <= startY) {
+			return;
+		}
+		mapAndMergeRegion(results, tiledMap, layer, startX, startY, endX - startX, endY - startY, maxColumns,
+				maxRows, true);
 	}
 
 	/**
@@ -737,33 +961,166 @@ public class TiledCollisionMapper<T extends Positionable> {
 		}
 
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
-		byte[][] emptySpaces = mapEmptySpacesByLayer(tiledMap, layer);
+		mapAndMergeRegion(results, tiledMap, layer, 0, 0, layer.getWidth(), layer.getHeight(), maxColumns, maxRows,
+				false);
+	}
 
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (emptySpaces[x][y] == 0) {
+	private void mapAndMergeRegion(List<T> results, TiledMap tiledMap, TileLayer layer, int regionX, int regionY,
+			int regionWidth, int regionHeight, int maxColumns, int maxRows, boolean mapCollisions) {
+		IntArray rectangles = new IntArray();
+		mergeRegion(rectangles, tiledMap, layer, regionX, regionY, regionWidth, regionHeight, maxColumns, maxRows,
+				mapCollisions);
+		createCollisions(results, rectangles, tiledMap, layer);
+	}
+
+	/**
+	 * Merges tiles within a region, storing each merged rectangle as 4
+	 * consecutive values of x, y, width and height in tiles
+	 */
+	private void mergeRegion(IntArray rectangles, TiledMap tiledMap, TileLayer layer, int regionX, int regionY,
+			int regionWidth, int regionHeight, int maxColumns, int maxRows, boolean mapCollisions) {
+		byte[][] collisions = new byte[regionWidth][regionHeight];
+		int[] row = new int[regionWidth];
+		for (int y = 0; y < regionHeight; y++) {
+			layer.getRawTileIds(regionX, regionY + y, regionWidth, row, 0);
+			for (int x = 0; x < regionWidth; x++) {
+				if ((TileLayer.decodeTileId(row[x]) > 0) == mapCollisions) {
+					collisions[x][y] = 1;
+				}
+			}
+		}
+
+		switch (mergeStrategy) {
+		case ROW_RUNS:
+			mergeRowRuns(rectangles, regionX, regionY, maxColumns, maxRows, collisions, layer, tiledMap);
+			break;
+		case GREEDY:
+		default:
+			for (int x = 0; x < regionWidth; x++) {
+				for (int y = 0; y < regionHeight; y++) {
+					if (collisions[x][y] == 0) {
+						continue;
+					}
+					mergeCollisions(rectangles, x, y, regionX, regionY, maxColumns, maxRows, collisions, layer,
+							tiledMap);
+				}
+			}
+			break;
+		}
+	}
+
+	private void mergeRowRuns(IntArray rectangles, final int regionX, final int regionY, final int maxColumns,
+			final int maxRows, byte[][] collisions, TileLayer layer, TiledMap tiledMap) {
+		final int regionWidth = collisions.length;
+		final int regionHeight = collisions[0].length;
+		// Maps the x coordinate of rectangles ending on the previous row to
+		// their index
+		IntIntMap openRectangles = new IntIntMap();
+		IntIntMap nextOpenRectangles = new IntIntMap();
+
+		for (int y = 0; y < regionHeight; y++) {
+			int x = 0;
+			while (x < regionWidth) {
+				if (collisions[x][y] == 0) {
+					x++;
+					continue;
+				}
+				// Extend the rectangle above when this row can continue it
+				int above = openRectangles.get(x, -1);
+				if (isExtendable(rectangles, above, x, y, regionX, regionY, maxRows, collisions, layer, tiledMap)) {
+					rectangles.incr(above + 3, 1);
+					nextOpenRectangles.put(x, above);
+					x += rectangles.get(above + 2);
 					continue;
 				}
-				results.add(mergeCollisions(x, y, maxColumns, maxRows, emptySpaces, layer, tiledMap));
+
+				// Otherwise start a run, stopping where a rectangle above can
+				// be extended instead
+				Tile startTile = tiledMap.getTile(layer.getTileId(regionX + x, regionY + y));
+				int runWidth = 1;
+				while (x + runWidth < regionWidth && runWidth < maxColumns && collisions[x + runWidth][y] != 0
+						&& collisionMerger.isMergable(startTile,
+								tiledMap.getTile(layer.getTileId(regionX + x + runWidth, regionY + y)))
+						&& !isExtendable(rectangles, openRectangles.get(x + runWidth, -1), x + runWidth, y, regionX,
+								regionY, maxRows, collisions, layer, tiledMap)) {
+					runWidth++;
+				}
+				nextOpenRectangles.put(x, rectangles.size);
+				addRectangle(rectangles, regionX + x, regionY + y, runWidth, 1);
+				x += runWidth;
+			}
+
+			IntIntMap previous = openRectangles;
+			openRectangles = nextOpenRectangles;
+			nextOpenRectangles = previous;
+			nextOpenRectangles.clear();
+		}
+	}
+
+	/**
+	 * Returns if a rectangle ending on the row above can be extended down by
+	 * one row, i.e. every tile below it is a collision that is mergeable with
+	 * the rectangle's first tile
+	 */
+	private boolean isExtendable(IntArray rectangles, int rectangle, int x, int y, int regionX, int regionY,
+			int maxRows, byte[][] collisions, TileLayer layer, TiledMap tiledMap) {
+		if (rectangle < 0 || rectangles.get(rectangle + 3) >= maxRows) {
+			return false;
+		}
+		int width = rectangles.get(rectangle + 2);
+		if (x + width > collisions.length) {
+			return false;
+		}
+		Tile originTile = tiledMap.getTile(layer.getTileId(rectangles.get(rectangle), rectangles.get(rectangle + 1)));
+		for (int i = 0; i < width; i++) {
+			if (collisions[x + i][y] == 0 || !collisionMerger.isMergable(originTile,
+					tiledMap.getTile(layer.getTileId(regionX + x + i, regionY + y)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void addRectangle(IntArray rectangles, int x, int y, int width, int height) {
+		rectangles.add(x);
+		rectangles.add(y);
+		rectangles.add(width);
+		rectangles.add(height);
+	}
+
+	private void createCollisions(List<T> results, IntArray rectangles, TiledMap tiledMap, TileLayer layer) {
+		for (int i = 0; i < rectangles.size; i += 4) {
+			int x = rectangles.get(i);
+			int y = rectangles.get(i + 1);
+			int width = rectangles.get(i + 2);
+			int height = rectangles.get(i + 3);
+			if (width == 0) {
+				continue;
 			}
+			Tile startTile = tiledMap.getTile(layer.getTileId(x, y));
+			results.add(collisionFactory.createCollision(startTile, x * tiledMap.getTileWidth(),
+					y * tiledMap.getTileHeight(), width * tiledMap.getTileWidth(), height * tiledMap.getTileHeight()));
 		}
 	}
 
-	private T mergeCollisions(final int startX, final int startY, final int maxColumns, final int maxRows,
-			byte[][] collisions, TileLayer layer, TiledMap tiledMap) {
-		Tile startTile = tiledMap.getTile(layer.getTileId(startX, startY));
+	private void mergeCollisions(IntArray rectangles, final int startX, final int startY, final int regionX,
+			final int regionY, final int maxColumns, final int maxRows, byte[][] collisions, TileLayer layer,
+			TiledMap tiledMap) {
+		final int regionWidth = collisions.length;
+		final int regionHeight = collisions[0].length;
+		Tile startTile = tiledMap.getTile(layer.getTileId(regionX + startX, regionY + startY));
 		Tile nextTile = null;
 
 		int maxXTiles = 0;
 		int maxYTiles = 0;
 
 		if(maxRows > 1) {
-			for (int y = 1; y < layer.getHeight() - startY; y++) {
+			for (int y = 1; y < regionHeight - startY; y++) {
 				if (collisions[startX][startY + y] == 0) {
 					break;
 				}
 
-				nextTile = tiledMap.getTile(layer.getTileId(startX, startY + y));
+				nextTile = tiledMap.getTile(layer.getTileId(regionX + startX, regionY + startY + y));
 				if (!collisionMerger.isMergable(startTile, nextTile)) {
 					break;
 				}
@@ -775,7 +1132,7 @@ public class TiledCollisionMapper<T extends Positionable> {
 		}
 
 		if(maxColumns > 1) {
-			for (int x = 1; x < layer.getWidth() - startX; x++) {
+			for (int x = 1; x < regionWidth - startX; x++) {
 				boolean mergeable = true;
 				for (int y = 0; y <= maxYTiles; y++) {
 					if (collisions[startX + x][startY + y] == 0) {
@@ -783,7 +1140,7 @@ public class TiledCollisionMapper<T extends Positionable> {
 						break;
 					}
 
-					nextTile = tiledMap.getTile(layer.getTileId(startX + x, startY + y));
+					nextTile = tiledMap.getTile(layer.getTileId(regionX + startX + x, regionY + startY + y));
 					if (!collisionMerger.isMergable(startTile, nextTile)) {
 						mergeable = false;
 						break;
@@ -807,8 +1164,89 @@ public class TiledCollisionMapper<T extends Positionable> {
 			}
 		}
 
-		return collisionFactory.createCollision(startTile, startX * tiledMap.getTileWidth(),
-				startY * tiledMap.getTileHeight(), tiledMap.getTileWidth() + (maxXTiles * tiledMap.getTileWidth()),
-				tiledMap.getTileHeight() + (maxYTiles * tiledMap.getTileHeight()));
+		rectangles.add(regionX + startX);
+		rectangles.add(regionY + startY);
+		rectangles.add(maxXTiles + 1);
+		rectangles.add(maxYTiles + 1);
+	}
+
+	/**
+	 * Joins rectangles ending on the top edge of a band with rectangles of the
+	 * same columns starting at the top edge of the band
+	 * 
+	 * @param rectangles
+	 *            The merged rectangles of all bands above the band
+	 * @param openRectangles
+	 *            The indices in rectangles of rectangles ending at the top
+	 *            edge of the band. Replaced with the rectangles ending at the
+	 *            bottom edge of the band.
+	 * @param band
+	 *            The merged rectangles of the band
+	 */
+	private void stitchBand(IntArray rectangles, IntArray openRectangles, IntArray band, int bandY, int bandHeight,
+			int maxRows, TiledMap tiledMap, TileLayer layer) {
+		IntIntMap openByX = new IntIntMap(openRectangles.size);
+		for (int i = 0; i < openRectangles.size; i++) {
+			openByX.put(rectangles.get(openRectangles.get(i)), openRectangles.get(i));
+		}
+		openRectangles.clear();
+
+		int bandBottom = bandY + bandHeight;
+		for (int i = 0; i < band.size; i += 4) {
+			int x = band.get(i);
+			int y = band.get(i + 1);
+			int width = band.get(i + 2);
+			int height = band.get(i + 3);
+
+			if (y == bandY) {
+				int upper = openByX.get(x, -1);
+				if (upper >= 0 && rectangles.get(upper + 2) == width
+						&& rectangles.get(upper + 3) + height <= maxRows
+						&& collisionMerger.isMergable(
+								tiledMap.getTile(layer.getTileId(x, rectangles.get(upper + 1))),
+								tiledMap.getTile(layer.getTileId(x, y)))) {
+					rectangles.set(upper + 3, rectangles.get(upper + 3) + height);
+					if (y + height == bandBottom) {
+						openRectangles.add(upper);
+					}
+					continue;
+				}
+			}
+			if (y + height == bandBottom) {
+				openRectangles.add(rectangles.size);
+			}
+			rectangles.add(x);
+			rectangles.add(y);
+			rectangles.add(width);
+			rectangles.add(height);
+		}
+	}
+
+	/**
+	 * Merges a horizontal band of a layer
+	 */
+	private class MergeBandTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final IntArray rectangles = new IntArray();
+		private final TiledMap tiledMap;
+		private final TileLayer layer;
+		private final int bandY, bandHeight, maxColumns, maxRows;
+
+		public MergeBandTask(TiledMap tiledMap, TileLayer layer, int bandY, int bandHeight, int maxColumns,
+				int maxRows) {
+			this.tiledMap = tiledMap;
+			this.layer = layer;
+			this.bandY = bandY;
+			this.bandHeight = bandHeight;
+			this.maxColumns = maxColumns;
+			this.maxRows = maxRows;
+		}
+
+		@Override
+		protected void compute() {
+			mergeRegion(rectangles, tiledMap, layer, 0, bandY, layer.getWidth(), bandHeight, maxColumns, maxRows,
+					true);
+		}
 	}
 }
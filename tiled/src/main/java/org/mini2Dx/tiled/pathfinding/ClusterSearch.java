@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Searches within the bounds of a single {@link HierarchicalPathfinder}
+ * cluster. Tiles are addressed by their index in the {@link PathfindingGrid}
+ * and stored by their position within the cluster.
+ */
+class ClusterSearch {
+	final int clusterSize;
+	final float[] startCosts, goalCosts;
+
+	private final IntMinHeap openSet;
+	private final float[] costs;
+	private final int[] parents;
+	private final int[] openedSearch, closedSearch;
+	private final int[] neighbours = new int[8];
+	private final float[] moveCosts = new float[8];
+	private int searchId;
+
+	private int boundsX, boundsY, boundsWidth, boundsHeight, gridWidth;
+
+	ClusterSearch(int clusterSize) {
+		this.clusterSize = clusterSize;
+		int capacity = clusterSize * clusterSize;
+		startCosts = new float[capacity];
+		goalCosts = new float[capacity];
+		openSet = new IntMinHeap(capacity);
+		costs = new float[capacity];
+		parents = new int[capacity];
+		openedSearch = new int[capacity];
+		closedSearch = new int[capacity];
+	}
+
+	void setBounds(PathfindingGrid grid, int x, int y, int width, int height) {
+		boundsX = x;
+		boundsY = y;
+		boundsWidth = width;
+		boundsHeight = height;
+		gridWidth = grid.getWidth();
+	}
+
+	int getLocalIndex(int tile) {
+		return (((tile / gridWidth) - boundsY) * clusterSize) + ((tile % gridWidth) - boundsX);
+	}
+
+	private int getTile(int localIndex) {
+		return ((boundsY + (localIndex / clusterSize)) * gridWidth) + boundsX + (localIndex % clusterSize);
+	}
+
+	private boolean contains(int tile) {
+		int x = (tile % gridWidth) - boundsX;
+		int y = (tile / gridWidth) - boundsY;
+		return x >= 0 && y >= 0 && x < boundsWidth && y < boundsHeight;
+	}
+
+	private void begin() {
+		openSet.clear();
+		searchId++;
+		if (searchId == Integer.MAX_VALUE) {
+			Arrays.fill(openedSearch, 0);
+			Arrays.fill(closedSearch, 0);
+			searchId = 1;
+		}
+	}
+
+	/**
+	 * Computes the cost of moving between a tile and every tile of the
+	 * current bounds without leaving the bounds
+	 * 
+	 * @param grid
+	 *            The {@link PathfindingGrid} to search
+	 * @param from
+	 *            The tile to search from
+	 * @param reverse
+	 *            True if the costs of moving from each tile to the from tile
+	 *            should be computed instead
+	 * @param result
+	 *            Stores the costs by local index. Tiles that cannot be reached
+	 *            are set to {@link Float#POSITIVE_INFINITY}.
+	 */
+	void computeCosts(PathfindingGrid grid, int from, boolean reverse, float[] result) {
+		Arrays.fill(result, Float.POSITIVE_INFINITY);
+		begin();
+		int fromLocal = getLocalIndex(from);
+		result[fromLocal] = 0f;
+		openedSearch[fromLocal] = searchId;
+		openSet.add(fromLocal, 0f);
+
+		while (!openSet.isEmpty()) {
+			int local = openSet.poll();
+			closedSearch[local] = searchId;
+			int tile = getTile(local);
+			float cost = result[local];
+			int total = grid.getNeighbours(tile, neighbours, moveCosts);
+			for (int i = 0; i < total; i++) {
+				int neighbour = neighbours[i];
+				if (!contains(neighbour)) {
+					continue;
+				}
+				int neighbourLocal = getLocalIndex(neighbour);
+				if (closedSearch[neighbourLocal] == searchId) {
+					continue;
+				}
+				float moveCost = moveCosts[i];
+				if (reverse && !grid.isUniformCost()) {
+					// Moving from the neighbour onto this tile
+					moveCost = (moveCost / grid.getCost(neighbour)) * grid.getCost(tile);
+				}
+				float neighbourCost = cost + moveCost;
+				if (openedSearch[neighbourLocal] == searchId && neighbourCost >= result[neighbourLocal]) {
+					continue;
+				}
+				openedSearch[neighbourLocal] = searchId;
+				result[neighbourLocal] = neighbourCost;
+				openSet.add(neighbourLocal, neighbourCost);
+			}
+		}
+	}
+
+	/**
+	 * Finds the shortest path between two tiles without leaving the current
+	 * bounds and appends it to a {@link GridPath}, excluding the from tile
+	 * 
+	 * @return False if there is no path within the bounds
+	 */
+	boolean appendPath(PathfindingGrid grid, int from, int to, GridPath result) {
+		begin();
+		int fromLocal = getLocalIndex(from);
+		int toLocal = getLocalIndex(to);
+		costs[fromLocal] = 0f;
+		parents[fromLocal] = -1;
+		openedSearch[fromLocal] = searchId;
+		openSet.add(fromLocal, grid.getHeuristic(from, to));
+
+		while (!openSet.isEmpty()) {
+			int local = openSet.poll();
+			if (local == toLocal) {
+				int start = result.getLength();
+				while (local != fromLocal) {
+					int tile = getTile(local);
+					result.add(tile % gridWidth, tile / gridWidth);
+					local = parents[local];
+				}
+				result.reverse(start);
+				return true;
+			}
+			closedSearch[local] = searchId;
+			int tile = getTile(local);
+			float cost = costs[local];
+			int total = grid.getNeighbours(tile, neighbours, moveCosts);
+			for (int i = 0; i < total; i++) {
+				int neighbour = neighbours[i];
+				if (!contains(neighbour)) {
+					continue;
+				}
+				int neighbourLocal = getLocalIndex(neighbour);
+				if (closedSearch[neighbourLocal] == searchId) {
+					continue;
+				}
+				float neighbourCost = cost + moveCosts[i];
+				if (openedSearch[neighbourLocal] == searchId && neighbourCost >= costs[neighbourLocal]) {
+					continue;
+				}
+				openedSearch[neighbourLocal] = searchId;
+				costs[neighbourLocal] = neighbourCost;
+				parents[neighbourLocal] = local;
+				openSet.add(neighbourLocal, neighbourCost + grid.getHeuristic(neighbour, to));
+			}
+		}
+		return false;
+	}
+}
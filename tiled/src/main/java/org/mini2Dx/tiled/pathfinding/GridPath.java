@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * The result of a {@link GridPathfinder} search. Stores every tile along the
+ * path from the start tile to the goal tile (inclusive).
+ */
+public class GridPath {
+	private final IntArray tiles = new IntArray();
+	private float cost;
+
+	/**
+	 * Removes all tiles from the path
+	 */
+	public void clear() {
+		tiles.clear();
+		cost = 0f;
+	}
+
+	void add(int x, int y) {
+		tiles.add(x);
+		tiles.add(y);
+	}
+
+	void reverse() {
+		reverse(0);
+	}
+
+	/**
+	 * Reverses the order of the tiles from a tile index to the end of the path
+	 */
+	void reverse(int fromIndex) {
+		int[] items = tiles.items;
+		for (int i = fromIndex * 2, j = tiles.size - 2; i < j; i += 2, j -= 2) {
+			int x = items[i];
+			int y = items[i + 1];
+			items[i] = items[j];
+			items[i + 1] = items[j + 1];
+			items[j] = x;
+			items[j + 1] = y;
+		}
+	}
+
+	void setCost(float cost) {
+		this.cost = cost;
+	}
+
+	/**
+	 * Returns the number of tiles in the path
+	 * 
+	 * @return 0 if no path was found
+	 */
+	public int getLength() {
+		return tiles.size / 2;
+	}
+
+	/**
+	 * Returns if the path contains no tiles
+	 * 
+	 * @return True if no path was found
+	 */
+	public boolean isEmpty() {
+		return tiles.size == 0;
+	}
+
+	/**
+	 * Returns the x coordinate of a tile in the path
+	 * 
+	 * @param index
+	 *            The index of the tile, 0 being the start tile
+	 * @return The x coordinate in tiles
+	 */
+	public int getX(int index) {
+		return tiles.get(index * 2);
+	}
+
+	/**
+	 * Returns the y coordinate of a tile in the path
+	 * 
+	 * @param index
+	 *            The index of the tile, 0 being the start tile
+	 * @return The y coordinate in tiles
+	 */
+	public int getY(int index) {
+		return tiles.get((index * 2) + 1);
+	}
+
+	/**
+	 * Returns the total cost of moving along the path
+	 * 
+	 * @return 0 if the path is empty or starts at the goal
+	 */
+	public float getCost() {
+		return cost;
+	}
+}
@@ -0,0 +1,312 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Finds shortest paths on a {@link PathfindingGrid} using A*. Orthogonal and
+ * isometric grids with uniform tile costs and diagonal moves are searched with
+ * <a href="https://en.wikipedia.org/wiki/Jump_point_search">jump point
+ * search</a>, which finds the same path cost while expanding far fewer tiles.
+ * Searches between tiles of different regions (see
+ * {@link PathfindingGrid#getRegion(int)}) fail without expanding any tiles.
+ * 
+ * Searches store their working state in a {@link PathfindingContext} so
+ * multiple threads can search the same grid at once, each with their own
+ * context.
+ */
+public class GridPathfinder {
+	private final PathfindingGrid grid;
+	private boolean jumpPointSearch = true;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param grid
+	 *            The {@link PathfindingGrid} to search
+	 */
+	public GridPathfinder(PathfindingGrid grid) {
+		this.grid = grid;
+	}
+
+	/**
+	 * Finds the shortest path between two tiles
+	 * 
+	 * @param context
+	 *            The {@link PathfindingContext} to store the search state in
+	 * @param startX
+	 *            The x coordinate of the start tile
+	 * @param startY
+	 *            The y coordinate of the start tile
+	 * @param goalX
+	 *            The x coordinate of the goal tile
+	 * @param goalY
+	 *            The y coordinate of the goal tile
+	 * @param result
+	 *            The {@link GridPath} to store the path in. Cleared before the
+	 *            search.
+	 * @return False if there is no path between the tiles
+	 */
+	public boolean findPath(PathfindingContext context, int startX, int startY, int goalX, int goalY,
+			GridPath result) {
+		result.clear();
+		context.expandedNodes = 0;
+		if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+			return false;
+		}
+		final int start = grid.getIndex(startX, startY);
+		final int goal = grid.getIndex(goalX, goalY);
+		if (grid.getRegion(start) != grid.getRegion(goal)) {
+			return false;
+		}
+		final boolean jump = isUsingJumpPointSearch();
+
+		context.begin(grid.getWidth() * grid.getHeight());
+		final IntMinHeap openSet = context.openSet;
+		context.open(start, -1, 0f, grid.getHeuristic(start, goal));
+
+		while (!openSet.isEmpty()) {
+			int node = openSet.poll();
+			if (node == goal) {
+				buildPath(context, goal, result);
+				return true;
+			}
+			context.close(node);
+
+			int totalNeighbours = jump ? findJumpPoints(context, node, goal)
+					: grid.getNeighbours(node, context.neighbours, context.moveCosts);
+			float nodeCost = context.costs[node];
+			for (int i = 0; i < totalNeighbours; i++) {
+				int neighbour = context.neighbours[i];
+				if (context.isClosed(neighbour)) {
+					continue;
+				}
+				float cost = nodeCost + context.moveCosts[i];
+				if (context.isOpened(neighbour) && cost >= context.costs[neighbour]) {
+					continue;
+				}
+				context.open(neighbour, node, cost, grid.getHeuristic(neighbour, goal));
+			}
+		}
+		return false;
+	}
+
+	private void buildPath(PathfindingContext context, int goal, GridPath result) {
+		final int width = grid.getWidth();
+		int node = goal;
+		int parent = context.parents[node];
+		result.add(node % width, node / width);
+		while (parent >= 0) {
+			// Jump points may be several tiles apart along a straight or
+			// diagonal line
+			int x = node % width;
+			int y = node / width;
+			int parentX = parent % width;
+			int parentY = parent / width;
+			int dx = Integer.signum(parentX - x);
+			int dy = Integer.signum(parentY - y);
+			while (x != parentX || y != parentY) {
+				x += dx;
+				y += dy;
+				result.add(x, y);
+			}
+			node = parent;
+			parent = context.parents[node];
+		}
+		result.reverse();
+		result.setCost(context.costs[goal]);
+	}
+
+	/**
+	 * Stores the jump points reachable from a node in the context's
+	 * neighbours
+	 */
+	private int findJumpPoints(PathfindingContext context, int node, int goal) {
+		final int width = grid.getWidth();
+		final int x = node % width;
+		final int y = node / width;
+		final int parent = context.parents[node];
+		final IntArray directions = context.directions;
+		directions.clear();
+
+		if (parent < 0) {
+			for (int dx = -1; dx <= 1; dx++) {
+				for (int dy = -1; dy <= 1; dy++) {
+					if (dx == 0 && dy == 0) {
+						continue;
+					}
+					if (dx != 0 && dy != 0 && (!grid.isWalkable(x + dx, y) || !grid.isWalkable(x, y + dy))) {
+						continue;
+					}
+					directions.add(dx);
+					directions.add(dy);
+				}
+			}
+		} else {
+			int dx = Integer.signum(x - (parent % width));
+			int dy = Integer.signum(y - (parent / width));
+			if (dx != 0 && dy != 0) {
+				boolean horizontal = grid.isWalkable(x + dx, y);
+				boolean vertical = grid.isWalkable(x, y + dy);
+				if (vertical) {
+					directions.add(0);
+					directions.add(dy);
+				}
+				if (horizontal) {
+					directions.add(dx);
+					directions.add(0);
+				}
+				if (horizontal && vertical) {
+					directions.add(dx);
+					directions.add(dy);
+				}
+			} else if (dx != 0) {
+				boolean next = grid.isWalkable(x + dx, y);
+				boolean down = grid.isWalkable(x, y + 1);
+				boolean up = grid.isWalkable(x, y - 1);
+				if (next) {
+					directions.add(dx);
+					directions.add(0);
+					if (down) {
+						directions.add(dx);
+						directions.add(1);
+					}
+					if (up) {
+						directions.add(dx);
+						directions.add(-1);
+					}
+				}
+				if (down) {
+					directions.add(0);
+					directions.add(1);
+				}
+				if (up) {
+					directions.add(0);
+					directions.add(-1);
+				}
+			} else {
+				boolean next = grid.isWalkable(x, y + dy);
+				boolean right = grid.isWalkable(x + 1, y);
+				boolean left = grid.isWalkable(x - 1, y);
+				if (next) {
+					directions.add(0);
+					directions.add(dy);
+					if (right) {
+						directions.add(1);
+						directions.add(dy);
+					}
+					if (left) {
+						directions.add(-1);
+						directions.add(dy);
+					}
+				}
+				if (right) {
+					directions.add(1);
+					directions.add(0);
+				}
+				if (left) {
+					directions.add(-1);
+					directions.add(0);
+				}
+			}
+		}
+
+		final int goalX = goal % width;
+		final int goalY = goal / width;
+		int total = 0;
+		for (int i = 0; i < directions.size; i += 2) {
+			int dx = directions.get(i);
+			int dy = directions.get(i + 1);
+			int jumpPoint = dx != 0 && dy != 0 ? jumpDiagonally(x + dx, y + dy, dx, dy, goalX, goalY)
+					: jumpStraight(x + dx, y + dy, dx, dy, goalX, goalY);
+			if (jumpPoint < 0) {
+				continue;
+			}
+			int distanceX = Math.abs((jumpPoint % width) - x);
+			int distanceY = Math.abs((jumpPoint / width) - y);
+			context.neighbours[total] = jumpPoint;
+			context.moveCosts[total] = distanceX != 0 && distanceY != 0
+					? distanceX * PathfindingGrid.DIAGONAL_COST : distanceX + distanceY;
+			total++;
+		}
+		return total;
+	}
+
+	private int jumpStraight(int x, int y, int dx, int dy, int goalX, int goalY) {
+		while (grid.isWalkable(x, y)) {
+			if (x == goalX && y == goalY) {
+				return grid.getIndex(x, y);
+			}
+			if (dx != 0) {
+				if ((grid.isWalkable(x, y - 1) && !grid.isWalkable(x - dx, y - 1))
+						|| (grid.isWalkable(x, y + 1) && !grid.isWalkable(x - dx, y + 1))) {
+					return grid.getIndex(x, y);
+				}
+			} else if ((grid.isWalkable(x - 1, y) && !grid.isWalkable(x - 1, y - dy))
+					|| (grid.isWalkable(x + 1, y) && !grid.isWalkable(x + 1, y - dy))) {
+				return grid.getIndex(x, y);
+			}
+			x += dx;
+			y += dy;
+		}
+		return -1;
+	}
+
+	private int jumpDiagonally(int x, int y, int dx, int dy, int goalX, int goalY) {
+		while (grid.isWalkable(x, y)) {
+			if (x == goalX && y == goalY) {
+				return grid.getIndex(x, y);
+			}
+			if (jumpStraight(x + dx, y, dx, 0, goalX, goalY) >= 0 || jumpStraight(x, y + dy, 0, dy, goalX, goalY) >= 0) {
+				return grid.getIndex(x, y);
+			}
+			if (!grid.isWalkable(x + dx, y) || !grid.isWalkable(x, y + dy)) {
+				return -1;
+			}
+			x += dx;
+			y += dy;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns if searches will use jump point search. Jump point search is
+	 * only used on orthogonal and isometric grids with uniform tile costs and
+	 * diagonal moves.
+	 * 
+	 * @return True if jump point search is enabled and supported by the grid
+	 */
+	public boolean isUsingJumpPointSearch() {
+		return jumpPointSearch && grid.isSquareGrid() && grid.isUniformCost() && grid.isDiagonalsAllowed();
+	}
+
+	/**
+	 * Sets if jump point search should be used when the grid supports it.
+	 * Defaults to true.
+	 * 
+	 * @param jumpPointSearch
+	 *            False to always search with A*
+	 */
+	public void setJumpPointSearch(boolean jumpPointSearch) {
+		this.jumpPointSearch = jumpPointSearch;
+	}
+
+	/**
+	 * Returns the {@link PathfindingGrid} being searched
+	 * 
+	 * @return The {@link PathfindingGrid} instance
+	 */
+	public PathfindingGrid getGrid() {
+		return grid;
+	}
+}
@@ -0,0 +1,693 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import java.util.Arrays;
+
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TileLayerListener;
+import org.mini2Dx.tiled.TiledMap;
+import org.mini2Dx.tiled.collisions.TiledCollisionMapper;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+
+/**
+ * Finds paths on large {@link PathfindingGrid}s using hierarchical
+ * pathfinding (HPA*). The grid is divided into square clusters connected by
+ * transitions on their borders and the cost of moving between each pair of
+ * transitions within a cluster is cached. Searches run over the cached graph
+ * and then only refine the legs of the path within each cluster, so they
+ * expand far fewer tiles than {@link GridPathfinder} at the cost of paths that
+ * may be slightly longer than the shortest path.
+ * 
+ * When tiles change, {@link #updateTiles(int, int, int, int)} recomputes only
+ * the clusters containing them (and their neighbours when a cluster border
+ * changes). Instances created from a {@link TiledMap} layer are updated
+ * automatically when the layer's changes are flushed by
+ * {@link TiledMap#update(float)}.
+ * 
+ * Searches can run on multiple threads at once, each with their own
+ * {@link PathfindingContext}, but not while tiles are being updated.
+ */
+public class HierarchicalPathfinder implements TileLayerListener {
+	/**
+	 * The default width and height of clusters in tiles
+	 */
+	public static final int DEFAULT_CLUSTER_SIZE = 32;
+	/**
+	 * Entrances longer than this many tiles have a transition at each end
+	 * instead of a single transition in the middle
+	 */
+	private static final int MAX_SINGLE_TRANSITION_LENGTH = 6;
+
+	private final PathfindingGrid grid;
+	private final TileLayer layer;
+	private final int clusterSize;
+	private final int clustersWide, clustersHigh;
+	private final Cluster[] clusters;
+	private final ClusterSearch buildSearch;
+
+	private volatile boolean componentsValid;
+
+	private final int[] neighbours = new int[8];
+	private final float[] moveCosts = new float[8];
+	private final IntArray perimeter = new IntArray();
+	private final IntArray entrance = new IntArray();
+	private final FloatArray entranceCosts = new FloatArray();
+
+	/**
+	 * Constructs an instance with clusters of {@link #DEFAULT_CLUSTER_SIZE}
+	 * 
+	 * @param grid
+	 *            The {@link PathfindingGrid} to search
+	 */
+	public HierarchicalPathfinder(PathfindingGrid grid) {
+		this(grid, DEFAULT_CLUSTER_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param grid
+	 *            The {@link PathfindingGrid} to search
+	 * @param clusterSize
+	 *            The width and height of clusters in tiles
+	 */
+	public HierarchicalPathfinder(PathfindingGrid grid, int clusterSize) {
+		this(grid, null, clusterSize);
+	}
+
+	/**
+	 * Constructs an instance with clusters of {@link #DEFAULT_CLUSTER_SIZE}
+	 * that is kept up to date with a {@link TiledMap} layer
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} to search
+	 * @param layerIndex
+	 *            The index of the layer to extract collisions from. Each tile
+	 *            drawn in the layer is treated as a collision.
+	 * @param allowDiagonals
+	 *            True if diagonal moves are allowed on orthogonal and isometric
+	 *            maps
+	 */
+	public HierarchicalPathfinder(TiledMap tiledMap, int layerIndex, boolean allowDiagonals) {
+		this(tiledMap, layerIndex, allowDiagonals, DEFAULT_CLUSTER_SIZE);
+	}
+
+	/**
+	 * Constructs an instance that is kept up to date with a {@link TiledMap}
+	 * layer
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} to search
+	 * @param layerIndex
+	 *            The index of the layer to extract collisions from. Each tile
+	 *            drawn in the layer is treated as a collision.
+	 * @param allowDiagonals
+	 *            True if diagonal moves are allowed on orthogonal and isometric
+	 *            maps
+	 * @param clusterSize
+	 *            The width and height of clusters in tiles
+	 */
+	public HierarchicalPathfinder(TiledMap tiledMap, int layerIndex, boolean allowDiagonals, int clusterSize) {
+		this(new PathfindingGrid(tiledMap, TiledCollisionMapper.mapCollisionsByLayer(tiledMap, layerIndex),
+				allowDiagonals), tiledMap.getTileLayer(layerIndex), clusterSize);
+		layer.addListener(this);
+	}
+
+	private HierarchicalPathfinder(PathfindingGrid grid, TileLayer layer, int clusterSize) {
+		if (clusterSize < 2) {
+			throw new IllegalArgumentException("clusterSize must be greater than 1");
+		}
+		this.grid = grid;
+		this.layer = layer;
+		this.clusterSize = clusterSize;
+		clustersWide = (grid.getWidth() + clusterSize - 1) / clusterSize;
+		clustersHigh = (grid.getHeight() + clusterSize - 1) / clusterSize;
+		clusters = new Cluster[clustersWide * clustersHigh];
+		buildSearch = new ClusterSearch(clusterSize);
+
+		for (int clusterY = 0; clusterY < clustersHigh; clusterY++) {
+			for (int clusterX = 0; clusterX < clustersWide; clusterX++) {
+				int x = clusterX * clusterSize;
+				int y = clusterY * clusterSize;
+				Cluster cluster = new Cluster((clusterY * clustersWide) + clusterX, clusterX, clusterY, x, y,
+						Math.min(clusterSize, grid.getWidth() - x), Math.min(clusterSize, grid.getHeight() - y));
+				cluster.bordersDirty = true;
+				clusters[cluster.index] = cluster;
+			}
+		}
+		rebuild();
+	}
+
+	@Override
+	public void onTilesChanged(TileLayer layer, int x, int y, int width, int height) {
+		for (int tileY = y; tileY < y + height; tileY++) {
+			for (int tileX = x; tileX < x + width; tileX++) {
+				grid.setBlocked(tileX, tileY, layer.getTileId(tileX, tileY) > 0);
+			}
+		}
+		updateTiles(x, y, width, height);
+	}
+
+	/**
+	 * Recomputes the clusters containing tiles after the tiles of the
+	 * {@link PathfindingGrid} have changed
+	 * 
+	 * @param x
+	 *            The x coordinate of the changed area in tiles
+	 * @param y
+	 *            The y coordinate of the changed area in tiles
+	 * @param width
+	 *            The width of the changed area in tiles
+	 * @param height
+	 *            The height of the changed area in tiles
+	 */
+	public void updateTiles(int x, int y, int width, int height) {
+		int startX = Math.max(0, x);
+		int startY = Math.max(0, y);
+		int endX = Math.min(grid.getWidth() - 1, x + width - 1);
+		int endY = Math.min(grid.getHeight() - 1, y + height - 1);
+		if (startX > endX || startY > endY) {
+			return;
+		}
+		for (int clusterY = startY / clusterSize; clusterY <= endY / clusterSize; clusterY++) {
+			for (int clusterX = startX / clusterSize; clusterX <= endX / clusterSize; clusterX++) {
+				Cluster cluster = clusters[(clusterY * clustersWide) + clusterX];
+				cluster.costsDirty = true;
+				// Transitions only change when tiles on the border change
+				if (Math.max(startX, cluster.x) == cluster.x || Math.max(startY, cluster.y) == cluster.y
+						|| Math.min(endX, cluster.x + cluster.width - 1) == cluster.x + cluster.width - 1
+						|| Math.min(endY, cluster.y + cluster.height - 1) == cluster.y + cluster.height - 1) {
+					cluster.bordersDirty = true;
+				}
+			}
+		}
+		rebuild();
+	}
+
+	private void rebuild() {
+		// Remove transitions to and from clusters with changed borders
+		for (int i = 0; i < clusters.length; i++) {
+			Cluster cluster = clusters[i];
+			if (!cluster.bordersDirty) {
+				continue;
+			}
+			for (int clusterY = cluster.clusterY - 1; clusterY <= cluster.clusterY + 1; clusterY++) {
+				for (int clusterX = cluster.clusterX - 1; clusterX <= cluster.clusterX + 1; clusterX++) {
+					Cluster neighbour = getCluster(clusterX, clusterY);
+					if (neighbour == null) {
+						continue;
+					}
+					neighbour.removeTransitions(this, cluster.index);
+					neighbour.costsDirty = true;
+				}
+			}
+		}
+
+		for (int i = 0; i < clusters.length; i++) {
+			Cluster cluster = clusters[i];
+			if (!cluster.bordersDirty) {
+				continue;
+			}
+			for (int clusterY = cluster.clusterY - 1; clusterY <= cluster.clusterY + 1; clusterY++) {
+				for (int clusterX = cluster.clusterX - 1; clusterX <= cluster.clusterX + 1; clusterX++) {
+					Cluster neighbour = getCluster(clusterX, clusterY);
+					if (neighbour == null || neighbour == cluster) {
+						continue;
+					}
+					// Each pair of clusters is only connected once
+					if (neighbour.bordersDirty && neighbour.index < cluster.index) {
+						continue;
+					}
+					connect(cluster, neighbour);
+				}
+			}
+		}
+
+		for (int i = 0; i < clusters.length; i++) {
+			Cluster cluster = clusters[i];
+			if (cluster.costsDirty) {
+				computeCosts(cluster);
+			}
+			cluster.bordersDirty = false;
+			cluster.costsDirty = false;
+		}
+		componentsValid = false;
+	}
+
+	/**
+	 * Labels the connected components of the cluster graph so that searches
+	 * between unconnected tiles fail without searching the graph
+	 */
+	private synchronized void computeComponents() {
+		if (componentsValid) {
+			return;
+		}
+		for (int i = 0; i < clusters.length; i++) {
+			Cluster cluster = clusters[i];
+			if (cluster.components.length != cluster.nodes.size) {
+				cluster.components = new int[cluster.nodes.size];
+			} else {
+				Arrays.fill(cluster.components, 0);
+			}
+		}
+
+		IntArray queue = new IntArray();
+		int totalComponents = 0;
+		for (int i = 0; i < clusters.length; i++) {
+			Cluster cluster = clusters[i];
+			for (int j = 0; j < cluster.nodes.size; j++) {
+				if (cluster.components[j] != 0) {
+					continue;
+				}
+				totalComponents++;
+				cluster.components[j] = totalComponents;
+				queue.clear();
+				queue.add(cluster.nodes.get(j));
+				while (queue.size > 0) {
+					int node = queue.pop();
+					Cluster nodeCluster = getCluster(node);
+					int nodeIndex = nodeCluster.nodeIndices.get(node, -1);
+					int totalNodes = nodeCluster.nodes.size;
+					for (int k = 0; k < totalNodes; k++) {
+						if (nodeCluster.components[k] == 0
+								&& nodeCluster.costs[(nodeIndex * totalNodes) + k] != Float.POSITIVE_INFINITY) {
+							nodeCluster.components[k] = totalComponents;
+							queue.add(nodeCluster.nodes.get(k));
+						}
+					}
+					for (int k = 0; k < nodeCluster.transitionsFrom.size; k++) {
+						if (nodeCluster.transitionsFrom.get(k) != node) {
+							continue;
+						}
+						int to = nodeCluster.transitionsTo.get(k);
+						Cluster toCluster = getCluster(to);
+						int toIndex = toCluster.nodeIndices.get(to, -1);
+						if (toCluster.components[toIndex] == 0) {
+							toCluster.components[toIndex] = totalComponents;
+							queue.add(to);
+						}
+					}
+				}
+			}
+		}
+		componentsValid = true;
+	}
+
+	/**
+	 * Returns the component of the first transition of a cluster that can be
+	 * reached according to a set of costs
+	 * 
+	 * @return 0 if no transitions can be reached
+	 */
+	private int getComponent(Cluster cluster, float[] costs) {
+		for (int i = 0; i < cluster.nodes.size; i++) {
+			if (costs[getLocalIndex(cluster.nodes.get(i), cluster)] != Float.POSITIVE_INFINITY) {
+				return cluster.components[i];
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Creates transitions for each entrance between two clusters
+	 */
+	private void connect(Cluster cluster, Cluster neighbour) {
+		if (neighbour.index < cluster.index) {
+			// Always find entrances along the same perimeter so the result
+			// does not depend on which cluster changed
+			connect(neighbour, cluster);
+			return;
+		}
+		cluster.getPerimeter(grid.getWidth(), perimeter);
+		entrance.clear();
+		entranceCosts.clear();
+
+		int previousPosition = -2;
+		for (int i = 0; i < perimeter.size; i++) {
+			int tile = perimeter.get(i);
+			if (!grid.isWalkable(tile % grid.getWidth(), tile / grid.getWidth())) {
+				continue;
+			}
+			int total = grid.getNeighbours(tile, neighbours, moveCosts);
+			for (int j = 0; j < total; j++) {
+				if (getCluster(neighbours[j]) != neighbour) {
+					continue;
+				}
+				if (previousPosition != i - 1) {
+					addTransitions(cluster, neighbour);
+				}
+				entrance.add(tile);
+				entrance.add(neighbours[j]);
+				entranceCosts.add(moveCosts[j]);
+				previousPosition = i;
+				break;
+			}
+		}
+		addTransitions(cluster, neighbour);
+	}
+
+	private void addTransitions(Cluster cluster, Cluster neighbour) {
+		int length = entranceCosts.size;
+		if (length == 0) {
+			return;
+		}
+		if (length <= MAX_SINGLE_TRANSITION_LENGTH) {
+			addTransition(cluster, neighbour, length / 2);
+		} else {
+			addTransition(cluster, neighbour, 0);
+			addTransition(cluster, neighbour, length - 1);
+		}
+		entrance.clear();
+		entranceCosts.clear();
+	}
+
+	private void addTransition(Cluster cluster, Cluster neighbour, int index) {
+		int from = entrance.get(index * 2);
+		int to = entrance.get((index * 2) + 1);
+		float cost = entranceCosts.get(index);
+		cluster.addTransition(from, to, cost);
+		neighbour.addTransition(to, from, (cost / grid.getCost(to)) * grid.getCost(from));
+	}
+
+	/**
+	 * Caches the cost of moving between each pair of transitions within a
+	 * cluster
+	 */
+	private void computeCosts(Cluster cluster) {
+		IntArray nodes = cluster.nodes;
+		nodes.clear();
+		cluster.nodeIndices.clear();
+		for (int i = 0; i < cluster.transitionsFrom.size; i++) {
+			int tile = cluster.transitionsFrom.get(i);
+			if (!cluster.nodeIndices.containsKey(tile)) {
+				cluster.nodeIndices.put(tile, nodes.size);
+				nodes.add(tile);
+			}
+		}
+		if (cluster.costs.length != nodes.size * nodes.size) {
+			cluster.costs = new float[nodes.size * nodes.size];
+		}
+
+		buildSearch.setBounds(grid, cluster.x, cluster.y, cluster.width, cluster.height);
+		for (int i = 0; i < nodes.size; i++) {
+			buildSearch.computeCosts(grid, nodes.get(i), false, buildSearch.startCosts);
+			for (int j = 0; j < nodes.size; j++) {
+				cluster.costs[(i * nodes.size) + j] = buildSearch.startCosts[buildSearch.getLocalIndex(nodes.get(j))];
+			}
+		}
+	}
+
+	/**
+	 * Finds a path between two tiles. The path is the shortest path through
+	 * the cached cluster graph, which may be slightly longer than the
+	 * shortest path between the tiles.
+	 * 
+	 * @param context
+	 *            The {@link PathfindingContext} to store the search state in
+	 * @param startX
+	 *            The x coordinate of the start tile
+	 * @param startY
+	 *            The y coordinate of the start tile
+	 * @param goalX
+	 *            The x coordinate of the goal tile
+	 * @param goalY
+	 *            The y coordinate of the goal tile
+	 * @param result
+	 *            The {@link GridPath} to store the path in. Cleared before the
+	 *            search.
+	 * @return False if there is no path between the tiles
+	 */
+	public boolean findPath(PathfindingContext context, int startX, int startY, int goalX, int goalY,
+			GridPath result) {
+		result.clear();
+		context.expandedNodes = 0;
+		if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+			return false;
+		}
+		final int start = grid.getIndex(startX, startY);
+		final int goal = grid.getIndex(goalX, goalY);
+		final Cluster startCluster = getCluster(start);
+		final Cluster goalCluster = getCluster(goal);
+		final ClusterSearch clusterSearch = context.getClusterSearch(clusterSize);
+
+		// Find the costs between the start and goal and the transitions of
+		// their clusters
+		clusterSearch.setBounds(grid, startCluster.x, startCluster.y, startCluster.width, startCluster.height);
+		clusterSearch.computeCosts(grid, start, false, clusterSearch.startCosts);
+		clusterSearch.setBounds(grid, goalCluster.x, goalCluster.y, goalCluster.width, goalCluster.height);
+		clusterSearch.computeCosts(grid, goal, true, clusterSearch.goalCosts);
+
+		if (startCluster != goalCluster
+				|| clusterSearch.startCosts[getLocalIndex(goal, startCluster)] == Float.POSITIVE_INFINITY) {
+			if (!componentsValid) {
+				computeComponents();
+			}
+			int startComponent = getComponent(startCluster, clusterSearch.startCosts);
+			if (startComponent == 0 || startComponent != getComponent(goalCluster, clusterSearch.goalCosts)) {
+				return false;
+			}
+		}
+
+		context.begin(grid.getWidth() * grid.getHeight());
+		final IntMinHeap openSet = context.openSet;
+		context.open(start, -1, 0f, grid.getHeuristic(start, goal));
+
+		while (!openSet.isEmpty()) {
+			int node = openSet.poll();
+			if (node == goal) {
+				refinePath(context, clusterSearch, start, goal, result);
+				return true;
+			}
+			context.close(node);
+
+			float nodeCost = context.costs[node];
+			Cluster cluster = getCluster(node);
+			int nodeIndex = cluster.nodeIndices.get(node, -1);
+			IntArray nodes = cluster.nodes;
+
+			if (node == start) {
+				for (int i = 0; i < nodes.size; i++) {
+					int transition = nodes.get(i);
+					relax(context, transition, node,
+							nodeCost + clusterSearch.startCosts[getLocalIndex(transition, cluster)], goal);
+				}
+			} else if (nodeIndex >= 0) {
+				for (int i = 0; i < nodes.size; i++) {
+					relax(context, nodes.get(i), node, nodeCost + cluster.costs[(nodeIndex * nodes.size) + i], goal);
+				}
+			}
+			if (cluster == goalCluster) {
+				relax(context, goal, node, nodeCost + clusterSearch.goalCosts[getLocalIndex(node, cluster)], goal);
+			}
+			if (nodeIndex >= 0) {
+				for (int i = 0; i < cluster.transitionsFrom.size; i++) {
+					if (cluster.transitionsFrom.get(i) != node) {
+						continue;
+					}
+					relax(context, cluster.transitionsTo.get(i), node, nodeCost + cluster.transitionCosts.get(i),
+							goal);
+				}
+			}
+		}
+		return false;
+	}
+
+	private void relax(PathfindingContext context, int node, int parent, float cost, int goal) {
+		if (cost == Float.POSITIVE_INFINITY || context.isClosed(node)) {
+			return;
+		}
+		if (context.isOpened(node) && cost >= context.costs[node]) {
+			return;
+		}
+		context.open(node, parent, cost, grid.getHeuristic(node, goal));
+	}
+
+	/**
+	 * Converts the path through the cluster graph into a path of tiles
+	 */
+	private void refinePath(PathfindingContext context, ClusterSearch clusterSearch, int start, int goal,
+			GridPath result) {
+		final int width = grid.getWidth();
+		final IntArray abstractPath = context.abstractPath;
+		for (int node = goal; node >= 0; node = context.parents[node]) {
+			abstractPath.add(node);
+		}
+
+		result.add(start % width, start / width);
+		for (int i = abstractPath.size - 2; i >= 0; i--) {
+			int from = abstractPath.get(i + 1);
+			int to = abstractPath.get(i);
+			Cluster cluster = getCluster(from);
+			if (cluster != getCluster(to)) {
+				// Transitions are between neighbouring tiles
+				result.add(to % width, to / width);
+				continue;
+			}
+			clusterSearch.setBounds(grid, cluster.x, cluster.y, cluster.width, cluster.height);
+			clusterSearch.appendPath(grid, from, to, result);
+		}
+		result.setCost(context.costs[goal]);
+	}
+
+	private int getLocalIndex(int tile, Cluster cluster) {
+		return (((tile / grid.getWidth()) - cluster.y) * clusterSize) + ((tile % grid.getWidth()) - cluster.x);
+	}
+
+	private Cluster getCluster(int tile) {
+		return clusters[(((tile / grid.getWidth()) / clusterSize) * clustersWide)
+				+ ((tile % grid.getWidth()) / clusterSize)];
+	}
+
+	private Cluster getCluster(int clusterX, int clusterY) {
+		if (clusterX < 0 || clusterY < 0 || clusterX >= clustersWide || clusterY >= clustersHigh) {
+			return null;
+		}
+		return clusters[(clusterY * clustersWide) + clusterX];
+	}
+
+	/**
+	 * Returns the total number of transition tiles in the cluster graph
+	 * 
+	 * @return The number of nodes in the cluster graph
+	 */
+	public int getTotalTransitions() {
+		int result = 0;
+		for (int i = 0; i < clusters.length; i++) {
+			result += clusters[i].nodes.size;
+		}
+		return result;
+	}
+
+	/**
+	 * Stops listening for changes to the {@link TiledMap} layer this instance
+	 * was created from
+	 */
+	public void dispose() {
+		if (layer != null) {
+			layer.removeListener(this);
+		}
+	}
+
+	/**
+	 * Returns the {@link PathfindingGrid} being searched
+	 * 
+	 * @return The {@link PathfindingGrid} instance
+	 */
+	public PathfindingGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Returns the width and height of clusters
+	 * 
+	 * @return The cluster size in tiles
+	 */
+	public int getClusterSize() {
+		return clusterSize;
+	}
+
+	public int getClustersWide() {
+		return clustersWide;
+	}
+
+	public int getClustersHigh() {
+		return clustersHigh;
+	}
+
+	private static class Cluster {
+		final int index, clusterX, clusterY;
+		final int x, y, width, height;
+		/**
+		 * The transition tiles within this cluster
+		 */
+		final IntArray nodes = new IntArray();
+		final IntIntMap nodeIndices = new IntIntMap();
+		/**
+		 * The cost of moving between each pair of nodes
+		 */
+		float[] costs = new float[0];
+		/**
+		 * The connected component of each node in the cluster graph
+		 */
+		int[] components = new int[0];
+
+		final IntArray transitionsFrom = new IntArray();
+		final IntArray transitionsTo = new IntArray();
+		final FloatArray transitionCosts = new FloatArray();
+
+		boolean bordersDirty, costsDirty;
+
+		Cluster(int index, int clusterX, int clusterY, int x, int y, int width, int height) {
+			this.index = index;
+			this.clusterX = clusterX;
+			this.clusterY = clusterY;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+
+		void addTransition(int from, int to, float cost) {
+			transitionsFrom.add(from);
+			transitionsTo.add(to);
+			transitionCosts.add(cost);
+		}
+
+		/**
+		 * Removes transitions to or from a cluster
+		 */
+		void removeTransitions(HierarchicalPathfinder pathfinder, int clusterIndex) {
+			int size = 0;
+			for (int i = 0; i < transitionsFrom.size; i++) {
+				if (index == clusterIndex || pathfinder.getCluster(transitionsTo.get(i)).index == clusterIndex) {
+					continue;
+				}
+				transitionsFrom.set(size, transitionsFrom.get(i));
+				transitionsTo.set(size, transitionsTo.get(i));
+				transitionCosts.set(size, transitionCosts.get(i));
+				size++;
+			}
+			transitionsFrom.size = size;
+			transitionsTo.size = size;
+			transitionCosts.size = size;
+		}
+
+		/**
+		 * Stores the tiles around the edge of this cluster in order
+		 */
+		void getPerimeter(int gridWidth, IntArray result) {
+			result.clear();
+			int endX = x + width - 1;
+			int endY = y + height - 1;
+			for (int tileX = x; tileX <= endX; tileX++) {
+				result.add((y * gridWidth) + tileX);
+			}
+			for (int tileY = y + 1; tileY <= endY; tileY++) {
+				result.add((tileY * gridWidth) + endX);
+			}
+			if (endY > y) {
+				for (int tileX = endX - 1; tileX >= x; tileX--) {
+					result.add((endY * gridWidth) + tileX);
+				}
+			}
+			if (endX > x) {
+				for (int tileY = endY - 1; tileY > y; tileY--) {
+					result.add((tileY * gridWidth) + x);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of int values ordered by float priorities. Values must be
+ * between 0 and the capacity of the heap so that the position of each value
+ * can be tracked, allowing priorities to be decreased without searching the
+ * heap or allocating any objects.
+ */
+public class IntMinHeap {
+	private int[] values;
+	private float[] priorities;
+	private int[] positions;
+	private int size;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity
+	 *            The number of distinct values (0 to capacity - 1) the heap
+	 *            can store
+	 */
+	public IntMinHeap(int capacity) {
+		values = new int[Math.max(16, Math.min(capacity, 1024))];
+		priorities = new float[values.length];
+		positions = new int[capacity];
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * Adds a value to the heap or updates its priority if it is already in the
+	 * heap
+	 * 
+	 * @param value
+	 *            The value to add
+	 * @param priority
+	 *            The priority of the value. Lower priorities are polled first.
+	 */
+	public void add(int value, float priority) {
+		int position = positions[value];
+		if (position >= 0) {
+			float previous = priorities[position];
+			priorities[position] = priority;
+			if (priority < previous) {
+				siftUp(position);
+			} else {
+				siftDown(position);
+			}
+			return;
+		}
+		if (size == values.length) {
+			int capacity = Math.min(values.length * 2, Math.max(positions.length, 16));
+			values = Arrays.copyOf(values, capacity);
+			priorities = Arrays.copyOf(priorities, capacity);
+		}
+		values[size] = value;
+		priorities[size] = priority;
+		positions[value] = size;
+		siftUp(size);
+		size++;
+	}
+
+	/**
+	 * Removes the value with the lowest priority
+	 * 
+	 * @return The value with the lowest priority
+	 * @throws IllegalStateException
+	 *             Thrown if the heap is empty
+	 */
+	public int poll() {
+		if (size == 0) {
+			throw new IllegalStateException("Heap is empty");
+		}
+		int result = values[0];
+		positions[result] = -1;
+		size--;
+		if (size > 0) {
+			values[0] = values[size];
+			priorities[0] = priorities[size];
+			positions[values[0]] = 0;
+			siftDown(0);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the value with the lowest priority without removing it
+	 * 
+	 * @return The value with the lowest priority
+	 * @throws IllegalStateException
+	 *             Thrown if the heap is empty
+	 */
+	public int peek() {
+		if (size == 0) {
+			throw new IllegalStateException("Heap is empty");
+		}
+		return values[0];
+	}
+
+	/**
+	 * Returns the lowest priority in the heap
+	 * 
+	 * @return The priority of {@link #peek()}
+	 * @throws IllegalStateException
+	 *             Thrown if the heap is empty
+	 */
+	public float peekPriority() {
+		if (size == 0) {
+			throw new IllegalStateException("Heap is empty");
+		}
+		return priorities[0];
+	}
+
+	/**
+	 * Returns if a value is in the heap
+	 * 
+	 * @param value
+	 *            The value to check
+	 * @return True if the value is in the heap
+	 */
+	public boolean contains(int value) {
+		return positions[value] >= 0;
+	}
+
+	/**
+	 * Removes all values from the heap
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			positions[values[i]] = -1;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Returns if the heap is empty
+	 * 
+	 * @return True if there are no values in the heap
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of values in the heap
+	 * 
+	 * @return 0 if the heap is empty
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of distinct values the heap can store
+	 * 
+	 * @return The capacity passed to the constructor
+	 */
+	public int getCapacity() {
+		return positions.length;
+	}
+
+	private void siftUp(int position) {
+		int value = values[position];
+		float priority = priorities[position];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (priorities[parent] <= priority) {
+				break;
+			}
+			values[position] = values[parent];
+			priorities[position] = priorities[parent];
+			positions[values[position]] = position;
+			position = parent;
+		}
+		values[position] = value;
+		priorities[position] = priority;
+		positions[value] = position;
+	}
+
+	private void siftDown(int position) {
+		int value = values[position];
+		float priority = priorities[position];
+		int half = size >>> 1;
+		while (position < half) {
+			int child = (position << 1) + 1;
+			int right = child + 1;
+			if (right < size && priorities[right] < priorities[child]) {
+				child = right;
+			}
+			if (priority <= priorities[child]) {
+				break;
+			}
+			values[position] = values[child];
+			priorities[position] = priorities[child];
+			positions[values[position]] = position;
+			position = child;
+		}
+		values[position] = value;
+		priorities[position] = priority;
+		positions[value] = position;
+	}
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Stores the working state of {@link GridPathfinder} searches so that
+ * searches do not allocate any objects. Contexts are reused between searches
+ * without being cleared.
+ * 
+ * Contexts are not thread safe. When searching from multiple threads, give
+ * each thread its own context; the {@link GridPathfinder} and
+ * {@link PathfindingGrid} can be shared as long as the grid is not modified.
+ */
+public class PathfindingContext {
+	final int[] neighbours = new int[8];
+	final float[] moveCosts = new float[8];
+	final IntArray directions = new IntArray(16);
+	final IntArray abstractPath = new IntArray();
+
+	IntMinHeap openSet;
+	float[] costs;
+	int[] parents;
+	/**
+	 * The id of the last search each node was opened in
+	 */
+	int[] openedSearch;
+	/**
+	 * The id of the last search each node was closed in
+	 */
+	int[] closedSearch;
+	int searchId;
+	int expandedNodes;
+	private ClusterSearch clusterSearch;
+
+	/**
+	 * Constructs a context for grids with up to the given number of tiles.
+	 * The context grows if a larger grid is searched.
+	 * 
+	 * @param capacity
+	 *            The number of tiles (width * height)
+	 */
+	public PathfindingContext(int capacity) {
+		allocate(capacity);
+	}
+
+	/**
+	 * Constructs a context for searching a {@link PathfindingGrid}
+	 * 
+	 * @param grid
+	 *            The {@link PathfindingGrid} to be searched
+	 */
+	public PathfindingContext(PathfindingGrid grid) {
+		this(grid.getWidth() * grid.getHeight());
+	}
+
+	private void allocate(int capacity) {
+		openSet = new IntMinHeap(capacity);
+		costs = new float[capacity];
+		parents = new int[capacity];
+		openedSearch = new int[capacity];
+		closedSearch = new int[capacity];
+		searchId = 0;
+	}
+
+	void begin(int capacity) {
+		if (capacity > costs.length) {
+			allocate(capacity);
+		}
+		openSet.clear();
+		directions.clear();
+		abstractPath.clear();
+		expandedNodes = 0;
+		searchId++;
+		if (searchId == Integer.MAX_VALUE) {
+			Arrays.fill(openedSearch, 0);
+			Arrays.fill(closedSearch, 0);
+			searchId = 1;
+		}
+	}
+
+	boolean isOpened(int node) {
+		return openedSearch[node] == searchId;
+	}
+
+	boolean isClosed(int node) {
+		return closedSearch[node] == searchId;
+	}
+
+	void open(int node, int parent, float cost, float estimate) {
+		openedSearch[node] = searchId;
+		parents[node] = parent;
+		costs[node] = cost;
+		openSet.add(node, cost + estimate);
+	}
+
+	void close(int node) {
+		closedSearch[node] = searchId;
+		expandedNodes++;
+	}
+
+	ClusterSearch getClusterSearch(int clusterSize) {
+		if (clusterSearch == null || clusterSearch.clusterSize != clusterSize) {
+			clusterSearch = new ClusterSearch(clusterSize);
+		}
+		return clusterSearch;
+	}
+
+	/**
+	 * Returns the number of tiles expanded by the last search
+	 * 
+	 * @return 0 if no search has been made
+	 */
+	public int getExpandedNodes() {
+		return expandedNodes;
+	}
+
+	/**
+	 * Returns the number of tiles this context can search without growing
+	 * 
+	 * @return The number of tiles
+	 */
+	public int getCapacity() {
+		return costs.length;
+	}
+}
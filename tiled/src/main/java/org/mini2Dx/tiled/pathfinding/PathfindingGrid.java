@@ -0,0 +1,474 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import java.util.Arrays;
+
+import org.mini2Dx.core.exception.MdxException;
+import org.mini2Dx.tiled.Orientation;
+import org.mini2Dx.tiled.StaggerAxis;
+import org.mini2Dx.tiled.StaggerIndex;
+import org.mini2Dx.tiled.TiledMap;
+import org.mini2Dx.tiled.collisions.TiledCollisionMapper;
+
+/**
+ * A grid of walkable and blocked tiles for {@link GridPathfinder} searches.
+ * Tiles are stored in a single row-major array and are addressed either by
+ * x,y coordinates or by their index (y * width + x).
+ * 
+ * The neighbours of each tile depend on the {@link Orientation} of the grid:
+ * orthogonal and isometric grids connect each tile to its 4 edge neighbours
+ * and optionally its 4 diagonal neighbours (without cutting corners),
+ * hexagonal grids connect each tile to its 6 neighbours and staggered
+ * isometric grids connect each tile to its 4 edge neighbours in the adjacent
+ * staggered rows or columns.
+ */
+public class PathfindingGrid {
+	/**
+	 * The cost of a diagonal move on orthogonal and isometric grids
+	 */
+	public static final float DIAGONAL_COST = 1.4142135f;
+
+	private final int width, height;
+	private final Orientation orientation;
+	private final StaggerAxis staggerAxis;
+	private final StaggerIndex staggerIndex;
+	private final boolean allowDiagonals;
+	private final byte[] blocked;
+	private float[] costs;
+	private volatile int[] regions;
+
+	/**
+	 * Constructs an orthogonal grid allowing diagonal moves from the result of
+	 * {@link TiledCollisionMapper#mapCollisionsByLayer(TiledMap, int)}
+	 * 
+	 * @param collisions
+	 *            The collisions where [x][y] is non-zero if the tile is blocked
+	 */
+	public PathfindingGrid(byte[][] collisions) {
+		this(collisions, Orientation.ORTHOGONAL, StaggerAxis.Y, StaggerIndex.ODD, true);
+	}
+
+	/**
+	 * Constructs a grid matching the orientation of a {@link TiledMap} from
+	 * the result of
+	 * {@link TiledCollisionMapper#mapCollisionsByLayer(TiledMap, int)}
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} the collisions were mapped from
+	 * @param collisions
+	 *            The collisions where [x][y] is non-zero if the tile is blocked
+	 * @param allowDiagonals
+	 *            True if diagonal moves are allowed on orthogonal and isometric
+	 *            maps
+	 */
+	public PathfindingGrid(TiledMap tiledMap, byte[][] collisions, boolean allowDiagonals) {
+		this(collisions, tiledMap.getOrientation(), tiledMap.getStaggerAxis(), tiledMap.getStaggerIndex(),
+				allowDiagonals);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param collisions
+	 *            The collisions where [x][y] is non-zero if the tile is blocked
+	 * @param orientation
+	 *            The {@link Orientation} of the grid
+	 * @param staggerAxis
+	 *            The {@link StaggerAxis} of hexagonal and staggered isometric
+	 *            grids
+	 * @param staggerIndex
+	 *            The {@link StaggerIndex} of hexagonal and staggered isometric
+	 *            grids
+	 * @param allowDiagonals
+	 *            True if diagonal moves are allowed on orthogonal and isometric
+	 *            grids
+	 */
+	public PathfindingGrid(byte[][] collisions, Orientation orientation, StaggerAxis staggerAxis,
+			StaggerIndex staggerIndex, boolean allowDiagonals) {
+		this(collisions.length, collisions.length == 0 ? 0 : collisions[0].length, orientation, staggerAxis,
+				staggerIndex, allowDiagonals);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				if (collisions[x][y] != 0) {
+					blocked[(y * width) + x] = 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Constructs a grid where every tile is walkable
+	 * 
+	 * @param width
+	 *            The width in tiles
+	 * @param height
+	 *            The height in tiles
+	 * @param orientation
+	 *            The {@link Orientation} of the grid
+	 * @param staggerAxis
+	 *            The {@link StaggerAxis} of hexagonal and staggered isometric
+	 *            grids
+	 * @param staggerIndex
+	 *            The {@link StaggerIndex} of hexagonal and staggered isometric
+	 *            grids
+	 * @param allowDiagonals
+	 *            True if diagonal moves are allowed on orthogonal and isometric
+	 *            grids
+	 */
+	public PathfindingGrid(int width, int height, Orientation orientation, StaggerAxis staggerAxis,
+			StaggerIndex staggerIndex, boolean allowDiagonals) {
+		if (orientation == null || orientation == Orientation.UNKNOWN) {
+			throw new MdxException(orientation + " is not a supported orientation for pathfinding");
+		}
+		this.width = width;
+		this.height = height;
+		this.orientation = orientation;
+		this.staggerAxis = staggerAxis == null ? StaggerAxis.Y : staggerAxis;
+		this.staggerIndex = staggerIndex == null ? StaggerIndex.ODD : staggerIndex;
+		this.allowDiagonals = allowDiagonals;
+		this.blocked = new byte[width * height];
+	}
+
+	/**
+	 * Returns if a tile can be moved through
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @return False if the tile is blocked or outside the grid
+	 */
+	public boolean isWalkable(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return false;
+		}
+		return blocked[(y * width) + x] == 0;
+	}
+
+	/**
+	 * Sets if a tile is blocked
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @param blocked
+	 *            True if the tile cannot be moved through
+	 */
+	public void setBlocked(int x, int y, boolean blocked) {
+		this.blocked[getIndex(x, y)] = (byte) (blocked ? 1 : 0);
+		regions = null;
+	}
+
+	/**
+	 * Returns the id of the connected region containing a tile. Paths only
+	 * exist between tiles of the same region. Regions are computed on the
+	 * first call after the grid is modified.
+	 * 
+	 * @param index
+	 *            The index of the tile
+	 * @return The region id or 0 if the tile is blocked
+	 */
+	public int getRegion(int index) {
+		int[] result = regions;
+		if (result == null) {
+			result = computeRegions();
+		}
+		return result[index];
+	}
+
+	private synchronized int[] computeRegions() {
+		if (regions != null) {
+			return regions;
+		}
+		int[] result = new int[blocked.length];
+		int[] queue = new int[blocked.length];
+		int[] neighbours = new int[8];
+		float[] moveCosts = new float[8];
+		int totalRegions = 0;
+
+		for (int i = 0; i < blocked.length; i++) {
+			if (blocked[i] != 0 || result[i] != 0) {
+				continue;
+			}
+			totalRegions++;
+			result[i] = totalRegions;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = i;
+			while (head < tail) {
+				int total = getNeighbours(queue[head++], neighbours, moveCosts);
+				for (int j = 0; j < total; j++) {
+					if (result[neighbours[j]] == 0) {
+						result[neighbours[j]] = totalRegions;
+						queue[tail++] = neighbours[j];
+					}
+				}
+			}
+		}
+		regions = result;
+		return result;
+	}
+
+	/**
+	 * Returns the cost of moving onto a tile. Defaults to 1.
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @return The cost multiplier of the tile
+	 */
+	public float getCost(int x, int y) {
+		int index = getIndex(x, y);
+		return costs == null ? 1f : costs[index];
+	}
+
+	float getCost(int index) {
+		return costs == null ? 1f : costs[index];
+	}
+
+	/**
+	 * Sets the cost of moving onto a tile. Grids with costs other than 1 are
+	 * not searched with jump point search.
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @param cost
+	 *            The cost multiplier of the tile. Must be 1 or greater.
+	 */
+	public void setCost(int x, int y, float cost) {
+		if (cost < 1f) {
+			throw new IllegalArgumentException("cost must be 1 or greater");
+		}
+		int index = getIndex(x, y);
+		if (costs == null) {
+			if (cost == 1f) {
+				return;
+			}
+			costs = new float[width * height];
+			Arrays.fill(costs, 1f);
+		}
+		costs[index] = cost;
+	}
+
+	/**
+	 * Returns if all tiles have a cost of 1
+	 * 
+	 * @return True if no tile costs have been set
+	 */
+	public boolean isUniformCost() {
+		return costs == null;
+	}
+
+	/**
+	 * Returns if the tiles of this grid are connected as a square grid, i.e.
+	 * an orthogonal or isometric grid
+	 * 
+	 * @return False for hexagonal and staggered isometric grids
+	 */
+	public boolean isSquareGrid() {
+		return orientation == Orientation.ORTHOGONAL || orientation == Orientation.ISOMETRIC;
+	}
+
+	/**
+	 * Stores the neighbours of a tile that can be moved to
+	 * 
+	 * @param index
+	 *            The index of the tile
+	 * @param neighbours
+	 *            An array of at least 8 elements to store the neighbour indices
+	 *            in
+	 * @param moveCosts
+	 *            An array of at least 8 elements to store the cost of moving
+	 *            to each neighbour in, including the cost of the neighbouring
+	 *            tile
+	 * @return The number of neighbours stored
+	 */
+	public int getNeighbours(int index, int[] neighbours, float[] moveCosts) {
+		int x = index % width;
+		int y = index / width;
+		int total = 0;
+
+		switch (orientation) {
+		case ORTHOGONAL:
+		case ISOMETRIC: {
+			boolean left = isWalkable(x - 1, y);
+			boolean right = isWalkable(x + 1, y);
+			boolean up = isWalkable(x, y - 1);
+			boolean down = isWalkable(x, y + 1);
+			total = addNeighbour(left, x - 1, y, 1f, neighbours, moveCosts, total);
+			total = addNeighbour(right, x + 1, y, 1f, neighbours, moveCosts, total);
+			total = addNeighbour(up, x, y - 1, 1f, neighbours, moveCosts, total);
+			total = addNeighbour(down, x, y + 1, 1f, neighbours, moveCosts, total);
+			if (allowDiagonals) {
+				total = addNeighbour(left && up && isWalkable(x - 1, y - 1), x - 1, y - 1, DIAGONAL_COST, neighbours,
+						moveCosts, total);
+				total = addNeighbour(right && up && isWalkable(x + 1, y - 1), x + 1, y - 1, DIAGONAL_COST,
+						neighbours, moveCosts, total);
+				total = addNeighbour(left && down && isWalkable(x - 1, y + 1), x - 1, y + 1, DIAGONAL_COST,
+						neighbours, moveCosts, total);
+				total = addNeighbour(right && down && isWalkable(x + 1, y + 1), x + 1, y + 1, DIAGONAL_COST,
+						neighbours, moveCosts, total);
+			}
+			break;
+		}
+		case HEXAGONAL:
+		case ISOMETRIC_STAGGERED: {
+			boolean hexagonal = orientation == Orientation.HEXAGONAL;
+			if (staggerAxis == StaggerAxis.X) {
+				int offset = isStaggered(x) ? 0 : -1;
+				if (hexagonal) {
+					total = addNeighbour(isWalkable(x, y - 1), x, y - 1, 1f, neighbours, moveCosts, total);
+					total = addNeighbour(isWalkable(x, y + 1), x, y + 1, 1f, neighbours, moveCosts, total);
+				}
+				for (int i = -1; i <= 1; i += 2) {
+					total = addNeighbour(isWalkable(x + i, y + offset), x + i, y + offset, 1f, neighbours, moveCosts,
+							total);
+					total = addNeighbour(isWalkable(x + i, y + offset + 1), x + i, y + offset + 1, 1f, neighbours,
+							moveCosts, total);
+				}
+			} else {
+				int offset = isStaggered(y) ? 0 : -1;
+				if (hexagonal) {
+					total = addNeighbour(isWalkable(x - 1, y), x - 1, y, 1f, neighbours, moveCosts, total);
+					total = addNeighbour(isWalkable(x + 1, y), x + 1, y, 1f, neighbours, moveCosts, total);
+				}
+				for (int i = -1; i <= 1; i += 2) {
+					total = addNeighbour(isWalkable(x + offset, y + i), x + offset, y + i, 1f, neighbours, moveCosts,
+							total);
+					total = addNeighbour(isWalkable(x + offset + 1, y + i), x + offset + 1, y + i, 1f, neighbours,
+							moveCosts, total);
+				}
+			}
+			break;
+		}
+		default:
+			break;
+		}
+		return total;
+	}
+
+	private int addNeighbour(boolean walkable, int x, int y, float moveCost, int[] neighbours, float[] moveCosts,
+			int total) {
+		if (!walkable) {
+			return total;
+		}
+		int index = (y * width) + x;
+		neighbours[total] = index;
+		moveCosts[total] = costs == null ? moveCost : moveCost * costs[index];
+		return total + 1;
+	}
+
+	/**
+	 * Returns if a row (or column on {@link StaggerAxis#X} grids) is shifted
+	 * by half a tile
+	 */
+	private boolean isStaggered(int rowOrColumn) {
+		return (rowOrColumn & 1) == (staggerIndex == StaggerIndex.ODD ? 1 : 0);
+	}
+
+	/**
+	 * Returns a lower bound of the cost of moving between two tiles
+	 * 
+	 * @param fromIndex
+	 *            The index of the first tile
+	 * @param toIndex
+	 *            The index of the second tile
+	 * @return The estimated cost
+	 */
+	public float getHeuristic(int fromIndex, int toIndex) {
+		int fromX = fromIndex % width;
+		int fromY = fromIndex / width;
+		int toX = toIndex % width;
+		int toY = toIndex / width;
+
+		switch (orientation) {
+		case HEXAGONAL:
+		case ISOMETRIC_STAGGERED: {
+			// Convert offset coordinates to axial coordinates
+			int fromQ, fromR, toQ, toR;
+			int parity = staggerIndex == StaggerIndex.ODD ? 0 : 1;
+			if (staggerAxis == StaggerAxis.X) {
+				fromQ = fromX;
+				fromR = fromY - ((fromX + (parity * (fromX & 1)) - ((1 - parity) * (fromX & 1))) >> 1);
+				toQ = toX;
+				toR = toY - ((toX + (parity * (toX & 1)) - ((1 - parity) * (toX & 1))) >> 1);
+			} else {
+				fromQ = fromX - ((fromY + (parity * (fromY & 1)) - ((1 - parity) * (fromY & 1))) >> 1);
+				fromR = fromY;
+				toQ = toX - ((toY + (parity * (toY & 1)) - ((1 - parity) * (toY & 1))) >> 1);
+				toR = toY;
+			}
+			int dq = toQ - fromQ;
+			int dr = toR - fromR;
+			return (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+		}
+		default: {
+			int dx = Math.abs(toX - fromX);
+			int dy = Math.abs(toY - fromY);
+			if (!allowDiagonals) {
+				return dx + dy;
+			}
+			return dx > dy ? dx + ((DIAGONAL_COST - 1f) * dy) : dy + ((DIAGONAL_COST - 1f) * dx);
+		}
+		}
+	}
+
+	/**
+	 * Returns the index of a tile
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @return y * width + x
+	 */
+	public int getIndex(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			throw new ArrayIndexOutOfBoundsException("Tile " + x + "," + y + " is outside the grid");
+		}
+		return (y * width) + x;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public Orientation getOrientation() {
+		return orientation;
+	}
+
+	public StaggerAxis getStaggerAxis() {
+		return staggerAxis;
+	}
+
+	public StaggerIndex getStaggerIndex() {
+		return staggerIndex;
+	}
+
+	/**
+	 * Returns if diagonal moves are allowed on orthogonal and isometric grids
+	 * 
+	 * @return True if diagonal moves are allowed
+	 */
+	public boolean isDiagonalsAllowed() {
+		return allowDiagonals;
+	}
+}
@@ -82,6 +82,15 @@ public class AnimatedTileRenderer implements TileRenderer {
 		tileImage.setFlip(previousFlipX, previousFlipY);
 	}
 
+	/**
+	 * Returns the frames of the animation
+	 * 
+	 * @return The {@link TileFrame}s in playback order
+	 */
+	public TileFrame[] getFrames() {
+		return frames;
+	}
+
 	@Override
 	public Sprite getCurrentTileImage() {
 		return tilesetSource.getTileImage(frames[currentFrame].tileId);
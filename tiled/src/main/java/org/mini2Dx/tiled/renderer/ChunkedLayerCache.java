@@ -0,0 +1,321 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.tiled.Tile;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TileLayerListener;
+import org.mini2Dx.tiled.TiledMap;
+
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Caches fixed-size chunks of {@link TileLayer}s in {@link SpriteCache}s.
+ * Chunks are only cached once they are drawn and the least recently drawn
+ * chunk is reused once the maximum amount of chunks are cached. Changing a
+ * tile only invalidates the chunk containing it once the change is flushed by
+ * {@link TiledMap#update(float)}.
+ */
+class ChunkedLayerCache implements TileLayerListener, Disposable {
+	private final TiledMap tiledMap;
+	private final int chunkSize;
+	private final int maxChunks;
+	private final IntMap<CachedChunk[]> layerChunks = new IntMap<CachedChunk[]>();
+	private final List<TileLayer> layers = new ArrayList<TileLayer>();
+
+	private CachedChunk mostRecent, leastRecent;
+	private int totalChunks;
+	private int[] rowBuffer;
+	private SpriteCacheShader shader;
+
+	public ChunkedLayerCache(TiledMap tiledMap, int chunkSize, int maxChunks) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("chunkSize must be greater than 0");
+		}
+		if (maxChunks < 1) {
+			throw new IllegalArgumentException("maxChunks must be greater than 0");
+		}
+		this.tiledMap = tiledMap;
+		this.chunkSize = chunkSize;
+		this.maxChunks = maxChunks;
+		rowBuffer = new int[chunkSize];
+	}
+
+	/**
+	 * Draws the chunks overlapping a region of a {@link TileLayer}, caching
+	 * any chunks that are not cached or have changed
+	 */
+	public void draw(Graphics g, TileLayer layer, int startTileX, int startTileY, int widthInTiles,
+			int heightInTiles) {
+		CachedChunk[] chunks = getChunks(layer);
+		int chunksWide = getChunksWide(layer);
+
+		int startChunkX = Math.max(0, startTileX) / chunkSize;
+		int startChunkY = Math.max(0, startTileY) / chunkSize;
+		int endChunkX = (Math.min(startTileX + widthInTiles, layer.getWidth()) - 1) / chunkSize;
+		int endChunkY = (Math.min(startTileY + heightInTiles, layer.getHeight()) - 1) / chunkSize;
+
+		for (int chunkY = startChunkY; chunkY <= endChunkY; chunkY++) {
+			for (int chunkX = startChunkX; chunkX <= endChunkX; chunkX++) {
+				int index = (chunkY * chunksWide) + chunkX;
+				CachedChunk chunk = chunks[index];
+				if (chunk == null) {
+					chunk = obtainChunk();
+					chunk.layerIndex = layer.getIndex();
+					chunk.index = index;
+					chunk.dirty = true;
+					chunks[index] = chunk;
+				}
+				if (chunk.dirty) {
+					cacheChunk(chunk, layer, chunkX * chunkSize, chunkY * chunkSize);
+				}
+				moveToFront(chunk);
+
+				if (chunk.spriteCache != null && !chunk.empty) {
+					g.drawSpriteCache(chunk.spriteCache, chunk.cacheId);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void onTilesChanged(TileLayer layer, int x, int y, int width, int height) {
+		CachedChunk[] chunks = layerChunks.get(layer.getIndex());
+		if (chunks == null || width < 1 || height < 1) {
+			return;
+		}
+		int chunksWide = getChunksWide(layer);
+		int endChunkX = Math.min((x + width - 1) / chunkSize, chunksWide - 1);
+		int endChunkY = Math.min((y + height - 1) / chunkSize, (chunks.length / chunksWide) - 1);
+		for (int chunkY = Math.max(0, y / chunkSize); chunkY <= endChunkY; chunkY++) {
+			for (int chunkX = Math.max(0, x / chunkSize); chunkX <= endChunkX; chunkX++) {
+				CachedChunk chunk = chunks[(chunkY * chunksWide) + chunkX];
+				if (chunk != null) {
+					chunk.dirty = true;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void dispose() {
+		for (int i = 0; i < layers.size(); i++) {
+			layers.get(i).removeListener(this);
+		}
+		layers.clear();
+		layerChunks.clear();
+
+		CachedChunk chunk = mostRecent;
+		while (chunk != null) {
+			if (chunk.spriteCache != null) {
+				chunk.spriteCache.dispose();
+			}
+			chunk = chunk.next;
+		}
+		mostRecent = null;
+		leastRecent = null;
+		totalChunks = 0;
+
+		if (shader != null) {
+			shader.release();
+			shader = null;
+		}
+	}
+
+	/**
+	 * Returns the width and height of each chunk
+	 * 
+	 * @return The chunk size in tiles
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Returns the maximum amount of chunks that will be cached
+	 * 
+	 * @return The maximum amount of cached chunks
+	 */
+	public int getMaxChunks() {
+		return maxChunks;
+	}
+
+	private CachedChunk[] getChunks(TileLayer layer) {
+		CachedChunk[] chunks = layerChunks.get(layer.getIndex());
+		if (chunks == null) {
+			int chunksHigh = (layer.getHeight() + chunkSize - 1) / chunkSize;
+			chunks = new CachedChunk[getChunksWide(layer) * chunksHigh];
+			layerChunks.put(layer.getIndex(), chunks);
+			layer.addListener(this);
+			layers.add(layer);
+		}
+		return chunks;
+	}
+
+	private int getChunksWide(TileLayer layer) {
+		return (layer.getWidth() + chunkSize - 1) / chunkSize;
+	}
+
+	private CachedChunk obtainChunk() {
+		if (totalChunks < maxChunks) {
+			totalChunks++;
+			return new CachedChunk();
+		}
+		CachedChunk result = leastRecent;
+		unlink(result);
+		CachedChunk[] chunks = layerChunks.get(result.layerIndex);
+		if (chunks != null && chunks[result.index] == result) {
+			chunks[result.index] = null;
+		}
+		return result;
+	}
+
+	private void cacheChunk(CachedChunk chunk, TileLayer layer, int startX, int startY) {
+		int width = Math.min(chunkSize, layer.getWidth() - startX);
+		int height = Math.min(chunkSize, layer.getHeight() - startY);
+
+		chunk.dirty = false;
+		chunk.empty = true;
+		for (int y = 0; y < height && chunk.empty; y++) {
+			layer.getRawTileIds(startX, startY + y, width, rowBuffer, 0);
+			for (int x = 0; x < width; x++) {
+				if (TileLayer.decodeTileId(rowBuffer[x]) > 0) {
+					chunk.empty = false;
+					break;
+				}
+			}
+		}
+		if (chunk.empty) {
+			return;
+		}
+
+		if (chunk.spriteCache == null) {
+			if (shader == null) {
+				shader = new SpriteCacheShader();
+			}
+			chunk.spriteCache = new SpriteCache(chunkSize * chunkSize, shader, true);
+		} else {
+			chunk.spriteCache.clear();
+		}
+		chunk.spriteCache.beginCache();
+		for (int y = 0; y < height; y++) {
+			layer.getRawTileIds(startX, startY + y, width, rowBuffer, 0);
+			for (int x = 0; x < width; x++) {
+				int tileId = TileLayer.decodeTileId(rowBuffer[x]);
+				if (tileId < 1) {
+					continue;
+				}
+				Tile tile = tiledMap.getTile(tileId);
+				if (tile == null) {
+					continue;
+				}
+				chunk.spriteCache.add(tile.getTileRenderer().getCurrentTileImage(),
+						(startX + x) * tiledMap.getTileWidth(), (startY + y) * tiledMap.getTileHeight());
+			}
+		}
+		chunk.cacheId = chunk.spriteCache.endCache();
+	}
+
+	private void moveToFront(CachedChunk chunk) {
+		if (mostRecent == chunk) {
+			return;
+		}
+		unlink(chunk);
+		chunk.next = mostRecent;
+		if (mostRecent != null) {
+			mostRecent.previous = chunk;
+		}
+		mostRecent = chunk;
+		if (leastRecent == null) {
+			leastRecent = chunk;
+		}
+	}
+
+	private void unlink(CachedChunk chunk) {
+		if (chunk.previous != null) {
+			chunk.previous.next = chunk.next;
+		} else if (mostRecent == chunk) {
+			mostRecent = chunk.next;
+		}
+		if (chunk.next != null) {
+			chunk.next.previous = chunk.previous;
+		} else if (leastRecent == chunk) {
+			leastRecent = chunk.previous;
+		}
+		chunk.previous = null;
+		chunk.next = null;
+	}
+
+	private static class CachedChunk {
+		SpriteCache spriteCache;
+		int cacheId;
+		int layerIndex;
+		int index;
+		boolean dirty;
+		boolean empty;
+		CachedChunk previous, next;
+	}
+
+	/**
+	 * The default {@link SpriteCache} shader, compiled once and shared by all
+	 * chunks. {@link SpriteCache#dispose()} disposes its shader so the shader
+	 * is only disposed by {@link #release()}.
+	 */
+	private static class SpriteCacheShader extends ShaderProgram {
+		private static final String VERTEX_SHADER = "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" //
+				+ "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" //
+				+ "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" //
+				+ "uniform mat4 u_projectionViewMatrix;\n" //
+				+ "varying vec4 v_color;\n" //
+				+ "varying vec2 v_texCoords;\n" //
+				+ "\n" //
+				+ "void main()\n" //
+				+ "{\n" //
+				+ "   v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" //
+				+ "   v_color.a = v_color.a * (255.0/254.0);\n" //
+				+ "   v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" //
+				+ "   gl_Position =  u_projectionViewMatrix * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" //
+				+ "}\n";
+		private static final String FRAGMENT_SHADER = "#ifdef GL_ES\n" //
+				+ "precision mediump float;\n" //
+				+ "#endif\n" //
+				+ "varying vec4 v_color;\n" //
+				+ "varying vec2 v_texCoords;\n" //
+				+ "uniform sampler2D u_texture;\n" //
+				+ "void main()\n" //
+				+ "{\n" //
+				+ "  gl_FragColor = v_color * texture2D(u_texture, v_texCoords);\n" //
+				+ "}";
+
+		public SpriteCacheShader() {
+			super(VERTEX_SHADER, FRAGMENT_SHADER);
+			if (!isCompiled()) {
+				throw new IllegalArgumentException("Error compiling shader: " + getLog());
+			}
+		}
+
+		@Override
+		public void dispose() {
+		}
+
+		public void release() {
+			super.dispose();
+		}
+	}
+}
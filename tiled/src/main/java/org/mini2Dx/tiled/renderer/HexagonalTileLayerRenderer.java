@@ -12,9 +12,9 @@
 package org.mini2Dx.tiled.renderer;
 
 import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.tiled.Tile;
 import org.mini2Dx.tiled.TileLayer;
 import org.mini2Dx.tiled.TiledMap;
-import org.mini2Dx.tiled.Tileset;
 
 import com.badlogic.gdx.math.MathUtils;
 
@@ -29,6 +29,8 @@ public class HexagonalTileLayerRenderer implements TileLayerRenderer {
 	private final int quarterHexWidth, quarterHexHeight, halfHexWidth, halfHexHeight, threeQuarterHexWidth,
 			threeQuarterHexHeight;
 
+	private int[] rowBuffer = new int[0];
+
 	public HexagonalTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers) {
 		super();
 		this.cacheLayers = cacheLayers;
@@ -71,13 +73,15 @@ public class HexagonalTileLayerRenderer implements TileLayerRenderer {
 
 	private void drawStaggeredXLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX,
 			int startTileY, int widthInTiles, int heightInTiles) {
+		int[] row = getRowBuffer(widthInTiles);
 		for (int y = 0; y < heightInTiles; y++) {
+			layer.getRawTileIds(startTileX, y + startTileY, widthInTiles, row, 0);
 			switch (tiledMap.getStaggerIndex()) {
 			case EVEN: {
 				int row1Offset = startTileX % 2 == 0 ? 1 : 0;
 				int row2Offset = startTileX % 2 == 0 ? 0 : 1;
 				for (int x = row1Offset; x < widthInTiles; x += 2) {
-					int tileId = layer.getTileId(x + startTileX, y + startTileY);
+					int tileId = TileLayer.decodeTileId(row[x]);
 
 					if (tileId < 1) {
 						continue;
@@ -87,7 +91,7 @@ public class HexagonalTileLayerRenderer implements TileLayerRenderer {
 					renderTile(g, tileId, tileRenderX, tileRenderY);
 				}
 				for (int x = row2Offset; x < widthInTiles; x += 2) {
-					int tileId = layer.getTileId(x + startTileX, y + startTileY);
+					int tileId = TileLayer.decodeTileId(row[x]);
 
 					if (tileId < 1) {
 						continue;
@@ -103,7 +107,7 @@ public class HexagonalTileLayerRenderer implements TileLayerRenderer {
 				int row1Offset = startTileX % 2 == 0 ? 0 : 1;
 				int row2Offset = startTileX % 2 == 0 ? 1 : 0;
 				for (int x = row1Offset; x <  + widthInTiles; x += 2) {
-					int tileId = layer.getTileId(x + startTileX, y + startTileY);
+					int tileId = TileLayer.decodeTileId(row[x]);
 
 					if (tileId < 1) {
 						continue;
@@ -113,7 +117,7 @@ public class HexagonalTileLayerRenderer implements TileLayerRenderer {
 					renderTile(g, tileId, tileRenderX, tileRenderY);
 				}
 				for (int x = row2Offset; x < widthInTiles; x += 2) {
-					int tileId = layer.getTileId(x + startTileX, y + startTileY);
+					int tileId = TileLayer.decodeTileId(row[x]);
 
 					if (tileId < 1) {
 						continue;
@@ -130,11 +134,13 @@ public class HexagonalTileLayerRenderer implements TileLayerRenderer {
 
 	private void drawStaggeredYLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX,
 			int startTileY, int widthInTiles, int heightInTiles) {
+		int[] row = getRowBuffer(widthInTiles);
 		for (int y = 0; y < heightInTiles; y++) {
+			layer.getRawTileIds(startTileX, y + startTileY, widthInTiles, row, 0);
 			int tileRenderY = renderY + (y * threeQuarterHexHeight);
 
 			for (int x = 0; x < widthInTiles; x++) {
-				int tileId = layer.getTileId(x + startTileX, y + startTileY);
+				int tileId = TileLayer.decodeTileId(row[x]);
 
 				if (tileId < 1) {
 					continue;
@@ -163,13 +169,17 @@ public class HexagonalTileLayerRenderer implements TileLayerRenderer {
 		}
 	}
 
+	private int[] getRowBuffer(int length) {
+		if (rowBuffer.length < length) {
+			rowBuffer = new int[length];
+		}
+		return rowBuffer;
+	}
+
 	private void renderTile(Graphics g, int tileId, int tileRenderX, int tileRenderY) {
-		for (int i = 0; i < tiledMap.getTilesets().size(); i++) {
-			Tileset tileset = tiledMap.getTilesets().get(i);
-			if (tileset.contains(tileId)) {
-				tileset.getTile(tileId).draw(g, tileRenderX, tileRenderY);
-				break;
-			}
+		Tile tile = tiledMap.getTile(tileId);
+		if (tile != null) {
+			tile.draw(g, tileRenderX, tileRenderY);
 		}
 	}
 
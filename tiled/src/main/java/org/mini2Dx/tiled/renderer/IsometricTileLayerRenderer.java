@@ -12,9 +12,9 @@
 package org.mini2Dx.tiled.renderer;
 
 import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.tiled.Tile;
 import org.mini2Dx.tiled.TileLayer;
 import org.mini2Dx.tiled.TiledMap;
-import org.mini2Dx.tiled.Tileset;
 
 import com.badlogic.gdx.math.MathUtils;
 
@@ -69,12 +69,9 @@ public class IsometricTileLayerRenderer implements TileLayerRenderer {
 				int tileRenderX = MathUtils.round(renderX + ((relativeTileX - relativeTileY) * halfTileWidth));
 				int tileRenderY = MathUtils.round(renderY + ((relativeTileX + relativeTileY) * halfTileHeight));
 				
-				for (int i = 0; i < tiledMap.getTilesets().size(); i++) {
-					Tileset tileset = tiledMap.getTilesets().get(i);
-					if (tileset.contains(tileId)) {
-						tileset.getTile(tileId).draw(g, tileRenderX, tileRenderY);
-						break;
-					}
+				Tile tile = tiledMap.getTile(tileId);
+				if (tile != null) {
+					tile.draw(g, tileRenderX, tileRenderY);
 				}
 			}
 		}
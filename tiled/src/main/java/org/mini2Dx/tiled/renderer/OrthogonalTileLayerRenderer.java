@@ -11,40 +11,59 @@
  */
 package org.mini2Dx.tiled.renderer;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.mini2Dx.core.geom.Rectangle;
 import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.tiled.Tile;
 import org.mini2Dx.tiled.TileLayer;
 import org.mini2Dx.tiled.TiledMap;
-import org.mini2Dx.tiled.Tileset;
 
-import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.math.MathUtils;
 
 /**
  * Renders orthogonal {@link TileLayer}s
  */
 public class OrthogonalTileLayerRenderer implements TileLayerRenderer {
-	private TiledMapRenderArea mapClip, tmpClip;
-	private SpriteCache layerCache;
-	private Map<Integer, Integer> layerCacheIds;
+	/**
+	 * The default width and height in tiles of cached chunks
+	 */
+	public static final int DEFAULT_CACHE_CHUNK_SIZE = 32;
+	/**
+	 * The default maximum amount of chunks cached at once
+	 */
+	public static final int DEFAULT_MAX_CACHED_CHUNKS = 64;
+
+	private ChunkedLayerCache layerCache;
+	private int[] rowBuffer = new int[0];
 
 	private final boolean cacheLayers;
 	private final TiledMap tiledMap;
 
 	public OrthogonalTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers) {
+		this(tiledMap, cacheLayers, DEFAULT_CACHE_CHUNK_SIZE, DEFAULT_MAX_CACHED_CHUNKS);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} to render
+	 * @param cacheLayers
+	 *            True if layers should be cached in chunks
+	 * @param cacheChunkSize
+	 *            The width and height in tiles of cached chunks
+	 * @param maxCachedChunks
+	 *            The maximum amount of chunks to cache at once. The least
+	 *            recently drawn chunk is replaced when this is exceeded.
+	 */
+	public OrthogonalTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers, int cacheChunkSize,
+			int maxCachedChunks) {
 		super();
 		this.cacheLayers = cacheLayers;
 		this.tiledMap = tiledMap;
 
 		if (cacheLayers) {
-			layerCache = new SpriteCache(5000, true);
-			layerCacheIds = new HashMap<Integer, Integer>();
+			layerCache = new ChunkedLayerCache(tiledMap, cacheChunkSize, maxCachedChunks);
 		}
-		mapClip = new TiledMapRenderArea();
-		tmpClip = new TiledMapRenderArea();
 	}
 
 	@Override
@@ -88,88 +107,57 @@ public class OrthogonalTileLayerRenderer implements TileLayerRenderer {
 
 	private void renderCachedLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX,
 			int startTileY, int widthInTiles, int heightInTiles) {
-		tmpClip.set(startTileX, startTileY, widthInTiles, heightInTiles);
-		if (!mapClip.equals(tmpClip)) {
-			layerCache.clear();
-			mapClip.set(startTileX, startTileY, widthInTiles, heightInTiles);
-		}
-		if (!layerCacheIds.containsKey(layer)) {
-			renderLayerToCache(g, layer, renderX, renderY, startTileX, startTileY, widthInTiles, heightInTiles);
-		}
-
-		int cacheId = layerCacheIds.get(layer.getIndex());
-		g.drawSpriteCache(layerCache, cacheId);
+		layerCache.draw(g, layer, startTileX, startTileY, widthInTiles, heightInTiles);
 	}
 
 	private void renderLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX, int startTileY,
 			int widthInTiles, int heightInTiles) {
+		int endTileX = Math.min(startTileX + widthInTiles, layer.getWidth());
+		int rowLength = endTileX - startTileX;
+		if (rowLength <= 0) {
+			return;
+		}
+		int[] row = getRowBuffer(rowLength);
+
 		for (int y = startTileY; y < startTileY + heightInTiles && y < layer.getHeight(); y++) {
-			for (int x = startTileX; x < startTileX + widthInTiles && x < layer.getWidth(); x++) {
-				int tileId = layer.getTileId(x, y);
+			int tileRenderY = y * tiledMap.getTileHeight();
+			if (tileRenderY + tiledMap.getTileHeight() < g.getTranslationY()) {
+				continue;
+			}
+			if (tileRenderY > g.getTranslationY() + g.getViewportHeight()) {
+				continue;
+			}
+			layer.getRawTileIds(startTileX, y, rowLength, row, 0);
+
+			for (int i = 0; i < rowLength; i++) {
+				int tileId = TileLayer.decodeTileId(row[i]);
 
 				if (tileId < 1) {
 					continue;
 				}
-				boolean flipHorizontally = layer.isFlippedHorizontally(x, y);
-				boolean flipVertically = layer.isFlippedVertically(x, y);
-				boolean flipDiagonally = layer.isFlippedDiagonally(x, y);
-
-				int tileRenderX = x * tiledMap.getTileWidth();
-				int tileRenderY = y * tiledMap.getTileHeight();
+				int tileRenderX = (startTileX + i) * tiledMap.getTileWidth();
 
 				if (tileRenderX + tiledMap.getTileWidth() < g.getTranslationX()) {
 					continue;
 				}
-				if (tileRenderY + tiledMap.getTileHeight() < g.getTranslationY()) {
-					continue;
-				}
 				if (tileRenderX > g.getTranslationX() + g.getViewportWidth()) {
 					continue;
 				}
-				if (tileRenderY > g.getTranslationY() + g.getViewportHeight()) {
-					continue;
-				}
 
-				for (int i = 0; i < tiledMap.getTilesets().size(); i++) {
-					Tileset tileset = tiledMap.getTilesets().get(i);
-					if (tileset.contains(tileId)) {
-						tileset.getTile(tileId).draw(g, tileRenderX, tileRenderY, flipHorizontally, flipVertically, flipDiagonally);
-						break;
-					}
+				Tile tile = tiledMap.getTile(tileId);
+				if (tile != null) {
+					tile.draw(g, tileRenderX, tileRenderY, TileLayer.decodeFlipHorizontally(row[i]),
+							TileLayer.decodeFlipVertically(row[i]), TileLayer.decodeFlipDiagonally(row[i]));
 				}
 			}
 		}
 	}
 
-	private void renderLayerToCache(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX,
-			int startTileY, int widthInTiles, int heightInTiles) {
-		layerCache.beginCache();
-		for (int y = startTileY; y < startTileY + heightInTiles && y < layer.getHeight(); y++) {
-			for (int x = startTileX; x < startTileX + widthInTiles && x < layer.getWidth(); x++) {
-				int tileId = layer.getTileId(x, y);
-
-				if (tileId < 1) {
-					continue;
-				}
-				
-				boolean flipHorizontally = layer.isFlippedHorizontally(x, y);
-				boolean flipVertically = layer.isFlippedVertically(x, y);
-				boolean flipDiagonally = layer.isFlippedDiagonally(x, y);
-				
-				int tileRenderX = x * tiledMap.getTileWidth();
-				int tileRenderY = y * tiledMap.getTileHeight();
-
-				for (int i = 0; i < tiledMap.getTilesets().size(); i++) {
-					Tileset tileset = tiledMap.getTilesets().get(i);
-					if (tileset.contains(tileId)) {
-						layerCache.add(tileset.getTile(tileId).getTileRenderer().getCurrentTileImage(), tileRenderX,
-								tileRenderY);
-						break;
-					}
-				}
-			}
+	private int[] getRowBuffer(int length) {
+		if (rowBuffer.length < length) {
+			rowBuffer = new int[length];
 		}
-		layerCacheIds.put(layer.getIndex(), layerCache.endCache());
+		return rowBuffer;
 	}
 
 	@Override
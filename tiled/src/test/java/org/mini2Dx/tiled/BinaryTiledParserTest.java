@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.Test;
+import org.mini2Dx.tiled.exception.TiledException;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link BinaryTiledMapConverter} and {@link BinaryTiledParser}
+ */
+public class BinaryTiledParserTest {
+
+	@Test
+	public void testOrthogonal() throws IOException, TiledException {
+		assertConvertedMapEquals("orthogonal.tmx");
+	}
+
+	@Test
+	public void testOrthogonalTsx() throws IOException, TiledException {
+		assertConvertedMapEquals("orthogonal_tsx.tmx");
+	}
+
+	@Test
+	public void testIsometric() throws IOException, TiledException {
+		assertConvertedMapEquals("isometric.tmx");
+	}
+
+	@Test
+	public void testHexagonal() throws IOException, TiledException {
+		assertConvertedMapEquals("hexagonal_x.tmx");
+		assertConvertedMapEquals("hexagonal_y.tmx");
+	}
+
+	@Test
+	public void testFlippedTiles() throws IOException, TiledException {
+		FileHandle tmxFile = getFile("orthogonal.tmx");
+		TiledMap expected = new TiledMap(tmxFile, false, false);
+		TileLayer layer = expected.getTileLayer(0);
+		layer.setTileId(1, 2, 5, true, false, true);
+		layer.setTileId(3, 4, 6, false, true, false);
+
+		FileHandle binaryFile = tmxFile.sibling("flipped.bin");
+		try {
+			BinaryTiledMapConverter converter = new BinaryTiledMapConverter();
+			converter.onBeginParsing("orthogonal", null, null, null, expected.getWidth(), expected.getHeight(),
+					expected.getTileWidth(), expected.getTileHeight(), -1);
+			converter.onTileLayerParsed(layer);
+			converter.write(binaryFile);
+
+			TiledMap result = new TiledMap(new BinaryTiledParser(), binaryFile, false, false);
+			assertTileLayersEqual(layer, result.getTileLayer(0));
+			Assert.assertEquals(true, result.getTileLayer(0).isFlippedDiagonally(1, 2));
+			Assert.assertEquals(true, result.getTileLayer(0).isFlippedVertically(3, 4));
+		} finally {
+			binaryFile.delete();
+		}
+	}
+
+	@Test(expected = TiledException.class)
+	public void testInvalidFile() throws TiledException {
+		new TiledMap(new BinaryTiledParser(), getFile("orthogonal.tmx"), false, false);
+	}
+
+	private void assertConvertedMapEquals(String filename) throws IOException, TiledException {
+		FileHandle tmxFile = getFile(filename);
+		FileHandle binaryFile = tmxFile.sibling(tmxFile.nameWithoutExtension() + ".bin");
+		try {
+			new BinaryTiledMapConverter().convert(tmxFile, binaryFile);
+
+			TiledMap expected = new TiledMap(new TiledParser(), tmxFile, false, false);
+			TiledMap result = new TiledMap(new BinaryTiledParser(), binaryFile, false, false);
+			assertMapsEqual(expected, result);
+		} finally {
+			binaryFile.delete();
+		}
+	}
+
+	private void assertMapsEqual(TiledMap expected, TiledMap result) {
+		Assert.assertEquals(expected.getOrientation(), result.getOrientation());
+		Assert.assertEquals(expected.getStaggerAxis(), result.getStaggerAxis());
+		Assert.assertEquals(expected.getStaggerIndex(), result.getStaggerIndex());
+		Assert.assertEquals(expected.getSideLength(), result.getSideLength());
+		Assert.assertEquals(expected.getBackgroundColor(), result.getBackgroundColor());
+		Assert.assertEquals(expected.getWidth(), result.getWidth());
+		Assert.assertEquals(expected.getHeight(), result.getHeight());
+		Assert.assertEquals(expected.getTileWidth(), result.getTileWidth());
+		Assert.assertEquals(expected.getTileHeight(), result.getTileHeight());
+		Assert.assertEquals(expected.getProperty("testMapProperty"), result.getProperty("testMapProperty"));
+
+		Assert.assertEquals(expected.getTilesets().size(), result.getTilesets().size());
+		for (int i = 0; i < expected.getTilesets().size(); i++) {
+			Tileset expectedTileset = expected.getTilesets().get(i);
+			Tileset resultTileset = result.getTilesets().get(i);
+			Assert.assertEquals(expectedTileset.getFirstGid(), resultTileset.getFirstGid());
+			Assert.assertEquals(expectedTileset.getWidth(), resultTileset.getWidth());
+			Assert.assertEquals(expectedTileset.getTileWidth(), resultTileset.getTileWidth());
+			Assert.assertEquals(expectedTileset.getSpacing(), resultTileset.getSpacing());
+			Assert.assertEquals(expectedTileset.getMargin(), resultTileset.getMargin());
+			assertPropertiesEqual(expectedTileset.getProperties(), resultTileset.getProperties());
+
+			for (int x = 0; x < expectedTileset.getWidthInTiles(); x++) {
+				for (int y = 0; y < expectedTileset.getHeightInTiles(); y++) {
+					Tile expectedTile = expectedTileset.getTile(x, y);
+					Tile resultTile = resultTileset.getTile(x, y);
+					assertPropertiesEqual(expectedTile.getProperties(), resultTile.getProperties());
+					Assert.assertEquals(expectedTile.getTileRenderer().getClass(),
+							resultTile.getTileRenderer().getClass());
+				}
+			}
+		}
+
+		Assert.assertEquals(expected.getLayers().size(), result.getLayers().size());
+		for (int i = 0; i < expected.getLayers().size(); i++) {
+			Layer expectedLayer = expected.getLayers().get(i);
+			Layer resultLayer = result.getLayers().get(i);
+			Assert.assertEquals(expectedLayer.getLayerType(), resultLayer.getLayerType());
+			Assert.assertEquals(expectedLayer.getName(), resultLayer.getName());
+			Assert.assertEquals(expectedLayer.getIndex(), resultLayer.getIndex());
+			Assert.assertEquals(expectedLayer.isVisible(), resultLayer.isVisible());
+			assertPropertiesEqual(expectedLayer.getProperties(), resultLayer.getProperties());
+
+			switch (expectedLayer.getLayerType()) {
+			case TILE:
+				assertTileLayersEqual((TileLayer) expectedLayer, (TileLayer) resultLayer);
+				break;
+			case OBJECT:
+				assertObjectGroupsEqual((TiledObjectGroup) expectedLayer, (TiledObjectGroup) resultLayer);
+				break;
+			}
+		}
+	}
+
+	private void assertTileLayersEqual(TileLayer expected, TileLayer result) {
+		Assert.assertEquals(expected.getWidth(), result.getWidth());
+		Assert.assertEquals(expected.getHeight(), result.getHeight());
+		for (int x = 0; x < expected.getWidth(); x++) {
+			for (int y = 0; y < expected.getHeight(); y++) {
+				Assert.assertEquals(expected.getTileId(x, y), result.getTileId(x, y));
+				Assert.assertEquals(expected.isFlippedHorizontally(x, y), result.isFlippedHorizontally(x, y));
+				Assert.assertEquals(expected.isFlippedVertically(x, y), result.isFlippedVertically(x, y));
+				Assert.assertEquals(expected.isFlippedDiagonally(x, y), result.isFlippedDiagonally(x, y));
+			}
+		}
+	}
+
+	private void assertObjectGroupsEqual(TiledObjectGroup expected, TiledObjectGroup result) {
+		Assert.assertEquals(expected.getObjects().size(), result.getObjects().size());
+		for (int i = 0; i < expected.getObjects().size(); i++) {
+			TiledObject expectedObject = expected.getObjects().get(i);
+			TiledObject resultObject = result.getObjects().get(i);
+			Assert.assertEquals(expectedObject.getName(), resultObject.getName());
+			Assert.assertEquals(expectedObject.getType(), resultObject.getType());
+			Assert.assertEquals(expectedObject.getX(), resultObject.getX());
+			Assert.assertEquals(expectedObject.getY(), resultObject.getY());
+			Assert.assertEquals(expectedObject.getWidth(), resultObject.getWidth());
+			Assert.assertEquals(expectedObject.getHeight(), resultObject.getHeight());
+			Assert.assertEquals(expectedObject.getGid(), resultObject.getGid());
+			Assert.assertEquals(expectedObject.isGidFlipHorizontally(), resultObject.isGidFlipHorizontally());
+			Assert.assertEquals(expectedObject.isVisible(), resultObject.isVisible());
+			assertPropertiesEqual(expectedObject.getProperties(), resultObject.getProperties());
+		}
+	}
+
+	private void assertPropertiesEqual(Map<String, String> expected, Map<String, String> result) {
+		if (expected == null || expected.isEmpty()) {
+			Assert.assertEquals(true, result == null || result.isEmpty());
+			return;
+		}
+		Assert.assertEquals(expected, result);
+	}
+
+	private FileHandle getFile(String filename) {
+		return new FileHandle(Thread.currentThread().getContextClassLoader().getResource(filename).getFile());
+	}
+}
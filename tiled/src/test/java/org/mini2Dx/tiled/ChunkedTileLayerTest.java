@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link ChunkedTileLayer} and {@link TileChunkCache}
+ */
+public class ChunkedTileLayerTest {
+	private static final int CHUNK_SIZE = 8;
+	private static final int CHUNK_MEMORY = CHUNK_SIZE * CHUNK_SIZE * 4;
+
+	private TileChunkCache cache;
+	private ChunkedTileLayer layer;
+
+	@Before
+	public void setUp() {
+		cache = new TileChunkCache(CHUNK_MEMORY * 2);
+		layer = new ChunkedTileLayer(30, 20, CHUNK_SIZE, cache);
+	}
+
+	@Test
+	public void testDimensions() {
+		Assert.assertEquals(30, layer.getWidth());
+		Assert.assertEquals(20, layer.getHeight());
+		Assert.assertEquals(4, layer.getChunksWide());
+		Assert.assertEquals(3, layer.getChunksHigh());
+	}
+
+	@Test
+	public void testEmptyChunksUseNoMemory() {
+		for (int x = 0; x < layer.getWidth(); x++) {
+			for (int y = 0; y < layer.getHeight(); y++) {
+				Assert.assertEquals(0, layer.getTileId(x, y));
+				Assert.assertEquals(false, layer.isFlippedHorizontally(x, y));
+			}
+		}
+		layer.setTileId(3, 3, 0);
+		Assert.assertEquals(0, cache.getTotalLoadedChunks());
+		Assert.assertEquals(0, cache.getMemoryUsage());
+	}
+
+	@Test
+	public void testSetTileId() {
+		layer.setTileId(29, 19, 57);
+		Assert.assertEquals(57, layer.getTileId(29, 19));
+		Assert.assertEquals(1, cache.getTotalLoadedChunks());
+
+		layer.setTileId(5, 6, 12, true, false, true);
+		Assert.assertEquals(12, layer.getTileId(5, 6));
+		Assert.assertEquals(true, layer.isFlippedHorizontally(5, 6));
+		Assert.assertEquals(false, layer.isFlippedVertically(5, 6));
+		Assert.assertEquals(true, layer.isFlippedDiagonally(5, 6));
+
+		layer.setTileId(5, 6, 13);
+		Assert.assertEquals(13, layer.getTileId(5, 6));
+		Assert.assertEquals(true, layer.isFlippedHorizontally(5, 6));
+
+		layer.setFlippedHorizontally(5, 6, false);
+		layer.setFlippedVertically(5, 6, true);
+		Assert.assertEquals(13, layer.getTileId(5, 6));
+		Assert.assertEquals(false, layer.isFlippedHorizontally(5, 6));
+		Assert.assertEquals(true, layer.isFlippedVertically(5, 6));
+	}
+
+	@Test
+	public void testEvictionKeepsChanges() {
+		for (int x = 0; x < layer.getWidth(); x++) {
+			for (int y = 0; y < layer.getHeight(); y++) {
+				layer.setTileId(x, y, (y * layer.getWidth()) + x + 1, x % 2 == 0, y % 2 == 0, false);
+				Assert.assertEquals(true, cache.getMemoryUsage() <= cache.getMaxMemory());
+			}
+		}
+		Assert.assertEquals(2, cache.getTotalLoadedChunks());
+
+		cache.evictAll();
+		Assert.assertEquals(0, cache.getTotalLoadedChunks());
+		Assert.assertEquals(0, cache.getMemoryUsage());
+
+		for (int y = 0; y < layer.getHeight(); y++) {
+			for (int x = 0; x < layer.getWidth(); x++) {
+				Assert.assertEquals((y * layer.getWidth()) + x + 1, layer.getTileId(x, y));
+				Assert.assertEquals(x % 2 == 0, layer.isFlippedHorizontally(x, y));
+				Assert.assertEquals(y % 2 == 0, layer.isFlippedVertically(x, y));
+				Assert.assertEquals(false, layer.isFlippedDiagonally(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testLeastRecentlyUsedChunkEvicted() {
+		layer.setTileId(0, 0, 1);
+		layer.setTileId(CHUNK_SIZE, 0, 2);
+		layer.getTileId(0, 0);
+		layer.setTileId(CHUNK_SIZE * 2, 0, 3);
+		Assert.assertEquals(2, cache.getTotalLoadedChunks());
+
+		// Chunk (1, 0) was least recently used so reloading it evicts (0, 0)
+		Assert.assertEquals(2, layer.getTileId(CHUNK_SIZE, 0));
+		Assert.assertEquals(3, layer.getTileId(CHUNK_SIZE * 2, 0));
+		Assert.assertEquals(1, layer.getTileId(0, 0));
+		Assert.assertEquals(2 * CHUNK_MEMORY, cache.getMemoryUsage());
+	}
+
+	@Test
+	public void testSharedCache() {
+		ChunkedTileLayer otherLayer = new ChunkedTileLayer(30, 20, CHUNK_SIZE, cache);
+		layer.setTileId(1, 1, 5);
+		otherLayer.setTileId(1, 1, 6);
+		otherLayer.setTileId(20, 10, 7);
+		Assert.assertEquals(2, cache.getTotalLoadedChunks());
+		Assert.assertEquals(5, layer.getTileId(1, 1));
+		Assert.assertEquals(6, otherLayer.getTileId(1, 1));
+		Assert.assertEquals(7, otherLayer.getTileId(20, 10));
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void testOutOfBounds() {
+		layer.getTileId(30, 0);
+	}
+
+	@Test
+	public void testGetRawTileIdsAcrossChunks() {
+		for (int x = 0; x < layer.getWidth(); x += 2) {
+			layer.setTileId(x, 9, x + 1, true, false, false);
+		}
+		int[] row = new int[layer.getWidth() - 3];
+		layer.getRawTileIds(3, 9, row.length, row, 0);
+		for (int i = 0; i < row.length; i++) {
+			Assert.assertEquals(layer.getRawTileId(i + 3, 9), row[i]);
+		}
+		layer.getRawTileIds(0, 0, row.length, row, 0);
+		for (int i = 0; i < row.length; i++) {
+			Assert.assertEquals(0, row[i]);
+		}
+	}
+}
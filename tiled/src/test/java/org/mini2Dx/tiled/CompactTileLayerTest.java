@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.IOException;
+
+import org.junit.Test;
+import org.mini2Dx.tiled.exception.TiledException;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link CompactTileLayer}
+ */
+public class CompactTileLayerTest extends TileLayerTest {
+
+	@Override
+	protected TileLayer createTileLayer(int width, int height) {
+		return new CompactTileLayer(width, height);
+	}
+
+	@Test
+	public void testMaxTileId() {
+		CompactTileLayer layer = new CompactTileLayer(2, 2);
+		layer.setTileId(1, 1, CompactTileLayer.MAX_TILE_ID, true, true, true);
+		Assert.assertEquals(CompactTileLayer.MAX_TILE_ID, layer.getTileId(1, 1));
+		Assert.assertEquals(true, layer.isFlippedHorizontally(1, 1));
+		Assert.assertEquals(true, layer.isFlippedVertically(1, 1));
+		Assert.assertEquals(true, layer.isFlippedDiagonally(1, 1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTileIdTooLarge() {
+		new CompactTileLayer(2, 2).setTileId(0, 0, CompactTileLayer.MAX_TILE_ID + 1);
+	}
+
+	@Test
+	public void testParserCreatesCompactTileLayers() throws IOException, TiledException {
+		FileHandle file = new FileHandle(
+				Thread.currentThread().getContextClassLoader().getResource("orthogonal.tmx").getFile());
+		TiledMap expected = new TiledMap(file, false, false);
+
+		TiledParser parser = new TiledParser();
+		parser.setCompactTileLayers(true);
+		TiledMap tiledMap = new TiledMap(parser, file, false, false);
+
+		Assert.assertEquals(expected.getLayers().size(), tiledMap.getLayers().size());
+		for (Layer layer : tiledMap.getLayers()) {
+			if (!(layer instanceof TileLayer)) {
+				continue;
+			}
+			Assert.assertEquals(CompactTileLayer.class, layer.getClass());
+			TileLayer compactLayer = (TileLayer) layer;
+			TileLayer expectedLayer = expected.getTileLayer(compactLayer.getName());
+			for (int x = 0; x < compactLayer.getWidth(); x++) {
+				for (int y = 0; y < compactLayer.getHeight(); y++) {
+					Assert.assertEquals(expectedLayer.getRawTileId(x, y), compactLayer.getRawTileId(x, y));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link DirtyTileRegions}
+ */
+public class DirtyTileRegionsTest {
+	private final DirtyTileRegions regions = new DirtyTileRegions(3);
+
+	@Test
+	public void testSeparateRegions() {
+		regions.add(0, 0, 1, 1);
+		regions.add(10, 10, 2, 3);
+		Assert.assertEquals(2, regions.size());
+		Assert.assertEquals(10, regions.getX(1));
+		Assert.assertEquals(10, regions.getY(1));
+		Assert.assertEquals(2, regions.getWidth(1));
+		Assert.assertEquals(3, regions.getHeight(1));
+	}
+
+	@Test
+	public void testAdjacentRegionsCoalesce() {
+		regions.add(5, 5, 1, 1);
+		regions.add(6, 5, 1, 1);
+		regions.add(5, 6, 2, 1);
+		regions.add(5, 5, 1, 1);
+		Assert.assertEquals(1, regions.size());
+		Assert.assertEquals(5, regions.getX(0));
+		Assert.assertEquals(5, regions.getY(0));
+		Assert.assertEquals(2, regions.getWidth(0));
+		Assert.assertEquals(2, regions.getHeight(0));
+	}
+
+	@Test
+	public void testBridgingRegionCoalescesAll() {
+		regions.add(0, 0, 2, 2);
+		regions.add(4, 0, 2, 2);
+		Assert.assertEquals(2, regions.size());
+		regions.add(2, 0, 2, 1);
+		Assert.assertEquals(1, regions.size());
+		Assert.assertEquals(0, regions.getX(0));
+		Assert.assertEquals(6, regions.getWidth(0));
+		Assert.assertEquals(2, regions.getHeight(0));
+	}
+
+	@Test
+	public void testMaxRegions() {
+		regions.add(0, 0, 1, 1);
+		regions.add(10, 0, 1, 1);
+		regions.add(20, 0, 1, 1);
+		Assert.assertEquals(3, regions.size());
+		regions.add(30, 5, 1, 1);
+		Assert.assertEquals(1, regions.size());
+		Assert.assertEquals(0, regions.getX(0));
+		Assert.assertEquals(0, regions.getY(0));
+		Assert.assertEquals(31, regions.getWidth(0));
+		Assert.assertEquals(6, regions.getHeight(0));
+
+		regions.clear();
+		Assert.assertEquals(true, regions.isEmpty());
+	}
+}
@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import org.mini2Dx.tiled.exception.TiledException;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Base64Coder;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link StreamingTiledParser}
+ */
+public class StreamingTiledParserTest {
+	private static final int GENERATED_WIDTH = 75;
+	private static final int GENERATED_HEIGHT = 50;
+
+	@Test
+	public void testOrthogonal() throws TiledException {
+		assertMapsEqual("orthogonal.tmx");
+	}
+
+	@Test
+	public void testOrthogonalTsx() throws TiledException {
+		assertMapsEqual("orthogonal_tsx.tmx");
+	}
+
+	@Test
+	public void testIsometric() throws TiledException {
+		assertMapsEqual("isometric.tmx");
+	}
+
+	@Test
+	public void testHexagonalCsv() throws TiledException {
+		assertMapsEqual("hexagonal_x.tmx");
+		assertMapsEqual("hexagonal_y.tmx");
+	}
+
+	@Test
+	public void testProperties() throws TiledException {
+		TiledMap tiledMap = new TiledMap(new StreamingTiledParser(), getFile("orthogonal.tmx"), false, false);
+		Assert.assertEquals("SUCCESS", tiledMap.getProperty("testMapProperty"));
+		Assert.assertEquals("SUCCESS", tiledMap.getTileLayer("Collisions").getProperty("testLayerProperty"));
+		Assert.assertEquals("SUCCESS", tiledMap.getTilesets().get(0).getProperty("testTilesetProperty"));
+		Assert.assertEquals("SUCCESS", tiledMap.getTilesets().get(0).getTile(0, 0).getProperty("testTileProperty"));
+		Assert.assertEquals(3, tiledMap.getObjectGroup("Objects").getObjects().size());
+		Assert.assertEquals(true, tiledMap.getTileLayer("Ground") instanceof ChunkedTileLayer);
+	}
+
+	@Test
+	public void testGeneratedEncodings() throws IOException, TiledException {
+		int[] tileIds = generateTileIds();
+		String[] encodings = new String[] { "csv", "base64", "base64", "base64" };
+		String[] compressions = new String[] { null, null, "gzip", "zlib" };
+		for (int i = 0; i < encodings.length; i++) {
+			File file = File.createTempFile("streaming", ".tmx");
+			try {
+				FileHandle fileHandle = new FileHandle(file);
+				fileHandle.writeString(generateTmx(tileIds, encodings[i], compressions[i]), false, "UTF-8");
+
+				TiledMap expected = new TiledMap(new TiledParser(), fileHandle, false, false);
+				TiledMap result = new TiledMap(new StreamingTiledParser(new TileChunkCache(8 * 1024), 16),
+						fileHandle, false, false);
+				assertLayersEqual(expected.getTileLayer(0), result.getTileLayer(0), !encodings[i].equals("csv"));
+				Assert.assertEquals("SUCCESS", result.getProperty("<&\"'>"));
+			} finally {
+				file.delete();
+			}
+		}
+	}
+
+	@Test
+	public void testMemoryCap() throws IOException, TiledException {
+		int[] tileIds = generateTileIds();
+		File file = File.createTempFile("streaming", ".tmx");
+		try {
+			FileHandle fileHandle = new FileHandle(file);
+			fileHandle.writeString(generateTmx(tileIds, "base64", "zlib"), false, "UTF-8");
+
+			TileChunkCache cache = new TileChunkCache(2 * 16 * 16 * 4);
+			TiledMap tiledMap = new TiledMap(new StreamingTiledParser(cache, 16), fileHandle, false, false);
+			Assert.assertEquals(0, cache.getTotalLoadedChunks());
+
+			TileLayer layer = tiledMap.getTileLayer(0);
+			for (int y = 0; y < GENERATED_HEIGHT; y++) {
+				for (int x = 0; x < GENERATED_WIDTH; x++) {
+					Assert.assertEquals(tileIds[(y * GENERATED_WIDTH) + x] & ~TiledParser.MASK_CLEAR,
+							layer.getTileId(x, y));
+					Assert.assertEquals(true, cache.getMemoryUsage() <= cache.getMaxMemory());
+				}
+			}
+			Assert.assertEquals(2, cache.getTotalLoadedChunks());
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test(timeout = 10000L)
+	public void testTruncatedTileData() throws IOException {
+		String tmx = generateTmx(generateTileIds(), "csv", null);
+		File file = File.createTempFile("streaming", ".tmx");
+		try {
+			FileHandle fileHandle = new FileHandle(file);
+			fileHandle.writeString(tmx.substring(0, tmx.indexOf("</data>")), false, "UTF-8");
+			try {
+				new StreamingTiledParser().parseTmx(fileHandle);
+				Assert.fail("Expected IOException for truncated <data> element");
+			} catch (IOException e) {
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private void assertMapsEqual(String filename) throws TiledException {
+		TiledMap expected = new TiledMap(new TiledParser(), getFile(filename), false, false);
+		TiledMap result = new TiledMap(new StreamingTiledParser(new TileChunkCache(1024), 4), getFile(filename),
+				false, false);
+
+		Assert.assertEquals(expected.getOrientation(), result.getOrientation());
+		Assert.assertEquals(expected.getWidth(), result.getWidth());
+		Assert.assertEquals(expected.getHeight(), result.getHeight());
+		Assert.assertEquals(expected.getTilesets().size(), result.getTilesets().size());
+		Assert.assertEquals(expected.getTotalObjectGroups(), result.getTotalObjectGroups());
+		Assert.assertEquals(expected.getLayers().size(), result.getLayers().size());
+		for (int i = 0; i < expected.getLayers().size(); i++) {
+			Layer expectedLayer = expected.getLayers().get(i);
+			Layer resultLayer = result.getLayers().get(i);
+			Assert.assertEquals(expectedLayer.getName(), resultLayer.getName());
+			Assert.assertEquals(expectedLayer.getIndex(), resultLayer.getIndex());
+			if (expectedLayer instanceof TileLayer) {
+				assertLayersEqual((TileLayer) expectedLayer, (TileLayer) resultLayer, true);
+			}
+		}
+		for (int x = 0; x < expected.getWidth(); x++) {
+			for (int y = 0; y < expected.getHeight(); y++) {
+				for (int layer = 0; layer < expected.getLayers().size(); layer++) {
+					Tile expectedTile = expected.getTile(x, y, layer);
+					Tile resultTile = result.getTile(x, y, layer);
+					if (expectedTile == null) {
+						Assert.assertNull(resultTile);
+					} else {
+						Assert.assertEquals(expectedTile.getTileId(), resultTile.getTileId());
+					}
+				}
+			}
+		}
+	}
+
+	private void assertLayersEqual(TileLayer expected, TileLayer result, boolean compareFlips) {
+		Assert.assertEquals(expected.getWidth(), result.getWidth());
+		Assert.assertEquals(expected.getHeight(), result.getHeight());
+		for (int x = 0; x < expected.getWidth(); x++) {
+			for (int y = 0; y < expected.getHeight(); y++) {
+				Assert.assertEquals(expected.getTileId(x, y), result.getTileId(x, y));
+				if (!compareFlips) {
+					continue;
+				}
+				Assert.assertEquals(expected.isFlippedHorizontally(x, y), result.isFlippedHorizontally(x, y));
+				Assert.assertEquals(expected.isFlippedVertically(x, y), result.isFlippedVertically(x, y));
+				Assert.assertEquals(expected.isFlippedDiagonally(x, y), result.isFlippedDiagonally(x, y));
+			}
+		}
+	}
+
+	private int[] generateTileIds() {
+		Random random = new Random(1234);
+		int[] result = new int[GENERATED_WIDTH * GENERATED_HEIGHT];
+		for (int i = 0; i < result.length; i++) {
+			// Leave large areas empty so that some chunks are never stored
+			if ((i % GENERATED_WIDTH) > GENERATED_WIDTH / 2 && (i / GENERATED_WIDTH) > GENERATED_HEIGHT / 2) {
+				continue;
+			}
+			result[i] = random.nextInt(256) | (random.nextInt(8) << 29);
+		}
+		return result;
+	}
+
+	private String generateTmx(int[] tileIds, String encoding, String compression) throws IOException {
+		StringBuilder result = new StringBuilder();
+		result.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		result.append("<!-- Generated by StreamingTiledParserTest -->\n");
+		result.append("<map version=\"1.0\" orientation=\"orthogonal\" renderorder=\"right-down\" width=\""
+				+ GENERATED_WIDTH + "\" height=\"" + GENERATED_HEIGHT + "\" tilewidth=\"32\" tileheight=\"32\">\n");
+		result.append(" <properties>\n");
+		result.append("  <property name=\"&lt;&amp;&quot;&apos;&gt;\"><![CDATA[SUCCESS]]></property>\n");
+		result.append(" </properties>\n");
+		result.append(" <tileset firstgid=\"1\" name=\"tileset1\" tilewidth=\"32\" tileheight=\"32\">\n");
+		result.append("  <image source=\"orthogonal_tileset.png\" width=\"512\" height=\"512\"/>\n");
+		result.append(" </tileset>\n");
+		result.append(" <layer name=\"Generated\" width=\"" + GENERATED_WIDTH + "\" height=\"" + GENERATED_HEIGHT
+				+ "\">\n");
+		result.append("  <data encoding=\"" + encoding + "\"");
+		if (compression != null) {
+			result.append(" compression=\"" + compression + "\"");
+		}
+		result.append(">\n");
+		if (encoding.equals("csv")) {
+			for (int i = 0; i < tileIds.length; i++) {
+				// CSV data does not carry flip flags
+				result.append(tileIds[i] & ~TiledParser.MASK_CLEAR);
+				if (i < tileIds.length - 1) {
+					result.append(',');
+				}
+				if (i % GENERATED_WIDTH == GENERATED_WIDTH - 1) {
+					result.append('\n');
+				}
+			}
+		} else {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			OutputStream outputStream = bytes;
+			if ("gzip".equals(compression)) {
+				outputStream = new GZIPOutputStream(bytes);
+			} else if ("zlib".equals(compression)) {
+				outputStream = new DeflaterOutputStream(bytes);
+			}
+			for (int i = 0; i < tileIds.length; i++) {
+				outputStream.write(tileIds[i]);
+				outputStream.write(tileIds[i] >> 8);
+				outputStream.write(tileIds[i] >> 16);
+				outputStream.write(tileIds[i] >> 24);
+			}
+			outputStream.close();
+			result.append("   ");
+			result.append(Base64Coder.encode(bytes.toByteArray()));
+			result.append('\n');
+		}
+		result.append("  </data>\n");
+		result.append(" </layer>\n");
+		result.append("</map>\n");
+		return result.toString();
+	}
+
+	private FileHandle getFile(String filename) {
+		return new FileHandle(Thread.currentThread().getContextClassLoader().getResource(filename).getFile());
+	}
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.nio.IntBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link TileLayer}
+ */
+public class TileLayerTest {
+	private TileLayer layer;
+
+	@Before
+	public void setUp() {
+		layer = createTileLayer(12, 7);
+	}
+
+	protected TileLayer createTileLayer(int width, int height) {
+		return new TileLayer(width, height);
+	}
+
+	@Test
+	public void testSetTileId() {
+		layer.setTileId(11, 6, 57);
+		Assert.assertEquals(57, layer.getTileId(11, 6));
+		Assert.assertEquals(57, layer.getRawTileId(11, 6));
+		Assert.assertEquals(0, layer.getTileId(10, 6));
+		Assert.assertEquals(0, layer.getTileId(0, 0));
+	}
+
+	@Test
+	public void testFlipFlags() {
+		layer.setTileId(5, 6, 12, true, false, true);
+		Assert.assertEquals(12, layer.getTileId(5, 6));
+		Assert.assertEquals(true, layer.isFlippedHorizontally(5, 6));
+		Assert.assertEquals(false, layer.isFlippedVertically(5, 6));
+		Assert.assertEquals(true, layer.isFlippedDiagonally(5, 6));
+		Assert.assertEquals(TiledParser.FLAG_FLIP_HORIZONTALLY | TiledParser.FLAG_FLIP_DIAGONALLY | 12,
+				layer.getRawTileId(5, 6));
+
+		layer.setTileId(5, 6, 13);
+		Assert.assertEquals(13, layer.getTileId(5, 6));
+		Assert.assertEquals(true, layer.isFlippedHorizontally(5, 6));
+
+		layer.setFlippedHorizontally(5, 6, false);
+		layer.setFlippedVertically(5, 6, true);
+		Assert.assertEquals(13, layer.getTileId(5, 6));
+		Assert.assertEquals(false, layer.isFlippedHorizontally(5, 6));
+		Assert.assertEquals(true, layer.isFlippedVertically(5, 6));
+		Assert.assertEquals(true, layer.isFlippedDiagonally(5, 6));
+		Assert.assertEquals(false, layer.isFlippedVertically(4, 6));
+	}
+
+	@Test
+	public void testGetRawTileIdsRow() {
+		for (int x = 0; x < layer.getWidth(); x++) {
+			layer.setTileId(x, 3, x + 1, x % 2 == 0, false, false);
+		}
+		int[] row = new int[6];
+		layer.getRawTileIds(4, 3, 5, row, 1);
+		Assert.assertEquals(0, row[0]);
+		for (int i = 1; i < row.length; i++) {
+			int x = i + 3;
+			Assert.assertEquals(x + 1, TileLayer.decodeTileId(row[i]));
+			Assert.assertEquals(x % 2 == 0, TileLayer.decodeFlipHorizontally(row[i]));
+			Assert.assertEquals(false, TileLayer.decodeFlipVertically(row[i]));
+			Assert.assertEquals(false, TileLayer.decodeFlipDiagonally(row[i]));
+		}
+	}
+
+	@Test
+	public void testGetRawTileIdsRegion() {
+		for (int x = 0; x < layer.getWidth(); x++) {
+			for (int y = 0; y < layer.getHeight(); y++) {
+				layer.setTileId(x, y, (y * layer.getWidth()) + x + 1);
+			}
+		}
+		int[] region = new int[3 * 4];
+		layer.getRawTileIds(9, 2, 3, 4, region);
+		for (int y = 0; y < 4; y++) {
+			for (int x = 0; x < 3; x++) {
+				Assert.assertEquals(layer.getTileId(9 + x, 2 + y), region[(y * 3) + x]);
+			}
+		}
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void testGetRawTileIdsOutsideRow() {
+		layer.getRawTileIds(8, 0, 5, new int[5], 0);
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void testGetTileIdOutsideRow() {
+		layer.getTileId(12, 0);
+	}
+
+	@Test
+	public void testSetRawTileIds() {
+		int[] rawTileIds = new int[layer.getWidth() * layer.getHeight()];
+		for (int i = 0; i < rawTileIds.length; i++) {
+			rawTileIds[i] = TileLayer.encodeRawTileId(i + 1, i % 3 == 0, i % 5 == 0, i % 7 == 0);
+		}
+		layer.setRawTileIds(IntBuffer.wrap(rawTileIds));
+		for (int y = 0; y < layer.getHeight(); y++) {
+			for (int x = 0; x < layer.getWidth(); x++) {
+				int i = (y * layer.getWidth()) + x;
+				Assert.assertEquals(rawTileIds[i], layer.getRawTileId(x, y));
+				Assert.assertEquals(i + 1, layer.getTileId(x, y));
+				Assert.assertEquals(i % 3 == 0, layer.isFlippedHorizontally(x, y));
+				Assert.assertEquals(i % 5 == 0, layer.isFlippedVertically(x, y));
+				Assert.assertEquals(i % 7 == 0, layer.isFlippedDiagonally(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testListenerNotifiedOfChangedTiles() {
+		final int[] lastChange = new int[5];
+		TileLayerListener listener = new TileLayerListener() {
+			@Override
+			public void onTilesChanged(TileLayer changedLayer, int x, int y, int width, int height) {
+				Assert.assertEquals(layer, changedLayer);
+				lastChange[0]++;
+				lastChange[1] = x;
+				lastChange[2] = y;
+				lastChange[3] = width;
+				lastChange[4] = height;
+			}
+		};
+		layer.addListener(listener);
+
+		layer.setTileId(4, 5, 7);
+		Assert.assertEquals(true, layer.hasChanges());
+		Assert.assertEquals(0, lastChange[0]);
+		layer.flushChanges();
+		Assert.assertEquals(false, layer.hasChanges());
+		Assert.assertEquals(1, lastChange[0]);
+		Assert.assertEquals(4, lastChange[1]);
+		Assert.assertEquals(5, lastChange[2]);
+		Assert.assertEquals(1, lastChange[3]);
+		Assert.assertEquals(1, lastChange[4]);
+
+		layer.setFlippedVertically(2, 1, true);
+		layer.setTileId(3, 1, 9);
+		layer.setTileId(3, 2, 9);
+		layer.flushChanges();
+		Assert.assertEquals(2, lastChange[0]);
+		Assert.assertEquals(2, lastChange[1]);
+		Assert.assertEquals(1, lastChange[2]);
+		Assert.assertEquals(2, lastChange[3]);
+		Assert.assertEquals(2, lastChange[4]);
+
+		layer.setRawTileIds(IntBuffer.wrap(new int[layer.getWidth() * layer.getHeight()]));
+		layer.flushChanges();
+		Assert.assertEquals(3, lastChange[0]);
+		Assert.assertEquals(0, lastChange[1]);
+		Assert.assertEquals(0, lastChange[2]);
+		Assert.assertEquals(layer.getWidth(), lastChange[3]);
+		Assert.assertEquals(layer.getHeight(), lastChange[4]);
+
+		layer.flushChanges();
+		Assert.assertEquals(3, lastChange[0]);
+
+		layer.removeListener(listener);
+		layer.setTileId(4, 5, 8);
+		layer.flushChanges();
+		Assert.assertEquals(3, lastChange[0]);
+	}
+}
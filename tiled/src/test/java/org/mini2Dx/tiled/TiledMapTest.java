@@ -16,6 +16,7 @@ import junit.framework.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.mini2Dx.tiled.exception.TiledException;
+import org.mini2Dx.tiled.tileset.ImageTilesetSource;
 
 import com.badlogic.gdx.files.FileHandle;
 
@@ -159,4 +160,36 @@ public class TiledMapTest {
 		TileLayer tileLayer = tiledMap.getTileLayer("Higher");
 		Assert.assertEquals(4, tileLayer.getIndex());
 	}
+
+	@Test
+	public void testGetTileById() {
+		Tileset tileset = tiledMap.getTilesets().get(0);
+		Assert.assertNull(tiledMap.getTile(0));
+		Assert.assertEquals(tileset.getTile(0, 0), tiledMap.getTile(1));
+		Assert.assertEquals(tileset.getTile(15, 15), tiledMap.getTile(256));
+		Assert.assertNull(tiledMap.getTile(257));
+		Assert.assertEquals("SUCCESS", tiledMap.getTile(1).getProperty("testTileProperty"));
+	}
+
+	@Test
+	public void testGetTileByIdWithMultipleTilesets() {
+		TiledMap map = new TiledMap();
+		Tileset tileset1 = new Tileset(1, new ImageTilesetSource(64, 64, 32, 32, 0, 0));
+		Tileset tileset2 = new Tileset(5, new ImageTilesetSource(64, 64, 32, 32, 0, 0));
+		Tileset tileset3 = new Tileset(100000, new ImageTilesetSource(64, 64, 32, 32, 0, 0));
+		map.onTilesetParsed(tileset1);
+		map.onTilesetParsed(tileset2);
+
+		Assert.assertEquals(tileset1.getTile(4), map.getTile(4));
+		Assert.assertEquals(tileset2.getTile(5), map.getTile(5));
+		Assert.assertEquals(tileset2.getTile(8), map.getTile(8));
+		Assert.assertNull(map.getTile(9));
+
+		map.getTilesets().add(tileset3);
+		Assert.assertNull(map.getTile(99999));
+		Assert.assertEquals(tileset3.getTile(100000), map.getTile(100000));
+		Assert.assertEquals(tileset3.getTile(100003), map.getTile(100003));
+		Assert.assertNull(map.getTile(100004));
+		Assert.assertNull(map.getTile(Integer.MAX_VALUE));
+	}
 }
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.collisions.RegionQuadTree;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TiledMap;
+import org.mini2Dx.tiled.exception.TiledException;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link DynamicTiledCollisionMapper}
+ */
+public class DynamicTiledCollisionMapperTest {
+	private TiledMap tiledMap;
+	private TileLayer layer;
+	private RegionQuadTree<CollisionBox> quadTree;
+	private DynamicTiledCollisionMapper<CollisionBox> dynamicMapper;
+
+	@Before
+	public void setUp() throws TiledException {
+		FileHandle file = new FileHandle(
+				Thread.currentThread().getContextClassLoader().getResource("orthogonal.tmx").getFile());
+		tiledMap = new TiledMap(file, false, false);
+		int collisionLayerIndex = tiledMap.getLayerIndex("Collisions");
+		layer = tiledMap.getTileLayer(collisionLayerIndex);
+
+		quadTree = new RegionQuadTree<CollisionBox>(8, 0f, 0f, tiledMap.getPixelWidth(), tiledMap.getPixelHeight());
+		dynamicMapper = new DynamicTiledCollisionMapper<CollisionBox>(
+				new TiledCollisionMapper<CollisionBox>(new TiledCollisionBoxFactory()), tiledMap, collisionLayerIndex,
+				4, quadTree);
+	}
+
+	@Test
+	public void testInitialCollisions() {
+		Assert.assertEquals(3, dynamicMapper.getSectorsWide());
+		Assert.assertEquals(2, dynamicMapper.getSectorsHigh());
+
+		List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+		dynamicMapper.getCollisions(collisions);
+		Assert.assertEquals(3, collisions.size());
+		Assert.assertEquals(3, quadTree.getElementsWithinArea(quadTree).size());
+		Assert.assertEquals(1, dynamicMapper.getCollisions(1, 0).size());
+		Assert.assertEquals(1, dynamicMapper.getCollisions(1, 1).size());
+	}
+
+	@Test
+	public void testTileChangeRemapsSector() {
+		int existingTileId = layer.getTileId(1, 5);
+		layer.setTileId(3, 5, existingTileId);
+		layer.setTileId(3, 6, existingTileId);
+		Assert.assertEquals(tiledMap.getTileWidth() * 2f, getCollisionAt(1, 5).getWidth());
+
+		layer.flushChanges();
+		List<CollisionBox> collisions = quadTree.getElementsWithinArea(quadTree);
+		Assert.assertEquals(3, collisions.size());
+		CollisionBox collision = getCollisionAt(1, 5);
+		Assert.assertEquals(tiledMap.getTileWidth() * 3f, collision.getWidth());
+		Assert.assertEquals(tiledMap.getTileHeight() * 2f, collision.getHeight());
+		Assert.assertEquals(1, dynamicMapper.getCollisions(0, 1).size());
+	}
+
+	@Test
+	public void testTileRemovalRemapsSector() {
+		layer.setTileId(6, 3, 0);
+		layer.flushChanges();
+
+		Assert.assertEquals(2, quadTree.getElementsWithinArea(quadTree).size());
+		Assert.assertEquals(0, quadTree.getElementsWithinArea(new Rectangle(6 * tiledMap.getTileWidth(),
+				3 * tiledMap.getTileHeight(), tiledMap.getTileWidth() - 1f, tiledMap.getTileHeight() - 1f)).size());
+	}
+
+	@Test
+	public void testDispose() {
+		dynamicMapper.dispose();
+		layer.setTileId(6, 3, 0);
+		layer.flushChanges();
+		Assert.assertEquals(3, quadTree.getElementsWithinArea(quadTree).size());
+	}
+
+	private CollisionBox getCollisionAt(int tileX, int tileY) {
+		List<CollisionBox> collisions = quadTree.getElementsWithinArea(new Rectangle(tileX * tiledMap.getTileWidth(),
+				tileY * tiledMap.getTileHeight(), tiledMap.getTileWidth() - 1f, tiledMap.getTileHeight() - 1f));
+		Assert.assertEquals(1, collisions.size());
+		return collisions.get(0);
+	}
+}
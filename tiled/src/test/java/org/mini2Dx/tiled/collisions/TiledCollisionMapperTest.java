@@ -13,6 +13,8 @@ package org.mini2Dx.tiled.collisions;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -21,12 +23,16 @@ import org.mini2Dx.core.collisions.PointQuadTree;
 import org.mini2Dx.core.collisions.QuadTree;
 import org.mini2Dx.core.collisions.RegionQuadTree;
 import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.exception.MdxException;
 import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.tiled.Tile;
+import org.mini2Dx.tiled.TileLayer;
 import org.mini2Dx.tiled.TiledMap;
 import org.mini2Dx.tiled.collisions.merger.AllCollisionMerger;
 import org.mini2Dx.tiled.exception.TiledException;
 
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
 
 import junit.framework.Assert;
 
@@ -214,6 +220,229 @@ public class TiledCollisionMapperTest {
 		Assert.assertEquals(7, collisions.size());
 	}
 
+	@Test
+	public void testMapAndMergeCollisionsByRegion() {
+		int collisionLayerIndex = tiledMap.getLayerIndex("Collisions");
+		List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+		collisionBoxMapper.mapAndMergeCollisionsByRegion(collisions, tiledMap, collisionLayerIndex, 0, 3,
+				tiledMap.getWidth(), 3);
+		Assert.assertEquals(3, collisions.size());
+
+		float tileWidth = tiledMap.getTileWidth();
+		float tileHeight = tiledMap.getTileHeight();
+		for (CollisionBox collision : collisions) {
+			if (collision.getX() == tileWidth) {
+				Assert.assertEquals(tileHeight * 5f, collision.getY());
+				Assert.assertEquals(tileWidth * 2f, collision.getWidth());
+				Assert.assertEquals(tileHeight, collision.getHeight());
+			} else if (collision.getX() == tileWidth * 5f) {
+				Assert.assertEquals(tileHeight * 4f, collision.getY());
+				Assert.assertEquals(tileWidth * 2f, collision.getWidth());
+				Assert.assertEquals(tileHeight, collision.getHeight());
+			} else {
+				Assert.assertEquals(tileWidth * 6f, collision.getX());
+				Assert.assertEquals(tileHeight * 3f, collision.getY());
+				Assert.assertEquals(tileWidth, collision.getWidth());
+				Assert.assertEquals(tileHeight, collision.getHeight());
+			}
+		}
+
+		collisions.clear();
+		collisionBoxMapper.mapAndMergeCollisionsByRegion(collisions, tiledMap, collisionLayerIndex, -5, -5, 8, 8);
+		Assert.assertEquals(0, collisions.size());
+	}
+
+	@Test
+	public void testParallelMapAndMergeCollisionsByLayer() {
+		int collisionLayerIndex = tiledMap.getLayerIndex("Collisions");
+		ForkJoinPool pool = new ForkJoinPool(2);
+		List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+		collisionBoxMapper.mapAndMergeCollisionsByLayer(collisions, tiledMap, collisionLayerIndex, Integer.MAX_VALUE,
+				Integer.MAX_VALUE, 2, pool);
+		pool.shutdown();
+		Assert.assertEquals(3, collisions.size());
+
+		RegionQuadTree<CollisionBox> quadTree = new RegionQuadTree<CollisionBox>(8, 0f, 0f,
+				tiledMap.getWidth() * tiledMap.getTileWidth(), tiledMap.getHeight() * tiledMap.getTileHeight());
+		quadTree.addAll(collisions);
+		CollisionBox collision = getCollisionAt(1, 5, quadTree, tiledMap);
+		Assert.assertEquals(tiledMap.getTileWidth() * 2f, collision.getWidth());
+		Assert.assertEquals(tiledMap.getTileHeight() * 2f, collision.getHeight());
+	}
+
+	@Test
+	public void testParallelMapAndMergeCollisionsByGeneratedLayer() throws TiledException {
+		FileHandle file = new FileHandle(
+				Thread.currentThread().getContextClassLoader().getResource("orthogonal.tmx").getFile());
+		TiledMap generatedMap = new TiledMap(file, false, false);
+		int tileId = generatedMap.getTileLayer("Collisions").getTileId(1, 5);
+
+		Random random = new Random(1234L);
+		TileLayer layer = new TileLayer(150, 170);
+		int totalTiles = 0;
+		for (int x = 0; x < layer.getWidth(); x++) {
+			for (int y = 0; y < layer.getHeight(); y++) {
+				if (random.nextInt(5) > 0) {
+					layer.setTileId(x, y, tileId);
+					totalTiles++;
+				}
+			}
+		}
+		generatedMap.onTileLayerParsed(layer);
+
+		List<CollisionBox> serial = new ArrayList<CollisionBox>();
+		collisionBoxMapper.mapAndMergeCollisionsByLayer(serial, generatedMap, layer.getIndex());
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		List<CollisionBox> parallel = new ArrayList<CollisionBox>();
+		collisionBoxMapper.mapAndMergeCollisionsByLayer(parallel, generatedMap, layer.getIndex(), Integer.MAX_VALUE,
+				Integer.MAX_VALUE, 16, pool);
+		pool.shutdown();
+
+		Assert.assertTrue(parallel.size() <= serial.size() * 2);
+		float tileArea = generatedMap.getTileWidth() * generatedMap.getTileHeight();
+		float parallelTiles = 0f;
+		for (CollisionBox collision : parallel) {
+			parallelTiles += (collision.getWidth() * collision.getHeight()) / tileArea;
+		}
+		Assert.assertEquals((float) totalTiles, parallelTiles);
+	}
+
+	@Test
+	public void testMapAndMergeCollisionsByLayerWithRowRuns() {
+		collisionBoxMapper.setMergeStrategy(TiledCollisionMergeStrategy.ROW_RUNS);
+		RegionQuadTree<CollisionBox> quadTree = new RegionQuadTree<CollisionBox>(8, 0f, 0f,
+				tiledMap.getWidth() * tiledMap.getTileWidth(), tiledMap.getHeight() * tiledMap.getTileHeight());
+
+		collisionBoxMapper.mapAndMergeCollisionsByLayer(quadTree, tiledMap, tiledMap.getLayerIndex("Collisions"));
+
+		List<CollisionBox> collisions = quadTree.getElementsWithinArea(quadTree);
+		Assert.assertEquals(3, collisions.size());
+
+		CollisionBox collision = getCollisionAt(1, 5, quadTree, tiledMap);
+		Assert.assertEquals(tiledMap.getTileWidth() * 2f, collision.getWidth());
+		Assert.assertEquals(tiledMap.getTileHeight() * 2f, collision.getHeight());
+
+		collision = getCollisionAt(6, 3, quadTree, tiledMap);
+		Assert.assertEquals(tiledMap.getTileWidth() * 1f, collision.getWidth());
+		Assert.assertEquals(tiledMap.getTileHeight() * 2f, collision.getHeight());
+
+		collision = getCollisionAt(5, 4, quadTree, tiledMap);
+		Assert.assertEquals(tiledMap.getTileWidth() * 1f, collision.getWidth());
+		Assert.assertEquals(tiledMap.getTileHeight() * 1f, collision.getHeight());
+	}
+
+	@Test
+	public void testMergeStrategiesWithNonTransitiveMerger() throws TiledException {
+		FileHandle file = new FileHandle(
+				Thread.currentThread().getContextClassLoader().getResource("orthogonal.tmx").getFile());
+		TiledMap generatedMap = new TiledMap(file, false, false);
+		final int firstGid = generatedMap.getTilesets().get(0).getFirstGid();
+
+		// Tiles are mergeable when their ids differ by at most 1, so 1 and 3
+		// can each merge with 2 but not with each other
+		TiledCollisionMerger merger = new TiledCollisionMerger() {
+			@Override
+			public boolean isMergable(Tile tile1, Tile tile2) {
+				return Math.abs(tile1.getTileId() - tile2.getTileId()) <= 1;
+			}
+		};
+		TileLayer layer = new TileLayer(7, 2);
+		// A rectangle of 1s above a row that only partly merges with it
+		layer.setTileId(0, 0, firstGid + 1);
+		layer.setTileId(1, 0, firstGid + 1);
+		layer.setTileId(0, 1, firstGid + 2);
+		layer.setTileId(1, 1, firstGid + 3);
+		// A row starting with 2 where the tiles after it are not mergeable
+		// with each other
+		layer.setTileId(4, 0, firstGid + 2);
+		layer.setTileId(4, 1, firstGid + 2);
+		layer.setTileId(5, 1, firstGid + 1);
+		layer.setTileId(6, 1, firstGid + 3);
+		generatedMap.onTileLayerParsed(layer);
+
+		for (TiledCollisionMergeStrategy mergeStrategy : TiledCollisionMergeStrategy.values()) {
+			TiledCollisionMapper<CollisionBox> mapper = new TiledCollisionMapper<CollisionBox>(
+					new TiledCollisionBoxFactory(), merger);
+			mapper.setMergeStrategy(mergeStrategy);
+			List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+			mapper.mapAndMergeCollisionsByLayer(collisions, generatedMap, layer.getIndex());
+
+			int totalTiles = 0;
+			for (CollisionBox collision : collisions) {
+				int tileX = MathUtils.round(collision.getX() / generatedMap.getTileWidth());
+				int tileY = MathUtils.round(collision.getY() / generatedMap.getTileHeight());
+				int tilesWide = MathUtils.round(collision.getWidth() / generatedMap.getTileWidth());
+				int tilesHigh = MathUtils.round(collision.getHeight() / generatedMap.getTileHeight());
+				Tile originTile = generatedMap.getTile(layer.getTileId(tileX, tileY));
+				for (int x = tileX; x < tileX + tilesWide; x++) {
+					for (int y = tileY; y < tileY + tilesHigh; y++) {
+						Assert.assertTrue(merger.isMergable(originTile, generatedMap.getTile(layer.getTileId(x, y))));
+						totalTiles++;
+					}
+				}
+			}
+			Assert.assertEquals(8, totalTiles);
+		}
+	}
+
+	@Test
+	public void testMergeStrategiesByGeneratedLayer() throws TiledException {
+		FileHandle file = new FileHandle(
+				Thread.currentThread().getContextClassLoader().getResource("orthogonal.tmx").getFile());
+		TiledMap generatedMap = new TiledMap(file, false, false);
+		int tileId = generatedMap.getTileLayer("Collisions").getTileId(1, 5);
+
+		Random random = new Random(4321L);
+		TileLayer layer = new TileLayer(120, 90);
+		for (int i = 0; i < 200; i++) {
+			int blockX = random.nextInt(layer.getWidth());
+			int blockY = random.nextInt(layer.getHeight());
+			int blockWidth = Math.min(1 + random.nextInt(12), layer.getWidth() - blockX);
+			int blockHeight = Math.min(1 + random.nextInt(12), layer.getHeight() - blockY);
+			for (int x = blockX; x < blockX + blockWidth; x++) {
+				for (int y = blockY; y < blockY + blockHeight; y++) {
+					layer.setTileId(x, y, tileId);
+				}
+			}
+		}
+		generatedMap.onTileLayerParsed(layer);
+
+		for (TiledCollisionMergeStrategy mergeStrategy : TiledCollisionMergeStrategy.values()) {
+			collisionBoxMapper.setMergeStrategy(mergeStrategy);
+			List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+			collisionBoxMapper.mapAndMergeCollisionsByLayer(collisions, generatedMap, layer.getIndex(), 8, 6);
+
+			boolean[][] covered = new boolean[layer.getWidth()][layer.getHeight()];
+			for (CollisionBox collision : collisions) {
+				int tileX = MathUtils.round(collision.getX() / generatedMap.getTileWidth());
+				int tileY = MathUtils.round(collision.getY() / generatedMap.getTileHeight());
+				int tilesWide = MathUtils.round(collision.getWidth() / generatedMap.getTileWidth());
+				int tilesHigh = MathUtils.round(collision.getHeight() / generatedMap.getTileHeight());
+				Assert.assertTrue(tilesWide <= 8);
+				Assert.assertTrue(tilesHigh <= 6);
+
+				for (int x = tileX; x < tileX + tilesWide; x++) {
+					for (int y = tileY; y < tileY + tilesHigh; y++) {
+						Assert.assertFalse(covered[x][y]);
+						Assert.assertTrue(layer.getTileId(x, y) > 0);
+						covered[x][y] = true;
+					}
+				}
+			}
+			for (int x = 0; x < layer.getWidth(); x++) {
+				for (int y = 0; y < layer.getHeight(); y++) {
+					Assert.assertEquals(layer.getTileId(x, y) > 0, covered[x][y]);
+				}
+			}
+		}
+	}
+
+	@Test(expected = MdxException.class)
+	public void testSetNullMergeStrategy() {
+		collisionBoxMapper.setMergeStrategy(null);
+	}
+
 	private void assertCollisionAt(int tileX, int tileY, QuadTree<?> quadTree, TiledMap tiledMap) {
 		List<?> collisions = quadTree.getElementsWithinArea(new Rectangle(tileX * tiledMap.getTileWidth(),
 				tileY * tiledMap.getTileHeight(), tiledMap.getTileWidth() - 1f, tiledMap.getTileHeight() - 1f));
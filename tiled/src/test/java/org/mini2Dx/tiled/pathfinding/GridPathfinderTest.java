@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mini2Dx.tiled.Orientation;
+import org.mini2Dx.tiled.StaggerAxis;
+import org.mini2Dx.tiled.StaggerIndex;
+import org.mini2Dx.tiled.TiledMap;
+import org.mini2Dx.tiled.collisions.TiledCollisionMapper;
+import org.mini2Dx.tiled.exception.TiledException;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link GridPathfinder}
+ */
+public class GridPathfinderTest {
+	private static final float DELTA = 0.001f;
+
+	private static TiledMap tiledMap;
+
+	private final GridPath path = new GridPath();
+	private PathfindingContext context;
+
+	@BeforeClass
+	public static void loadMap() throws TiledException {
+		FileHandle file = new FileHandle(
+				Thread.currentThread().getContextClassLoader().getResource("orthogonal.tmx").getFile());
+		tiledMap = new TiledMap(file, false, false);
+	}
+
+	@Before
+	public void setUp() {
+		context = new PathfindingContext(16);
+	}
+
+	@Test
+	public void testFindPathOnTiledMap() {
+		byte[][] collisions = TiledCollisionMapper.mapCollisionsByLayer(tiledMap, "Collisions");
+		PathfindingGrid grid = new PathfindingGrid(tiledMap, collisions, true);
+		GridPathfinder pathfinder = new GridPathfinder(grid);
+		Assert.assertTrue(pathfinder.isUsingJumpPointSearch());
+
+		Assert.assertTrue(pathfinder.findPath(context, 0, 5, 3, 5, path));
+		assertValidPath(grid, path, 0, 5, 3, 5);
+		// Walks around the 2x2 collision at 1,5 without cutting its corners
+		Assert.assertEquals(6, path.getLength());
+		Assert.assertEquals(5f, path.getCost(), DELTA);
+
+		pathfinder.setJumpPointSearch(false);
+		Assert.assertTrue(pathfinder.findPath(context, 0, 5, 3, 5, path));
+		assertValidPath(grid, path, 0, 5, 3, 5);
+		Assert.assertEquals(5f, path.getCost(), DELTA);
+	}
+
+	@Test
+	public void testFindPathToSelf() {
+		PathfindingGrid grid = new PathfindingGrid(new byte[4][4]);
+		Assert.assertTrue(new GridPathfinder(grid).findPath(context, 2, 2, 2, 2, path));
+		Assert.assertEquals(1, path.getLength());
+		Assert.assertEquals(0f, path.getCost());
+	}
+
+	@Test
+	public void testNoPath() {
+		byte[][] collisions = new byte[6][6];
+		for (int i = 0; i < 6; i++) {
+			collisions[3][i] = 1;
+		}
+		PathfindingGrid grid = new PathfindingGrid(collisions);
+		GridPathfinder pathfinder = new GridPathfinder(grid);
+
+		Assert.assertFalse(pathfinder.findPath(context, 0, 0, 5, 5, path));
+		Assert.assertTrue(path.isEmpty());
+		Assert.assertEquals(0, context.getExpandedNodes());
+		Assert.assertFalse(pathfinder.findPath(context, 0, 0, 3, 3, path));
+
+		pathfinder.setJumpPointSearch(false);
+		Assert.assertFalse(pathfinder.findPath(context, 0, 0, 5, 5, path));
+	}
+
+	@Test
+	public void testJumpPointSearchMatchesAStar() {
+		PathfindingGrid grid = createRandomGrid(new Random(42L), 64, 48, Orientation.ORTHOGONAL, true);
+		GridPathfinder jumpPointSearch = new GridPathfinder(grid);
+		GridPathfinder aStar = new GridPathfinder(grid);
+		aStar.setJumpPointSearch(false);
+
+		Random random = new Random(7L);
+		GridPath aStarPath = new GridPath();
+		int totalPaths = 0;
+		for (int i = 0; i < 500; i++) {
+			int startX = random.nextInt(grid.getWidth());
+			int startY = random.nextInt(grid.getHeight());
+			int goalX = random.nextInt(grid.getWidth());
+			int goalY = random.nextInt(grid.getHeight());
+
+			boolean found = aStar.findPath(context, startX, startY, goalX, goalY, aStarPath);
+			int aStarExpanded = context.getExpandedNodes();
+			Assert.assertEquals(found, jumpPointSearch.findPath(context, startX, startY, goalX, goalY, path));
+			if (!found) {
+				continue;
+			}
+			totalPaths++;
+			assertValidPath(grid, path, startX, startY, goalX, goalY);
+			assertValidPath(grid, aStarPath, startX, startY, goalX, goalY);
+			Assert.assertEquals(aStarPath.getCost(), path.getCost(), DELTA);
+			Assert.assertTrue(context.getExpandedNodes() <= aStarExpanded);
+		}
+		Assert.assertTrue(totalPaths > 100);
+	}
+
+	@Test
+	public void testFindPathWithCosts() {
+		PathfindingGrid grid = new PathfindingGrid(new byte[5][3], Orientation.ORTHOGONAL, null, null, false);
+		for (int x = 1; x < 4; x++) {
+			grid.setCost(x, 1, 5f);
+		}
+		GridPathfinder pathfinder = new GridPathfinder(grid);
+		Assert.assertFalse(pathfinder.isUsingJumpPointSearch());
+
+		Assert.assertTrue(pathfinder.findPath(context, 0, 1, 4, 1, path));
+		assertValidPath(grid, path, 0, 1, 4, 1);
+		// Walks around the expensive tiles instead of through them
+		Assert.assertEquals(6f, path.getCost(), DELTA);
+		Assert.assertEquals(7, path.getLength());
+	}
+
+	@Test
+	public void testFindPathOnHexagonalGrid() {
+		for (StaggerAxis staggerAxis : StaggerAxis.values()) {
+			for (StaggerIndex staggerIndex : StaggerIndex.values()) {
+				PathfindingGrid grid = new PathfindingGrid(new byte[20][20], Orientation.HEXAGONAL, staggerAxis,
+						staggerIndex, true);
+				GridPathfinder pathfinder = new GridPathfinder(grid);
+				Assert.assertFalse(pathfinder.isUsingJumpPointSearch());
+
+				Assert.assertTrue(pathfinder.findPath(context, 1, 2, 17, 15, path));
+				assertValidPath(grid, path, 1, 2, 17, 15);
+				Assert.assertEquals(grid.getHeuristic(grid.getIndex(1, 2), grid.getIndex(17, 15)), path.getCost(),
+						DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testFindPathOnStaggeredIsometricGrid() {
+		PathfindingGrid grid = createRandomGrid(new Random(3L), 30, 30, Orientation.ISOMETRIC_STAGGERED, true);
+		GridPathfinder pathfinder = new GridPathfinder(grid);
+		Random random = new Random(11L);
+		for (int i = 0; i < 50; i++) {
+			int startX = random.nextInt(grid.getWidth());
+			int startY = random.nextInt(grid.getHeight());
+			int goalX = random.nextInt(grid.getWidth());
+			int goalY = random.nextInt(grid.getHeight());
+			if (pathfinder.findPath(context, startX, startY, goalX, goalY, path)) {
+				assertValidPath(grid, path, startX, startY, goalX, goalY);
+			}
+		}
+	}
+
+	@Test
+	public void testConcurrentSearches() throws Exception {
+		final PathfindingGrid grid = createRandomGrid(new Random(99L), 128, 128, Orientation.ORTHOGONAL, true);
+		final GridPathfinder pathfinder = new GridPathfinder(grid);
+		final int[] queries = new int[400];
+		Random random = new Random(5L);
+		for (int i = 0; i < queries.length; i++) {
+			queries[i] = random.nextInt(grid.getWidth() * grid.getHeight());
+		}
+
+		final float[] expectedCosts = new float[queries.length / 2];
+		for (int i = 0; i < expectedCosts.length; i++) {
+			expectedCosts[i] = findPathCost(pathfinder, context, grid, queries[i * 2], queries[(i * 2) + 1]);
+		}
+
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		List<Future<float[]>> futures = new ArrayList<Future<float[]>>();
+		for (int i = 0; i < 4; i++) {
+			futures.add(executorService.submit(new Callable<float[]>() {
+				@Override
+				public float[] call() throws Exception {
+					PathfindingContext threadContext = new PathfindingContext(grid);
+					float[] result = new float[expectedCosts.length];
+					for (int j = 0; j < result.length; j++) {
+						result[j] = findPathCost(pathfinder, threadContext, grid, queries[j * 2], queries[(j * 2) + 1]);
+					}
+					return result;
+				}
+			}));
+		}
+		for (Future<float[]> future : futures) {
+			float[] result = future.get();
+			for (int i = 0; i < expectedCosts.length; i++) {
+				Assert.assertEquals(expectedCosts[i], result[i]);
+			}
+		}
+		executorService.shutdown();
+	}
+
+	private static float findPathCost(GridPathfinder pathfinder, PathfindingContext context, PathfindingGrid grid,
+			int from, int to) {
+		GridPath result = new GridPath();
+		if (!pathfinder.findPath(context, from % grid.getWidth(), from / grid.getWidth(), to % grid.getWidth(),
+				to / grid.getWidth(), result)) {
+			return -1f;
+		}
+		return result.getCost();
+	}
+
+	private PathfindingGrid createRandomGrid(Random random, int width, int height, Orientation orientation,
+			boolean allowDiagonals) {
+		byte[][] collisions = new byte[width][height];
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				if (random.nextInt(4) == 0) {
+					collisions[x][y] = 1;
+				}
+			}
+		}
+		return new PathfindingGrid(collisions, orientation, StaggerAxis.Y, StaggerIndex.ODD, allowDiagonals);
+	}
+
+	private void assertValidPath(PathfindingGrid grid, GridPath path, int startX, int startY, int goalX,
+			int goalY) {
+		Assert.assertEquals(startX, path.getX(0));
+		Assert.assertEquals(startY, path.getY(0));
+		Assert.assertEquals(goalX, path.getX(path.getLength() - 1));
+		Assert.assertEquals(goalY, path.getY(path.getLength() - 1));
+
+		int[] neighbours = new int[8];
+		float[] moveCosts = new float[8];
+		float cost = 0f;
+		for (int i = 1; i < path.getLength(); i++) {
+			int from = grid.getIndex(path.getX(i - 1), path.getY(i - 1));
+			int to = grid.getIndex(path.getX(i), path.getY(i));
+			int total = grid.getNeighbours(from, neighbours, moveCosts);
+			boolean adjacent = false;
+			for (int j = 0; j < total; j++) {
+				if (neighbours[j] == to) {
+					adjacent = true;
+					cost += moveCosts[j];
+					break;
+				}
+			}
+			Assert.assertTrue(adjacent);
+		}
+		Assert.assertEquals(cost, path.getCost(), DELTA);
+	}
+}
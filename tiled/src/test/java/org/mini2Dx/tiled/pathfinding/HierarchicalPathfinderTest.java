@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.tiled.Orientation;
+import org.mini2Dx.tiled.StaggerAxis;
+import org.mini2Dx.tiled.StaggerIndex;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TiledMap;
+import org.mini2Dx.tiled.exception.TiledException;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link HierarchicalPathfinder}
+ */
+public class HierarchicalPathfinderTest {
+	private static final float DELTA = 0.001f;
+
+	private final GridPath path = new GridPath();
+	private final GridPath shortestPath = new GridPath();
+	private PathfindingContext context;
+
+	@Before
+	public void setUp() {
+		context = new PathfindingContext(16);
+	}
+
+	@Test
+	public void testFindPathMatchesGridPathfinder() {
+		PathfindingGrid grid = createRandomGrid(new Random(21L), 128, 96, Orientation.ORTHOGONAL);
+		HierarchicalPathfinder hierarchicalPathfinder = new HierarchicalPathfinder(grid, 16);
+		GridPathfinder gridPathfinder = new GridPathfinder(grid);
+		Assert.assertEquals(8, hierarchicalPathfinder.getClustersWide());
+		Assert.assertEquals(6, hierarchicalPathfinder.getClustersHigh());
+		Assert.assertTrue(hierarchicalPathfinder.getTotalTransitions() > 0);
+
+		assertMatchesGridPathfinder(grid, hierarchicalPathfinder, gridPathfinder, new Random(8L), 300);
+	}
+
+	@Test
+	public void testFindPathOnHexagonalGrid() {
+		PathfindingGrid grid = new PathfindingGrid(createRandomCollisions(new Random(5L), 60, 50),
+				Orientation.HEXAGONAL, StaggerAxis.X, StaggerIndex.EVEN, true);
+		assertMatchesGridPathfinder(grid, new HierarchicalPathfinder(grid, 8), new GridPathfinder(grid),
+				new Random(9L), 100);
+	}
+
+	@Test
+	public void testFindPathWithinCluster() {
+		PathfindingGrid grid = new PathfindingGrid(new byte[40][40]);
+		HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(grid, 10);
+
+		Assert.assertTrue(pathfinder.findPath(context, 2, 2, 7, 4, path));
+		assertValidPath(grid, path, 2, 2, 7, 4);
+		Assert.assertEquals(3f + (2f * PathfindingGrid.DIAGONAL_COST), path.getCost(), DELTA);
+
+		Assert.assertTrue(pathfinder.findPath(context, 5, 5, 5, 5, path));
+		Assert.assertEquals(1, path.getLength());
+	}
+
+	@Test
+	public void testUpdateTiles() {
+		PathfindingGrid grid = new PathfindingGrid(new byte[30][20]);
+		HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(grid, 8);
+		Assert.assertTrue(pathfinder.findPath(context, 0, 10, 29, 10, path));
+		assertValidPath(grid, path, 0, 10, 29, 10);
+		// Long entrances only have transitions at each end
+		Assert.assertTrue(path.getCost() >= 29f);
+		Assert.assertTrue(path.getCost() < 29f * 1.1f);
+
+		// Wall off the right side of the grid
+		for (int y = 0; y < grid.getHeight(); y++) {
+			grid.setBlocked(20, y, true);
+		}
+		pathfinder.updateTiles(20, 0, 1, grid.getHeight());
+		Assert.assertFalse(pathfinder.findPath(context, 0, 10, 29, 10, path));
+		Assert.assertTrue(path.isEmpty());
+
+		grid.setBlocked(20, 3, false);
+		pathfinder.updateTiles(20, 3, 1, 1);
+		Assert.assertTrue(pathfinder.findPath(context, 0, 10, 29, 10, path));
+		assertValidPath(grid, path, 0, 10, 29, 10);
+		Assert.assertTrue(path.getCost() > 29f);
+
+		Assert.assertEquals(new HierarchicalPathfinder(grid, 8).getTotalTransitions(),
+				pathfinder.getTotalTransitions());
+	}
+
+	@Test
+	public void testTiledMapLayerChanges() throws TiledException {
+		FileHandle file = new FileHandle(
+				Thread.currentThread().getContextClassLoader().getResource("orthogonal.tmx").getFile());
+		TiledMap tiledMap = new TiledMap(file, false, false);
+		int layerIndex = tiledMap.getLayerIndex("Collisions");
+		TileLayer layer = tiledMap.getTileLayer(layerIndex);
+
+		HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(tiledMap, layerIndex, true, 4);
+		Assert.assertTrue(pathfinder.findPath(context, 0, 5, 3, 5, path));
+		assertValidPath(pathfinder.getGrid(), path, 0, 5, 3, 5);
+		Assert.assertEquals(5f, path.getCost(), DELTA);
+
+		layer.setTileId(1, 4, layer.getTileId(1, 5));
+		layer.flushChanges();
+		Assert.assertFalse(pathfinder.getGrid().isWalkable(1, 4));
+		Assert.assertTrue(pathfinder.findPath(context, 0, 5, 3, 5, path));
+		assertValidPath(pathfinder.getGrid(), path, 0, 5, 3, 5);
+		Assert.assertTrue(path.getCost() > 6f);
+
+		pathfinder.dispose();
+		layer.setTileId(1, 4, 0);
+		layer.flushChanges();
+		Assert.assertFalse(pathfinder.getGrid().isWalkable(1, 4));
+	}
+
+	private void assertMatchesGridPathfinder(PathfindingGrid grid, HierarchicalPathfinder hierarchicalPathfinder,
+			GridPathfinder gridPathfinder, Random random, int totalQueries) {
+		int totalPaths = 0;
+		float totalCost = 0f, totalShortestCost = 0f;
+		for (int i = 0; i < totalQueries; i++) {
+			int startX = random.nextInt(grid.getWidth());
+			int startY = random.nextInt(grid.getHeight());
+			int goalX = random.nextInt(grid.getWidth());
+			int goalY = random.nextInt(grid.getHeight());
+
+			boolean found = gridPathfinder.findPath(context, startX, startY, goalX, goalY, shortestPath);
+			Assert.assertEquals(found, hierarchicalPathfinder.findPath(context, startX, startY, goalX, goalY, path));
+			if (!found) {
+				continue;
+			}
+			totalPaths++;
+			assertValidPath(grid, path, startX, startY, goalX, goalY);
+			Assert.assertTrue(path.getCost() >= shortestPath.getCost() - DELTA);
+			totalCost += path.getCost();
+			totalShortestCost += shortestPath.getCost();
+		}
+		Assert.assertTrue(totalPaths > totalQueries / 4);
+		Assert.assertTrue(totalCost <= totalShortestCost * 1.1f);
+	}
+
+	private byte[][] createRandomCollisions(Random random, int width, int height) {
+		byte[][] collisions = new byte[width][height];
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				if (random.nextInt(4) == 0) {
+					collisions[x][y] = 1;
+				}
+			}
+		}
+		return collisions;
+	}
+
+	private PathfindingGrid createRandomGrid(Random random, int width, int height, Orientation orientation) {
+		return new PathfindingGrid(createRandomCollisions(random, width, height), orientation, StaggerAxis.Y,
+				StaggerIndex.ODD, true);
+	}
+
+	private void assertValidPath(PathfindingGrid grid, GridPath path, int startX, int startY, int goalX,
+			int goalY) {
+		Assert.assertEquals(startX, path.getX(0));
+		Assert.assertEquals(startY, path.getY(0));
+		Assert.assertEquals(goalX, path.getX(path.getLength() - 1));
+		Assert.assertEquals(goalY, path.getY(path.getLength() - 1));
+
+		int[] neighbours = new int[8];
+		float[] moveCosts = new float[8];
+		float cost = 0f;
+		for (int i = 1; i < path.getLength(); i++) {
+			int from = grid.getIndex(path.getX(i - 1), path.getY(i - 1));
+			int to = grid.getIndex(path.getX(i), path.getY(i));
+			int total = grid.getNeighbours(from, neighbours, moveCosts);
+			boolean adjacent = false;
+			for (int j = 0; j < total; j++) {
+				if (neighbours[j] == to) {
+					adjacent = true;
+					cost += moveCosts[j];
+					break;
+				}
+			}
+			Assert.assertTrue(adjacent);
+		}
+		Assert.assertEquals(cost, path.getCost(), DELTA * path.getLength());
+	}
+}
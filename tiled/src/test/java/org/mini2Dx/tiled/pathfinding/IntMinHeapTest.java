@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link IntMinHeap}
+ */
+public class IntMinHeapTest {
+	private final IntMinHeap heap = new IntMinHeap(1000);
+
+	@Test
+	public void testPollOrder() {
+		Random random = new Random(100L);
+		for (int i = 0; i < 1000; i++) {
+			heap.add(i, random.nextFloat() * 100f);
+		}
+		Assert.assertEquals(1000, heap.size());
+
+		float previous = -1f;
+		while (!heap.isEmpty()) {
+			float priority = heap.peekPriority();
+			Assert.assertTrue(priority >= previous);
+			int value = heap.poll();
+			Assert.assertFalse(heap.contains(value));
+			previous = priority;
+		}
+	}
+
+	@Test
+	public void testUpdatePriority() {
+		heap.add(1, 10f);
+		heap.add(2, 20f);
+		heap.add(3, 30f);
+		Assert.assertEquals(1, heap.peek());
+
+		heap.add(3, 5f);
+		Assert.assertEquals(3, heap.size());
+		Assert.assertEquals(3, heap.peek());
+
+		heap.add(3, 25f);
+		Assert.assertEquals(1, heap.poll());
+		Assert.assertEquals(2, heap.poll());
+		Assert.assertEquals(3, heap.poll());
+		Assert.assertTrue(heap.isEmpty());
+	}
+
+	@Test
+	public void testClear() {
+		heap.add(5, 1f);
+		heap.add(7, 2f);
+		Assert.assertTrue(heap.contains(5));
+
+		heap.clear();
+		Assert.assertTrue(heap.isEmpty());
+		Assert.assertFalse(heap.contains(5));
+		Assert.assertFalse(heap.contains(7));
+
+		heap.add(7, 3f);
+		Assert.assertEquals(1, heap.size());
+		Assert.assertEquals(7, heap.poll());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testPollEmpty() {
+		heap.poll();
+	}
+}
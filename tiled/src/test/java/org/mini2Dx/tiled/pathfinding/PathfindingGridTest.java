@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2017 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.mini2Dx.tiled.Orientation;
+import org.mini2Dx.tiled.StaggerAxis;
+import org.mini2Dx.tiled.StaggerIndex;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link PathfindingGrid}
+ */
+public class PathfindingGridTest {
+	private final int[] neighbours = new int[8];
+	private final float[] moveCosts = new float[8];
+
+	@Test
+	public void testOrthogonalNeighbours() {
+		byte[][] collisions = new byte[5][5];
+		collisions[1][2] = 1;
+		PathfindingGrid grid = new PathfindingGrid(collisions);
+
+		Assert.assertFalse(grid.isWalkable(1, 2));
+		Assert.assertFalse(grid.isWalkable(-1, 0));
+		Assert.assertEquals(8, grid.getNeighbours(grid.getIndex(3, 3), neighbours, moveCosts));
+
+		// Moving diagonally past the blocked tile would cut its corner
+		Set<Integer> result = getNeighbours(grid, 2, 2);
+		Assert.assertEquals(5, result.size());
+		Assert.assertFalse(result.contains(grid.getIndex(1, 2)));
+		Assert.assertFalse(result.contains(grid.getIndex(1, 1)));
+		Assert.assertFalse(result.contains(grid.getIndex(1, 3)));
+		Assert.assertTrue(result.contains(grid.getIndex(3, 3)));
+
+		Assert.assertEquals(3, grid.getNeighbours(grid.getIndex(0, 0), neighbours, moveCosts));
+	}
+
+	@Test
+	public void testOrthogonalNeighboursWithoutDiagonals() {
+		PathfindingGrid grid = new PathfindingGrid(new byte[5][5], Orientation.ORTHOGONAL, null, null, false);
+		Assert.assertEquals(4, grid.getNeighbours(grid.getIndex(2, 2), neighbours, moveCosts));
+		Assert.assertEquals(4f, grid.getHeuristic(grid.getIndex(0, 0), grid.getIndex(2, 2)));
+	}
+
+	@Test
+	public void testHexagonalNeighbours() {
+		PathfindingGrid grid = new PathfindingGrid(new byte[6][6], Orientation.HEXAGONAL, StaggerAxis.Y,
+				StaggerIndex.ODD, true);
+		// Odd rows are shifted right
+		Assert.assertEquals(new HashSet<Integer>(Arrays.asList(grid.getIndex(1, 3), grid.getIndex(3, 3),
+				grid.getIndex(2, 2), grid.getIndex(3, 2), grid.getIndex(2, 4), grid.getIndex(3, 4))),
+				getNeighbours(grid, 2, 3));
+		Assert.assertEquals(new HashSet<Integer>(Arrays.asList(grid.getIndex(1, 2), grid.getIndex(3, 2),
+				grid.getIndex(1, 1), grid.getIndex(2, 1), grid.getIndex(1, 3), grid.getIndex(2, 3))),
+				getNeighbours(grid, 2, 2));
+
+		grid = new PathfindingGrid(new byte[6][6], Orientation.HEXAGONAL, StaggerAxis.X, StaggerIndex.EVEN, true);
+		// Even columns are shifted down
+		Assert.assertEquals(new HashSet<Integer>(Arrays.asList(grid.getIndex(2, 1), grid.getIndex(2, 3),
+				grid.getIndex(1, 2), grid.getIndex(1, 3), grid.getIndex(3, 2), grid.getIndex(3, 3))),
+				getNeighbours(grid, 2, 2));
+	}
+
+	@Test
+	public void testStaggeredIsometricNeighbours() {
+		PathfindingGrid grid = new PathfindingGrid(new byte[6][6], Orientation.ISOMETRIC_STAGGERED, StaggerAxis.Y,
+				StaggerIndex.ODD, true);
+		Assert.assertEquals(new HashSet<Integer>(Arrays.asList(grid.getIndex(2, 2), grid.getIndex(3, 2),
+				grid.getIndex(2, 4), grid.getIndex(3, 4))), getNeighbours(grid, 2, 3));
+	}
+
+	@Test
+	public void testHexagonalHeuristicMatchesDistance() {
+		for (StaggerAxis staggerAxis : StaggerAxis.values()) {
+			for (StaggerIndex staggerIndex : StaggerIndex.values()) {
+				PathfindingGrid grid = new PathfindingGrid(new byte[9][9], Orientation.HEXAGONAL, staggerAxis,
+						staggerIndex, true);
+				PathfindingGrid staggeredGrid = new PathfindingGrid(new byte[9][9], Orientation.ISOMETRIC_STAGGERED,
+						staggerAxis, staggerIndex, true);
+				int from = grid.getIndex(4, 4);
+				int[] distances = getDistances(grid, from);
+				int[] staggeredDistances = getDistances(staggeredGrid, from);
+				for (int i = 0; i < distances.length; i++) {
+					Assert.assertEquals((float) distances[i], grid.getHeuristic(from, i));
+					if (staggeredDistances[i] >= 0) {
+						Assert.assertTrue(staggeredGrid.getHeuristic(from, i) <= staggeredDistances[i]);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRegions() {
+		byte[][] collisions = new byte[6][4];
+		for (int y = 0; y < 4; y++) {
+			collisions[2][y] = 1;
+		}
+		PathfindingGrid grid = new PathfindingGrid(collisions);
+		Assert.assertEquals(0, grid.getRegion(grid.getIndex(2, 1)));
+		Assert.assertEquals(grid.getRegion(grid.getIndex(0, 0)), grid.getRegion(grid.getIndex(1, 3)));
+		Assert.assertTrue(grid.getRegion(grid.getIndex(0, 0)) != grid.getRegion(grid.getIndex(5, 3)));
+
+		grid.setBlocked(2, 3, false);
+		Assert.assertEquals(grid.getRegion(grid.getIndex(0, 0)), grid.getRegion(grid.getIndex(5, 3)));
+	}
+
+	@Test
+	public void testCosts() {
+		PathfindingGrid grid = new PathfindingGrid(new byte[3][3]);
+		Assert.assertTrue(grid.isUniformCost());
+		grid.setCost(1, 1, 1f);
+		Assert.assertTrue(grid.isUniformCost());
+
+		grid.setCost(1, 0, 3f);
+		Assert.assertFalse(grid.isUniformCost());
+		Assert.assertEquals(3f, grid.getCost(1, 0));
+
+		int total = grid.getNeighbours(grid.getIndex(0, 0), neighbours, moveCosts);
+		for (int i = 0; i < total; i++) {
+			if (neighbours[i] == grid.getIndex(1, 0)) {
+				Assert.assertEquals(3f, moveCosts[i]);
+			} else if (neighbours[i] == grid.getIndex(1, 1)) {
+				Assert.assertEquals(PathfindingGrid.DIAGONAL_COST, moveCosts[i]);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCostBelowOne() {
+		new PathfindingGrid(new byte[3][3]).setCost(0, 0, 0.5f);
+	}
+
+	private Set<Integer> getNeighbours(PathfindingGrid grid, int x, int y) {
+		Set<Integer> result = new HashSet<Integer>();
+		int total = grid.getNeighbours(grid.getIndex(x, y), neighbours, moveCosts);
+		for (int i = 0; i < total; i++) {
+			result.add(neighbours[i]);
+		}
+		return result;
+	}
+
+	private int[] getDistances(PathfindingGrid grid, int from) {
+		int[] distances = new int[grid.getWidth() * grid.getHeight()];
+		Arrays.fill(distances, -1);
+		int[] queue = new int[distances.length];
+		int head = 0, tail = 0;
+		distances[from] = 0;
+		queue[tail++] = from;
+		while (head < tail) {
+			int node = queue[head++];
+			int total = grid.getNeighbours(node, neighbours, moveCosts);
+			for (int i = 0; i < total; i++) {
+				if (distances[neighbours[i]] < 0) {
+					distances[neighbours[i]] = distances[node] + 1;
+					queue[tail++] = neighbours[i];
+				}
+			}
+		}
+		return distances;
+	}
+}
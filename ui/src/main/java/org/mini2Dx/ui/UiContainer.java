@@ -21,6 +21,7 @@ import org.mini2Dx.core.Mdx;
 import org.mini2Dx.core.controller.ControllerType;
 import org.mini2Dx.core.controller.button.ControllerButton;
 import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.game.RenderStateSource;
 import org.mini2Dx.core.graphics.Graphics;
 import org.mini2Dx.ui.controller.ControllerUiInput;
 import org.mini2Dx.ui.element.Actionable;
@@ -57,7 +58,7 @@ import com.badlogic.gdx.math.MathUtils;
  * {@link #interpolate(float)} and {@link #render(Graphics)} must be called by
  * your {@link GameContainer}
  */
-public class UiContainer extends ParentUiElement implements InputProcessor {
+public class UiContainer extends ParentUiElement implements InputProcessor, RenderStateSource {
 	private static final String LOGGING_TAG = UiContainer.class.getSimpleName();
 	private static final List<UiContainer> uiContainerInstances = new ArrayList<UiContainer>();
 	private static Visibility defaultVisibility = Visibility.HIDDEN;
@@ -197,6 +198,18 @@ public class UiContainer extends ParentUiElement implements InputProcessor {
 		notifyPostInterpolate(alpha);
 	}
 
+	/**
+	 * Publishes the areas of all {@link UiElement}s for interpolation when the
+	 * game updates on a separate thread
+	 */
+	@Override
+	public void publishRenderState() {
+		if (!isThemeApplied()) {
+			return;
+		}
+		renderTree.publishRenderState();
+	}
+
 	/**
 	 * Renders all visible {@link UiElement}s
 	 * 
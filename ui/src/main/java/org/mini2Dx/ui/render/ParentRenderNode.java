@@ -56,6 +56,14 @@ public abstract class ParentRenderNode<T extends ParentUiElement, S extends Pare
 		}
 	}
 
+	@Override
+	public void publishRenderState() {
+		super.publishRenderState();
+		for (RenderLayer layer : layers.values()) {
+			layer.publishRenderState();
+		}
+	}
+
 	@Override
 	protected void renderElement(Graphics g) {
 		boolean overflowClipped = element.isOverflowClipped();
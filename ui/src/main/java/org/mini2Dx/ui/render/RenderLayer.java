@@ -50,6 +50,12 @@ public class RenderLayer implements Comparable<RenderLayer> {
 		}
 	}
 	
+	public void publishRenderState() {
+		for (int i = 0; i < children.size(); i++) {
+			children.get(i).publishRenderState();
+		}
+	}
+	
 	protected void render(Graphics g) {
 		for (int i = 0; i < children.size(); i++) {
 			children.get(i).render(g);
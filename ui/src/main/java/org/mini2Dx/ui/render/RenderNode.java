@@ -16,6 +16,7 @@ import java.util.List;
 
 import org.mini2Dx.core.engine.geom.CollisionBox;
 import org.mini2Dx.core.exception.MdxException;
+import org.mini2Dx.core.game.RenderStateSource;
 import org.mini2Dx.core.geom.Rectangle;
 import org.mini2Dx.core.graphics.Graphics;
 import org.mini2Dx.ui.effect.UiEffect;
@@ -29,7 +30,7 @@ import com.badlogic.gdx.Gdx;
 /**
  * Base class for implementing rendering of {@link UiElement} implementations
  */
-public abstract class RenderNode<T extends UiElement, S extends StyleRule> implements HoverableRenderNode {
+public abstract class RenderNode<T extends UiElement, S extends StyleRule> implements HoverableRenderNode, RenderStateSource {
 	protected final List<UiEffect> effects = new ArrayList<UiEffect>(1);
 	protected final CollisionBox outerArea = new CollisionBox();
 	protected final CollisionBox innerArea = new CollisionBox();
@@ -124,6 +125,20 @@ public abstract class RenderNode<T extends UiElement, S extends StyleRule> imple
 		innerArea.interpolate(null, alpha);
 	}
 
+	/**
+	 * Publishes the outer and inner areas for interpolation when the game
+	 * updates on a separate thread. Note that visibility and effect state are
+	 * not buffered.
+	 */
+	@Override
+	public void publishRenderState() {
+		if (!initialLayoutOccurred) {
+			return;
+		}
+		outerArea.publishRenderState();
+		innerArea.publishRenderState();
+	}
+
 	public void render(Graphics g) {
 		if (!isIncludedInRender()) {
 			if (element.isDebugEnabled()) {